@@ -7,20 +7,22 @@ package me.lokka30.levelledmobs;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.io.InvalidObjectException;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
 import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import me.lokka30.levelledmobs.commands.LevelledMobsCommand;
@@ -33,6 +35,8 @@ import me.lokka30.levelledmobs.listeners.ChunkLoadListener;
 import me.lokka30.levelledmobs.listeners.CombustListener;
 import me.lokka30.levelledmobs.listeners.EntityDamageDebugListener;
 import me.lokka30.levelledmobs.listeners.EntityDamageListener;
+import me.lokka30.levelledmobs.listeners.EntitiesUnloadListener;
+import me.lokka30.levelledmobs.listeners.EntityCleanupListener;
 import me.lokka30.levelledmobs.listeners.EntityDeathListener;
 import me.lokka30.levelledmobs.listeners.EntityNametagListener;
 import me.lokka30.levelledmobs.listeners.EntityRegainHealthListener;
@@ -40,22 +44,33 @@ import me.lokka30.levelledmobs.listeners.EntitySpawnListener;
 import me.lokka30.levelledmobs.listeners.EntityTameListener;
 import me.lokka30.levelledmobs.listeners.EntityTargetListener;
 import me.lokka30.levelledmobs.listeners.EntityTransformListener;
+import me.lokka30.levelledmobs.listeners.NametagTrackingListener;
 import me.lokka30.levelledmobs.listeners.PlayerDeathListener;
 import me.lokka30.levelledmobs.listeners.PlayerInteractEventListener;
 import me.lokka30.levelledmobs.listeners.PlayerJoinListener;
 import me.lokka30.levelledmobs.listeners.PlayerPortalEventListener;
+import me.lokka30.levelledmobs.listeners.PluginStatusListener;
+import me.lokka30.levelledmobs.listeners.SpawnChangeListener;
+import me.lokka30.levelledmobs.listeners.SpawnerCacheListener;
+import me.lokka30.levelledmobs.listeners.paper.EntityAddToWorldListener;
+import me.lokka30.levelledmobs.listeners.paper.EntityRemoveFromWorldListener;
+import me.lokka30.levelledmobs.listeners.paper.PlayerUntrackEntityListener;
 import me.lokka30.levelledmobs.managers.ExternalCompatibilityManager;
 import me.lokka30.levelledmobs.managers.LevelManager;
 import me.lokka30.levelledmobs.managers.PlaceholderApiIntegration;
 import me.lokka30.levelledmobs.misc.ChunkKillInfo;
+import me.lokka30.levelledmobs.misc.ConfigCache;
 import me.lokka30.levelledmobs.misc.DebugType;
 import me.lokka30.levelledmobs.misc.FileLoader;
 import me.lokka30.levelledmobs.misc.FileMigrator;
+import me.lokka30.levelledmobs.misc.SchedulerWrapper;
 import me.lokka30.levelledmobs.misc.VersionInfo;
 import me.lokka30.levelledmobs.nms.ServerVersionInfo;
 import me.lokka30.levelledmobs.rules.MetricsInfo;
+import me.lokka30.levelledmobs.rules.RulesParsingManager;
 import me.lokka30.levelledmobs.util.Utils;
 import me.lokka30.microlib.exceptions.OutdatedServerVersionException;
+import me.lokka30.microlib.maths.QuickTimer;
 import me.lokka30.microlib.other.UpdateChecker;
 import me.lokka30.microlib.other.VersionUtils;
 import org.bstats.bukkit.Metrics;
@@ -64,12 +79,11 @@ import org.bstats.charts.SimplePie;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.command.PluginCommand;
+import org.bukkit.configuration.InvalidConfigurationException;
 import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.entity.EntityType;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.PluginManager;
-import org.bukkit.scheduler.BukkitRunnable;
-import org.bukkit.scheduler.BukkitTask;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -106,6 +120,7 @@ public class Companion {
     public List<String> updateResult;
     private boolean hadRulesLoadError;
     public boolean useAdventure;
+    // the inner maps are handed out and updated outside the locks, from any region on Folia
     final private HashMap<Long, Map<EntityType, ChunkKillInfo>> entityDeathInChunkCounter;
     final private HashMap<Long, Map<UUID, Instant>> chunkKillNoticationTracker;
     final public Map<Player, Location> playerNetherPortals;
@@ -116,7 +131,7 @@ public class Companion {
     final private PluginManager pluginManager = Bukkit.getPluginManager();
     final private MetricsInfo metricsInfo;
     final public ExternalCompatibilityManager externalCompatibilityManager;
-    private BukkitTask hashMapCleanUp;
+    private SchedulerWrapper.TaskHandle hashMapCleanUp;
     final static private Object playerLogonTimesLock = new Object();
     final static private Object playerNetherPortalsLock = new Object();
     final static private Object entityDeathInChunkCounterLock = new Object();
@@ -138,6 +153,10 @@ public class Companion {
 
     // Note: also called by the reload subcommand.
     boolean loadFiles(final boolean isReload) {
+        if (isReload) {
+            return applyLoadedFiles(loadFilesForReload());
+        }
+
         Utils.logger.info("&fFile Loader: &7Loading files...");
 
         final YamlConfiguration rulesFile = FileLoader.loadFile(main, "rules",
@@ -166,42 +185,128 @@ public class Companion {
 
         main.customDropsHandler = new CustomDropsHandler(main);
 
-        if (!isReload) {
-            main.attributesCfg = loadEmbeddedResource("defaultAttributes.yml");
-            main.dropsCfg = loadEmbeddedResource("defaultDrops.yml");
-            main.mobHeadManager.loadTextures(
-                Objects.requireNonNull(loadEmbeddedResource("textures.yml")));
-
-            // remove legacy files if they exist
-            final String[] legacyFile = {"attributes.yml", "drops.yml"};
-            for (final String lFile : legacyFile) {
-                final File delFile = new File(main.getDataFolder(), lFile);
-                try {
-                    if (delFile.exists()) {
-                        //noinspection ResultOfMethodCallIgnored
-                        delFile.delete();
-                    }
-                } catch (final Exception e) {
-                    Utils.logger.warning("Unable to delete file " + lFile + ", " + e.getMessage());
+        main.attributesCfg = loadEmbeddedResource("defaultAttributes.yml");
+        main.dropsCfg = loadEmbeddedResource("defaultDrops.yml");
+        main.mobHeadManager.loadTextures(
+            Objects.requireNonNull(loadEmbeddedResource("textures.yml")));
+
+        // remove legacy files if they exist
+        final String[] legacyFile = {"attributes.yml", "drops.yml"};
+        for (final String lFile : legacyFile) {
+            final File delFile = new File(main.getDataFolder(), lFile);
+            try {
+                if (delFile.exists()) {
+                    //noinspection ResultOfMethodCallIgnored
+                    delFile.delete();
                 }
+            } catch (final Exception e) {
+                Utils.logger.warning("Unable to delete file " + lFile + ", " + e.getMessage());
             }
+        }
 
-            parseDebugsEnabled();
-        } else {
-            // if not reloading then it is called from the server load event to make sure any dependent
-            // plugins are already loaded
-            parseDebugsEnabled();
-            main.customDropsHandler.customDropsParser.loadDrops(
-                FileLoader.loadFile(main, "customdrops", FileLoader.CUSTOMDROPS_FILE_VERSION)
-            );
+        // customdrops.yml is loaded from the server load event to make sure any dependent
+        // plugins are already loaded
+        parseDebugsEnabled();
+        loadSettingsValues();
+
+        return true;
+    }
+
+    /**
+     * Loads and parses the files for a reload without changing anything that is currently in
+     * use so it can be ran off the main thread. Nothing takes effect until
+     * {@link #applyLoadedFiles(LoadedFiles)} is called.
+     */
+    @NotNull LoadedFiles loadFilesForReload() {
+        Utils.logger.info("&fFile Loader: &7Loading files...");
+        final Map<String, Long> loadTimes = new LinkedHashMap<>();
+        final QuickTimer timer = new QuickTimer();
+
+        timer.start();
+        final YamlConfiguration rulesFile = FileLoader.loadFile(main, "rules",
+            FileLoader.RULES_FILE_VERSION);
+        final RulesParsingManager.ParsedRules parsedRules =
+            main.rulesParsingManager.parseRules(rulesFile);
+        loadTimes.put("rules.yml", timer.getTimer());
+
+        final int settingsVersion = getSettingsVersion();
+        if (settingsVersion > 20
+            && settingsVersion < 30) { // anything older than 2.0 will not be migrated
+            FileMigrator.migrateSettingsToRules(main);
+        }
+
+        timer.start();
+        final YamlConfiguration settingsCfg = FileLoader.loadFile(main, "settings",
+            FileLoader.SETTINGS_FILE_VERSION);
+        loadTimes.put("settings.yml", timer.getTimer());
+        if (settingsCfg == null) {
+            return new LoadedFiles(parsedRules, null, null, null, loadTimes);
+        }
+
+        timer.start();
+        final YamlConfiguration messagesCfg = FileLoader.loadFile(main, "messages",
+            FileLoader.MESSAGES_FILE_VERSION);
+        loadTimes.put("messages.yml", timer.getTimer());
+
+        timer.start();
+        final CustomDropsHandler customDropsHandler = new CustomDropsHandler(main, settingsCfg);
+        customDropsHandler.customDropsParser.loadDrops(
+            FileLoader.loadFile(main, "customdrops", FileLoader.CUSTOMDROPS_FILE_VERSION),
+            parsedRules != null ?
+                parsedRules.rulesInEffect() : main.rulesManager.getRules().rulesInEffect()
+        );
+        loadTimes.put("customdrops.yml", timer.getTimer());
+        main.configCache.save();
+
+        return new LoadedFiles(parsedRules, settingsCfg, messagesCfg, customDropsHandler,
+            loadTimes);
+    }
+
+    /**
+     * Makes the files loaded by {@link #loadFilesForReload()} active. Must be called from the
+     * main thread
+     *
+     * @return false if settings.yml couldn't be loaded
+     */
+    boolean applyLoadedFiles(final @NotNull LoadedFiles loadedFiles) {
+        this.hadRulesLoadError = loadedFiles.parsedRules() == null;
+        if (loadedFiles.parsedRules() != null) {
+            main.rulesParsingManager.applyParsedRules(loadedFiles.parsedRules());
         }
+        main.configUtils.playerLevellingEnabled = main.rulesManager.isPlayerLevellingEnabled();
 
+        if (loadedFiles.settingsCfg() == null) {
+            return false;
+        }
+
+        main.settingsCfg = loadedFiles.settingsCfg();
+        main.messagesCfg = loadedFiles.messagesCfg();
+        main.customDropsHandler = loadedFiles.customDropsHandler();
+
+        parseDebugsEnabled();
+        loadSettingsValues();
+
+        return true;
+    }
+
+    private void loadSettingsValues() {
         main.configUtils.load();
         main.playerLevellingMinRelevelTime = main.helperSettings.getIntTimeUnitMS(main.settingsCfg,
             "player-levelling-relevel-min-time", 5000L);
         this.useAdventure = main.helperSettings.getBoolean(main.settingsCfg, "use-adventure", true);
+    }
+
+    /**
+     * Files loaded for a reload that haven't been made active yet
+     *
+     * @param loadTimes milliseconds it took to load each file
+     */
+    record LoadedFiles(@Nullable RulesParsingManager.ParsedRules parsedRules,
+                       @Nullable YamlConfiguration settingsCfg,
+                       @Nullable YamlConfiguration messagesCfg,
+                       @Nullable CustomDropsHandler customDropsHandler,
+                       @NotNull Map<String, Long> loadTimes) {
 
-        return true;
     }
 
     private void parseDebugsEnabled() {
@@ -249,12 +354,20 @@ public class Companion {
             return null;
         }
 
-        try {
-            final InputStreamReader reader = new InputStreamReader(inputStream);
-            result = YamlConfiguration.loadConfiguration(reader);
-            reader.close();
-            inputStream.close();
-        } catch (final IOException e) {
+        try (inputStream) {
+            final byte[] contents = inputStream.readAllBytes();
+            final byte[] contentHash = ConfigCache.hash(contents);
+            result = main.configCache.get(filename, contentHash);
+            if (result != null) {
+                return result;
+            }
+
+            final QuickTimer parseTimer = new QuickTimer();
+            parseTimer.start();
+            result = new YamlConfiguration();
+            result.loadFromString(new String(contents, StandardCharsets.UTF_8));
+            main.configCache.put(filename, contentHash, result, parseTimer.getTimer());
+        } catch (final IOException | InvalidConfigurationException e) {
             Utils.logger.error("Error reading embedded file: " + filename + ", " + e.getMessage());
         }
 
@@ -286,12 +399,18 @@ public class Companion {
         pluginManager.registerEvents(new EntityTransformListener(main), main);
         pluginManager.registerEvents(new EntityNametagListener(main), main);
         pluginManager.registerEvents(new EntityTargetListener(main), main);
-        pluginManager.registerEvents(new PlayerJoinListener(main), main);
+        main.playerJoinListener = new PlayerJoinListener(main);
+        pluginManager.registerEvents(main.playerJoinListener, main);
         pluginManager.registerEvents(new EntityTameListener(main), main);
         pluginManager.registerEvents(new PlayerDeathListener(main), main);
         pluginManager.registerEvents(new CombustListener(main), main);
         pluginManager.registerEvents(main.blockPlaceListener, main);
         pluginManager.registerEvents(new PlayerPortalEventListener(main), main);
+        pluginManager.registerEvents(new PluginStatusListener(), main);
+        pluginManager.registerEvents(new SpawnerCacheListener(main), main);
+        pluginManager.registerEvents(new SpawnChangeListener(), main);
+        registerNametagTrackingListeners();
+        registerEntityCleanupListeners();
         main.chunkLoadListener = new ChunkLoadListener(main);
         main.playerInteractEventListener = new PlayerInteractEventListener(main);
         pluginManager.registerEvents(main.playerInteractEventListener, main);
@@ -307,6 +426,39 @@ public class Companion {
         }
     }
 
+    private void registerNametagTrackingListeners() {
+        pluginManager.registerEvents(new NametagTrackingListener(main), main);
+        if (!VersionUtils.isRunningPaper()) {
+            main.nametagQueueManager.setDedupeEnabled(false);
+            return;
+        }
+
+        pluginManager.registerEvents(new EntityAddToWorldListener(main), main);
+        try {
+            // only newer Paper builds have the entity tracking events
+            Class.forName("io.papermc.paper.event.player.PlayerUntrackEntityEvent");
+            pluginManager.registerEvents(new PlayerUntrackEntityListener(main), main);
+            main.nametagQueueManager.setDedupeEnabled(true);
+        } catch (final ClassNotFoundException ignored) {
+            main.nametagQueueManager.setDedupeEnabled(false);
+        }
+    }
+
+    private void registerEntityCleanupListeners() {
+        main.entityCleanupListener = new EntityCleanupListener(main,
+            !VersionUtils.isOneSeventeen());
+        pluginManager.registerEvents(main.entityCleanupListener, main);
+
+        if (VersionUtils.isOneSeventeen()) {
+            pluginManager.registerEvents(new EntitiesUnloadListener(main.entityCleanupListener),
+                main);
+        }
+        if (VersionUtils.isRunningPaper()) {
+            pluginManager.registerEvents(
+                new EntityRemoveFromWorldListener(main.entityCleanupListener), main);
+        }
+    }
+
     void registerCommands() {
         Utils.logger.info("&fCommands: &7Registering commands...");
 
@@ -348,17 +500,20 @@ public class Companion {
     }
 
     void startCleanupTask() {
-        this.hashMapCleanUp = new BukkitRunnable() {
-            @Override
-            public void run() {
-                synchronized (entityDeathInChunkCounterLock) {
-                    chunkKillLimitCleanup();
-                }
-                synchronized (entityDeathInChunkNotifierLock) {
-                    chunkKillNoticationCleanup();
-                }
+        this.hashMapCleanUp = main.schedulerWrapper.runAsyncTimer(() -> {
+            synchronized (entityDeathInChunkCounterLock) {
+                chunkKillLimitCleanup();
+            }
+            synchronized (entityDeathInChunkNotifierLock) {
+                chunkKillNoticationCleanup();
             }
-        }.runTaskTimerAsynchronously(main, 100, 40);
+        }, 100, 40);
+
+        // Paper's remove from world event keeps the tracking maps clean on Folia
+        if (!main.schedulerWrapper.isFolia()) {
+            main.schedulerWrapper.runGlobalTaskTimer(main.entityCleanupListener::sweep,
+                1200L, 1200L);
+        }
     }
 
     private void chunkKillLimitCleanup() {
@@ -412,7 +567,8 @@ public class Companion {
 
     @NotNull public Map<EntityType, ChunkKillInfo> getorAddPairForSpecifiedChunk(final long chunkKey) {
         synchronized (entityDeathInChunkCounterLock) {
-            return this.entityDeathInChunkCounter.computeIfAbsent(chunkKey, k -> new HashMap<>());
+            return this.entityDeathInChunkCounter.computeIfAbsent(chunkKey,
+                k -> new ConcurrentHashMap<>());
         }
     }
 
@@ -423,7 +579,8 @@ public class Companion {
         synchronized (entityDeathInChunkCounterLock) {
             for (final long chunkKey : chunkKeys) {
                 results.add(
-                    this.entityDeathInChunkCounter.computeIfAbsent(chunkKey, k -> new HashMap<>()));
+                    this.entityDeathInChunkCounter.computeIfAbsent(chunkKey,
+                        k -> new ConcurrentHashMap<>()));
             }
         }
 
@@ -463,7 +620,7 @@ public class Companion {
         synchronized (entityDeathInChunkNotifierLock) {
             for (final long chunkKey : chunkKeys) {
                 final Map<UUID, Instant> entry = this.chunkKillNoticationTracker.computeIfAbsent(
-                    chunkKey, k -> new HashMap<>());
+                    chunkKey, k -> new ConcurrentHashMap<>());
                 entry.put(userId, Instant.now());
             }
         }
@@ -568,14 +725,28 @@ public class Companion {
         if (hashMapCleanUp != null) {
             hashMapCleanUp.cancel();
         }
-        Bukkit.getScheduler().cancelTasks(main);
+        main.schedulerWrapper.cancelAllTasks();
     }
-
     private void buildUniversalGroups() {
         final ServerVersionInfo versionInfo = main.nametagQueueManager.nmsHandler.versionInfo;
 
+        hostileMobsGroup = getHostileMobs(versionInfo.getMajorVersion(),
+            VersionUtils.isOneSeventeen() || VersionUtils.isOneSixteen());
+        passiveMobsGroup = getPassiveMobs(versionInfo.getMajorVersion(),
+            VersionUtils.isOneSeventeen());
+        aquaticMobsGroup = getAquaticMobs(versionInfo.getMajorVersion());
+    }
+
+    /**
+     * The universal group lists are static so they can also be built without a server, such as
+     * by the rules simulator
+     *
+     * @param majorVersion the value of {@link ServerVersionInfo#getMajorVersion()}
+     */
+    public static @NotNull HashSet<EntityType> getHostileMobs(final int majorVersion,
+        final boolean isOneSixteenOrSeventeen) {
         // include interfaces: Monster, Boss
-        hostileMobsGroup = Stream.of(
+        final HashSet<EntityType> hostileMobs = Stream.of(
             EntityType.ENDER_DRAGON,
             EntityType.GHAST,
             EntityType.MAGMA_CUBE,
@@ -584,43 +755,53 @@ public class Companion {
             EntityType.SLIME
         ).collect(Collectors.toCollection(HashSet::new));
 
-        if (VersionUtils.isOneSeventeen() || VersionUtils.isOneSixteen()) {
-            hostileMobsGroup.addAll(Compat1_16.getHostileMobs());
+        if (isOneSixteenOrSeventeen) {
+            hostileMobs.addAll(Compat1_16.getHostileMobs());
+        }
+
+        if (majorVersion >= 1.16) {
+            hostileMobs.addAll(Compat1_16.getHostileMobs());
         }
+        if (majorVersion >= 1.19) {
+            hostileMobs.addAll(Compat1_19.getHostileMobs());
+        }
+
+        return hostileMobs;
+    }
 
+    public static @NotNull HashSet<EntityType> getPassiveMobs(final int majorVersion,
+        final boolean isOneSeventeen) {
         // include interfaces: Animals, WaterMob
-        passiveMobsGroup = Stream.of(
+        final HashSet<EntityType> passiveMobs = Stream.of(
             EntityType.IRON_GOLEM,
             EntityType.SNOWMAN
         ).collect(Collectors.toCollection(HashSet::new));
 
-        if (VersionUtils.isOneSeventeen()) {
-            passiveMobsGroup.addAll(Compat1_17.getPassiveMobs());
+        if (isOneSeventeen) {
+            passiveMobs.addAll(Compat1_17.getPassiveMobs());
         }
-        if (versionInfo.getMajorVersion() >= 1.19) {
-            passiveMobsGroup.addAll(Compat1_19.getPassiveMobs());
+        if (majorVersion >= 1.19) {
+            passiveMobs.addAll(Compat1_19.getPassiveMobs());
         }
 
-        if (versionInfo.getMajorVersion() >= 1.16) {
-            hostileMobsGroup.addAll(Compat1_16.getHostileMobs());
-        }
-        if (versionInfo.getMajorVersion() >= 1.19) {
-            hostileMobsGroup.addAll(Compat1_19.getHostileMobs());
-        }
+        return passiveMobs;
+    }
 
+    public static @NotNull HashSet<EntityType> getAquaticMobs(final int majorVersion) {
         // include interfaces: WaterMob
-        aquaticMobsGroup = Stream.of(
+        final HashSet<EntityType> aquaticMobs = Stream.of(
             EntityType.DROWNED,
             EntityType.ELDER_GUARDIAN,
             EntityType.GUARDIAN,
             EntityType.TURTLE
         ).collect(Collectors.toCollection(HashSet::new));
 
-        if (versionInfo.getMajorVersion() >= 1.19) {
-            aquaticMobsGroup.addAll(Compat1_19.getAquaticMobs());
+        if (majorVersion >= 1.19) {
+            aquaticMobs.addAll(Compat1_19.getAquaticMobs());
         }
-    }
 
+        return aquaticMobs;
+    }
     public void addRecentlyJoinedPlayer(final Player player) {
         synchronized (playerLogonTimesLock) {
             recentlyJoinedPlayers.put(player, Instant.now());
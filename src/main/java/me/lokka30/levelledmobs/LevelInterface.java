@@ -4,8 +4,14 @@
 
 package me.lokka30.levelledmobs;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import me.lokka30.levelledmobs.misc.AdditionalLevelInformation;
+import me.lokka30.levelledmobs.misc.EntitySnapshot;
 import me.lokka30.levelledmobs.misc.LevellableState;
 import me.lokka30.levelledmobs.misc.LivingEntityWrapper;
 import org.bukkit.entity.LivingEntity;
@@ -14,6 +20,9 @@ import org.jetbrains.annotations.NotNull;
 /**
  * Welcome to the LevelInterface, this class is a 'global' interface for LM itself AND other plugins
  * to apply and modify the main functions of LevelledMobs.
+ * <p>
+ * The bulk methods have default implementations built on the single mob methods so existing
+ * implementations of this interface keep working.
  *
  * @author lokka30, stumper66
  * @since 2.5
@@ -105,4 +114,121 @@ public interface LevelInterface {
      * @param lmEntity levelled mob to un-level
      */
     void removeLevel(@NotNull final LivingEntityWrapper lmEntity);
+
+    /**
+     * Check if each of the mobs is levelled. Uses the same level index as
+     * {@link #isLevelled(LivingEntity)} so most mobs don't need their PDC read.
+     * <p>
+     * Thread-safety intended, but not tested.
+     *
+     * @param livingEntities the mobs to check
+     * @return if each mob is levelled, in the same order as the list
+     */
+    @NotNull default boolean[] areLevelled(
+        @NotNull final List<? extends LivingEntity> livingEntities) {
+        final boolean[] results = new boolean[livingEntities.size()];
+        int i = 0;
+        for (final LivingEntity livingEntity : livingEntities) {
+            results[i++] = isLevelled(livingEntity);
+        }
+
+        return results;
+    }
+
+    /**
+     * Retrieve the levels of multiple mobs.
+     * <p>
+     * Thread-safety intended, but not tested.
+     *
+     * @param livingEntities the mobs to get the levels of
+     * @return each mob's level or -1 if it isn't levelled, in the same order as the list
+     */
+    @NotNull default int[] getLevelsOfMobs(
+        @NotNull final List<? extends LivingEntity> livingEntities) {
+        final int[] results = new int[livingEntities.size()];
+        int i = 0;
+        for (final LivingEntity livingEntity : livingEntities) {
+            results[i++] = isLevelled(livingEntity) ? getLevelOfMob(livingEntity) : -1;
+        }
+
+        return results;
+    }
+
+    /**
+     * Check if multiple mobs are allowed to be levelled. Each mob's applicable rules are only
+     * built once.
+     * <p>
+     * Thread-safety intended, but not tested.
+     *
+     * @param livingEntities target mobs
+     * @return if each mob is allowed to be levelled, with reason
+     */
+    @NotNull default Map<LivingEntity, LevellableState> getLevellableStates(
+        @NotNull final Collection<? extends LivingEntity> livingEntities) {
+        final Map<LivingEntity, LevellableState> results = new LinkedHashMap<>(
+            livingEntities.size());
+        for (final LivingEntity livingEntity : livingEntities) {
+            final LivingEntityWrapper lmEntity = LivingEntityWrapper.getInstance(livingEntity,
+                LevelledMobs.getInstance());
+            results.put(livingEntity, getLevellableState(lmEntity));
+            lmEntity.free();
+        }
+
+        return results;
+    }
+
+    /**
+     * Generates and applies a level to each mob that is allowed to be levelled. The levellable
+     * state, level generation and applying the level all share the same rule evaluation for each
+     * mob rather than building it again for every step.
+     * <p>
+     * Should be called from the main thread.
+     *
+     * @param livingEntities             target mobs
+     * @param additionalLevelInformation used to determine the source event
+     * @return the level applied to each mob that was levelled
+     */
+    @NotNull default Map<LivingEntity, Integer> applyLevelsToMobs(
+        @NotNull final Collection<? extends LivingEntity> livingEntities,
+        @NotNull final HashSet<AdditionalLevelInformation> additionalLevelInformation) {
+        final Map<LivingEntity, Integer> results = new LinkedHashMap<>(livingEntities.size());
+        for (final LivingEntity livingEntity : livingEntities) {
+            // the wrapper caches the applicable rules so all three steps share them
+            final LivingEntityWrapper lmEntity = LivingEntityWrapper.getInstance(livingEntity,
+                LevelledMobs.getInstance());
+            if (getLevellableState(lmEntity) == LevellableState.ALLOWED) {
+                final int level = generateLevel(lmEntity);
+                applyLevelToMob(lmEntity, level, false, false, additionalLevelInformation);
+                if (isLevelled(livingEntity)) {
+                    results.put(livingEntity, getLevelOfMob(livingEntity));
+                }
+            }
+            lmEntity.free();
+        }
+
+        return results;
+    }
+
+    /**
+     * Captures the state of multiple mobs including their levels. The snapshots can be read from
+     * any thread afterwards, such as for scoreboards or HUDs, without touching the live entities.
+     * <p>
+     * Must be called from the main thread.
+     *
+     * @param livingEntities the mobs to capture
+     * @return a snapshot of each mob that is still valid
+     */
+    @NotNull default List<EntitySnapshot> captureSnapshots(
+        @NotNull final Collection<? extends LivingEntity> livingEntities) {
+        final List<EntitySnapshot> results = new ArrayList<>(livingEntities.size());
+        for (final LivingEntity livingEntity : livingEntities) {
+            final EntitySnapshot snapshot = EntitySnapshot.capture(livingEntity,
+                LevelledMobs.getInstance());
+            if (snapshot != null) {
+                results.add(snapshot);
+            }
+        }
+
+        return results;
+    }
 }
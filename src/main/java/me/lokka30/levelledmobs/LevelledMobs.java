@@ -6,18 +6,20 @@
 
 package me.lokka30.levelledmobs;
 
+import java.io.File;
 import java.time.Instant;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
-import java.util.Set;
 import java.util.Stack;
-import java.util.TreeMap;
-import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 import me.lokka30.levelledmobs.commands.LevelledMobsCommand;
 import me.lokka30.levelledmobs.customdrops.CustomDropsHandler;
 import me.lokka30.levelledmobs.listeners.BlockPlaceListener;
 import me.lokka30.levelledmobs.listeners.ChunkLoadListener;
+import me.lokka30.levelledmobs.listeners.EntityCleanupListener;
+import me.lokka30.levelledmobs.listeners.PlayerJoinListener;
 import me.lokka30.levelledmobs.listeners.EntityDamageDebugListener;
 import me.lokka30.levelledmobs.listeners.PlayerInteractEventListener;
 import me.lokka30.levelledmobs.managers.LevelManager;
@@ -26,10 +28,16 @@ import me.lokka30.levelledmobs.managers.MobHeadManager;
 import me.lokka30.levelledmobs.managers.MobsQueueManager;
 import me.lokka30.levelledmobs.managers.NametagQueueManager;
 import me.lokka30.levelledmobs.managers.PlaceholderApiIntegration;
+import me.lokka30.levelledmobs.misc.ConfigCache;
+import me.lokka30.levelledmobs.misc.EventTraceRecorder;
+import me.lokka30.levelledmobs.misc.EventTraceReplayer;
 import me.lokka30.levelledmobs.misc.FileLoader;
+import me.lokka30.levelledmobs.misc.LevelIndex;
 import me.lokka30.levelledmobs.misc.LivingEntityWrapper;
 import me.lokka30.levelledmobs.misc.NamespacedKeys;
 import me.lokka30.levelledmobs.misc.NametagTimerChecker;
+import me.lokka30.levelledmobs.misc.SchedulerWrapper;
+import me.lokka30.levelledmobs.misc.SpawnerConfigCache;
 import me.lokka30.levelledmobs.misc.YmlParsingHelper;
 import me.lokka30.levelledmobs.rules.RulesManager;
 import me.lokka30.levelledmobs.rules.RulesParsingManager;
@@ -39,10 +47,10 @@ import me.lokka30.microlib.maths.QuickTimer;
 import org.bukkit.Bukkit;
 import org.bukkit.command.CommandSender;
 import org.bukkit.configuration.file.YamlConfiguration;
-import org.bukkit.entity.LivingEntity;
 import org.bukkit.event.HandlerList;
 import org.bukkit.plugin.java.JavaPlugin;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * This is the main class of the plugin. Bukkit will call onLoad and onEnable on startup, and
@@ -58,6 +66,8 @@ public final class LevelledMobs extends JavaPlugin {
     public MobDataManager mobDataManager;
     public CustomDropsHandler customDropsHandler;
     public ChunkLoadListener chunkLoadListener;
+    public PlayerJoinListener playerJoinListener;
+    public EntityCleanupListener entityCleanupListener;
     public BlockPlaceListener blockPlaceListener;
     public PlayerInteractEventListener playerInteractEventListener;
     public NamespacedKeys namespacedKeys;
@@ -68,6 +78,7 @@ public final class LevelledMobs extends JavaPlugin {
     public MobsQueueManager mobsQueueManager;
     public NametagQueueManager nametagQueueManager;
     public NametagTimerChecker nametagTimerChecker;
+    public SchedulerWrapper schedulerWrapper;
     public final Object attributeSyncObject = new Object();
     public LevelledMobsCommand levelledMobsCommand;
     public Random random;
@@ -86,10 +97,16 @@ public final class LevelledMobs extends JavaPlugin {
     public final ConfigUtils configUtils = new ConfigUtils(this);
 
     // Misc
-    public Map<String, Set<String>> customMobGroups;
+    public SpawnerConfigCache spawnerConfigCache;
+    // shared as levelInterface and levelManager are separate instances
+    public LevelIndex levelIndex;
+    public ConfigCache configCache;
+    public EventTraceRecorder eventTraceRecorder;
+    public EventTraceReplayer eventTraceReplayer;
     public EntityDamageDebugListener entityDamageDebugListener;
     private long loadTime;
-    public WeakHashMap<LivingEntity, Instant> playerLevellingEntities;
+    private final AtomicBoolean isReloading = new AtomicBoolean();
+    public Map<Integer, Instant> playerLevellingEntities;
     public Stack<LivingEntityWrapper> cacheCheck;
 
     @Override
@@ -101,6 +118,7 @@ public final class LevelledMobs extends JavaPlugin {
     public void onEnable() {
         final QuickTimer timer = new QuickTimer();
 
+        this.schedulerWrapper = new SchedulerWrapper(this);
         this.nametagQueueManager = new NametagQueueManager(this);
         this.mobsQueueManager = new MobsQueueManager(this);
         this.companion = new Companion(this);
@@ -110,11 +128,16 @@ public final class LevelledMobs extends JavaPlugin {
         this.rulesManager = new RulesManager(this);
         this.nametagTimerChecker = new NametagTimerChecker(this);
         this.namespacedKeys = new NamespacedKeys(this);
-        this.playerLevellingEntities = new WeakHashMap<>();
+        this.playerLevellingEntities = new ConcurrentHashMap<>();
         this.helperSettings = new YmlParsingHelper();
         this.random = new Random();
-        this.customMobGroups = new TreeMap<>();
+        this.spawnerConfigCache = new SpawnerConfigCache(this);
+        this.levelIndex = new LevelIndex();
         this.levelInterface = new LevelManager(this);
+        this.configCache = new ConfigCache(new File(getDataFolder(), "config-cache.bin"),
+            getDescription().getVersion());
+        this.eventTraceRecorder = new EventTraceRecorder(this);
+        this.eventTraceReplayer = new EventTraceReplayer(this);
         if (!companion.loadFiles(false)) {
             // had fatal error reading required files
             Bukkit.getPluginManager().disablePlugin(this);
@@ -135,39 +158,87 @@ public final class LevelledMobs extends JavaPlugin {
         companion.checkUpdates();
 
         loadTime += timer.getTimer();
-        Utils.logger.info("Start-up complete (took " + loadTime + "ms)");
+        final long configCacheSaved = configCache.getTimeSaved();
+        Utils.logger.info("Start-up complete (took " + loadTime + "ms" + (configCacheSaved > 0 ?
+            ", config cache saved " + configCacheSaved + "ms)" : ")"));
     }
 
     private void prepareToLoadCustomDrops(){
         if (Bukkit.getPluginManager().getPlugin("LM_Items") != null){
             final LevelledMobs mainInstance = this;
-            Bukkit.getScheduler().scheduleSyncDelayedTask(this, () -> customDropsHandler.customDropsParser.loadDrops(
+            schedulerWrapper.runGlobalTaskLater(() -> {
+                customDropsHandler.customDropsParser.loadDrops(
                     FileLoader.loadFile(mainInstance, "customdrops", FileLoader.CUSTOMDROPS_FILE_VERSION)
-            ), 10L);
+                );
+                saveConfigCache();
+            }, 10L);
         }
         else{
             customDropsHandler.customDropsParser.loadDrops(
                     FileLoader.loadFile(this, "customdrops", FileLoader.CUSTOMDROPS_FILE_VERSION)
             );
+            saveConfigCache();
         }
     }
 
+    // customdrops.yml is the last file loaded on start-up so the cache is written once after it
+    private void saveConfigCache() {
+        schedulerWrapper.runAsync(configCache::save);
+    }
+
     public void reloadLM(final @NotNull CommandSender sender) {
+        reloadLM(sender, null);
+    }
+
+    /**
+     * Reloads the configuration files. The files are read and parsed off the main thread and
+     * then made active all at once on the main thread so mobs are never processed against
+     * partially loaded rules.
+     *
+     * @param onComplete ran on the main thread after the reload has finished
+     */
+    public void reloadLM(final @NotNull CommandSender sender, final @Nullable Runnable onComplete) {
+        if (!isReloading.compareAndSet(false, true)) {
+            sendReloadMessage(sender, "already-running", null, null);
+            return;
+        }
+
         migratedFromPre30 = false;
-        List<String> reloadStartedMsg = messagesCfg.getStringList(
-            "command.levelledmobs.reload.started");
-        reloadStartedMsg = Utils.replaceAllInList(reloadStartedMsg, "%prefix%",
-            configUtils.getPrefix());
-        reloadStartedMsg = Utils.colorizeAllInList(reloadStartedMsg);
-        reloadStartedMsg.forEach(sender::sendMessage);
+        sendReloadMessage(sender, "started", null, null);
 
-        companion.loadFiles(true);
+        schedulerWrapper.runAsync(() -> {
+            final Companion.LoadedFiles loadedFiles;
+            try {
+                loadedFiles = companion.loadFilesForReload();
+            } catch (final Exception e) {
+                Utils.logger.error("Error reloading files: " + e.getMessage());
+                e.printStackTrace();
+                // the sender is told on the main thread as command senders aren't thread safe
+                schedulerWrapper.runGlobalTask(() -> {
+                    isReloading.set(false);
+                    sendReloadMessage(sender, "failed", new String[]{"%error%"},
+                        new String[]{String.valueOf(e.getMessage())});
+                });
+                return;
+            }
 
-        List<String> reloadFinishedMsg = messagesCfg.getStringList(
-            "command.levelledmobs.reload.finished");
-        reloadFinishedMsg = Utils.replaceAllInList(reloadFinishedMsg, "%prefix%",
-            configUtils.getPrefix());
-        reloadFinishedMsg = Utils.colorizeAllInList(reloadFinishedMsg);
+            schedulerWrapper.runGlobalTask(() -> {
+                try {
+                    finishReload(sender, loadedFiles);
+                    if (onComplete != null) {
+                        onComplete.run();
+                    }
+                } finally {
+                    isReloading.set(false);
+                }
+            });
+        });
+    }
+
+    private void finishReload(final @NotNull CommandSender sender,
+        final @NotNull Companion.LoadedFiles loadedFiles) {
+        companion.applyLoadedFiles(loadedFiles);
+        spawnerConfigCache.clear();
 
         if (nametagQueueManager.hasNametagSupport() && (levelManager.nametagAutoUpdateTask == null
             || levelManager.nametagAutoUpdateTask.isCancelled())) {
@@ -200,7 +271,26 @@ public final class LevelledMobs extends JavaPlugin {
         configUtils.playerLevellingEnabled = rulesManager.isPlayerLevellingEnabled();
         rulesManager.clearTempDisabledRulesCounts();
 
-        reloadFinishedMsg.forEach(sender::sendMessage);
+        for (final Map.Entry<String, Long> loadTime : loadedFiles.loadTimes().entrySet()) {
+            sendReloadMessage(sender, "file-time", new String[]{"%file%", "%time%"},
+                new String[]{loadTime.getKey(), String.valueOf(loadTime.getValue())});
+        }
+        sendReloadMessage(sender, "finished", null, null);
+    }
+
+    private void sendReloadMessage(final @NotNull CommandSender sender,
+        final @NotNull String messageName, final String @Nullable [] placeholders,
+        final String @Nullable [] replacements) {
+        List<String> messages = messagesCfg.getStringList(
+            "command.levelledmobs.reload." + messageName);
+        messages = Utils.replaceAllInList(messages, "%prefix%", configUtils.getPrefix());
+        if (placeholders != null && replacements != null) {
+            for (int i = 0; i < placeholders.length; i++) {
+                messages = Utils.replaceAllInList(messages, placeholders[i], replacements[i]);
+            }
+        }
+        messages = Utils.colorizeAllInList(messages);
+        messages.forEach(sender::sendMessage);
     }
 
     public static LevelledMobs getInstance(){
@@ -213,6 +303,13 @@ public final class LevelledMobs extends JavaPlugin {
         disableTimer.start();
 
         levelManager.stopNametagAutoUpdateTask();
+        if (eventTraceRecorder != null) {
+            eventTraceRecorder.stop();
+        }
+        if (eventTraceReplayer != null) {
+            // removes the stand-in mobs
+            eventTraceReplayer.stop();
+        }
         companion.shutDownAsyncTasks();
 
         Utils.logger.info("Shut-down complete (took " + disableTimer.getTimer() + "ms)");
@@ -1,13 +1,19 @@
 package me.lokka30.levelledmobs.commands.subcommands;
 
+import java.io.File;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import me.lokka30.levelledmobs.LevelledMobs;
 import me.lokka30.levelledmobs.commands.MessagesBase;
 import me.lokka30.levelledmobs.managers.ExternalCompatibilityManager;
 import me.lokka30.levelledmobs.misc.DebugCreator;
+import me.lokka30.levelledmobs.misc.EventTraceRecorder;
 import me.lokka30.levelledmobs.misc.LivingEntityWrapper;
 import me.lokka30.levelledmobs.nms.MiscUtils;
+import me.lokka30.levelledmobs.rules.strategies.LevellingStrategy;
+import me.lokka30.levelledmobs.rules.strategies.SpawnDistanceStrategy;
+import me.lokka30.levelledmobs.rules.strategies.YDistanceStrategy;
 import me.lokka30.levelledmobs.util.Utils;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
@@ -41,7 +47,9 @@ public class DebugSubcommand extends MessagesBase implements Subcommand {
         }
 
         if (args.length <= 1) {
-            sender.sendMessage("Options: create / chunk_kill_count / nbt_dump / mylocation");
+            sender.sendMessage(
+                "Options: create / chunk_kill_count / nbt_dump / mylocation / level_map / "
+                    + "event_trace");
             return;
         }
 
@@ -64,6 +72,10 @@ public class DebugSubcommand extends MessagesBase implements Subcommand {
             }
         } else if ("mylocation".equalsIgnoreCase(args[1])){
             showPlayerLocation(sender);
+        } else if ("level_map".equalsIgnoreCase(args[1])) {
+            showLevelMap(sender, args);
+        } else if ("event_trace".equalsIgnoreCase(args[1])) {
+            eventTrace(sender, args);
         }
         else {
             showMessage("other.create-debug");
@@ -83,6 +95,156 @@ public class DebugSubcommand extends MessagesBase implements Subcommand {
         Utils.logger.info(String.format("Player %s %s", player.getName(), locationStr));
     }
 
+    private void showLevelMap(final @NotNull CommandSender sender,
+        final String @NotNull [] args) {
+        if (!(sender instanceof final Player player)) {
+            sender.sendMessage("The command must be run by a player");
+            return;
+        }
+
+        int radius = 3;
+        if (args.length >= 3) {
+            if (!Utils.isInteger(args[2])) {
+                sender.sendMessage("Invalid radius: " + args[2]);
+                return;
+            }
+            radius = Math.max(1, Math.min(8, Integer.parseInt(args[2])));
+        }
+
+        // the rules used depend on the mob so use the one being looked at
+        final LivingEntityWrapper lmEntity = main.levelledMobsCommand.rulesSubcommand.getMobBeingLookedAt(
+            player, true, sender);
+        if (lmEntity == null) {
+            sender.sendMessage("Look at a mob to choose which rules are used for the map");
+            return;
+        }
+
+        final LevellingStrategy levellingStrategy = main.rulesManager.getRuleLevellingStrategy(
+            lmEntity);
+        final int[] levels = main.levelManager.getMinAndMaxLevels(lmEntity);
+        final String typeName = lmEntity.getTypeName();
+        lmEntity.free();
+
+        if (!(levellingStrategy instanceof SpawnDistanceStrategy)
+            && !(levellingStrategy instanceof YDistanceStrategy)) {
+            sender.sendMessage(typeName + " doesn't use a distance based levelling strategy");
+            return;
+        }
+
+        final Location location = player.getLocation();
+        final int playerChunkX = location.getBlockX() >> 4;
+        final int playerChunkZ = location.getBlockZ() >> 4;
+        final Location checkLocation = location.clone();
+        sender.sendMessage(String.format(
+            "Levels for %s (%s-%s) at the center of each chunk at y %s, before variance. "
+                + "North is up",
+            typeName, levels[0], levels[1], location.getBlockY()));
+
+        final StringBuilder sb = new StringBuilder();
+        for (int chunkZ = playerChunkZ - radius; chunkZ <= playerChunkZ + radius; chunkZ++) {
+            sb.setLength(0);
+            for (int chunkX = playerChunkX - radius; chunkX <= playerChunkX + radius; chunkX++) {
+                checkLocation.setX((chunkX << 4) + 8);
+                checkLocation.setZ((chunkZ << 4) + 8);
+                final int level = levellingStrategy instanceof final SpawnDistanceStrategy sds ?
+                    sds.getBaseLevel(checkLocation, levels[0], levels[1]) :
+                    ((YDistanceStrategy) levellingStrategy).getBaseLevel(
+                        checkLocation.getBlockY(), levels[0], levels[1]);
+
+                final boolean isPlayerChunk = chunkX == playerChunkX && chunkZ == playerChunkZ;
+                sb.append(String.format(isPlayerChunk ? "[%3s]" : " %3s ", level));
+            }
+            sender.sendMessage(sb.toString());
+        }
+    }
+
+    private void eventTrace(final @NotNull CommandSender sender,
+        final String @NotNull [] args) {
+        final EventTraceRecorder recorder = main.eventTraceRecorder;
+        if (args.length < 3) {
+            sender.sendMessage("Options: start / stop / status / replay <file> [speed] confirm");
+            return;
+        }
+
+        if ("start".equalsIgnoreCase(args[2])) {
+            if (main.eventTraceReplayer.isRunning()) {
+                sender.sendMessage("Unable to record while a replay is running");
+                return;
+            }
+            final File file = recorder.start();
+            sender.sendMessage(file != null ?
+                "Recording events to " + file.getName() : "Unable to start recording");
+        } else if ("stop".equalsIgnoreCase(args[2])) {
+            if (main.eventTraceReplayer.isRunning()) {
+                main.eventTraceReplayer.stop();
+                return;
+            }
+            if (!recorder.isRecording()) {
+                sender.sendMessage("Events aren't being recorded");
+                return;
+            }
+            recorder.stop();
+            sender.sendMessage(String.format(
+                "Recording stopped, %,d events recorded (%,d bytes), %,d dropped",
+                recorder.getEventsRecorded(), recorder.getBytesWritten(),
+                recorder.getEventsDropped()));
+        } else if ("status".equalsIgnoreCase(args[2])) {
+            sender.sendMessage(String.format(
+                "Recording: %s, replaying: %s, %,d events recorded (%,d bytes), %,d dropped",
+                recorder.isRecording(), main.eventTraceReplayer.isRunning(),
+                recorder.getEventsRecorded(), recorder.getBytesWritten(),
+                recorder.getEventsDropped()));
+        } else if ("replay".equalsIgnoreCase(args[2])) {
+            replayEventTrace(sender, args);
+        } else {
+            sender.sendMessage("Options: start / stop / status / replay <file> [speed] confirm");
+        }
+    }
+
+    private void replayEventTrace(final @NotNull CommandSender sender,
+        final String @NotNull [] args) {
+        if (args.length < 4) {
+            sender.sendMessage("Must specify a trace file");
+            return;
+        }
+        if (main.schedulerWrapper.isFolia()) {
+            sender.sendMessage("Replaying events isn't supported on Folia");
+            return;
+        }
+        if (main.eventTraceRecorder.isRecording()) {
+            sender.sendMessage("Unable to replay while events are being recorded");
+            return;
+        }
+
+        final File traceFolder = main.eventTraceRecorder.getTraceFolder();
+        final File file = new File(traceFolder, args[3]);
+        if (!file.isFile() || !traceFolder.equals(file.getParentFile())) {
+            sender.sendMessage("Invalid trace file: " + args[3]);
+            return;
+        }
+
+        double speed = 1.0;
+        boolean confirmed = false;
+        for (int i = 4; i < args.length; i++) {
+            if ("confirm".equalsIgnoreCase(args[i])) {
+                confirmed = true;
+            } else if (Utils.isDouble(args[i]) && Double.parseDouble(args[i]) > 0.0) {
+                speed = Double.parseDouble(args[i]);
+            } else {
+                sender.sendMessage("Invalid speed: " + args[i]);
+                return;
+            }
+        }
+
+        if (!confirmed) {
+            sender.sendMessage("Replaying spawns and kills mobs and is only meant for test "
+                + "servers. Add 'confirm' to the command to continue");
+            return;
+        }
+
+        main.eventTraceReplayer.start(sender, file, speed);
+    }
+
     private void doNbtDump(final @NotNull CommandSender sender, final String @NotNull [] args) {
         Player player = null;
         if (!(sender instanceof Player) && args.length < 3) {
@@ -154,10 +316,25 @@ public class DebugSubcommand extends MessagesBase implements Subcommand {
         final String @NotNull [] args) {
 
         if (args.length <= 2) {
-            return List.of("create", "chunk_kill_count", "mylocation", "nbt_dump");
+            return List.of("create", "chunk_kill_count", "event_trace", "level_map", "mylocation",
+                "nbt_dump");
         }
         if ("chunk_kill_count".equalsIgnoreCase(args[1])) {
             return List.of("reset");
+        } else if ("event_trace".equalsIgnoreCase(args[1])) {
+            if (args.length == 3) {
+                return List.of("start", "stop", "status", "replay");
+            }
+            if (args.length == 4 && "replay".equalsIgnoreCase(args[2])) {
+                final List<String> fileNames = new ArrayList<>();
+                for (final File file : main.eventTraceRecorder.getTraceFiles()) {
+                    fileNames.add(file.getName());
+                }
+                return fileNames;
+            }
+            if (args.length >= 5 && "replay".equalsIgnoreCase(args[2])) {
+                return List.of("confirm");
+            }
         } else if ("nbt_dump".equalsIgnoreCase(args[1]) && args.length == 3) {
             return null;
         }
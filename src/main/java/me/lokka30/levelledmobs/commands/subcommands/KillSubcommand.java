@@ -10,6 +10,7 @@ import java.util.LinkedList;
 import java.util.List;
 import me.lokka30.levelledmobs.LevelledMobs;
 import me.lokka30.levelledmobs.commands.MessagesBase;
+import me.lokka30.levelledmobs.misc.BulkEntityOperation;
 import me.lokka30.levelledmobs.misc.RequestedLevel;
 import me.lokka30.levelledmobs.util.Utils;
 import org.bukkit.Bukkit;
@@ -40,6 +41,8 @@ public class KillSubcommand extends MessagesBase implements Subcommand {
         super(main);
     }
 
+    private BulkEntityOperation activeKillAll;
+
     @Override
     public void parseSubcommand(final LevelledMobs main, final @NotNull CommandSender sender,
         final String label, final String[] args) {
@@ -282,40 +285,46 @@ public class KillSubcommand extends MessagesBase implements Subcommand {
 
     private void parseKillAll(final @NotNull List<World> worlds, final LevelledMobs main,
         final boolean useNoDrops, final RequestedLevel rl) {
-        int killed = 0;
-        int skipped = 0;
-
-        for (final World world : worlds) {
-            for (final Entity entity : world.getEntities()) {
-                if (!(entity instanceof final LivingEntity livingEntity)) {
-                    continue;
-                }
-                if (!main.levelInterface.isLevelled(livingEntity)) {
-                    continue;
-                }
+        if (activeKillAll != null && activeKillAll.isRunning()) {
+            showMessage("command.levelledmobs.kill.all.already-running",
+                "%percent%", String.valueOf(activeKillAll.getPercentComplete()));
+            return;
+        }
 
-                if (skipKillingEntity(main, livingEntity, rl)) {
-                    skipped++;
-                    continue;
-                }
+        final CommandSender sender = commandSender;
+        activeKillAll = new BulkEntityOperation(main, worlds, (livingEntity, operation) -> {
+            if (!main.levelInterface.isLevelled(livingEntity)) {
+                return;
+            }
 
-                livingEntity.setMetadata("noCommands", new FixedMetadataValue(main, 1));
+            if (skipKillingEntity(main, livingEntity, rl)) {
+                operation.incrementSkipped();
+                return;
+            }
 
-                if (useNoDrops) {
-                    livingEntity.remove();
-                } else {
-                    livingEntity.setHealth(0.0);
-                }
+            livingEntity.setMetadata("noCommands", new FixedMetadataValue(main, 1));
 
-                killed++;
+            if (useNoDrops) {
+                livingEntity.remove();
+            } else {
+                livingEntity.setHealth(0.0);
             }
-        }
 
-        showMessage("command.levelledmobs.kill.all.success",
-            new String[]{"%killed%", "%skipped%", "%worlds%"},
-            new String[]{String.valueOf(killed), String.valueOf(skipped),
-                String.valueOf(worlds.size())}
-        );
+            operation.incrementAffected();
+        });
+
+        activeKillAll
+            .setOnProgress(operation -> showMessage("command.levelledmobs.kill.all.progress",
+                new String[]{"%percent%", "%killed%", "%skipped%"},
+                new String[]{String.valueOf(operation.getPercentComplete()),
+                    String.valueOf(operation.getAffectedCount()),
+                    String.valueOf(operation.getSkippedCount())}, sender))
+            .setOnComplete(operation -> showMessage("command.levelledmobs.kill.all.success",
+                new String[]{"%killed%", "%skipped%", "%worlds%"},
+                new String[]{String.valueOf(operation.getAffectedCount()),
+                    String.valueOf(operation.getSkippedCount()),
+                    String.valueOf(operation.getWorldCount())}, sender))
+            .start();
     }
 
     @SuppressWarnings("deprecation")
@@ -28,11 +28,11 @@ public class ReloadSubcommand implements Subcommand {
             return;
         }
 
-        main.reloadLM(sender);
-
-        if (main.companion.getHadRulesLoadError() && sender instanceof Player) {
-            sender.sendMessage(FileLoader.getFileLoadErrorMessage());
-        }
+        main.reloadLM(sender, () -> {
+            if (main.companion.getHadRulesLoadError() && sender instanceof Player) {
+                sender.sendMessage(FileLoader.getFileLoadErrorMessage());
+            }
+        });
     }
 
     @Override
@@ -24,9 +24,11 @@ import java.util.TreeSet;
 import me.lokka30.levelledmobs.LevelledMobs;
 import me.lokka30.levelledmobs.commands.MessagesBase;
 import me.lokka30.levelledmobs.managers.ExternalCompatibilityManager;
+import me.lokka30.levelledmobs.misc.BulkEntityOperation;
 import me.lokka30.levelledmobs.misc.LivingEntityWrapper;
 import me.lokka30.levelledmobs.misc.QueueItem;
 import me.lokka30.levelledmobs.rules.RuleInfo;
+import me.lokka30.levelledmobs.rules.RulesParsingManager;
 import me.lokka30.levelledmobs.util.PaperUtils;
 import me.lokka30.levelledmobs.util.SpigotUtils;
 import me.lokka30.levelledmobs.util.Utils;
@@ -42,7 +44,6 @@ import org.bukkit.entity.Entity;
 import org.bukkit.entity.LivingEntity;
 import org.bukkit.entity.Player;
 import org.bukkit.persistence.PersistentDataType;
-import org.bukkit.scheduler.BukkitRunnable;
 import org.bukkit.util.Vector;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -93,8 +94,9 @@ public class RulesSubcommand extends MessagesBase implements Subcommand {
             }
 
             final StringBuilder sb = new StringBuilder();
+            final RulesParsingManager.ParsedRules rules = main.rulesManager.getRules();
 
-            for (final RuleInfo rpi : main.rulesParsingManager.rulePresets.values()) {
+            for (final RuleInfo rpi : rules.rulePresets().values()) {
                 sb.append(
                     "\n--------------------------------- Preset rule ----------------------------------\n");
                 sb.append(rpi.formatRulesVisually(List.of("ruleIsEnabled")));
@@ -102,9 +104,9 @@ public class RulesSubcommand extends MessagesBase implements Subcommand {
 
             sb.append(
                 "\n--------------------------------- Default values -------------------------------\n");
-            sb.append(main.rulesParsingManager.defaultRule.formatRulesVisually());
+            sb.append(rules.defaultRule().formatRulesVisually());
 
-            for (final RuleInfo rpi : main.rulesParsingManager.customRules) {
+            for (final RuleInfo rpi : rules.customRules()) {
                 sb.append(
                     "\n--------------------------------- Custom rule ----------------------------------\n");
                 sb.append(rpi.formatRulesVisually());
@@ -149,40 +151,32 @@ public class RulesSubcommand extends MessagesBase implements Subcommand {
     }
 
     private void forceRelevel(final CommandSender sender) {
-        int worldCount = 0;
-        int entityCount = 0;
-
-        main.reloadLM(sender);
-
-        for (final World world : Bukkit.getWorlds()) {
-            worldCount++;
-            for (final Entity entity : world.getEntities()) {
-                if (!(entity instanceof LivingEntity)) {
-                    continue;
-                }
+        // the mobs need to be relevelled against the reloaded rules
+        main.reloadLM(sender, () -> relevelAllMobs(sender));
+    }
 
-                synchronized (entity.getPersistentDataContainer()) {
-                    if (entity.getPersistentDataContainer()
-                        .has(main.namespacedKeys.wasSummoned, PersistentDataType.INTEGER)) {
-                        continue; // was summon using lm summon command.  don't relevel it
-                    }
+    private void relevelAllMobs(final CommandSender sender) {
+        new BulkEntityOperation(main, Bukkit.getWorlds(), (livingEntity, operation) -> {
+            synchronized (livingEntity.getPersistentDataContainer()) {
+                if (livingEntity.getPersistentDataContainer()
+                    .has(main.namespacedKeys.wasSummoned, PersistentDataType.INTEGER)) {
+                    return; // was summon using lm summon command.  don't relevel it
                 }
-
-                entityCount++;
-                final LivingEntityWrapper lmEntity = LivingEntityWrapper.getInstance(
-                    (LivingEntity) entity, main);
-                lmEntity.reEvaluateLevel = true;
-                lmEntity.isRulesForceAll = true;
-                lmEntity.wasPreviouslyLevelled = lmEntity.isLevelled();
-                main.mobsQueueManager.addToQueue(new QueueItem(lmEntity, null));
-                lmEntity.free();
             }
-        }
 
-        showMessage("command.levelledmobs.rules.rules-reprocessed",
+            operation.incrementAffected();
+            final LivingEntityWrapper lmEntity = LivingEntityWrapper.getInstance(livingEntity,
+                main);
+            lmEntity.reEvaluateLevel = true;
+            lmEntity.isRulesForceAll = true;
+            lmEntity.wasPreviouslyLevelled = lmEntity.isLevelled();
+            main.mobsQueueManager.addToQueue(new QueueItem(lmEntity, null));
+            lmEntity.free();
+        }).setOnComplete(operation -> showMessage("command.levelledmobs.rules.rules-reprocessed",
             new String[]{"%entitycount%", "%worldcount%"},
-            new String[]{String.valueOf(entityCount), String.valueOf(worldCount)}
-        );
+            new String[]{String.valueOf(operation.getAffectedCount()),
+                String.valueOf(operation.getWorldCount())}, sender)
+        ).start();
     }
 
     private void resetRules(final CommandSender sender, @NotNull final String @NotNull [] args) {
@@ -376,16 +370,11 @@ public class RulesSubcommand extends MessagesBase implements Subcommand {
             sb.setLength(0);
         }
 
-        final BukkitRunnable runnable = new BukkitRunnable() {
-            @Override
-            public void run() {
-                showEffectiveValues(player, lmEntity, showOnConsole, sb);
-                lmEntity.free();
-            }
-        };
-
         lmEntity.inUseCount.getAndIncrement();
-        runnable.runTaskLater(main, 25);
+        main.schedulerWrapper.runEntityTaskLater(lmEntity.getLivingEntity(), () -> {
+            showEffectiveValues(player, lmEntity, showOnConsole, sb);
+            lmEntity.free();
+        }, lmEntity::free, 25L);
     }
 
     @Nullable public LivingEntityWrapper getMobBeingLookedAt(@NotNull final Player player,
@@ -436,20 +425,15 @@ public class RulesSubcommand extends MessagesBase implements Subcommand {
             return;
         }
 
-        final BukkitRunnable runnable = new BukkitRunnable() {
-            @Override
-            public void run() {
-                try {
-                    for (int i = 0; i < 10; i++) {
-                        world.spawnParticle(Particle.SPELL, location, 20, 0, 0, 0, 0.1);
-                        Thread.sleep(50);
-                    }
-                } catch (final InterruptedException ignored) {
+        main.schedulerWrapper.runAsync(() -> {
+            try {
+                for (int i = 0; i < 10; i++) {
+                    world.spawnParticle(Particle.SPELL, location, 20, 0, 0, 0, 0.1);
+                    Thread.sleep(50);
                 }
+            } catch (final InterruptedException ignored) {
             }
-        };
-
-        runnable.runTaskAsynchronously(main);
+        });
     }
 
     private void showEffectiveValues(final CommandSender sender,
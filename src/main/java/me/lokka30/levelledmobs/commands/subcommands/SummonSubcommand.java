@@ -11,7 +11,6 @@ import java.util.Random;
 import java.util.concurrent.ThreadLocalRandom;
 import me.lokka30.levelledmobs.LevelledMobs;
 import me.lokka30.levelledmobs.commands.MessagesBase;
-import me.lokka30.levelledmobs.managers.LevelManager;
 import me.lokka30.levelledmobs.misc.AdditionalLevelInformation;
 import me.lokka30.levelledmobs.misc.LevellableState;
 import me.lokka30.levelledmobs.misc.LivingEntityPlaceholder;
@@ -528,9 +527,8 @@ public class SummonSubcommand extends MessagesBase implements Subcommand {
 
                 lmEntity.setSummonedLevel(useLevel);
                 lmEntity.isNewlySpawned = true;
-                synchronized (LevelManager.summonedOrSpawnEggs_Lock) {
-                    main.levelManager.summonedOrSpawnEggs.put(lmEntity.getLivingEntity(), null);
-                }
+                main.levelManager.summonedOrSpawnEggs.add(
+                    lmEntity.getLivingEntity().getEntityId());
                 if (!Utils.isNullOrEmpty(options.nbtData)) {
                     lmEntity.nbtData = List.of(options.nbtData);
                 }
@@ -4,10 +4,12 @@
 
 package me.lokka30.levelledmobs.customdrops;
 
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
+import me.lokka30.levelledmobs.util.Utils;
 import org.jetbrains.annotations.NotNull;
 
 /**
@@ -31,6 +33,8 @@ public class CustomCommand extends CustomDropBase {
     public boolean runOnSpawn;
     public boolean runOnDeath;
     public int delay;
+    // the commands with any fixed placeholders already filled in, built by buildTemplates()
+    @NotNull List<CommandTemplate> templates = List.of();
 
     public CustomCommand cloneItem() {
         CustomCommand copy = null;
@@ -42,4 +46,74 @@ public class CustomCommand extends CustomDropBase {
 
         return copy;
     }
+
+    /**
+     * Resolves as much of each command as possible at parse time. Ranged entries with a fixed
+     * value are substituted straight away and ranges are parsed so only the random number and
+     * the mob specific placeholders are left to fill in when the command runs
+     */
+    void buildTemplates() {
+        final List<RangedEntry> ranges = new LinkedList<>();
+        final Map<String, String> fixedValues = new TreeMap<>();
+
+        for (final Map.Entry<String, String> ranged : rangedEntries.entrySet()) {
+            final String placeholder = "%" + ranged.getKey() + "%";
+            final String rangedValue = ranged.getValue();
+            if (!rangedValue.contains("-")) {
+                fixedValues.put(placeholder, rangedValue);
+                continue;
+            }
+
+            final String[] nums = rangedValue.split("-");
+            if (nums.length != 2) {
+                continue;
+            }
+
+            if (!Utils.isInteger(nums[0].trim()) || !Utils.isInteger(nums[1].trim())) {
+                continue;
+            }
+            int min = Integer.parseInt(nums[0].trim());
+            final int max = Integer.parseInt(nums[1].trim());
+            if (max < min) {
+                min = max;
+            }
+
+            ranges.add(new RangedEntry(placeholder, min, max));
+        }
+
+        final List<CommandTemplate> results = new ArrayList<>(commands.size());
+        for (String command : commands) {
+            for (final Map.Entry<String, String> fixedValue : fixedValues.entrySet()) {
+                command = command.replace(fixedValue.getKey(), fixedValue.getValue());
+            }
+
+            final List<RangedEntry> usedRanges = new LinkedList<>();
+            String remaining = command.replace("%player%", "");
+            for (final RangedEntry range : ranges) {
+                if (command.contains(range.placeholder)) {
+                    usedRanges.add(range);
+                    remaining = remaining.replace(range.placeholder, "");
+                }
+            }
+
+            results.add(new CommandTemplate(command, command.contains("%player%"),
+                List.copyOf(usedRanges), remaining.contains("%")));
+        }
+
+        this.templates = List.copyOf(results);
+    }
+
+    /**
+     * A command with its fixed placeholders already substituted
+     *
+     * @param hasPlaceholders if anything besides the player and ranged placeholders is left
+     */
+    record CommandTemplate(@NotNull String command, boolean hasPlayerName,
+                           @NotNull List<RangedEntry> ranges, boolean hasPlaceholders) {
+
+    }
+
+    record RangedEntry(@NotNull String placeholder, int min, int max) {
+
+    }
 }
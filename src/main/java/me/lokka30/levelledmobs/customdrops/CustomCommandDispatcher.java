@@ -0,0 +1,254 @@
+/*
+ * Copyright (c) 2020-2022  lokka30. Use of this source code is governed by the GNU AGPL v3.0 license that can be found in the LICENSE.md file.
+ */
+
+package me.lokka30.levelledmobs.customdrops;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+import me.lokka30.levelledmobs.LevelledMobs;
+import me.lokka30.levelledmobs.misc.SchedulerWrapper;
+import me.lokka30.levelledmobs.util.Utils;
+import org.bukkit.Bukkit;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Runs custom commands as the console while limiting how many can run per tick. Commands are
+ * grouped by the tick they are due on and anything over the limit is carried over to the next
+ * tick ahead of newer commands. Once too many commands are waiting any new ones are dropped and
+ * a summary of the dropped commands is logged at most once every 30 seconds.
+ *
+ * @author stumper66
+ * @since 3.8.0
+ */
+public class CustomCommandDispatcher {
+
+    public CustomCommandDispatcher(final @NotNull LevelledMobs main) {
+        this(main, main.settingsCfg);
+    }
+
+    public CustomCommandDispatcher(final @NotNull LevelledMobs main,
+        final @Nullable YamlConfiguration settingsCfg) {
+        this.main = main;
+        this.pendingCommands = new TreeMap<>();
+        this.perTickLimit = main.helperSettings.getInt(settingsCfg,
+            "customcommand-per-tick-limit", 50);
+        this.maxQueuedCommands = main.helperSettings.getInt(settingsCfg,
+            "customcommand-queue-limit", 5000);
+    }
+
+    private final LevelledMobs main;
+    // keyed by the tick the commands are due on, guarded by this
+    private final TreeMap<Long, Deque<QueuedCommand>> pendingCommands;
+    private final int perTickLimit;
+    private final int maxQueuedCommands;
+    private final static long DROP_WARNING_INTERVAL_NANOS = 30_000_000_000L;
+    private long currentTick;
+    private int dispatchedThisTick;
+    private int queuedCount;
+    private int droppedSinceWarning;
+    private long lastDropWarningNanos;
+    private String lastDroppedCommand;
+    private SchedulerWrapper.TaskHandle task;
+    private final LongAdder dispatched = new LongAdder();
+    private final LongAdder deferred = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    /**
+     * Runs the command now if the tick's limit allows it, otherwise queues it
+     *
+     * @param timesToRun how many times the command should be ran
+     * @param delay      ticks to wait before running the command
+     */
+    public void dispatch(final @NotNull String command, final int timesToRun, final int delay) {
+        if (timesToRun <= 0) {
+            return;
+        }
+
+        int runNow = 0;
+        synchronized (this) {
+            if (delay <= 0 && canRunInline() && !hasOverdueCommands()) {
+                runNow = Math.min(timesToRun, remainingBudget());
+                dispatchedThisTick += runNow;
+            }
+
+            final int remaining = timesToRun - runNow;
+            if (remaining > 0) {
+                final QueuedCommand queuedCommand = new QueuedCommand(command, remaining);
+                if (delay <= 0) {
+                    queuedCommand.wasDeferred = true;
+                    deferred.increment();
+                }
+                enqueue(queuedCommand, currentTick + Math.max(1, delay));
+            }
+            if (runNow > 0) {
+                // the task resets the per tick count so it needs to be running
+                startTask();
+            }
+        }
+
+        for (int i = 0; i < runNow; i++) {
+            runCommand(command);
+        }
+    }
+
+    private boolean canRunInline() {
+        // on Folia console commands have to be ran on the global region
+        return !main.schedulerWrapper.isFolia() && Bukkit.isPrimaryThread();
+    }
+
+    private boolean hasOverdueCommands() {
+        return !pendingCommands.isEmpty() && pendingCommands.firstKey() <= currentTick;
+    }
+
+    private int remainingBudget() {
+        return perTickLimit <= 0 ?
+            Integer.MAX_VALUE : Math.max(0, perTickLimit - dispatchedThisTick);
+    }
+
+    private void enqueue(final @NotNull QueuedCommand queuedCommand, final long dueTick) {
+        if (maxQueuedCommands > 0 && queuedCount + queuedCommand.remaining > maxQueuedCommands) {
+            dropped.add(queuedCommand.remaining);
+            droppedSinceWarning += queuedCommand.remaining;
+            lastDroppedCommand = queuedCommand.command;
+            logDroppedCommands();
+            return;
+        }
+
+        queuedCount += queuedCommand.remaining;
+        pendingCommands.computeIfAbsent(dueTick, k -> new ArrayDeque<>()).add(queuedCommand);
+        startTask();
+    }
+
+    private void logDroppedCommands() {
+        final long now = System.nanoTime();
+        if (droppedSinceWarning == 0 || (lastDropWarningNanos != 0L
+            && now - lastDropWarningNanos < DROP_WARNING_INTERVAL_NANOS)) {
+            return;
+        }
+
+        Utils.logger.warning(String.format(
+            "Custom command queue is full, dropped %,d command runs, last dropped command: %s",
+            droppedSinceWarning, lastDroppedCommand));
+        droppedSinceWarning = 0;
+        lastDroppedCommand = null;
+        lastDropWarningNanos = now;
+    }
+
+    private void startTask() {
+        if (task == null) {
+            task = main.schedulerWrapper.runGlobalTaskTimer(this::tick, 1L, 1L);
+        }
+    }
+
+    private void tick() {
+        final List<String> commandsToRun = new ArrayList<>();
+
+        synchronized (this) {
+            currentTick++;
+            dispatchedThisTick = 0;
+            // reports drops that happened since the last summary was logged
+            logDroppedCommands();
+
+            while (!pendingCommands.isEmpty() && remainingBudget() > 0) {
+                final Map.Entry<Long, Deque<QueuedCommand>> bucket = pendingCommands.firstEntry();
+                if (bucket.getKey() > currentTick) {
+                    break;
+                }
+
+                final QueuedCommand queuedCommand = bucket.getValue().peek();
+                if (queuedCommand == null) {
+                    pendingCommands.pollFirstEntry();
+                    continue;
+                }
+
+                final int runNow = Math.min(queuedCommand.remaining, remainingBudget());
+                for (int i = 0; i < runNow; i++) {
+                    commandsToRun.add(queuedCommand.command);
+                }
+                dispatchedThisTick += runNow;
+                queuedCount -= runNow;
+                queuedCommand.remaining -= runNow;
+
+                if (queuedCommand.remaining <= 0) {
+                    bucket.getValue().poll();
+                }
+            }
+
+            // anything still due now is carried over to the next tick
+            if (hasOverdueCommands()) {
+                for (final QueuedCommand queuedCommand : pendingCommands.firstEntry().getValue()) {
+                    if (!queuedCommand.wasDeferred) {
+                        queuedCommand.wasDeferred = true;
+                        deferred.increment();
+                    }
+                }
+            }
+
+            // keeps running until any remaining drops have been logged
+            if (pendingCommands.isEmpty() && commandsToRun.isEmpty() && droppedSinceWarning == 0
+                && task != null) {
+                task.cancel();
+                task = null;
+            }
+        }
+
+        // ran outside of the lock as the commands can cause more custom commands
+        for (final String command : commandsToRun) {
+            runCommand(command);
+        }
+    }
+
+    private void runCommand(final @NotNull String command) {
+        dispatched.increment();
+        try {
+            Bukkit.dispatchCommand(Bukkit.getConsoleSender(), command);
+        } catch (final Exception e) {
+            Utils.logger.warning("Error running custom command '" + command + "': " + e.getMessage());
+        }
+    }
+
+    /**
+     * @return how many times a command has been ran
+     */
+    public long getDispatchedCount() {
+        return dispatched.sum();
+    }
+
+    /**
+     * @return how many commands couldn't be ran on the tick they were due because of the limit
+     */
+    public long getDeferredCount() {
+        return deferred.sum();
+    }
+
+    /**
+     * @return how many command runs were discarded because the queue was full
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    public synchronized int getQueuedCount() {
+        return queuedCount;
+    }
+
+    private static class QueuedCommand {
+
+        QueuedCommand(final @NotNull String command, final int remaining) {
+            this.command = command;
+            this.remaining = remaining;
+        }
+
+        final String command;
+        int remaining;
+        boolean wasDeferred;
+    }
+}
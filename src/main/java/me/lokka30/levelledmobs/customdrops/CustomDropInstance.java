@@ -44,6 +44,17 @@ public class CustomDropInstance {
         isBabyMob = false;
     }
 
+    CustomDropInstance(final @NotNull CustomDropInstance source) {
+        this.associatedMob = source.associatedMob;
+        this.entityGroup = source.entityGroup;
+        this.customItems = new LinkedList<>(source.customItems);
+        this.overallPermissions = new LinkedList<>(source.overallPermissions);
+        this.overallChance = source.overallChance;
+        this.overrideStockDrops = source.overrideStockDrops;
+        this.utilizesGroupIds = source.utilizesGroupIds;
+        this.isBabyMob = source.isBabyMob;
+    }
+
     private final @Nullable EntityType associatedMob;
     private final @Nullable CustomUniversalGroups entityGroup;
     public final @NotNull List<CustomDropBase> customItems;
@@ -49,6 +49,8 @@ public class CustomDropItem extends CustomDropBase {
     public Double externalAmount;
     public Map<String, Object> externalExtras;
     public EnchantmentChances enchantmentChances;
+    // assigned by the drop table registry, 0 until then
+    int dropItemId;
 
     @SuppressWarnings("unused")
     public CustomDropItem(@NotNull final LevelledMobs levelledMobs) {
@@ -152,6 +154,10 @@ public class CustomDropItem extends CustomDropBase {
         }
     }
 
+    public int getDropItemId() {
+        return this.dropItemId;
+    }
+
     public Material getMaterial() {
         return this.material;
     }
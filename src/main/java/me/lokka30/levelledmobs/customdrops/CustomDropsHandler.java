@@ -14,8 +14,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.TreeMap;
-import java.util.WeakHashMap;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
 import me.lokka30.levelledmobs.LevelledMobs;
 import me.lokka30.levelledmobs.managers.ExternalCompatibilityManager;
 import me.lokka30.levelledmobs.misc.Addition;
@@ -29,19 +29,18 @@ import me.lokka30.levelledmobs.util.SpigotUtils;
 import me.lokka30.levelledmobs.util.Utils;
 import me.lokka30.microlib.messaging.MessageUtils;
 import me.lokka30.microlib.other.VersionUtils;
-import org.bukkit.Bukkit;
 import org.bukkit.Material;
+import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.enchantments.Enchantment;
 import org.bukkit.entity.EntityType;
 import org.bukkit.entity.LivingEntity;
 import org.bukkit.event.entity.EntityDamageEvent;
-import org.bukkit.inventory.EntityEquipment;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.Damageable;
 import org.bukkit.inventory.meta.EnchantmentStorageMeta;
 import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.persistence.PersistentDataContainer;
 import org.bukkit.persistence.PersistentDataType;
-import org.bukkit.scheduler.BukkitRunnable;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -55,6 +54,13 @@ import org.jetbrains.annotations.Nullable;
 public class CustomDropsHandler {
 
     public CustomDropsHandler(final LevelledMobs main) {
+        this(main, main.settingsCfg);
+    }
+
+    /**
+     * @param settingsCfg the settings to use, as they can be loaded before being made active
+     */
+    public CustomDropsHandler(final LevelledMobs main, final YamlConfiguration settingsCfg) {
         this.main = main;
         this.customDropsitems = new TreeMap<>();
         this.customDropsitems_Babies = new TreeMap<>();
@@ -62,82 +68,81 @@ public class CustomDropsHandler {
         this.customDropIDs = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
         customDropsParser = new CustomDropsParser(main, this);
         this.ymlHelper = customDropsParser.ymlHelper;
-        this.customEquippedItems = new WeakHashMap<>();
         if (main.companion.externalCompatibilityManager.doesLMIMeetVersionRequirement()) {
             this.lmItemsParser = new LMItemsParser(main);
         }
-        this.externalCustomDrops = new ExternalCustomDropsImpl();
+        this.externalCustomDrops = new ExternalCustomDropsImpl(this::invalidateDropRegistry);
+        this.commandDispatcher = new CustomCommandDispatcher(main, settingsCfg);
+        this.maxAllowedTimesToRun = ymlHelper.getInt(settingsCfg,
+            "customcommand-amount-limit", 10);
     }
 
     final LevelledMobs main;
     // regular custom drops defined for a mob type
-    private final Map<EntityType, CustomDropInstance> customDropsitems;
+    final Map<EntityType, CustomDropInstance> customDropsitems;
     // regular custom drops defined for a mob type that is a baby
     final Map<EntityType, CustomDropInstance> customDropsitems_Babies;
     // only used for the built-in universal groups
-    private final Map<String, CustomDropInstance> customDropsitems_groups;
+    final Map<String, CustomDropInstance> customDropsitems_groups;
     // these are drops defined by a drop table
     final Map<String, CustomDropInstance> customDropIDs;
     @Nullable Map<String, CustomDropInstance> customItemGroups;
     public final CustomDropsParser customDropsParser;
     public final ExternalCustomDrops externalCustomDrops;
+    public final CustomCommandDispatcher commandDispatcher;
+    private final int maxAllowedTimesToRun;
     LMItemsParser lmItemsParser;
     private final YmlParsingHelper ymlHelper;
-    private final WeakHashMap<LivingEntity, EquippedItemsInfo> customEquippedItems;
-
-    public @NotNull Map<EntityType, CustomDropInstance> getCustomDropsitems(){
-        final Map<EntityType, CustomDropInstance> drops = new TreeMap<>(this.customDropsitems);
-        for (final EntityType entityType : externalCustomDrops.getCustomDrops().keySet()){
-            final CustomDropInstance dropInstance = externalCustomDrops.getCustomDrops().get(entityType);
-            if (!drops.containsKey(entityType)){
-                drops.put(entityType, dropInstance);
-                continue;
-            }
-
-            // merge the 3rd party drops into the defined drops for the entity
-            // 3rd party drop settings will override any conflicting
-            final CustomDropInstance currentDropInstance = drops.get(entityType);
-            currentDropInstance.combineDrop(dropInstance);
+    // the drops above merged with the external drops, null when it needs to be rebuilt
+    private volatile DropTableRegistry dropRegistry;
+    private int dropRegistryVersion;
+    private final LongAdder itemsMaterialized = new LongAdder();
+    private final LongAdder itemMaterializeNanos = new LongAdder();
+
+    /**
+     * @return the custom drops merged with the external drops. Don't hold on to it as it is
+     * replaced whenever customdrops.yml is loaded or external drops are registered
+     */
+    public @NotNull DropTableRegistry getDropRegistry() {
+        final DropTableRegistry registry = this.dropRegistry;
+        return registry != null ? registry : buildDropRegistry();
+    }
 
-            if (dropInstance.overallChance != null)
-                currentDropInstance.overallChance = dropInstance.overallChance;
-            currentDropInstance.overallPermissions.addAll(dropInstance.overallPermissions);
+    private synchronized @NotNull DropTableRegistry buildDropRegistry() {
+        if (this.dropRegistry == null) {
+            this.dropRegistry = new DropTableRegistry(++this.dropRegistryVersion,
+                this.customDropsitems, this.customDropsitems_Babies, this.customDropsitems_groups,
+                this.customItemGroups, this.externalCustomDrops);
         }
 
-        return drops;
+        return this.dropRegistry;
     }
 
-    public @NotNull Map<String, CustomDropInstance> getCustomDropsitems_groups(){
-        final Map<String, CustomDropInstance> drops = new TreeMap<>(
-                this.customItemGroups != null ? this.customItemGroups : new HashMap<>());
-        drops.putAll(this.customDropsitems_groups);
-
-        for (final String groupName : externalCustomDrops.getCustomDropTables().keySet()){
-            final CustomDropInstance dropInstance = externalCustomDrops.getCustomDropTables().get(groupName);
-            if (!drops.containsKey(groupName)){
-                drops.put(groupName, dropInstance);
-                continue;
-            }
-
-            // merge the 3rd party drops into the defined drops for the entity
-            // 3rd party drop settings will override any conflicting
-            final CustomDropInstance currentDropInstance = drops.get(groupName);
-            currentDropInstance.combineDrop(dropInstance);
+    /**
+     * Discards the merged drop registry so it is rebuilt on its next use.
+     * Needs to be called after any of the drop maps are changed. Takes the same lock as the
+     * rebuild so a rebuild from the old maps can't be published after this
+     */
+    public synchronized void invalidateDropRegistry() {
+        this.dropRegistry = null;
+    }
 
-            if (dropInstance.overallChance != null)
-                currentDropInstance.overallChance = dropInstance.overallChance;
-            currentDropInstance.overallPermissions.addAll(dropInstance.overallPermissions);
-        }
+    public @NotNull Map<EntityType, CustomDropInstance> getCustomDropsitems(){
+        return getDropRegistry().getCustomDrops();
+    }
 
-        return drops;
+    public @NotNull Map<String, CustomDropInstance> getCustomDropsitems_groups(){
+        return getDropRegistry().getGroups();
     }
 
     void addCustomDropItem(final @NotNull EntityType entityType, final @NotNull CustomDropInstance customDropInstance){
         this.customDropsitems.put(entityType, customDropInstance);
+        invalidateDropRegistry();
     }
 
     void addCustomDropGroup(final @NotNull String groupName, final @NotNull CustomDropInstance customDropInstance){
         this.customDropsitems_groups.put(groupName, customDropInstance);
+        invalidateDropRegistry();
     }
 
     public CustomDropResult getCustomItemDrops(final LivingEntityWrapper lmEntity,
@@ -201,17 +206,17 @@ public class CustomDropsHandler {
                 "&8- &7Groups: &b" + String.join("&7, &b", lmEntity.getApplicableGroups()) + "&7.");
         }
 
-        final List<String> groupsList = new LinkedList<>();
+        final DropTableRegistry registry = getDropRegistry();
+        final List<CustomDropInstance> groupsList = new LinkedList<>();
         for (final String group : lmEntity.getApplicableGroups()) {
-            if (!getCustomDropsitems_groups().containsKey(group)) {
-                continue;
+            final CustomDropInstance dropInstance = registry.getGroup(group);
+            if (dropInstance != null) {
+                groupsList.add(dropInstance);
             }
-
-            groupsList.add(group);
         }
 
-        final DropInstanceBuildResult buildResult = buildDropsListFromGroupsAndEntity(groupsList,
-            lmEntity.getEntityType(), processingInfo);
+        final DropInstanceBuildResult buildResult = buildDropsListFromGroupsAndEntity(registry,
+            groupsList, lmEntity.getEntityType(), processingInfo);
         if (buildResult != DropInstanceBuildResult.SUCCESSFUL) {
             // didn't make overall chance
             if (isCustomDropsDebuggingEnabled()) {
@@ -264,7 +269,8 @@ public class CustomDropsHandler {
         return new CustomDropResult(processingInfo.stackToItem, processingInfo.hasOverride);
     }
 
-    private DropInstanceBuildResult buildDropsListFromGroupsAndEntity(final List<String> groups,
+    private DropInstanceBuildResult buildDropsListFromGroupsAndEntity(
+        final @NotNull DropTableRegistry registry, final List<CustomDropInstance> groups,
         final EntityType entityType, @NotNull final CustomDropProcessingInfo info) {
         info.prioritizedDrops = new HashMap<>();
         info.hasOverride = false;
@@ -294,8 +300,7 @@ public class CustomDropsHandler {
         }
 
         if (!overrideNonDropTableDrops) {
-            for (final String group : groups) {
-                final CustomDropInstance dropInstance = getCustomDropsitems_groups().get(group);
+            for (final CustomDropInstance dropInstance : groups) {
                 info.allDropInstances.add(dropInstance);
 
                 for (final CustomDropBase baseItem : dropInstance.customItems) {
@@ -310,12 +315,13 @@ public class CustomDropsHandler {
                 }
             }
 
-            final Map<EntityType, CustomDropInstance> dropMap =
-                info.lmEntity.isBabyMob() && customDropsitems_Babies.containsKey(entityType) ?
-                    customDropsitems_Babies : getCustomDropsitems();
+            CustomDropInstance dropInstance = info.lmEntity.isBabyMob() ?
+                registry.getBabyDrops(entityType) : null;
+            if (dropInstance == null) {
+                dropInstance = registry.getDrops(entityType);
+            }
 
-            if (dropMap.containsKey(entityType)) {
-                final CustomDropInstance dropInstance = dropMap.get(entityType);
+            if (dropInstance != null) {
                 info.allDropInstances.add(dropInstance);
 
                 for (final CustomDropBase baseItem : dropInstance.customItems) {
@@ -666,7 +672,9 @@ public class CustomDropsHandler {
                 "Could not get external custom item - LM_Items is not installed");
         }
 
-        processEnchantmentChances(dropItem);
+        // the drop item's ItemStack is a prototype built at parse time, only the clone gets modified
+        final long materializeStart = System.nanoTime();
+        final Map<Enchantment, Integer> rolledEnchantments = rollEnchantments(dropItem);
 
         ItemStack newItem;
         if (dropItem.isExternalItem && main.companion.externalCompatibilityManager.doesLMIMeetVersionRequirement()
@@ -711,13 +719,24 @@ public class CustomDropsHandler {
                 .nextInt(dropItem.getDamageRangeMin(), dropItem.getDamageRangeMax() + 1);
         }
 
-        if (damage > 0 || dropItem.lore != null || dropItem.customName != null) {
+        final boolean hasEnchantments = rolledEnchantments != null && !rolledEnchantments.isEmpty();
+        if (damage > 0 || dropItem.lore != null || dropItem.customName != null || hasEnchantments) {
             final ItemMeta meta = newItem.getItemMeta();
 
             if (damage > 0 && meta instanceof Damageable) {
                 ((Damageable) meta).setDamage(damage);
             }
 
+            if (hasEnchantments) {
+                for (final Map.Entry<Enchantment, Integer> enchantment : rolledEnchantments.entrySet()) {
+                    if (meta instanceof final EnchantmentStorageMeta storageMeta) {
+                        storageMeta.addStoredEnchant(enchantment.getKey(), enchantment.getValue(), true);
+                    } else if (meta != null) {
+                        meta.addEnchant(enchantment.getKey(), enchantment.getValue(), true);
+                    }
+                }
+            }
+
             if (meta != null && dropItem.lore != null && !dropItem.lore.isEmpty()) {
                 final List<String> newLore = new ArrayList<>(dropItem.lore.size());
                 for (final String lore : dropItem.lore) {
@@ -756,76 +775,56 @@ public class CustomDropsHandler {
         if (newItem.getType() == Material.PLAYER_HEAD) {
             main.mobHeadManager.updateMobHeadFromPlayerHead(newItem, info.lmEntity, dropItem);
         }
+        recordItemMaterialized(materializeStart);
 
         info.newDrops.add(newItem);
         info.stackToItem.add(Utils.getPair(newItem, dropItem));
     }
 
-    private void processEnchantmentChances(final @NotNull CustomDropItem dropItem){
-        if (dropItem.enchantmentChances == null || dropItem.enchantmentChances.isEmpty()) return;
+    private @Nullable Map<Enchantment, Integer> rollEnchantments(final @NotNull CustomDropItem dropItem){
+        if (dropItem.enchantmentChances == null || dropItem.enchantmentChances.isEmpty()) return null;
 
+        final Map<Enchantment, Integer> results = new HashMap<>();
         final StringBuilder debug = new StringBuilder();
-        boolean isFirstEnchantment = true;
-        for (final Enchantment enchantment : dropItem.enchantmentChances.items.keySet()){
-            final EnchantmentChances.ChanceOptions opts = dropItem.enchantmentChances.options.get(enchantment);
-            boolean madeAnyChance = false;
-            if (isCustomDropsDebuggingEnabled()) {
-                if (!isFirstEnchantment) debug.append("; ");
-                debug.append(enchantment.getKey().value()).append(": ");
-            }
-
-            if (isFirstEnchantment)
-                isFirstEnchantment = false;
-
-            int enchantmentNumber = 0;
-            final List<Integer> levelsList = new ArrayList<>(dropItem.enchantmentChances.items.get(enchantment).keySet());
-            if (opts == null || opts.doShuffle)
-                Collections.shuffle(levelsList);
-
-            for (final int enchantLevel : levelsList){
-                final float chanceValue = dropItem.enchantmentChances.items.get(enchantment).get(enchantLevel);
-                if (chanceValue <= 0.0f) continue;
-                enchantmentNumber++;
-
-                final float chanceRole =
-                        (float) ThreadLocalRandom.current().nextInt(0, 100001) * 0.00001F;
-                final boolean madeChance = 1.0F - chanceRole < chanceValue;
-                if (!madeChance){
-                    if (isCustomDropsDebuggingEnabled()){
-                        if (enchantmentNumber > 1) debug.append(", ");
-                        debug.append(String.format("%s: &4%s&r &b(%s)&r", enchantLevel, chanceRole, chanceValue));
-                    }
-                    continue;
-                }
-
-                if (isCustomDropsDebuggingEnabled()){
-                    if (enchantmentNumber > 1) debug.append(", ");
-                    debug.append(String.format("%s: &2%s&r &b(%s)&r", enchantLevel, chanceRole, chanceValue));
-                }
+        for (final EnchantmentChances.EnchantmentRoll roll : dropItem.enchantmentChances.getRolls()){
+            final double chanceRole = ThreadLocalRandom.current().nextDouble();
+            final Integer enchantLevel = roll.getLevel(chanceRole);
 
-                if (dropItem.getMaterial() == Material.ENCHANTED_BOOK){
-                    final EnchantmentStorageMeta meta = (EnchantmentStorageMeta) dropItem.getItemStack().getItemMeta();
-                    if (meta != null) {
-                        meta.addStoredEnchant(enchantment, enchantLevel, true);
-                        dropItem.getItemStack().setItemMeta(meta);
-                    }
-                }
-                else{
-                    dropItem.getItemStack().addUnsafeEnchantment(enchantment, enchantLevel);
-                }
-                madeAnyChance = true;
-                break;
+            if (isCustomDropsDebuggingEnabled()) {
+                if (debug.length() > 0) debug.append("; ");
+                debug.append(roll.enchantment().getKey().value()).append(": ");
+                debug.append(String.format("&b%s&r -> %s", Utils.round(chanceRole, 4),
+                        enchantLevel == null ? "&4none&r" : "&2" + enchantLevel + "&r"));
             }
 
-            if (!madeAnyChance && opts != null && opts.defaultLevel != null){
-                dropItem.getItemStack().addUnsafeEnchantment(enchantment, opts.defaultLevel);
-                if (isCustomDropsDebuggingEnabled())
-                    debug.append(", used dflt: &2").append(opts.defaultLevel).append("&r");
-            }
+            if (enchantLevel != null)
+                results.put(roll.enchantment(), enchantLevel);
         }
 
         if (isCustomDropsDebuggingEnabled())
             Utils.logger.info(debug.toString());
+
+        return results;
+    }
+
+    private void recordItemMaterialized(final long startNanos){
+        this.itemsMaterialized.increment();
+        this.itemMaterializeNanos.add(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * @return how many custom drop items have been built from their prototypes
+     */
+    public long getItemsMaterialized(){
+        return this.itemsMaterialized.sum();
+    }
+
+    /**
+     * @return the total time spent building custom drop items from their prototypes,
+     * from cloning to applying the rolled enchantments, lore and name
+     */
+    public long getItemMaterializeNanos(){
+        return this.itemMaterializeNanos.sum();
     }
 
     private boolean hasReachedChunkKillLimit(final @NotNull LivingEntityWrapper lmEntity) {
@@ -915,64 +914,32 @@ public class CustomDropsHandler {
             return false;
         }
 
-        return isMobWearingItem(item.getItemStack(), info.lmEntity.getLivingEntity(), item);
+        return isMobWearingItem(info.lmEntity.getLivingEntity(), item);
     }
 
-    private boolean isMobWearingItem(final ItemStack item, final @NotNull LivingEntity mob,
-        final CustomDropItem customDropItem) {
-        final EntityEquipment equipment = mob.getEquipment();
-        if (equipment == null) {
+    private boolean isMobWearingItem(final @NotNull LivingEntity mob,
+        final @NotNull CustomDropItem customDropItem) {
+        if (customDropItem.getDropItemId() == 0) {
             return false;
         }
 
-        final EquippedItemsInfo equippedItemsInfo = this.customEquippedItems.get(mob);
-        if (equippedItemsInfo == null) {
-            return false;
+        final int[] equippedItemIds;
+        final PersistentDataContainer pdc = mob.getPersistentDataContainer();
+        synchronized (pdc) {
+            equippedItemIds = pdc.get(main.namespacedKeys.equippedItemIds,
+                PersistentDataType.INTEGER_ARRAY);
         }
-
-        switch (item.getType()) {
-            case LEATHER_HELMET:
-            case CHAINMAIL_HELMET:
-            case IRON_HELMET:
-            case DIAMOND_HELMET:
-            case NETHERITE_HELMET:
-                if (equippedItemsInfo.helmet != null
-                    && customDropItem == equippedItemsInfo.helmet) {
-                    return true;
-                }
-            case LEATHER_CHESTPLATE:
-            case CHAINMAIL_CHESTPLATE:
-            case IRON_CHESTPLATE:
-            case DIAMOND_CHESTPLATE:
-            case NETHERITE_CHESTPLATE:
-                if (equippedItemsInfo.chestplate != null
-                    && customDropItem == equippedItemsInfo.chestplate) {
-                    return true;
-                }
-            case LEATHER_LEGGINGS:
-            case CHAINMAIL_LEGGINGS:
-            case IRON_LEGGINGS:
-            case DIAMOND_LEGGINGS:
-            case NETHERITE_LEGGINGS:
-                if (equippedItemsInfo.leggings != null
-                    && customDropItem == equippedItemsInfo.leggings) {
-                    return true;
-                }
-            case LEATHER_BOOTS:
-            case CHAINMAIL_BOOTS:
-            case IRON_BOOTS:
-            case DIAMOND_BOOTS:
-            case NETHERITE_BOOTS:
-                if (equippedItemsInfo.boots != null && customDropItem == equippedItemsInfo.boots) {
-                    return true;
-                }
+        if (equippedItemIds == null) {
+            return false;
         }
 
-        if (equippedItemsInfo.mainHand != null && customDropItem == equippedItemsInfo.mainHand) {
-            return true;
+        for (final int id : equippedItemIds) {
+            if (id == customDropItem.getDropItemId()) {
+                return true;
+            }
         }
 
-        return equippedItemsInfo.offhand != null && customDropItem == equippedItemsInfo.offhand;
+        return false;
     }
 
     private boolean madePlayerLevelRequirement(final @NotNull CustomDropProcessingInfo info,
@@ -1023,21 +990,23 @@ public class CustomDropsHandler {
             return;
         }
 
-        for (String command : customCommand.commands) {
+        final String playerName = info.wasKilledByPlayer ?
+            Objects.requireNonNull(info.lmEntity.getLivingEntity().getKiller()).getName() :
+            "";
 
-            final String playerName = info.wasKilledByPlayer ?
-                Objects.requireNonNull(info.lmEntity.getLivingEntity().getKiller()).getName() :
-                "";
-
-            command = Utils.replaceEx(command, "%player%", playerName);
-            command = processRangedCommand(command, customCommand);
-            command = main.levelManager.replaceStringPlaceholders(command, info.lmEntity,false);
-            if (command.contains("%") && ExternalCompatibilityManager.hasPapiInstalled()) {
-                command = ExternalCompatibilityManager.getPapiPlaceholder(info.mobKiller, command);
+        for (final CustomCommand.CommandTemplate template : customCommand.templates) {
+            String command = template.command();
+            if (template.hasPlayerName()) {
+                command = Utils.replaceEx(command, "%player%", playerName);
+            }
+            command = processRangedCommand(command, template);
+            if (template.hasPlaceholders()) {
+                command = main.levelManager.replaceStringPlaceholders(command, info.lmEntity, false);
+                if (command.contains("%") && ExternalCompatibilityManager.hasPapiInstalled()) {
+                    command = ExternalCompatibilityManager.getPapiPlaceholder(info.mobKiller, command);
+                }
             }
 
-            final int maxAllowedTimesToRun = ymlHelper.getInt(main.settingsCfg,
-                "customcommand-amount-limit", 10);
             int timesToRun = customCommand.getAmount();
 
             if (customCommand.getHasAmountRange()) {
@@ -1046,8 +1015,8 @@ public class CustomDropsHandler {
                     + customCommand.amountRangeMin;
             }
 
-            if (timesToRun > maxAllowedTimesToRun) {
-                timesToRun = maxAllowedTimesToRun;
+            if (timesToRun > this.maxAllowedTimesToRun) {
+                timesToRun = this.maxAllowedTimesToRun;
             }
 
             final String debugCommand = timesToRun > 1 ?
@@ -1055,60 +1024,17 @@ public class CustomDropsHandler {
 
             Utils.debugLog(main, DebugType.CUSTOM_COMMANDS, debugCommand + command);
 
-            if (customCommand.delay > 0) {
-                final String commandToRun = command;
-                final int finalTimesToRun = timesToRun;
-                final BukkitRunnable runnable = new BukkitRunnable() {
-                    @Override
-                    public void run() {
-                        executeTheCommand(commandToRun, finalTimesToRun);
-                    }
-                };
-                runnable.runTaskLater(main, customCommand.delay);
-            } else {
-                executeTheCommand(command, timesToRun);
-            }
-        }
-    }
-
-    private void executeTheCommand(final String command, final int timesToRun) {
-        for (int i = 0; i < timesToRun; i++) {
-            Bukkit.dispatchCommand(Bukkit.getConsoleSender(), command);
+            commandDispatcher.dispatch(command, timesToRun, customCommand.delay);
         }
     }
 
     @NotNull private String processRangedCommand(final @NotNull String command,
-        final @NotNull CustomCommand cc) {
-        if (cc.rangedEntries.isEmpty()) {
-            return command;
-        }
-
+        final @NotNull CustomCommand.CommandTemplate template) {
         String newCommand = command;
 
-        for (final Map.Entry<String, String> rangeds : cc.rangedEntries.entrySet()) {
-            final String rangedKey = rangeds.getKey();
-            final String rangedValue = rangeds.getValue();
-            if (!rangedValue.contains("-")) {
-                newCommand = newCommand.replace("%" + rangedKey + "%", rangedValue);
-                continue;
-            }
-
-            final String[] nums = rangedValue.split("-");
-            if (nums.length != 2) {
-                continue;
-            }
-
-            if (!Utils.isInteger(nums[0].trim()) || !Utils.isInteger(nums[1].trim())) {
-                continue;
-            }
-            int min = Integer.parseInt(nums[0].trim());
-            final int max = Integer.parseInt(nums[1].trim());
-            if (max < min) {
-                min = max;
-            }
-
-            final int rangedNum = main.random.nextInt(max - min + 1) + min;
-            newCommand = newCommand.replace("%" + rangedKey + "%", String.valueOf(rangedNum));
+        for (final CustomCommand.RangedEntry range : template.ranges()) {
+            final int rangedNum = main.random.nextInt(range.max() - range.min() + 1) + range.min();
+            newCommand = newCommand.replace(range.placeholder(), String.valueOf(rangedNum));
         }
 
         return newCommand;
@@ -1126,9 +1052,17 @@ public class CustomDropsHandler {
         };
     }
 
+    /**
+     * Stores the ids of the equipped custom drop items on the mob so they are still known
+     * after a restart or the chunk reloading
+     */
     public void addEntityEquippedItems(final @NotNull LivingEntity livingEntity,
         final @NotNull EquippedItemsInfo equippedItemsInfo) {
-        this.customEquippedItems.put(livingEntity, equippedItemsInfo);
+        final PersistentDataContainer pdc = livingEntity.getPersistentDataContainer();
+        synchronized (pdc) {
+            pdc.set(main.namespacedKeys.equippedItemIds, PersistentDataType.INTEGER_ARRAY,
+                equippedItemsInfo.getDropItemIds());
+        }
     }
 
     private boolean isCustomDropsDebuggingEnabled() {
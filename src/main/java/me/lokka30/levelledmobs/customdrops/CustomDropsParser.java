@@ -63,6 +63,15 @@ public class CustomDropsParser {
     public boolean dropsUtilizeNBTAPI;
 
     public void loadDrops(final YamlConfiguration customDropsCfg) {
+        loadDrops(customDropsCfg, main.rulesManager.getRules().rulesInEffect());
+    }
+
+    /**
+     * @param rulesInEffect the rules used to check if custom drops are enabled, these can be
+     *                      rules that were parsed but are not in effect yet
+     */
+    public void loadDrops(final YamlConfiguration customDropsCfg,
+        final @NotNull SortedMap<Integer, List<RuleInfo>> rulesInEffect) {
         this.dropsUtilizeNBTAPI = false;
         if (customDropsCfg == null) {
             return;
@@ -70,7 +79,7 @@ public class CustomDropsParser {
 
         boolean isDropsEnabledForAnyRule = false;
 
-        for (final List<RuleInfo> rules : main.rulesManager.rulesInEffect.values()) {
+        for (final List<RuleInfo> rules : rulesInEffect.values()) {
             for (final RuleInfo ruleInfo : rules) {
                 if (ruleInfo.customDrops_UseForMobs != null && ruleInfo.customDrops_UseForMobs) {
                     isDropsEnabledForAnyRule = true;
@@ -236,21 +245,22 @@ public class CustomDropsParser {
 
                 if (!dropInstance.customItems.isEmpty() || dropInstance.overrideStockDrops) {
                     if (isUniversalGroup) {
-                        if (handler.getCustomDropsitems_groups().containsKey(
+                        if (handler.customDropsitems_groups.containsKey(
                             universalGroup.toString())) {
-                            handler.getCustomDropsitems_groups().get(universalGroup.toString())
+                            handler.customDropsitems_groups.get(universalGroup.toString())
                                 .combineDrop(dropInstance);
                         } else {
                             handler.addCustomDropGroup(universalGroup.toString(), dropInstance);
                         }
                     } else {
                         final Map<EntityType, CustomDropInstance> dropMap = dropInstance.isBabyMob ?
-                            handler.customDropsitems_Babies : handler.getCustomDropsitems();
+                            handler.customDropsitems_Babies : handler.customDropsitems;
 
                         if (dropMap.containsKey(entityType)) {
                             dropMap.get(entityType).combineDrop(dropInstance);
                         } else {
                             dropMap.put(entityType, dropInstance);
+                            // baby drops are also registered for the adult mob type
                             handler.addCustomDropItem(entityType, dropInstance);
                         }
                     }
@@ -258,6 +268,8 @@ public class CustomDropsParser {
             } // next mob or group
         } // next root item from file
 
+        handler.invalidateDropRegistry();
+
         if (main.companion.debugsEnabled.contains(DebugType.CUSTOM_DROPS)) {
             int dropsCount = 0;
             int commandsCount = 0;
@@ -494,6 +506,7 @@ public class CustomDropsParser {
             customCommand.runOnSpawn = ymlHelper.getBoolean(cs, "run-on-spawn", false);
             customCommand.runOnDeath = ymlHelper.getBoolean(cs, "run-on-death", true);
             parseRangedVariables(customCommand, cs);
+            customCommand.buildTemplates();
 
             if (customCommand.commands.isEmpty()) {
                 Utils.logger.warning("no command was specified for custom command");
@@ -773,6 +786,7 @@ public class CustomDropsParser {
         }
 
         item.enchantmentChances.items.put(enchantment, items);
+        item.enchantmentChances.compileRolls();
     }
 
     private void parseRangedVariables(final CustomCommand cc,
@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2020-2022  lokka30. Use of this source code is governed by the GNU AGPL v3.0 license that can be found in the LICENSE.md file.
+ */
+
+package me.lokka30.levelledmobs.customdrops;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import org.bukkit.entity.EntityType;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * An immutable snapshot of the custom drops from customdrops.yml merged with any drops registered
+ * through {@link ExternalCustomDrops}. A new registry is built whenever either of them changes so
+ * mob deaths can read the drops without copying or merging anything.
+ * <p>
+ * Each drop item is also given an id so it can be stored on mobs, such as for equipped items.
+ * Ids are derived from where the item is defined so they stay the same across restarts as long as
+ * customdrops.yml doesn't change.
+ *
+ * @author stumper66
+ * @since 3.8.0
+ */
+public class DropTableRegistry {
+
+    DropTableRegistry(final int version,
+        final @NotNull Map<EntityType, CustomDropInstance> customDropsitems,
+        final @NotNull Map<EntityType, CustomDropInstance> customDropsitems_Babies,
+        final @NotNull Map<String, CustomDropInstance> customDropsitems_groups,
+        final @Nullable Map<String, CustomDropInstance> customItemGroups,
+        final @NotNull ExternalCustomDrops externalCustomDrops) {
+        this.version = version;
+
+        final Map<EntityType, CustomDropInstance> drops = new EnumMap<>(EntityType.class);
+        drops.putAll(customDropsitems);
+        for (final Map.Entry<EntityType, CustomDropInstance> entry :
+            externalCustomDrops.getCustomDrops().entrySet()) {
+            drops.put(entry.getKey(), mergeDrop(drops.get(entry.getKey()), entry.getValue()));
+        }
+
+        final Map<String, CustomDropInstance> groups = new TreeMap<>(
+            customItemGroups != null ? customItemGroups : new HashMap<>());
+        groups.putAll(customDropsitems_groups);
+        for (final Map.Entry<String, CustomDropInstance> entry :
+            externalCustomDrops.getCustomDropTables().entrySet()) {
+            groups.put(entry.getKey(), mergeDrop(groups.get(entry.getKey()), entry.getValue()));
+        }
+
+        this.dropsByType = new CustomDropInstance[EntityType.values().length];
+        this.babyDropsByType = new CustomDropInstance[EntityType.values().length];
+        for (final Map.Entry<EntityType, CustomDropInstance> entry : drops.entrySet()) {
+            this.dropsByType[entry.getKey().ordinal()] = entry.getValue();
+        }
+        for (final Map.Entry<EntityType, CustomDropInstance> entry :
+            customDropsitems_Babies.entrySet()) {
+            this.babyDropsByType[entry.getKey().ordinal()] = entry.getValue();
+        }
+
+        this.customDrops = Collections.unmodifiableMap(drops);
+        this.groups = Collections.unmodifiableMap(groups);
+
+        this.itemsById = new HashMap<>();
+        for (final Map.Entry<EntityType, CustomDropInstance> entry : drops.entrySet()) {
+            indexItems("mob:" + entry.getKey().name(), entry.getValue());
+        }
+        for (final Map.Entry<EntityType, CustomDropInstance> entry :
+            customDropsitems_Babies.entrySet()) {
+            indexItems("baby:" + entry.getKey().name(), entry.getValue());
+        }
+        for (final Map.Entry<String, CustomDropInstance> entry : groups.entrySet()) {
+            indexItems("group:" + entry.getKey(), entry.getValue());
+        }
+    }
+
+    public final int version;
+    private final CustomDropInstance[] dropsByType;
+    private final CustomDropInstance[] babyDropsByType;
+    private final Map<EntityType, CustomDropInstance> customDrops;
+    private final Map<String, CustomDropInstance> groups;
+    private final Map<Integer, CustomDropItem> itemsById;
+
+    private void indexItems(final @NotNull String source,
+        final @NotNull CustomDropInstance dropInstance) {
+        int index = 0;
+        for (final CustomDropBase baseItem : dropInstance.customItems) {
+            index++;
+            if (!(baseItem instanceof final CustomDropItem dropItem)) {
+                continue;
+            }
+
+            // keep the id from a previous registry unless another item already took it
+            if (dropItem.dropItemId != 0) {
+                final CustomDropItem existing = itemsById.putIfAbsent(dropItem.dropItemId,
+                    dropItem);
+                if (existing == null || existing == dropItem) {
+                    continue;
+                }
+            }
+
+            int id = (source + "/" + index + "/" + dropItem.getMaterial()).hashCode();
+            while (id == 0 || itemsById.containsKey(id)) {
+                id++;
+            }
+
+            dropItem.dropItemId = id;
+            itemsById.put(id, dropItem);
+        }
+    }
+
+    @NotNull private static CustomDropInstance mergeDrop(
+        final @Nullable CustomDropInstance currentDropInstance,
+        final @NotNull CustomDropInstance dropInstance) {
+        if (currentDropInstance == null) {
+            return dropInstance;
+        }
+
+        // merge the 3rd party drops into a copy of the defined drops for the entity
+        // 3rd party drop settings will override any conflicting
+        final CustomDropInstance merged = new CustomDropInstance(currentDropInstance);
+        merged.combineDrop(dropInstance);
+
+        if (dropInstance.overallChance != null) {
+            merged.overallChance = dropInstance.overallChance;
+        }
+        merged.overallPermissions.addAll(dropInstance.overallPermissions);
+
+        return merged;
+    }
+
+    @Nullable public CustomDropInstance getDrops(final @NotNull EntityType entityType) {
+        return dropsByType[entityType.ordinal()];
+    }
+
+    @Nullable public CustomDropInstance getBabyDrops(final @NotNull EntityType entityType) {
+        return babyDropsByType[entityType.ordinal()];
+    }
+
+    @Nullable public CustomDropItem getItem(final int dropItemId) {
+        return itemsById.get(dropItemId);
+    }
+
+    @Nullable public CustomDropInstance getGroup(final @NotNull String groupName) {
+        return groups.get(groupName);
+    }
+
+    @NotNull public Map<EntityType, CustomDropInstance> getCustomDrops() {
+        return this.customDrops;
+    }
+
+    @NotNull public Map<String, CustomDropInstance> getGroups() {
+        return this.groups;
+    }
+}
@@ -1,28 +1,144 @@
 package me.lokka30.levelledmobs.customdrops;
 
 import org.bukkit.enchantments.Enchantment;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 public class EnchantmentChances {
     public EnchantmentChances(){
         this.items = new HashMap<>();
         this.options = new HashMap<>();
+        this.rolls = List.of();
     }
 
     public final Map<Enchantment, Map<Integer, Float>> items;
     public final Map<Enchantment, ChanceOptions> options;
+    // built from items and options by compileRolls()
+    private List<EnchantmentRoll> rolls;
 
     public boolean isEmpty(){
         return this.items.isEmpty();
     }
 
+    public @NotNull List<EnchantmentRoll> getRolls(){
+        return this.rolls;
+    }
+
+    /**
+     * Builds the roll for each enchantment. Needs to be called after items or options
+     * have been changed
+     */
+    public void compileRolls(){
+        final List<EnchantmentRoll> results = new ArrayList<>(this.items.size());
+        for (final Map.Entry<Enchantment, Map<Integer, Float>> entry : this.items.entrySet()){
+            final ChanceOptions opts = this.options.get(entry.getKey());
+            results.add(EnchantmentRoll.build(entry.getKey(), entry.getValue(),
+                    opts == null || opts.doShuffle, opts != null ? opts.defaultLevel : null));
+        }
+
+        this.rolls = List.copyOf(results);
+    }
+
     public static class ChanceOptions{
         public Integer defaultLevel;
         public boolean doShuffle = true;
     }
 
+    /**
+     * The levels of an enchantment are each tried with their own chance until one is made,
+     * optionally in a random order. Rather than repeating that on every drop the probability
+     * of each level being the one picked is worked out once so a drop only needs a single roll
+     */
+    public record EnchantmentRoll(@NotNull Enchantment enchantment, int @NotNull [] levels,
+                                  double @NotNull [] cumulativeChances,
+                                  @Nullable Integer defaultLevel) {
+
+        static @NotNull EnchantmentRoll build(final @NotNull Enchantment enchantment,
+                                              final @NotNull Map<Integer, Float> chances,
+                                              final boolean doShuffle,
+                                              final @Nullable Integer defaultLevel){
+            final List<Integer> levelsList = new ArrayList<>(chances.size());
+            final List<Double> chanceList = new ArrayList<>(chances.size());
+            for (final Map.Entry<Integer, Float> entry : chances.entrySet()){
+                if (entry.getValue() <= 0.0f) continue;
+                levelsList.add(entry.getKey());
+                chanceList.add(Math.min(1.0, entry.getValue()));
+            }
+
+            final int count = levelsList.size();
+            final int[] levels = new int[count];
+            final double[] cumulative = new double[count];
+            double total = 0.0;
+
+            for (int i = 0; i < count; i++){
+                levels[i] = levelsList.get(i);
+                final double chance = chanceList.get(i);
+                // chance that none of the levels tried before this one were made
+                final double noneBefore = doShuffle ?
+                        chanceNoneBeforeShuffled(chanceList, i) :
+                        chanceNoneBeforeInOrder(chanceList, i);
+
+                total += chance * noneBefore;
+                cumulative[i] = total;
+            }
+
+            return new EnchantmentRoll(enchantment, levels, cumulative, defaultLevel);
+        }
+
+        private static double chanceNoneBeforeInOrder(final @NotNull List<Double> chances,
+                                                      final int index){
+            double result = 1.0;
+            for (int i = 0; i < index; i++)
+                result *= 1.0 - chances.get(i);
+
+            return result;
+        }
+
+        private static double chanceNoneBeforeShuffled(final @NotNull List<Double> chances,
+                                                       final int index){
+            // with a random order each group of k other levels is equally likely to be tried
+            // first, so average the elementary symmetric sums of their miss chances
+            final int others = chances.size() - 1;
+            final double[] sums = new double[others + 1];
+            sums[0] = 1.0;
+            int used = 0;
+            for (int i = 0; i < chances.size(); i++){
+                if (i == index) continue;
+                final double miss = 1.0 - chances.get(i);
+                used++;
+                for (int k = used; k >= 1; k--)
+                    sums[k] += sums[k - 1] * miss;
+            }
+
+            double result = 0.0;
+            double combinations = 1.0;
+            for (int k = 0; k <= others; k++){
+                result += sums[k] / combinations;
+                combinations = combinations * (others - k) / (k + 1);
+            }
+
+            return result / (others + 1);
+        }
+
+        /**
+         * @param roll a random value from 0 (inclusive) to 1 (exclusive)
+         * @return the level picked by the roll or the default level
+         */
+        public @Nullable Integer getLevel(final double roll){
+            for (int i = 0; i < levels.length; i++){
+                if (roll < cumulativeChances[i])
+                    return levels[i];
+            }
+
+            return defaultLevel;
+        }
+    }
+
     public String toString(){
         return String.format("EnchantmentChances, %s items", this.items.size());
     }
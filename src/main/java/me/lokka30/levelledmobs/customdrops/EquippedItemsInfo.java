@@ -8,4 +8,18 @@ public class EquippedItemsInfo {
     public CustomDropItem boots;
     public CustomDropItem mainHand;
     public CustomDropItem offhand;
+
+    /**
+     * @return the drop item id of each slot, 0 if nothing was equipped in the slot
+     */
+    public int[] getDropItemIds() {
+        return new int[]{
+            getId(helmet), getId(chestplate), getId(leggings),
+            getId(boots), getId(mainHand), getId(offhand)
+        };
+    }
+
+    private static int getId(final CustomDropItem item) {
+        return item == null ? 0 : item.getDropItemId();
+    }
 }
@@ -13,20 +13,25 @@ import java.util.TreeMap;
  * @since 3.7.0
  */
 public class ExternalCustomDropsImpl implements ExternalCustomDrops {
-    public ExternalCustomDropsImpl(){
+    public ExternalCustomDropsImpl(final @NotNull Runnable onChanged){
         this.customDropsitems = new TreeMap<>();
         this.customDropIDs = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        this.onChanged = onChanged;
     }
 
     final Map<EntityType, CustomDropInstance> customDropsitems;
     final Map<String, CustomDropInstance> customDropIDs;
+    // lets the custom drops handler rebuild its merged drop registry
+    private final Runnable onChanged;
 
     public void addCustomDrop(final @NotNull CustomDropInstance customDropInstance){
         this.customDropsitems.put(customDropInstance.getAssociatedMobType(), customDropInstance);
+        onChanged.run();
     }
 
     public void addCustomDropTable(final @NotNull String dropName, final @NotNull CustomDropInstance customDropInstance){
         this.customDropIDs.put(dropName, customDropInstance);
+        onChanged.run();
     }
 
     public @NotNull Map<EntityType, CustomDropInstance> getCustomDrops(){
@@ -40,5 +45,6 @@ public class ExternalCustomDropsImpl implements ExternalCustomDrops {
     public void clearAllExternalCustomDrops(){
         this.customDropsitems.clear();
         this.customDropIDs.clear();
+        onChanged.run();
     }
 }
@@ -24,6 +24,8 @@ import org.bukkit.event.world.ChunkLoadEvent;
 public class ChunkLoadListener implements Listener {
 
     private final LevelledMobs main;
+    private long chunksProcessed;
+    private long mobsSkipped;
 
     public ChunkLoadListener(final LevelledMobs main) {
         this.main = main;
@@ -31,29 +33,48 @@ public class ChunkLoadListener implements Listener {
 
     @EventHandler(ignoreCancelled = true, priority = EventPriority.MONITOR)
     public void onChunkLoad(final ChunkLoadEvent event) {
+        if (main.eventTraceRecorder.isRecording()) {
+            main.eventTraceRecorder.recordChunkLoad(event.getChunk());
+        }
 
         if (!main.helperSettings.getBoolean(main.settingsCfg,
             "ensure-mobs-are-levelled-on-chunk-load", true)) {
             return;
         }
 
-        // Check each entity in the chunk
+        chunksProcessed++;
+
+        // Check each entity in the chunk. Every chunk is checked as mobs can wander in from other
+        // chunks or have been spawned while LM wasn't able to level them
         for (final Entity entity : event.getChunk().getEntities()) {
 
-            // Must be a *living* entity
-            if (!(entity instanceof LivingEntity)) {
+            // Must be a *living* entity that can be levelled
+            if (!(entity instanceof final LivingEntity livingEntity)
+                || main.levelManager.FORCED_BLOCKED_ENTITY_TYPES.contains(entity.getType())) {
                 continue;
             }
-            final LivingEntityWrapper lmEntity = LivingEntityWrapper.getInstance(
-                (LivingEntity) entity, main);
 
-            if (lmEntity.isLevelled()) {
-                lmEntity.free();
+            // checks the level index before the PDC and doesn't need a wrapper
+            if (main.levelManager.isLevelled(livingEntity)) {
+                mobsSkipped++;
                 continue;
             }
 
+            final LivingEntityWrapper lmEntity = LivingEntityWrapper.getInstance(livingEntity,
+                main);
             main.mobsQueueManager.addToQueue(new QueueItem(lmEntity, event));
             lmEntity.free();
         }
     }
+
+    public long getChunksProcessed() {
+        return this.chunksProcessed;
+    }
+
+    /**
+     * @return how many mobs were already levelled so no wrapper was built for them
+     */
+    public long getMobsSkipped() {
+        return this.mobsSkipped;
+    }
 }
@@ -83,7 +83,7 @@ public class CombustListener implements Listener {
         lmEntity.getLivingEntity().setHealth(newHealth);
 
         if (lmEntity.isLevelled()) {
-            main.levelManager.updateNametag(lmEntity);
+            main.levelManager.updateNametagIfChanged(lmEntity);
         }
 
         lmEntity.free();
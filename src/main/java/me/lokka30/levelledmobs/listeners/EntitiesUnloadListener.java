@@ -0,0 +1,35 @@
+/*
+ * Copyright (c) 2020-2022  lokka30. Use of this source code is governed by the GNU AGPL v3.0 license that can be found in the LICENSE.md file.
+ */
+
+package me.lokka30.levelledmobs.listeners;
+
+import org.bukkit.entity.Entity;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.EntitiesUnloadEvent;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Forgets mobs when their entities are unloaded. Only registered on 1.17+ where entities are
+ * unloaded separately from their chunk.
+ *
+ * @author stumper66
+ * @since 3.8.0
+ */
+public class EntitiesUnloadListener implements Listener {
+
+    public EntitiesUnloadListener(final EntityCleanupListener cleanupListener) {
+        this.cleanupListener = cleanupListener;
+    }
+
+    private final EntityCleanupListener cleanupListener;
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEntitiesUnload(@NotNull final EntitiesUnloadEvent event) {
+        for (final Entity entity : event.getEntities()) {
+            cleanupListener.removeEntity(entity);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2020-2022  lokka30. Use of this source code is governed by the GNU AGPL v3.0 license that can be found in the LICENSE.md file.
+ */
+
+package me.lokka30.levelledmobs.listeners;
+
+import java.util.HashSet;
+import java.util.Set;
+import me.lokka30.levelledmobs.LevelledMobs;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.entity.EntityDeathEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Removes mobs from the maps LM tracks them in once they die or are unloaded, so the maps don't
+ * depend on the garbage collector to shrink. Spigot doesn't fire an event when a mob despawns or
+ * is removed by a plugin, so the maps are also swept periodically for mobs that are no longer
+ * loaded.
+ *
+ * @author stumper66
+ * @since 3.8.0
+ */
+public class EntityCleanupListener implements Listener {
+
+    public EntityCleanupListener(final LevelledMobs main, final boolean useChunkUnload) {
+        this.main = main;
+        this.useChunkUnload = useChunkUnload;
+    }
+
+    private final LevelledMobs main;
+    // on 1.17+ entities unload separately from chunks and EntitiesUnloadListener handles them
+    private final boolean useChunkUnload;
+    private long entitiesRemoved;
+    private long sweepCount;
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEntityDeath(@NotNull final EntityDeathEvent event) {
+        removeEntity(event.getEntity());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkUnload(@NotNull final ChunkUnloadEvent event) {
+        if (!useChunkUnload) {
+            return;
+        }
+
+        for (final Entity entity : event.getChunk().getEntities()) {
+            removeEntity(entity);
+        }
+    }
+
+    public void removeEntity(final @NotNull Entity entity) {
+        if (!(entity instanceof LivingEntity) || entity instanceof Player) {
+            return;
+        }
+
+        final int entityId = entity.getEntityId();
+        main.playerLevellingEntities.remove(entityId);
+        main.levelIndex.remove(entityId);
+        main.levelManager.removeEntity(entityId);
+        main.nametagTimerChecker.removeEntity(entityId);
+        main.nametagQueueManager.removeEntity(entityId);
+        entitiesRemoved++;
+    }
+
+    /**
+     * Drops entries for any mob that is no longer valid or whose chunk has unloaded. Must be run
+     * on the main thread since it reads every world's entities, so it isn't used on Folia where
+     * Paper's remove from world event already covers these cases
+     */
+    public void sweep() {
+        final Set<Integer> loadedIds = new HashSet<>();
+        for (final World world : Bukkit.getWorlds()) {
+            for (final LivingEntity livingEntity : world.getLivingEntities()) {
+                if (livingEntity.isValid()) {
+                    loadedIds.add(livingEntity.getEntityId());
+                }
+            }
+        }
+
+        main.playerLevellingEntities.keySet().retainAll(loadedIds);
+        main.levelIndex.retainEntities(loadedIds);
+        main.levelManager.retainEntities(loadedIds);
+        main.nametagTimerChecker.retainEntities(loadedIds);
+        main.nametagQueueManager.retainEntities(loadedIds);
+        sweepCount++;
+    }
+
+    public long getEntitiesRemoved() {
+        return this.entitiesRemoved;
+    }
+
+    public long getSweepCount() {
+        return this.sweepCount;
+    }
+}
@@ -10,6 +10,7 @@ import java.util.List;
 import me.lokka30.levelledmobs.LevelledMobs;
 import me.lokka30.levelledmobs.misc.Addition;
 import me.lokka30.levelledmobs.misc.DebugType;
+import me.lokka30.levelledmobs.misc.EventTraceRecorder;
 import me.lokka30.levelledmobs.misc.LivingEntityWrapper;
 import me.lokka30.levelledmobs.misc.QueueItem;
 import me.lokka30.levelledmobs.rules.NametagVisibilityEnum;
@@ -55,6 +56,11 @@ public class EntityDamageListener implements Listener {
         if (!(event.getEntity() instanceof LivingEntity)) {
             return;
         }
+        if (main.eventTraceRecorder.isRecording()) {
+            // the raw damage is kept as armor and effects are applied again when it is replayed
+            main.eventTraceRecorder.recordEntityEvent(EventTraceRecorder.EventType.DAMAGE,
+                event.getEntity(), event.getCause().name(), event.getDamage());
+        }
         if (event.getFinalDamage() == 0.0) {
             return;
         }
@@ -124,7 +130,7 @@ public class EntityDamageListener implements Listener {
         lmEntity.getPDC().set(main.namespacedKeys.lastDamageTime, PersistentDataType.LONG, Instant.now().toEpochMilli());
 
         // Update their nametag with a 1 tick delay so that their health after the damage is shown
-        main.levelManager.updateNametagWithDelay(lmEntity);
+        main.levelManager.updateNametagOnHealthChange(lmEntity);
         lmEntity.free();
     }
 
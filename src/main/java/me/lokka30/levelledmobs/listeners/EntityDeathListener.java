@@ -12,8 +12,8 @@ import me.lokka30.levelledmobs.LevelledMobs;
 import me.lokka30.levelledmobs.customdrops.CustomDropResult;
 import me.lokka30.levelledmobs.misc.ChunkKillInfo;
 import me.lokka30.levelledmobs.misc.DebugType;
+import me.lokka30.levelledmobs.misc.EventTraceRecorder;
 import me.lokka30.levelledmobs.misc.LivingEntityWrapper;
-import me.lokka30.levelledmobs.misc.NametagTimerChecker;
 import me.lokka30.levelledmobs.result.AdjacentChunksResult;
 import me.lokka30.levelledmobs.util.Utils;
 import me.lokka30.microlib.messaging.MessageUtils;
@@ -57,11 +57,13 @@ public class EntityDeathListener implements Listener {
         if (bypassEntity.contains(event.getEntityType())) {
             return;
         }
-
-        synchronized (NametagTimerChecker.entityTarget_Lock) {
-            main.nametagTimerChecker.entityTargetMap.remove(event.getEntity());
+        if (main.eventTraceRecorder.isRecording()) {
+            main.eventTraceRecorder.recordEntityEvent(EventTraceRecorder.EventType.DEATH,
+                event.getEntity(), null, 0.0);
         }
 
+        main.nametagTimerChecker.entityTargetMap.remove(event.getEntity().getEntityId());
+
         final LivingEntityWrapper lmEntity = LivingEntityWrapper.getInstance(event.getEntity(),
             main);
         if (event.getEntity().getKiller() != null) {
@@ -42,7 +42,7 @@ public class EntityRegainHealthListener implements Listener {
         final LivingEntityWrapper lmEntity = LivingEntityWrapper.getInstance(
             (LivingEntity) event.getEntity(), main);
 
-        main.levelManager.updateNametagWithDelay(lmEntity);
+        main.levelManager.updateNametagOnHealthChange(lmEntity);
         lmEntity.free();
     }
 
@@ -13,20 +13,20 @@ import java.util.Map;
 import java.util.stream.Collectors;
 import me.lokka30.levelledmobs.LevelledMobs;
 import me.lokka30.levelledmobs.managers.ExternalCompatibilityManager;
-import me.lokka30.levelledmobs.managers.LevelManager;
 import me.lokka30.levelledmobs.misc.AdditionalLevelInformation;
 import me.lokka30.levelledmobs.misc.DebugType;
+import me.lokka30.levelledmobs.misc.EventTraceRecorder;
 import me.lokka30.levelledmobs.misc.LevellableState;
 import me.lokka30.levelledmobs.misc.LivingEntityWrapper;
+import me.lokka30.levelledmobs.misc.ParticleScheduler;
 import me.lokka30.levelledmobs.misc.QueueItem;
+import me.lokka30.levelledmobs.misc.SpawnerConfigCache;
 import me.lokka30.levelledmobs.rules.LevelledMobSpawnReason;
 import me.lokka30.levelledmobs.rules.NametagVisibilityEnum;
 import me.lokka30.levelledmobs.util.Utils;
 import org.bukkit.GameMode;
 import org.bukkit.Location;
 import org.bukkit.Particle;
-import org.bukkit.World;
-import org.bukkit.block.CreatureSpawner;
 import org.bukkit.entity.LivingEntity;
 import org.bukkit.entity.Player;
 import org.bukkit.event.Event;
@@ -38,7 +38,6 @@ import org.bukkit.event.entity.EntitySpawnEvent;
 import org.bukkit.event.entity.SpawnerSpawnEvent;
 import org.bukkit.event.world.ChunkLoadEvent;
 import org.bukkit.persistence.PersistentDataType;
-import org.bukkit.scheduler.BukkitRunnable;
 import org.jetbrains.annotations.NotNull;
 
 /**
@@ -52,9 +51,11 @@ public class EntitySpawnListener implements Listener {
 
     private final LevelledMobs main;
     public boolean processMobSpawns;
+    private final ParticleScheduler particleScheduler;
 
     public EntitySpawnListener(final LevelledMobs main) {
         this.main = main;
+        this.particleScheduler = new ParticleScheduler(main);
     }
 
     @EventHandler(ignoreCancelled = true, priority = EventPriority.MONITOR)
@@ -64,6 +65,12 @@ public class EntitySpawnListener implements Listener {
             return;
         }
 
+        if (main.eventTraceRecorder.isRecording()) {
+            main.eventTraceRecorder.recordEntityEvent(EventTraceRecorder.EventType.SPAWN,
+                event.getEntity(), event instanceof final CreatureSpawnEvent creatureSpawnEvent ?
+                    creatureSpawnEvent.getSpawnReason().name() : null, 0.0);
+        }
+
         final LivingEntityWrapper lmEntity = LivingEntityWrapper.getInstance(
             (LivingEntity) event.getEntity(), main);
         lmEntity.setSkylightLevelAtSpawn();
@@ -183,52 +190,36 @@ public class EntitySpawnListener implements Listener {
 
     private void delayedAddToQueue(final @NotNull LivingEntityWrapper lmEntity, final Event event,
         final int delay) {
-        final BukkitRunnable runnable = new BukkitRunnable() {
-            @Override
-            public void run() {
-                main.mobsQueueManager.addToQueue(new QueueItem(lmEntity, event));
-                lmEntity.free();
-            }
-        };
-
         lmEntity.inUseCount.getAndIncrement();
-        runnable.runTaskLater(main, delay);
+        main.schedulerWrapper.runEntityTaskLater(lmEntity.getLivingEntity(), () -> {
+            main.mobsQueueManager.addToQueue(new QueueItem(lmEntity, event));
+            lmEntity.free();
+        }, lmEntity::free, delay);
     }
 
     private void lmSpawnerSpawn(final @NotNull LivingEntityWrapper lmEntity,
-        @NotNull final SpawnerSpawnEvent event) {
-        final CreatureSpawner cs = event.getSpawner();
-
+        @NotNull final SpawnerSpawnEvent event,
+        final @NotNull SpawnerConfigCache.SpawnerConfig spawnerConfig) {
         // mob was spawned from a custom LM spawner
         final Particle useParticle = main.rulesManager.getSpawnerParticle(lmEntity);
         final int particleCount = main.rulesManager.getSpawnerParticleCount(lmEntity);
 
         if (useParticle != null && particleCount > 0) {
-            createParticleEffect(cs.getLocation().add(0.5, 1.0, 0.5), useParticle, particleCount);
+            particleScheduler.addEffect(new Location(lmEntity.getWorld(),
+                spawnerConfig.x() + 0.5, spawnerConfig.y() + 1.0, spawnerConfig.z() + 0.5),
+                useParticle, particleCount);
         }
 
-        final Integer minLevel = cs.getPersistentDataContainer()
-            .get(main.namespacedKeys.keySpawnerMinLevel, PersistentDataType.INTEGER);
-        final Integer maxLevel = cs.getPersistentDataContainer()
-            .get(main.namespacedKeys.keySpawnerMaxLevel, PersistentDataType.INTEGER);
-        final int useMinLevel = minLevel == null ? -1 : minLevel;
-        final int useMaxLevel = maxLevel == null ? -1 : maxLevel;
+        final int useMinLevel = spawnerConfig.minLevel();
+        final int useMaxLevel = spawnerConfig.maxLevel();
         final int generatedLevel = main.levelInterface.generateLevel(lmEntity, useMinLevel,
             useMaxLevel);
-        final String spawnerName = cs.getPersistentDataContainer()
-            .has(main.namespacedKeys.keySpawnerCustomName, PersistentDataType.STRING) ?
-            cs.getPersistentDataContainer()
-                .get(main.namespacedKeys.keySpawnerCustomName, PersistentDataType.STRING) : null;
-        String customDropId = null;
-        if (cs.getPersistentDataContainer()
-            .has(main.namespacedKeys.keySpawnerCustomDropId, PersistentDataType.STRING)) {
-            customDropId = cs.getPersistentDataContainer()
-                .get(main.namespacedKeys.keySpawnerCustomDropId, PersistentDataType.STRING);
-            if (!Utils.isNullOrEmpty(customDropId)) {
-                synchronized (lmEntity.getLivingEntity().getPersistentDataContainer()) {
-                    lmEntity.getPDC().set(main.namespacedKeys.keySpawnerCustomDropId,
-                        PersistentDataType.STRING, customDropId);
-                }
+        final String spawnerName = spawnerConfig.customName();
+        final String customDropId = spawnerConfig.customDropId();
+        if (!Utils.isNullOrEmpty(customDropId)) {
+            synchronized (lmEntity.getLivingEntity().getPersistentDataContainer()) {
+                lmEntity.getPDC().set(main.namespacedKeys.keySpawnerCustomDropId,
+                    PersistentDataType.STRING, customDropId);
             }
         }
 
@@ -245,29 +236,6 @@ public class EntitySpawnListener implements Listener {
             new HashSet<>(Collections.singletonList(AdditionalLevelInformation.NOT_APPLICABLE)));
     }
 
-    private void createParticleEffect(@NotNull final Location location,
-        @NotNull final Particle particle, final int count) {
-        final World world = location.getWorld();
-        if (world == null) {
-            return;
-        }
-
-        final BukkitRunnable runnable = new BukkitRunnable() {
-            @Override
-            public void run() {
-                try {
-                    for (int i = 0; i < count; i++) {
-                        world.spawnParticle(particle, location, 20, 0, 0, 0, 0.1);
-                        Thread.sleep(50);
-                    }
-                } catch (final InterruptedException ignored) {
-                }
-            }
-        };
-
-        runnable.runTaskAsynchronously(main);
-    }
-
     @SuppressWarnings("ConstantConditions")
     public void preprocessMob(final @NotNull LivingEntityWrapper lmEntity,
         @NotNull final Event event) {
@@ -284,11 +252,11 @@ public class EntitySpawnListener implements Listener {
 
         if (event instanceof final SpawnerSpawnEvent spawnEvent) {
 
-            if (spawnEvent.getSpawner() != null && spawnEvent.getSpawner()
-                .getPersistentDataContainer()
-                .has(main.namespacedKeys.keySpawner, PersistentDataType.INTEGER)) {
+            final SpawnerConfigCache.SpawnerConfig spawnerConfig = spawnEvent.getSpawner() == null ?
+                null : main.spawnerConfigCache.getConfig(spawnEvent.getSpawner());
+            if (spawnerConfig != null && spawnerConfig.isLmSpawner()) {
                 lmEntity.setSpawnReason(LevelledMobSpawnReason.LM_SPAWNER);
-                lmSpawnerSpawn(lmEntity, spawnEvent);
+                lmSpawnerSpawn(lmEntity, spawnEvent, spawnerConfig);
                 return;
             }
 
@@ -303,12 +271,10 @@ public class EntitySpawnListener implements Listener {
 
             if (spawnEvent.getSpawnReason() == CreatureSpawnEvent.SpawnReason.CUSTOM ||
                 spawnEvent.getSpawnReason() == CreatureSpawnEvent.SpawnReason.SPAWNER_EGG) {
-                synchronized (LevelManager.summonedOrSpawnEggs_Lock) {
-                    if (main.levelManager.summonedOrSpawnEggs.containsKey(
-                        lmEntity.getLivingEntity())) {
-                        // the mob was spawned by the summon command and will get processed directly
-                        return;
-                    }
+                if (main.levelManager.summonedOrSpawnEggs.contains(
+                    lmEntity.getLivingEntity().getEntityId())) {
+                    // the mob was spawned by the summon command and will get processed directly
+                    return;
                 }
             }
 
@@ -341,15 +307,11 @@ public class EntitySpawnListener implements Listener {
                     lmEntity.getNameIfBaby(), lmEntity.getMobLevel(), levelAssignment));
             } else {
                 if (lmEntity.reEvaluateLevel && main.configUtils.playerLevellingEnabled) {
-                    final BukkitRunnable runnable = new BukkitRunnable() {
-                        @Override
-                        public void run() {
-                            updateMobForPlayerLevelling(lmEntity);
-                            lmEntity.free();
-                        }
-                    };
                     lmEntity.inUseCount.getAndIncrement();
-                    runnable.runTask(main);
+                    main.schedulerWrapper.runEntityTask(lmEntity.getLivingEntity(), () -> {
+                        updateMobForPlayerLevelling(lmEntity);
+                        lmEntity.free();
+                    }, lmEntity::free);
                 }
 
                 main.levelInterface.applyLevelToMob(lmEntity, levelAssignment,
@@ -5,8 +5,8 @@
 package me.lokka30.levelledmobs.listeners;
 
 import me.lokka30.levelledmobs.LevelledMobs;
+import me.lokka30.levelledmobs.misc.EventTraceRecorder;
 import me.lokka30.levelledmobs.misc.LivingEntityWrapper;
-import me.lokka30.levelledmobs.misc.NametagTimerChecker;
 import me.lokka30.levelledmobs.misc.QueueItem;
 import me.lokka30.levelledmobs.rules.NametagVisibilityEnum;
 import org.bukkit.entity.LivingEntity;
@@ -43,10 +43,14 @@ public class EntityTargetListener implements Listener {
             return;
         }
 
+        if (main.eventTraceRecorder.isRecording()) {
+            main.eventTraceRecorder.recordEntityEvent(EventTraceRecorder.EventType.TARGET,
+                event.getEntity(), event.getTarget() == null ?
+                    null : event.getTarget().getType().name(), 0.0);
+        }
+
         if (event.getTarget() == null) {
-            synchronized (NametagTimerChecker.entityTarget_Lock) {
-                main.nametagTimerChecker.entityTargetMap.remove((LivingEntity) event.getEntity());
-            }
+            main.nametagTimerChecker.entityTargetMap.remove(event.getEntity().getEntityId());
             return;
         }
 
@@ -74,10 +78,8 @@ public class EntityTargetListener implements Listener {
 
         if (main.rulesManager.getRuleCreatureNametagVisbility(lmEntity)
             .contains(NametagVisibilityEnum.TRACKING)) {
-            synchronized (NametagTimerChecker.entityTarget_Lock) {
-                main.nametagTimerChecker.entityTargetMap.put(lmEntity.getLivingEntity(),
-                    (Player) event.getTarget());
-            }
+            main.nametagTimerChecker.entityTargetMap.put(lmEntity.getLivingEntity().getEntityId(),
+                (Player) event.getTarget());
         }
 
         // Update the nametag.
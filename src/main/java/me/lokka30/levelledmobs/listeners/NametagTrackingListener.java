@@ -0,0 +1,36 @@
+/*
+ * Copyright (c) 2020-2022  lokka30. Use of this source code is governed by the GNU AGPL v3.0 license that can be found in the LICENSE.md file.
+ */
+
+package me.lokka30.levelledmobs.listeners;
+
+import me.lokka30.levelledmobs.LevelledMobs;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.entity.EntityTeleportEvent;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Forgets which players were sent a mob's nametag when the mob teleports, since players may stop
+ * and start tracking it again without the nametag being sent
+ *
+ * @author stumper66
+ * @since 3.8.0
+ */
+public class NametagTrackingListener implements Listener {
+
+    public NametagTrackingListener(final LevelledMobs main) {
+        this.main = main;
+    }
+
+    private final LevelledMobs main;
+
+    @EventHandler(ignoreCancelled = true, priority = EventPriority.MONITOR)
+    public void onEntityTeleport(@NotNull final EntityTeleportEvent event) {
+        if (event.getEntity() instanceof LivingEntity) {
+            main.nametagQueueManager.removeEntity(event.getEntity().getEntityId());
+        }
+    }
+}
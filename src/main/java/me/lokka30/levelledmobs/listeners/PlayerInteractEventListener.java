@@ -13,7 +13,6 @@ import me.lokka30.levelledmobs.LevelledMobs;
 import me.lokka30.levelledmobs.commands.MessagesBase;
 import me.lokka30.levelledmobs.commands.subcommands.SpawnerBaseClass;
 import me.lokka30.levelledmobs.commands.subcommands.SpawnerSubCommand;
-import me.lokka30.levelledmobs.managers.LevelManager;
 import me.lokka30.levelledmobs.misc.AdditionalLevelInformation;
 import me.lokka30.levelledmobs.misc.Cooldown;
 import me.lokka30.levelledmobs.misc.LivingEntityWrapper;
@@ -218,9 +217,7 @@ public class PlayerInteractEventListener extends MessagesBase implements Listene
         final LivingEntityWrapper lmEntity = LivingEntityWrapper.getInstance((LivingEntity) entity,
             main);
 
-        synchronized (LevelManager.summonedOrSpawnEggs_Lock) {
-            main.levelManager.summonedOrSpawnEggs.put(lmEntity.getLivingEntity(), null);
-        }
+        main.levelManager.summonedOrSpawnEggs.add(lmEntity.getLivingEntity().getEntityId());
 
         int useLevel = minLevel;
         if (minLevel != maxLevel) {
@@ -274,6 +271,7 @@ public class PlayerInteractEventListener extends MessagesBase implements Listene
 
         cs.setSpawnedType(info.spawnType);
         cs.update();
+        main.spawnerConfigCache.invalidate(cs.getLocation());
 
         if (Utils.isNullOrEmpty(info.customName)) {
             info.customName = "LM Spawner";
@@ -4,8 +4,14 @@
 
 package me.lokka30.levelledmobs.listeners;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 import me.lokka30.levelledmobs.LevelledMobs;
 import me.lokka30.levelledmobs.misc.FileLoader;
 import me.lokka30.levelledmobs.misc.LivingEntityWrapper;
@@ -25,9 +31,11 @@ import org.bukkit.event.Listener;
 import org.bukkit.event.player.PlayerChangedWorldEvent;
 import org.bukkit.event.player.PlayerJoinEvent;
 import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.player.PlayerRespawnEvent;
 import org.bukkit.event.player.PlayerTeleportEvent;
 import org.bukkit.persistence.PersistentDataType;
 import org.bukkit.scheduler.BukkitRunnable;
+import org.bukkit.scheduler.BukkitTask;
 import org.jetbrains.annotations.NotNull;
 
 /**
@@ -40,6 +48,10 @@ import org.jetbrains.annotations.NotNull;
 public class PlayerJoinListener implements Listener {
 
     private final LevelledMobs main;
+    private final Map<UUID, BukkitTask> nametagStreams = new HashMap<>();
+    private long nametagStreamCount;
+    private long nametagUpdatesQueued;
+    private final static int ENTITIES_PER_TICK = 25;
 
     public PlayerJoinListener(final LevelledMobs main) {
         this.main = main;
@@ -52,7 +64,12 @@ public class PlayerJoinListener implements Listener {
         main.nametagTimerChecker.addPlayerToQueue(new PlayerQueueItem(event.getPlayer(), true));
         parseUpdateChecker(event.getPlayer());
 
-        updateNametagsInWorldAsync(event.getPlayer(), event.getPlayer().getWorld().getEntities());
+        final int currentPlayers = Bukkit.getOnlinePlayers().size();
+        if (currentPlayers > main.maxPlayersRecorded) {
+            main.maxPlayersRecorded = currentPlayers;
+        }
+
+        updateNametagsNearPlayer(event.getPlayer(), event.getPlayer().getLocation());
 
         if (event.getPlayer().isOp()) {
             if (main.companion.getHadRulesLoadError()) {
@@ -113,6 +130,8 @@ public class PlayerJoinListener implements Listener {
 
         main.companion.spawnerCopyIds.remove(event.getPlayer().getUniqueId());
         main.companion.spawnerInfoIds.remove(event.getPlayer().getUniqueId());
+        cancelNametagStream(event.getPlayer());
+        main.nametagQueueManager.clearSentNametags(event.getPlayer());
         main.nametagTimerChecker.addPlayerToQueue(new PlayerQueueItem(event.getPlayer(), false));
 
         if (main.placeholderApiIntegration != null) {
@@ -122,62 +141,115 @@ public class PlayerJoinListener implements Listener {
 
     @EventHandler(ignoreCancelled = true, priority = EventPriority.MONITOR)
     public void onChangeWorld(@NotNull final PlayerChangedWorldEvent event) {
-        updateNametagsInWorldAsync(event.getPlayer(), event.getPlayer().getWorld().getEntities());
+        main.nametagQueueManager.clearSentNametags(event.getPlayer());
+        updateNametagsNearPlayer(event.getPlayer(), event.getPlayer().getLocation());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onRespawn(@NotNull final PlayerRespawnEvent event) {
+        // the client forgets every entity when respawning
+        main.nametagQueueManager.clearSentNametags(event.getPlayer());
     }
 
     @SuppressWarnings("ConstantConditions")
     @EventHandler(ignoreCancelled = true, priority = EventPriority.MONITOR)
     public void onTeleport(@NotNull final PlayerTeleportEvent event) {
+        // the client may stop tracking mobs near where the player was, so resend them when needed
+        main.nametagQueueManager.clearSentNametags(event.getPlayer());
+
         // on spigot API .getTo is nullable but not Paper
         // only update tags if teleported to a different world
         if (event.getTo() != null && event.getTo().getWorld() != null
             && event.getFrom().getWorld() != null
             && event.getFrom().getWorld() != event.getTo().getWorld()) {
-            updateNametagsInWorldAsync(event.getPlayer(), event.getTo().getWorld().getEntities());
+            updateNametagsNearPlayer(event.getPlayer(), event.getTo());
         }
     }
 
-    private void updateNametagsInWorldAsync(final Player player, final List<Entity> entities) {
-        final BukkitRunnable runnable = new BukkitRunnable() {
+    private void updateNametagsNearPlayer(final @NotNull Player player,
+        final @NotNull Location location) {
+        final World world = location.getWorld();
+        if (world == null) {
+            return;
+        }
+
+        // anything further away than this isn't tracked by the client so it can't show a nametag
+        final int trackingRange = main.helperSettings.getInt(main.settingsCfg,
+            "async-task-max-blocks-from-player", 100);
+        final List<LivingEntity> entities = new ArrayList<>();
+        for (final Entity entity : world.getNearbyEntities(location, trackingRange,
+            trackingRange, trackingRange)) {
+            if (entity instanceof final LivingEntity livingEntity && entity != player) {
+                entities.add(livingEntity);
+            }
+        }
+
+        entities.sort(Comparator.comparingDouble(
+            entity -> entity.getLocation().distanceSquared(location)));
+
+        cancelNametagStream(player);
+        nametagStreamCount++;
+        if (entities.isEmpty()) {
+            return;
+        }
+
+        final Iterator<LivingEntity> iterator = entities.iterator();
+        final BukkitTask task = new BukkitRunnable() {
             @Override
             public void run() {
-                updateNametagsInWorld(player, entities);
+                if (!player.isOnline() || player.getWorld() != world) {
+                    cancelNametagStream(player);
+                    return;
+                }
+
+                for (int i = 0; i < ENTITIES_PER_TICK && iterator.hasNext(); i++) {
+                    updateNametag(player, iterator.next());
+                }
+
+                if (!iterator.hasNext()) {
+                    cancelNametagStream(player);
+                }
             }
-        };
+        }.runTaskTimer(main, 1, 1);
 
-        runnable.runTaskAsynchronously(main);
+        nametagStreams.put(player.getUniqueId(), task);
     }
 
-    private void updateNametagsInWorld(final Player player, @NotNull final List<Entity> entities) {
-        final int currentPlayers = Bukkit.getOnlinePlayers().size();
-        if (currentPlayers > main.maxPlayersRecorded) {
-            main.maxPlayersRecorded = currentPlayers;
+    private void updateNametag(final @NotNull Player player,
+        final @NotNull LivingEntity livingEntity) {
+        // mob must be alive
+        if (!livingEntity.isValid()) {
+            return;
         }
 
-        for (final Entity entity : entities) {
-            if (!(entity instanceof final LivingEntity livingEntity)) {
-                continue;
-            }
-
-            // mob must be alive
-            if (!livingEntity.isValid()) {
-                continue;
-            }
+        // mob must be levelled
+        if (!main.levelManager.isLevelled(livingEntity)) {
+            return;
+        }
 
-            // mob must be levelled
-            if (!main.levelManager.isLevelled(livingEntity)) {
-                continue;
-            }
+        final LivingEntityWrapper lmEntity = LivingEntityWrapper.getInstance(livingEntity, main);
 
-            final LivingEntityWrapper lmEntity = LivingEntityWrapper.getInstance(livingEntity,
-                main);
+        main.levelManager.updateNametag(lmEntity, main.levelManager.getNametag(lmEntity, false),
+            Collections.singletonList(player));
+        lmEntity.free();
+        nametagUpdatesQueued++;
+    }
 
-            main.levelManager.updateNametag(lmEntity, main.levelManager.getNametag(lmEntity, false),
-                Collections.singletonList(player));
-            lmEntity.free();
+    private void cancelNametagStream(final @NotNull Player player) {
+        final BukkitTask task = nametagStreams.remove(player.getUniqueId());
+        if (task != null) {
+            task.cancel();
         }
     }
 
+    public long getNametagStreamCount() {
+        return this.nametagStreamCount;
+    }
+
+    public long getNametagUpdatesQueued() {
+        return this.nametagUpdatesQueued;
+    }
+
     private void parseUpdateChecker(final Player player) {
         if (main.messagesCfg.getBoolean("other.update-notice.send-on-join", true)
             && player.hasPermission("levelledmobs.receive-update-notifications")) {
@@ -11,7 +11,6 @@ import org.bukkit.event.Listener;
 import org.bukkit.event.player.PlayerPortalEvent;
 import org.bukkit.event.player.PlayerTeleportEvent;
 import org.bukkit.persistence.PersistentDataType;
-import org.bukkit.scheduler.BukkitRunnable;
 import org.jetbrains.annotations.NotNull;
 
 public class PlayerPortalEventListener implements Listener {
@@ -41,34 +40,31 @@ public class PlayerPortalEventListener implements Listener {
             event.getTo().getWorld().getName(), event.getTo().getBlockX(),
             event.getTo().getBlockY(), event.getTo().getBlockZ());
 
-        final BukkitRunnable runnable = new BukkitRunnable() {
-            @Override
-            public void run() {
+        final Runnable runnable = () -> {
+            if (isToNether) {
+                main.companion.setPlayerNetherPortalLocation(player, player.getLocation());
+            } else {
+                main.companion.setPlayerWorldPortalLocation(player, player.getLocation());
+            }
+
+            try {
                 if (isToNether) {
-                    main.companion.setPlayerNetherPortalLocation(player, player.getLocation());
+                    event.getPlayer().getPersistentDataContainer()
+                        .set(main.namespacedKeys.playerNetherCoords, PersistentDataType.STRING,
+                            locationStr);
                 } else {
-                    main.companion.setPlayerWorldPortalLocation(player, player.getLocation());
-                }
-
-                try {
-                    if (isToNether) {
-                        event.getPlayer().getPersistentDataContainer()
-                            .set(main.namespacedKeys.playerNetherCoords, PersistentDataType.STRING,
-                                locationStr);
-                    } else {
-                        event.getPlayer().getPersistentDataContainer()
-                            .set(main.namespacedKeys.playerNetherCoordsIntoWorld,
-                                PersistentDataType.STRING, locationStr);
-                    }
-                } catch (ConcurrentModificationException e) {
-                    Utils.logger.warning(
-                        "Error updating PDC on " + player.getName() + ", " + e.getMessage());
+                    event.getPlayer().getPersistentDataContainer()
+                        .set(main.namespacedKeys.playerNetherCoordsIntoWorld,
+                            PersistentDataType.STRING, locationStr);
                 }
+            } catch (ConcurrentModificationException e) {
+                Utils.logger.warning(
+                    "Error updating PDC on " + player.getName() + ", " + e.getMessage());
             }
         };
 
         // for some reason event#getTo has different coords that the actual nether portal
         // delay for 1 ticket and grab the player location instead
-        runnable.runTaskLater(main, 1L);
+        main.schedulerWrapper.runEntityTaskLater(player, runnable, null, 1L);
     }
 }
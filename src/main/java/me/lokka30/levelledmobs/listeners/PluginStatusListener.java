@@ -0,0 +1,33 @@
+/*
+ * Copyright (c) 2020-2022  lokka30. Use of this source code is governed by the GNU AGPL v3.0 license that can be found in the LICENSE.md file.
+ */
+
+package me.lokka30.levelledmobs.listeners;
+
+import me.lokka30.levelledmobs.managers.ExternalCompatibilityManager;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.server.PluginDisableEvent;
+import org.bukkit.event.server.PluginEnableEvent;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Listens for plugins being enabled or disabled so the cached plugin lookups used for external
+ * compatibility checks don't go stale
+ *
+ * @author stumper66
+ * @since 3.8.0
+ */
+public class PluginStatusListener implements Listener {
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPluginEnable(@NotNull final PluginEnableEvent event) {
+        ExternalCompatibilityManager.clearPluginCache();
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPluginDisable(@NotNull final PluginDisableEvent event) {
+        ExternalCompatibilityManager.clearPluginCache();
+    }
+}
@@ -0,0 +1,26 @@
+/*
+ * Copyright (c) 2020-2022  lokka30. Use of this source code is governed by the GNU AGPL v3.0 license that can be found in the LICENSE.md file.
+ */
+
+package me.lokka30.levelledmobs.listeners;
+
+import me.lokka30.levelledmobs.rules.strategies.SpawnDistanceStrategy;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.SpawnChangeEvent;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Resets the world spawn cached for the spawn distance levelling when a world's spawn is moved
+ *
+ * @author stumper66
+ * @since 3.8.0
+ */
+public class SpawnChangeListener implements Listener {
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onSpawnChange(@NotNull final SpawnChangeEvent event) {
+        SpawnDistanceStrategy.invalidateWorldSpawn(event.getWorld());
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2020-2022  lokka30. Use of this source code is governed by the GNU AGPL v3.0 license that can be found in the LICENSE.md file.
+ */
+
+package me.lokka30.levelledmobs.listeners;
+
+import java.util.List;
+import me.lokka30.levelledmobs.LevelledMobs;
+import org.bukkit.Material;
+import org.bukkit.block.Block;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockExplodeEvent;
+import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.event.entity.EntityExplodeEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Listens for spawners being placed, broken or unloaded so their cached settings are discarded
+ *
+ * @author stumper66
+ * @since 3.8.0
+ */
+public class SpawnerCacheListener implements Listener {
+
+    public SpawnerCacheListener(final LevelledMobs main) {
+        this.main = main;
+    }
+
+    private final LevelledMobs main;
+
+    @EventHandler(ignoreCancelled = true, priority = EventPriority.MONITOR)
+    public void onBlockPlace(@NotNull final BlockPlaceEvent event) {
+        if (event.getBlockPlaced().getType() == Material.SPAWNER) {
+            main.spawnerConfigCache.invalidate(event.getBlockPlaced().getLocation());
+        }
+    }
+
+    @EventHandler(ignoreCancelled = true, priority = EventPriority.MONITOR)
+    public void onBlockBreak(@NotNull final BlockBreakEvent event) {
+        if (event.getBlock().getType() == Material.SPAWNER) {
+            main.spawnerConfigCache.invalidate(event.getBlock().getLocation());
+        }
+    }
+
+    @EventHandler(ignoreCancelled = true, priority = EventPriority.MONITOR)
+    public void onBlockExplode(@NotNull final BlockExplodeEvent event) {
+        invalidateSpawners(event.blockList());
+    }
+
+    @EventHandler(ignoreCancelled = true, priority = EventPriority.MONITOR)
+    public void onEntityExplode(@NotNull final EntityExplodeEvent event) {
+        invalidateSpawners(event.blockList());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkUnload(@NotNull final ChunkUnloadEvent event) {
+        main.spawnerConfigCache.invalidateChunk(event.getChunk());
+    }
+
+    private void invalidateSpawners(final @NotNull List<Block> blocks) {
+        for (final Block block : blocks) {
+            if (block.getType() == Material.SPAWNER) {
+                main.spawnerConfigCache.invalidate(block.getLocation());
+            }
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package me.lokka30.levelledmobs.listeners.paper;
+
+import com.destroystokyo.paper.event.entity.EntityAddToWorldEvent;
+import me.lokka30.levelledmobs.LevelledMobs;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Forgets the nametags sent for a mob when Paper adds it to a world, such as when its chunk loads
+ * again or it changes worlds, since the players tracking it have to be sent the nametag again
+ *
+ * @author stumper66
+ * @since 3.8.0
+ */
+public class EntityAddToWorldListener implements Listener {
+
+    public EntityAddToWorldListener(final LevelledMobs main) {
+        this.main = main;
+    }
+
+    private final LevelledMobs main;
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEntityAddToWorld(@NotNull final EntityAddToWorldEvent event) {
+        if (event.getEntity() instanceof LivingEntity) {
+            main.nametagQueueManager.removeEntity(event.getEntity().getEntityId());
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package me.lokka30.levelledmobs.listeners.paper;
+
+import com.destroystokyo.paper.event.entity.EntityRemoveFromWorldEvent;
+import me.lokka30.levelledmobs.listeners.EntityCleanupListener;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Forgets mobs as soon as Paper removes them from the world, which also covers mobs removed by
+ * plugins or despawning
+ *
+ * @author stumper66
+ * @since 3.8.0
+ */
+public class EntityRemoveFromWorldListener implements Listener {
+
+    public EntityRemoveFromWorldListener(final EntityCleanupListener cleanupListener) {
+        this.cleanupListener = cleanupListener;
+    }
+
+    private final EntityCleanupListener cleanupListener;
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEntityRemoveFromWorld(@NotNull final EntityRemoveFromWorldEvent event) {
+        cleanupListener.removeEntity(event.getEntity());
+    }
+}
@@ -0,0 +1,34 @@
+package me.lokka30.levelledmobs.listeners.paper;
+
+import io.papermc.paper.event.player.PlayerUntrackEntityEvent;
+import me.lokka30.levelledmobs.LevelledMobs;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Forgets a mob's nametag for a player as soon as the player's client stops tracking the mob, so
+ * the nametag is sent again when it is tracked again. Only registered on Paper builds that have
+ * the event
+ *
+ * @author stumper66
+ * @since 3.8.0
+ */
+public class PlayerUntrackEntityListener implements Listener {
+
+    public PlayerUntrackEntityListener(final LevelledMobs main) {
+        this.main = main;
+    }
+
+    private final LevelledMobs main;
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerUntrackEntity(@NotNull final PlayerUntrackEntityEvent event) {
+        if (event.getEntity() instanceof LivingEntity) {
+            main.nametagQueueManager.forgetSentNametag(event.getPlayer(),
+                event.getEntity().getEntityId());
+        }
+    }
+}
@@ -8,8 +8,11 @@ import java.io.InvalidObjectException;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.Collections;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import me.lokka30.levelledmobs.LivingEntityInterface;
 import me.lokka30.levelledmobs.misc.LevellableState;
 import me.lokka30.levelledmobs.misc.LivingEntityWrapper;
@@ -24,9 +27,11 @@ import org.bukkit.entity.Entity;
 import org.bukkit.entity.LivingEntity;
 import org.bukkit.entity.Player;
 import org.bukkit.metadata.MetadataValue;
+import org.bukkit.persistence.PersistentDataContainer;
 import org.bukkit.persistence.PersistentDataType;
 import org.bukkit.plugin.Plugin;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * This class handles compatibility with other plugins such as EliteMobs and Citizens
@@ -44,7 +49,7 @@ public class ExternalCompatibilityManager {
         if (lmiMeetsVersionRequirement != null)
             return lmiMeetsVersionRequirement;
 
-        final Plugin lmi = Bukkit.getPluginManager().getPlugin("LM_Items");
+        final Plugin lmi = getPlugin("LM_Items");
         if (lmi == null) return false;
 
         try {
@@ -98,6 +103,62 @@ public class ExternalCompatibilityManager {
     private static NamespacedKey dangerousCavesMobTypeKey = null;
     private static NamespacedKey ecoBossesKey = null;
 
+    /* Plugin lookups are cached until a plugin is enabled or disabled */
+    private final static Map<String, Optional<Plugin>> pluginCache = new ConcurrentHashMap<>();
+    private static volatile int installedCompatsMask = -1;
+    private final static Map<ExternalCompatibility, String> compatPluginNames = new EnumMap<>(
+        ExternalCompatibility.class);
+
+    static {
+        compatPluginNames.put(ExternalCompatibility.DANGEROUS_CAVES, "DangerousCaves");
+        compatPluginNames.put(ExternalCompatibility.ECO_BOSSES, "EcoBosses");
+        compatPluginNames.put(ExternalCompatibility.MYTHIC_MOBS, "MythicMobs");
+        compatPluginNames.put(ExternalCompatibility.ELITE_MOBS, "EliteMobs");
+        compatPluginNames.put(ExternalCompatibility.INFERNAL_MOBS, "InfernalMobs");
+        compatPluginNames.put(ExternalCompatibility.CITIZENS, "Citizens");
+        compatPluginNames.put(ExternalCompatibility.SHOPKEEPERS, "Shopkeepers");
+        compatPluginNames.put(ExternalCompatibility.SIMPLE_PETS, "SimplePets");
+        compatPluginNames.put(ExternalCompatibility.ELITE_BOSSES, "EliteBosses");
+        compatPluginNames.put(ExternalCompatibility.BLOOD_NIGHT, "BloodNight");
+    }
+
+    @Nullable private static Plugin getPlugin(final @NotNull String pluginName) {
+        return pluginCache.computeIfAbsent(pluginName,
+            k -> Optional.ofNullable(Bukkit.getPluginManager().getPlugin(k))).orElse(null);
+    }
+
+    /**
+     * Called when any plugin is enabled or disabled so the cached plugin lookups are refreshed
+     */
+    public static void clearPluginCache() {
+        pluginCache.clear();
+        installedCompatsMask = -1;
+        useNewerEliteMobsKey = null;
+        dangerousCavesMobTypeKey = null;
+        ecoBossesKey = null;
+    }
+
+    /**
+     * @return a bitmask of which compatible plugins are currently installed and enabled, stored
+     * alongside each mob's classification so it is redone if the installed plugins change
+     */
+    private static int getInstalledCompatsMask() {
+        int result = installedCompatsMask;
+        if (result >= 0) {
+            return result;
+        }
+
+        result = 0;
+        for (final Map.Entry<ExternalCompatibility, String> entry : compatPluginNames.entrySet()) {
+            if (checkIfPluginIsInstalledAndEnabled(entry.getValue())) {
+                result |= 1 << entry.getKey().ordinal();
+            }
+        }
+
+        installedCompatsMask = result;
+        return result;
+    }
+
     @SuppressWarnings("BooleanMethodIsAlwaysInverted")
     private static boolean isExternalCompatibilityEnabled(
         final ExternalCompatibility externalCompatibility,
@@ -109,7 +170,7 @@ public class ExternalCompatibilityManager {
     }
 
     private static boolean checkIfPluginIsInstalledAndEnabled(final @NotNull String pluginName) {
-        final Plugin plugin = Bukkit.getPluginManager().getPlugin(pluginName);
+        final Plugin plugin = getPlugin(pluginName);
         return plugin != null && plugin.isEnabled();
     }
 
@@ -142,33 +203,40 @@ public class ExternalCompatibilityManager {
     }
 
     private static boolean isMobOfSimplePets(@NotNull final LivingEntityWrapper lmEntity) {
-        final Plugin plugin = Bukkit.getPluginManager().getPlugin("SimplePets");
+        final Plugin plugin = getPlugin("SimplePets");
         if (plugin == null || !plugin.isEnabled()) {
             return false;
         }
 
         // version 5 uses the API, older versions we'll check for metadata
+        boolean isSimplePet = false;
         if (plugin.getDescription().getVersion().startsWith("4")) {
             for (final MetadataValue meta : lmEntity.getLivingEntity().getMetadata("pet")) {
                 if (!meta.asString().isEmpty()) {
-                    return true;
+                    isSimplePet = true;
+                    break;
                 }
             }
-
-            return false;
         } else {
-            return isSimplePets(lmEntity);
+            isSimplePet = isSimplePets(lmEntity);
+        }
+
+        if (isSimplePet) {
+            lmEntity.setMobExternalType(ExternalCompatibility.SIMPLE_PETS);
         }
+
+        return isSimplePet;
     }
 
     private static boolean isMobOfEliteBosses(@NotNull final LivingEntityWrapper lmEntity) {
-        final Plugin plugin = Bukkit.getPluginManager().getPlugin("EliteBosses");
+        final Plugin plugin = getPlugin("EliteBosses");
         if (plugin == null || !plugin.isEnabled()) {
             return false;
         }
 
         for (final MetadataValue meta : lmEntity.getLivingEntity().getMetadata("EliteBosses")) {
             if (meta.asInt() > 0) {
+                lmEntity.setMobExternalType(ExternalCompatibility.ELITE_BOSSES);
                 return true;
             }
         }
@@ -177,7 +245,7 @@ public class ExternalCompatibilityManager {
     }
 
     public static boolean isMobOfBloodNight(@NotNull final LivingEntityWrapper lmEntity) {
-        final Plugin plugin = Bukkit.getPluginManager().getPlugin("BloodNight");
+        final Plugin plugin = getPlugin("BloodNight");
         if (plugin == null || !plugin.isEnabled()) {
             return false;
         }
@@ -192,7 +260,7 @@ public class ExternalCompatibilityManager {
     }
 
     public static boolean isMythicMob(@NotNull final LivingEntityWrapper lmEntity) {
-        final Plugin p = Bukkit.getPluginManager().getPlugin("MythicMobs");
+        final Plugin p = getPlugin("MythicMobs");
         if (p == null || !p.isEnabled()) {
             return false;
         }
@@ -208,7 +276,7 @@ public class ExternalCompatibilityManager {
             return "";
         }
 
-        final Plugin p = Bukkit.getPluginManager().getPlugin("MythicMobs");
+        final Plugin p = getPlugin("MythicMobs");
         if (p == null || !p.isEnabled()) {
             return "";
         }
@@ -225,66 +293,69 @@ public class ExternalCompatibilityManager {
     }
 
     static LevellableState checkAllExternalCompats(final @NotNull LivingEntityWrapper lmEntity) {
+        // classify here too, rules only do it when they use conditions_ApplyPlugins
+        updateAllExternalCompats(lmEntity);
+
         final Map<ExternalCompatibilityManager.ExternalCompatibility, Boolean> compatRules =
                 lmEntity.getMainInstance().rulesManager.getRuleExternalCompatibility(
             lmEntity);
 
         if (!isExternalCompatibilityEnabled(ExternalCompatibility.DANGEROUS_CAVES, compatRules)) {
-            if (isMobOfDangerousCaves(lmEntity)) {
+            if (lmEntity.isMobOfExternalType(ExternalCompatibility.DANGEROUS_CAVES)) {
                 return LevellableState.DENIED_CONFIGURATION_COMPATIBILITY_DANGEROUS_CAVES;
             }
         }
 
         if (!isExternalCompatibilityEnabled(ExternalCompatibility.ECO_BOSSES, compatRules)) {
-            if (isMobOfEcoBosses(lmEntity)) {
+            if (lmEntity.isMobOfExternalType(ExternalCompatibility.ECO_BOSSES)) {
                 return LevellableState.DENIED_CONFIGURATION_COMPATIBILITY_ECO_BOSSES;
             }
         }
 
         if (!isExternalCompatibilityEnabled(ExternalCompatibility.MYTHIC_MOBS, compatRules)) {
-            if (isMobOfMythicMobs(lmEntity)) {
+            if (lmEntity.isMobOfExternalType(ExternalCompatibility.MYTHIC_MOBS)) {
                 return LevellableState.DENIED_CONFIGURATION_COMPATIBILITY_MYTHIC_MOBS;
             }
         }
 
         if (!isExternalCompatibilityEnabled(ExternalCompatibility.ELITE_MOBS, compatRules)) {
-            if (isMobOfEliteMobs(lmEntity)) {
+            if (lmEntity.isMobOfExternalType(ExternalCompatibility.ELITE_MOBS)) {
                 return LevellableState.DENIED_CONFIGURATION_COMPATIBILITY_ELITE_MOBS;
             }
         }
 
         if (!isExternalCompatibilityEnabled(ExternalCompatibility.INFERNAL_MOBS, compatRules)) {
-            if (isMobOfInfernalMobs(lmEntity)) {
+            if (lmEntity.isMobOfExternalType(ExternalCompatibility.INFERNAL_MOBS)) {
                 return LevellableState.DENIED_CONFIGURATION_COMPATIBILITY_INFERNAL_MOBS;
             }
         }
 
         if (!isExternalCompatibilityEnabled(ExternalCompatibility.CITIZENS, compatRules)) {
-            if (isMobOfCitizens(lmEntity)) {
+            if (lmEntity.isMobOfExternalType(ExternalCompatibility.CITIZENS)) {
                 return LevellableState.DENIED_CONFIGURATION_COMPATIBILITY_CITIZENS;
             }
         }
 
         if (!isExternalCompatibilityEnabled(ExternalCompatibility.SHOPKEEPERS, compatRules)) {
-            if (isMobOfShopkeepers(lmEntity)) {
+            if (lmEntity.isMobOfExternalType(ExternalCompatibility.SHOPKEEPERS)) {
                 return LevellableState.DENIED_CONFIGURATION_COMPATIBILITY_SHOPKEEPERS;
             }
         }
 
         if (!isExternalCompatibilityEnabled(ExternalCompatibility.SIMPLE_PETS, compatRules)) {
-            if (isMobOfSimplePets(lmEntity)) {
+            if (lmEntity.isMobOfExternalType(ExternalCompatibility.SIMPLE_PETS)) {
                 return LevellableState.DENIED_CONFIGURATION_COMPATIBILITY_SIMPLEPETS;
             }
         }
 
         if (!isExternalCompatibilityEnabled(ExternalCompatibility.ELITE_BOSSES, compatRules)) {
-            if (isMobOfEliteBosses(lmEntity)) {
+            if (lmEntity.isMobOfExternalType(ExternalCompatibility.ELITE_BOSSES)) {
                 return LevellableState.DENIED_CONFIGURATION_COMPATIBILITY_ELITE_BOSSES;
             }
         }
 
         if (!isExternalCompatibilityEnabled(ExternalCompatibility.BLOOD_NIGHT, compatRules)) {
-            if (isMobOfBloodNight(lmEntity)) {
+            if (lmEntity.isMobOfExternalType(ExternalCompatibility.BLOOD_NIGHT)) {
                 return LevellableState.DENIED_CONFIGURATION_COMPATIBILITY_BLOOD_NIGHT;
             }
         }
@@ -292,7 +363,38 @@ public class ExternalCompatibilityManager {
         return LevellableState.ALLOWED;
     }
 
-    public static void updateAllExternalCompats(final LivingEntityWrapper lmEntity) {
+    /**
+     * Classifies which external plugins the mob belongs to. If the mob belongs to any, the result
+     * is stored in the mob's PDC so the detectors only need to run once per mob while the
+     * installed plugins stay the same. Mobs that don't belong to any are only remembered for the
+     * current wrapper, since some plugins tag their mobs after they have spawned.
+     *
+     * @param lmEntity mob to classify
+     */
+    public static void updateAllExternalCompats(final @NotNull LivingEntityWrapper lmEntity) {
+        if (lmEntity.isExternalTypesClassified()) {
+            return;
+        }
+
+        final int installedMask = getInstalledCompatsMask();
+        final NamespacedKey key = lmEntity.getMainInstance().namespacedKeys.externalCompatTypes;
+        final PersistentDataContainer pdc = lmEntity.getPDC();
+        final Long storedValue;
+        synchronized (lmEntity.getLivingEntity().getPersistentDataContainer()) {
+            storedValue = pdc.get(key, PersistentDataType.LONG);
+        }
+
+        if (storedValue != null && (int) (storedValue >>> 32) == installedMask) {
+            final int typesMask = (int) (long) storedValue;
+            for (final ExternalCompatibility compat : ExternalCompatibility.values()) {
+                if ((typesMask & (1 << compat.ordinal())) != 0) {
+                    lmEntity.setMobExternalType(compat);
+                }
+            }
+            lmEntity.setExternalTypesClassified();
+            return;
+        }
+
         isMobOfDangerousCaves(lmEntity);
         isMobOfEcoBosses(lmEntity);
         isMobOfMythicMobs(lmEntity);
@@ -301,8 +403,25 @@ public class ExternalCompatibilityManager {
         isMobOfCitizens(lmEntity);
         isMobOfShopkeepers(lmEntity);
         isMobOfSimplePets(lmEntity);
-        isMobOfEliteMobs(lmEntity);
+        isMobOfEliteBosses(lmEntity);
         isMobOfBloodNight(lmEntity);
+
+        int typesMask = 0;
+        for (final ExternalCompatibility compat : lmEntity.getMobExternalTypes()) {
+            if (compat != ExternalCompatibility.NOT_APPLICABLE) {
+                typesMask |= 1 << compat.ordinal();
+            }
+        }
+
+        final long valueToStore = ((long) installedMask << 32) | (typesMask & 0xFFFFFFFFL);
+        synchronized (lmEntity.getLivingEntity().getPersistentDataContainer()) {
+            if (typesMask != 0) {
+                pdc.set(key, PersistentDataType.LONG, valueToStore);
+            } else if (storedValue != null) {
+                pdc.remove(key);
+            }
+        }
+        lmEntity.setExternalTypesClassified();
     }
 
     /**
@@ -311,7 +430,7 @@ public class ExternalCompatibilityManager {
      * @author lokka30, stumper66, imDaniX (author of DC2 - provided part of this method)
      */
     private static boolean isMobOfDangerousCaves(final LivingEntityWrapper lmEntity) {
-        final Plugin plugin = Bukkit.getPluginManager().getPlugin("DangerousCaves");
+        final Plugin plugin = getPlugin("DangerousCaves");
         if (plugin == null) {
             return false;
         }
@@ -336,7 +455,7 @@ public class ExternalCompatibilityManager {
      * @author lokka30, Auxilor (author of EcoBosses - provided part of this method)
      */
     private static boolean isMobOfEcoBosses(final LivingEntityWrapper lmEntity) {
-        final Plugin plugin = Bukkit.getPluginManager().getPlugin("EcoBosses");
+        final Plugin plugin = getPlugin("EcoBosses");
         if (plugin == null) {
             return false;
         }
@@ -380,7 +499,7 @@ public class ExternalCompatibilityManager {
      * @return if EliteMobs compatibility enabled and entity is from EliteMobs
      */
     private static boolean isMobOfEliteMobs(final LivingEntityWrapper lmEntity) {
-        final Plugin p = Bukkit.getPluginManager().getPlugin("EliteMobs");
+        final Plugin p = getPlugin("EliteMobs");
         if (p != null) {
             // 7.3.12 and newer uses a different namespaced key
             if (useNewerEliteMobsKey == null) {
@@ -474,7 +593,7 @@ public class ExternalCompatibilityManager {
 
     @NotNull public static PlayerHomeCheckResult getPlayerHomeLocation(final @NotNull Player player,
         final boolean allowBed) {
-        final Plugin plugin = Bukkit.getPluginManager().getPlugin("essentials");
+        final Plugin plugin = getPlugin("essentials");
         if (plugin == null) {
             return new PlayerHomeCheckResult(
                 "Unable to get player home, Essentials is not installed", null);
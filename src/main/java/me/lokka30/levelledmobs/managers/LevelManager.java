@@ -10,18 +10,22 @@ import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.ConcurrentModificationException;
 import java.util.Enumeration;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.TreeMap;
-import java.util.WeakHashMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
 import me.lokka30.levelledmobs.LevelInterface;
 import me.lokka30.levelledmobs.LevelledMobs;
 import me.lokka30.levelledmobs.LivingEntityInterface;
@@ -36,11 +40,14 @@ import me.lokka30.levelledmobs.listeners.EntitySpawnListener;
 import me.lokka30.levelledmobs.misc.Addition;
 import me.lokka30.levelledmobs.misc.AdditionalLevelInformation;
 import me.lokka30.levelledmobs.misc.DebugType;
+import me.lokka30.levelledmobs.misc.EntitySnapshot;
+import me.lokka30.levelledmobs.misc.LevelIndex;
 import me.lokka30.levelledmobs.misc.LevellableState;
 import me.lokka30.levelledmobs.misc.LivingEntityWrapper;
 import me.lokka30.levelledmobs.misc.MythicMobsMobInfo;
 import me.lokka30.levelledmobs.result.NametagResult;
 import me.lokka30.levelledmobs.misc.QueueItem;
+import me.lokka30.levelledmobs.misc.SchedulerWrapper;
 import me.lokka30.levelledmobs.result.NBTApplyResult;
 import me.lokka30.levelledmobs.result.PlayerHomeCheckResult;
 import me.lokka30.levelledmobs.result.PlayerLevelSourceResult;
@@ -82,8 +89,6 @@ import org.bukkit.inventory.AbstractHorseInventory;
 import org.bukkit.inventory.EntityEquipment;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.persistence.PersistentDataType;
-import org.bukkit.scheduler.BukkitRunnable;
-import org.bukkit.scheduler.BukkitTask;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -98,8 +103,9 @@ public class LevelManager implements LevelInterface {
 
     public LevelManager(final LevelledMobs main) {
         this.main = main;
-        this.randomLevellingCache = new TreeMap<>();
-        this.summonedOrSpawnEggs = new WeakHashMap<>();
+        this.randomLevellingCache = new ConcurrentHashMap<>();
+        this.summonedOrSpawnEggs = ConcurrentHashMap.newKeySet();
+        this.lastSentNametags = new ConcurrentHashMap<>();
 
         this.vehicleNoMultiplierItems = List.of(
             Material.SADDLE,
@@ -136,8 +142,10 @@ public class LevelManager implements LevelInterface {
 
     private final LevelledMobs main;
     private final List<Material> vehicleNoMultiplierItems;
-    public final Map<LivingEntity, Object> summonedOrSpawnEggs;
-    public static final Object summonedOrSpawnEggs_Lock = new Object();
+    // keyed by entity id, entries are removed by EntityCleanupListener
+    public final Set<Integer> summonedOrSpawnEggs;
+    private final Map<Integer, LastSentNametag> lastSentNametags;
+    private long suppressedNametagUpdates;
     private boolean hasMentionedNBTAPI_Missing;
     private final Map<String, RandomLevellingStrategy> randomLevellingCache;
     public EntitySpawnListener entitySpawnListener;
@@ -192,10 +200,33 @@ public class LevelManager implements LevelInterface {
 
         final LevellingStrategy levellingStrategy = main.rulesManager.getRuleLevellingStrategy(
             lmEntity);
+        final int maxRandomVariance = levellingStrategy instanceof YDistanceStrategy
+            || levellingStrategy instanceof SpawnDistanceStrategy ?
+            main.rulesManager.getRuleMaxRandomVariance(lmEntity) : 0;
 
-        if (levellingStrategy instanceof YDistanceStrategy
-            || levellingStrategy instanceof SpawnDistanceStrategy) {
-            return levellingStrategy.generateLevel(lmEntity, minLevel, maxLevel);
+        return generateLevel(levellingStrategy, lmEntity.getLocation(), minLevel, maxLevel,
+            maxRandomVariance, ThreadLocalRandom.current(), this.randomLevellingCache);
+    }
+
+    /**
+     * Generates a level from the levelling strategy of the applicable rules. Used for live mobs
+     * and by the rules simulator so both level the same way
+     *
+     * @param maxRandomVariance    the max random variance from the rules, 0 for none
+     * @param randomLevellingCache copies of random levelling strategies that are populated for a
+     *                             level range, keyed by the range and weights
+     * @return a level between minLevel and maxLevel
+     */
+    public static int generateLevel(final @Nullable LevellingStrategy levellingStrategy,
+        final @NotNull Location location, final int minLevel, final int maxLevel,
+        final int maxRandomVariance, final @NotNull RandomGenerator random,
+        final @NotNull Map<String, RandomLevellingStrategy> randomLevellingCache) {
+        if (levellingStrategy instanceof final SpawnDistanceStrategy sds) {
+            return sds.generateLevel(location, minLevel, maxLevel, maxRandomVariance, random);
+        }
+        if (levellingStrategy instanceof final YDistanceStrategy yds) {
+            return yds.generateLevel(location.getBlockY(), minLevel, maxLevel, maxRandomVariance,
+                random);
         }
 
         // if no levelling strategy was selected then we just use a random number between min and max
@@ -208,33 +239,32 @@ public class LevelManager implements LevelInterface {
             (levellingStrategy instanceof RandomLevellingStrategy) ?
                 (RandomLevellingStrategy) levellingStrategy : null;
 
-        return generateRandomLevel(randomLevelling, minLevel, maxLevel);
+        return generateRandomLevel(randomLevelling, minLevel, maxLevel, random,
+            randomLevellingCache);
     }
 
-    private int generateRandomLevel(RandomLevellingStrategy randomLevelling, final int minLevel,
-        final int maxLevel) {
+    private static int generateRandomLevel(final RandomLevellingStrategy randomLevelling,
+        final int minLevel, final int maxLevel, final @NotNull RandomGenerator random,
+        final @NotNull Map<String, RandomLevellingStrategy> randomLevellingCache) {
+        final RandomLevellingStrategy cachedLevelling;
         if (randomLevelling == null) {
             // used the caches defaults if it exists, otherwise add it to the cache
-            if (this.randomLevellingCache.containsKey("default")) {
-                randomLevelling = this.randomLevellingCache.get("default");
-            } else {
-                randomLevelling = new RandomLevellingStrategy();
-                this.randomLevellingCache.put("default", randomLevelling);
-            }
+            cachedLevelling = randomLevellingCache.computeIfAbsent("default",
+                k -> new RandomLevellingStrategy());
         } else {
-            // used the caches one if it exists, otherwise add it to the cache
+            // used the caches one if it exists, otherwise add it to the cache.
+            // the strategy from the rules is shared between threads so a copy is populated
             final String checkName = String.format("%s-%s: %s", minLevel, maxLevel,
-                randomLevelling);
+                randomLevelling.weightedRandom);
 
-            if (this.randomLevellingCache.containsKey(checkName)) {
-                randomLevelling = this.randomLevellingCache.get(checkName);
-            } else {
-                randomLevelling.populateWeightedRandom(minLevel, maxLevel);
-                this.randomLevellingCache.put(checkName, randomLevelling);
-            }
+            cachedLevelling = randomLevellingCache.computeIfAbsent(checkName, k -> {
+                final RandomLevellingStrategy copy = randomLevelling.cloneItem();
+                copy.populateWeightedRandom(minLevel, maxLevel);
+                return copy;
+            });
         }
 
-        return randomLevelling.generateLevel(minLevel, maxLevel);
+        return cachedLevelling.generateLevel(minLevel, maxLevel, random);
     }
 
     private int @Nullable [] getPlayerLevels(final @NotNull LivingEntityWrapper lmEntity) {
@@ -479,31 +509,32 @@ public class LevelManager implements LevelInterface {
         // final EntityType entityType, final boolean isAdultEntity, final String worldName
         // if called from summon command then lmEntity is null
 
-        int minLevel = main.rulesManager.getRuleMobMinLevel(lmInterface);
-        int maxLevel = main.rulesManager.getRuleMobMaxLevel(lmInterface);
+        final int minLevel = main.rulesManager.getRuleMobMinLevel(lmInterface);
+        final int maxLevel = main.rulesManager.getRuleMobMaxLevel(lmInterface);
 
         if (main.configUtils.playerLevellingEnabled && lmInterface instanceof LivingEntityWrapper &&
             ((LivingEntityWrapper) lmInterface).getPlayerForLevelling() != null) {
             final int[] playerLevellingResults = getPlayerLevels((LivingEntityWrapper) lmInterface);
             if (playerLevellingResults != null) {
-                minLevel = playerLevellingResults[0];
-                maxLevel = playerLevellingResults[1];
+                return clampLevels(playerLevellingResults[0], playerLevellingResults[1]);
             }
         }
 
-        // this will prevent an unhandled exception:
-        if (minLevel < 1) {
-            minLevel = 1;
-        }
-        if (maxLevel < 1) {
-            maxLevel = 1;
-        }
+        return clampLevels(minLevel, maxLevel);
+    }
 
-        if (minLevel > maxLevel) {
-            minLevel = maxLevel;
-        }
+    /**
+     * Makes the min and max levels usable for generating a level, also used by the rules
+     * simulator
+     *
+     * @return the min and max levels, both at least 1 and min no higher than max
+     */
+    public static int @NotNull [] clampLevels(final int minLevel, final int maxLevel) {
+        // this will prevent an unhandled exception:
+        final int useMaxLevel = Math.max(maxLevel, 1);
+        final int useMinLevel = Math.min(Math.max(minLevel, 1), useMaxLevel);
 
-        return new int[]{minLevel, maxLevel};
+        return new int[]{useMinLevel, useMaxLevel};
     }
 
     // This sets the levelled currentDrops on a levelled mob that just died.
@@ -864,17 +895,12 @@ public class LevelManager implements LevelInterface {
     }
 
     public void updateNametagWithDelay(final @NotNull LivingEntityWrapper lmEntity) {
-        final BukkitRunnable runnable = new BukkitRunnable() {
-            @Override
-            public void run() {
-                updateNametag(lmEntity);
-
-                lmEntity.free();
-            }
-        };
-
         lmEntity.inUseCount.getAndIncrement();
-        runnable.runTaskLater(main, 1L);
+        main.schedulerWrapper.runEntityTask(lmEntity.getLivingEntity(), () -> {
+            updateNametag(lmEntity);
+
+            lmEntity.free();
+        }, lmEntity::free);
     }
 
     public void updateNametag(final LivingEntityWrapper lmEntity) {
@@ -887,14 +913,111 @@ public class LevelManager implements LevelInterface {
             lmEntity.getLivingEntity().getWorld().getPlayers()
         );
 
+        recordSentNametag(lmEntity, nametag);
         main.nametagQueueManager.addToQueue(queueItem);
     }
 
     public void updateNametag(final @NotNull LivingEntityWrapper lmEntity, final NametagResult nametag,
         final List<Player> players) {
+        recordSentNametag(lmEntity, nametag);
         main.nametagQueueManager.addToQueue(new QueueItem(lmEntity, nametag, players));
     }
 
+    public void updateNametagOnHealthChange(final @NotNull LivingEntityWrapper lmEntity) {
+        lmEntity.inUseCount.getAndIncrement();
+        main.schedulerWrapper.runEntityTask(lmEntity.getLivingEntity(), () -> {
+            updateNametagIfChanged(lmEntity);
+
+            lmEntity.free();
+        }, lmEntity::free);
+    }
+
+    /**
+     * Updates the nametag after the mob's health changed. Nothing is rendered if the health is the
+     * same as when the nametag was last sent, and nothing is sent if the rendered nametag didn't
+     * change. Nametag cooldown updates are always sent.
+     */
+    public void updateNametagIfChanged(final @NotNull LivingEntityWrapper lmEntity) {
+        final LivingEntity livingEntity = lmEntity.getLivingEntity();
+        if (livingEntity == null) {
+            return;
+        }
+
+        final boolean canSuppress = lmEntity.playersNeedingNametagCooldownUpdate == null;
+        LastSentNametag lastSent = null;
+        if (canSuppress) {
+            lastSent = lastSentNametags.get(livingEntity.getEntityId());
+
+            if (lastSent != null && lastSent.health == livingEntity.getHealth()) {
+                suppressedNametagUpdates++;
+                return;
+            }
+        }
+
+        final boolean preserveMobName = !main.nametagQueueManager.nmsHandler.isUsingProtocolLib;
+        final NametagResult nametag = getNametag(lmEntity, false, preserveMobName);
+
+        if (lastSent != null && lastSent.nametagHash == getNametagHash(lmEntity, nametag)) {
+            // still remember the new health so the next identical health change isn't rendered
+            recordSentNametag(lmEntity, nametag);
+            suppressedNametagUpdates++;
+            return;
+        }
+
+        updateNametag(lmEntity, nametag, livingEntity.getWorld().getPlayers());
+    }
+
+    private void recordSentNametag(final @NotNull LivingEntityWrapper lmEntity,
+        final @NotNull NametagResult nametag) {
+        final LivingEntity livingEntity = lmEntity.getLivingEntity();
+        if (livingEntity == null) {
+            return;
+        }
+
+        final LastSentNametag lastSent = new LastSentNametag(livingEntity.getHealth(),
+            getNametagHash(lmEntity, nametag));
+        lastSentNametags.put(livingEntity.getEntityId(), lastSent);
+    }
+
+    /**
+     * Includes the visibility the nametag is sent with so a change between always visible and
+     * hover only is still sent when the text is the same
+     */
+    private int getNametagHash(final @NotNull LivingEntityWrapper lmEntity,
+        final @NotNull NametagResult nametag) {
+        return Objects.hash(nametag.getNametag(), nametag.overriddenName,
+            main.rulesManager.getRuleCreatureNametagVisbility(lmEntity),
+            lmEntity.getLivingEntity().isCustomNameVisible());
+    }
+
+    public long getSuppressedNametagUpdates() {
+        return this.suppressedNametagUpdates;
+    }
+
+    /**
+     * Removes anything tracked for the mob once it has died or been unloaded
+     */
+    public void removeEntity(final int entityId) {
+        summonedOrSpawnEggs.remove(entityId);
+        lastSentNametags.remove(entityId);
+    }
+
+    /**
+     * Forgets every mob that isn't in the provided ids, used by the periodic cleanup sweep
+     */
+    public void retainEntities(final @NotNull Set<Integer> entityIds) {
+        summonedOrSpawnEggs.retainAll(entityIds);
+        lastSentNametags.keySet().retainAll(entityIds);
+    }
+
+    public int getLastSentNametagCount() {
+        return lastSentNametags.size();
+    }
+
+    private record LastSentNametag(double health, int nametagHash) {
+
+    }
+
     /*
      * Credit
      * - Thread: https://www.spigotmc.org/threads/changing-an-entitys-nametag-with-packets.482855/
@@ -905,8 +1028,8 @@ public class LevelManager implements LevelInterface {
      *   - @7smile7 (https://www.spigotmc.org/members/7smile7.43809/)
      */
 
-    public BukkitTask nametagAutoUpdateTask;
-    private BukkitTask nametagTimerTask;
+    public SchedulerWrapper.TaskHandle nametagAutoUpdateTask;
+    private SchedulerWrapper.TaskHandle nametagTimerTask;
 
     public void startNametagAutoUpdateTask() {
         Utils.logger.info("&fTasks: &7Starting async nametag auto update task...");
@@ -914,160 +1037,141 @@ public class LevelManager implements LevelInterface {
         final long period = main.helperSettings.getInt(main.settingsCfg, "async-task-update-period",
             6); // run every ? seconds.
 
-        nametagAutoUpdateTask = new BukkitRunnable() {
-            @Override
-            public void run() {
-                final Map<Player, List<Entity>> entitiesPerPlayer = new LinkedHashMap<>();
-                final int checkDistance = main.helperSettings.getInt(main.settingsCfg,
-                    "async-task-max-blocks-from-player", 100);
-
-                for (final Player player : Bukkit.getOnlinePlayers()) {
-                    final List<Entity> entities = player.getNearbyEntities(checkDistance,
-                        checkDistance, checkDistance);
-                    entitiesPerPlayer.put(player, entities);
-                }
-
-                final BukkitRunnable runnable = new BukkitRunnable() {
-                    @Override
-                    public void run() {
-                        runNametagCheck_aSync(entitiesPerPlayer);
-                    }
-                };
+        nametagAutoUpdateTask = main.schedulerWrapper.runGlobalTaskTimer(() -> {
+            if (!main.schedulerWrapper.isFolia()) {
+                final List<ViewerSnapshot> viewers = captureViewers(Bukkit.getOnlinePlayers());
+                main.schedulerWrapper.runAsync(() -> runNametagCheck_aSync(viewers));
+                return;
+            }
 
-                runnable.runTaskAsynchronously(main);
+            // on Folia each player's surroundings can only be read from the player's own region
+            for (final Player player : Bukkit.getOnlinePlayers()) {
+                main.schedulerWrapper.runEntityTask(player, () -> {
+                    final List<ViewerSnapshot> viewers = captureViewers(List.of(player));
+                    main.schedulerWrapper.runAsync(() -> runNametagCheck_aSync(viewers));
+                }, null);
             }
-        }.runTaskTimer(main, 0, 20 * period);
+        }, 0, 20 * period);
     }
 
-    public void startNametagTimer() {
-        nametagTimerTask = new BukkitRunnable() {
-            @Override
-            public void run() {
-                final BukkitRunnable runnable = new BukkitRunnable() {
-                    @Override
-                    public void run() {
-                        main.nametagTimerChecker.checkNametags();
+    /**
+     * Captures every player and the mobs near them so the nametag check can run async without
+     * touching any live entities
+     */
+    @NotNull private List<ViewerSnapshot> captureViewers(
+        final @NotNull Collection<? extends Player> players) {
+        final int checkDistance = main.helperSettings.getInt(main.settingsCfg,
+            "async-task-max-blocks-from-player", 100);
+        final List<ViewerSnapshot> viewers = new ArrayList<>(players.size());
+        // mobs near more than one player are only captured once
+        final Map<Integer, EntitySnapshot> captured = new HashMap<>();
+
+        for (final Player player : players) {
+            final List<Entity> entities = player.getNearbyEntities(checkDistance,
+                checkDistance, checkDistance);
+            main.nametagQueueManager.pruneSentNametags(player, entities);
+
+            final List<EntitySnapshot> snapshots = new ArrayList<>(entities.size());
+            for (final Entity entity : entities) {
+                EntitySnapshot snapshot = captured.get(entity.getEntityId());
+                if (snapshot == null) {
+                    snapshot = EntitySnapshot.capture(entity, main);
+                    if (snapshot == null) {
+                        continue;
                     }
-                };
-
-                runnable.runTaskAsynchronously(main);
+                    captured.put(entity.getEntityId(), snapshot);
+                }
+                snapshots.add(snapshot);
             }
-        }.runTaskTimer(main, 0, 20);
-    }
 
-    private void runNametagCheck_aSync(final @NotNull Map<Player, List<Entity>> entitiesPerPlayer) {
-        final Map<LivingEntityWrapper, List<Player>> entityToPlayer = new LinkedHashMap<>();
+            viewers.add(new ViewerSnapshot(player, player.getLocation(),
+                player.getGameMode() == GameMode.SPECTATOR, snapshots));
+        }
 
-        for (final Player player : entitiesPerPlayer.keySet()) {
-            for (final Entity entity : entitiesPerPlayer.get(player)) {
+        return viewers;
+    }
 
-                if (!entity.isValid()) {
-                    continue; // async task, entity can despawn whilst it is running
-                }
+    public void startNametagTimer() {
+        nametagTimerTask = main.schedulerWrapper.runGlobalTaskTimer(
+            () -> main.schedulerWrapper.runAsync(main.nametagTimerChecker::checkNametags), 0, 20);
+    }
 
-                // Mob must be a livingentity that is ...living.
-                if (!(entity instanceof LivingEntity) || entity instanceof Player
-                    || !entity.isValid()) {
-                    continue;
-                }
+    private void runNametagCheck_aSync(final @NotNull List<ViewerSnapshot> viewers) {
+        final Map<EntitySnapshot, List<ViewerSnapshot>> entityToPlayer = new LinkedHashMap<>();
+        // only the snapshots are read here, the rules are evaluated on the entity's own thread
+        final List<SchedulerWrapper.EntityTask> entityTasks = new LinkedList<>();
+
+        for (final ViewerSnapshot viewer : viewers) {
+            for (final EntitySnapshot snapshot : viewer.entities) {
                 // this is mostly so for spawner mobs and spawner egg mobs as they have a 20 tick delay in before proessing
-                if (entity.getTicksLived() < 30) {
+                if (snapshot.ticksLived() < 30) {
                     continue;
                 }
 
-                boolean wrapperHasReference = false;
-                final LivingEntityWrapper lmEntity = LivingEntityWrapper.getInstance(
-                    (LivingEntity) entity, main);
-                lmEntity.playerForPermissionsCheck = player;
-
-                if (lmEntity.isLevelled()) {
-                    boolean skipLevelling = (
-                            lmEntity.getSpawnReason() == LevelledMobSpawnReason.LM_SPAWNER ||
-                                    lmEntity.getSpawnReason() == LevelledMobSpawnReason.LM_SUMMON
-                    );
-                    if (main.configUtils.playerLevellingEnabled && !checkIfReadyForRelevelling(lmEntity)){
-                        skipLevelling = true;
-                    }
-                    if (main.configUtils.playerLevellingEnabled && !skipLevelling) {
-                        final boolean hasKey = entityToPlayer.containsKey(lmEntity);
-                        final List<Player> players = hasKey ?
-                            entityToPlayer.get(lmEntity) : new LinkedList<>();
-                        players.add(player);
-                        if (!hasKey) {
-                            entityToPlayer.put(lmEntity, players);
-                        }
-                        wrapperHasReference = true;
-                    }
-
-                    if (lmEntity.getLivingEntity() == null) {
-                        continue;
-                    }
-                    final List<NametagVisibilityEnum> nametagVisibilityEnums = main.rulesManager.getRuleCreatureNametagVisbility(
-                        lmEntity);
-                    final long nametagVisibleTime = lmEntity.getNametagCooldownTime();
-                    if (nametagVisibleTime > 0L &&
-                        nametagVisibilityEnums.contains(NametagVisibilityEnum.TARGETED) &&
-                        lmEntity.getLivingEntity().hasLineOfSight(player)) {
-
-                        if (lmEntity.playersNeedingNametagCooldownUpdate == null) {
-                            lmEntity.playersNeedingNametagCooldownUpdate = new HashSet<>();
-                        }
-                        lmEntity.playersNeedingNametagCooldownUpdate.add(player);
-                    }
-
-                    checkLevelledEntity(lmEntity, player);
-                } else {
-                    final boolean wasBabyMob;
-                    synchronized (lmEntity.getLivingEntity().getPersistentDataContainer()) {
-                        wasBabyMob = lmEntity.getPDC()
-                            .has(main.namespacedKeys.wasBabyMobKey, PersistentDataType.INTEGER);
-                    }
-                    if (lmEntity.getLivingEntity()
-                        != null) { // a hack to prevent a null exception that was reported
-                        final LevellableState levellableState = main.levelInterface.getLevellableState(
-                            lmEntity);
-                        if (!lmEntity.isBabyMob() &&
-                            wasBabyMob &&
-                            levellableState == LevellableState.ALLOWED) {
-                            // if the mob was a baby at some point, aged and now is eligable for levelling, we'll apply a level to it now
-                            Utils.debugLog(main, DebugType.ENTITY_MISC,
-                                "&b" + lmEntity.getTypeName()
-                                    + " &7was a baby and is now an adult, applying levelling rules");
-
-                            main.mobsQueueManager.addToQueue(new QueueItem(lmEntity, null));
-                        } else if (levellableState == LevellableState.ALLOWED) {
-                            main.mobsQueueManager.addToQueue(new QueueItem(lmEntity, null));
-                        }
-                    }
+                if (snapshot.isLevelled() && main.configUtils.playerLevellingEnabled) {
+                    entityToPlayer.computeIfAbsent(snapshot, k -> new LinkedList<>())
+                        .add(viewer);
                 }
 
-                if (!wrapperHasReference) {
-                    lmEntity.free();
-                }
+                entityTasks.add(new SchedulerWrapper.EntityTask(snapshot.livingEntity(),
+                    () -> checkEntity(snapshot, viewer), null));
             }
         }
 
-        for (final Map.Entry<LivingEntityWrapper, List<Player>> entry : entityToPlayer.entrySet()) {
-            final LivingEntityWrapper lmEntity = entry.getKey();
-            if (entityToPlayer.containsKey(lmEntity)) {
-                checkEntityForPlayerLevelling(lmEntity, entry.getValue());
+        for (final Map.Entry<EntitySnapshot, List<ViewerSnapshot>> entry : entityToPlayer.entrySet()) {
+            final Player closestPlayer = getClosestPlayer(entry.getKey(), entry.getValue());
+            if (closestPlayer != null) {
+                entityTasks.add(new SchedulerWrapper.EntityTask(entry.getKey().livingEntity(),
+                    () -> checkEntityForPlayerLevelling(entry.getKey(), closestPlayer), null));
             }
+        }
 
-            lmEntity.free();
+        main.schedulerWrapper.runEntityTasks(entityTasks);
+    }
+
+    /**
+     * Runs on the entity's thread
+     */
+    private void checkEntity(final @NotNull EntitySnapshot snapshot,
+        final @NotNull ViewerSnapshot viewer) {
+        if (!snapshot.livingEntity().isValid()) {
+            return;
+        }
+
+        final LivingEntityWrapper lmEntity = LivingEntityWrapper.getInstance(
+            snapshot.livingEntity(), main);
+        lmEntity.playerForPermissionsCheck = viewer.player;
+
+        if (snapshot.isLevelled()) {
+            checkLevelledEntity(lmEntity, snapshot, viewer);
+        } else {
+            final LevellableState levellableState = main.levelInterface.getLevellableState(
+                lmEntity);
+            if (!snapshot.isBabyMob() &&
+                snapshot.wasBabyMob() &&
+                levellableState == LevellableState.ALLOWED) {
+                // if the mob was a baby at some point, aged and now is eligable for levelling, we'll apply a level to it now
+                Utils.debugLog(main, DebugType.ENTITY_MISC,
+                    "&b" + lmEntity.getTypeName()
+                        + " &7was a baby and is now an adult, applying levelling rules");
+
+                main.mobsQueueManager.addToQueue(new QueueItem(lmEntity, null));
+            } else if (levellableState == LevellableState.ALLOWED) {
+                main.mobsQueueManager.addToQueue(new QueueItem(lmEntity, null));
+            }
         }
+
+        lmEntity.free();
     }
 
-    private boolean checkIfReadyForRelevelling(final @NotNull LivingEntityWrapper lmEntity){
+    private boolean checkIfReadyForRelevelling(final @NotNull LivingEntityWrapper lmEntity,
+        final @NotNull EntitySnapshot snapshot){
         final PlayerLevellingOptions opts = main.rulesManager.getRulePlayerLevellingOptions(lmEntity);
         if (opts == null || opts.preserveEntityTime == null) {
             return true;
         }
 
-        if (!lmEntity.getPDC().has(main.namespacedKeys.lastDamageTime)){
-            return true;
-        }
-
-        final Long lastLevelledTime = lmEntity.getPDC().get(main.namespacedKeys.lastDamageTime, PersistentDataType.LONG);
+        final Long lastLevelledTime = snapshot.lastDamageTime();
         if (lastLevelledTime == null) {
             return true;
         }
@@ -1076,15 +1180,15 @@ public class LevelManager implements LevelInterface {
         return Utils.getMillisecondsFromInstant(levelledTime) > opts.preserveEntityTime;
     }
 
-    private void checkEntityForPlayerLevelling(final @NotNull LivingEntityWrapper lmEntity,
-        final @NotNull List<Player> players) {
-        final LivingEntity mob = lmEntity.getLivingEntity();
-        final List<Player> sortedPlayers = players.stream()
-                .filter(p -> mob.getWorld().equals(p.getWorld()))
-                .filter(p -> p.getGameMode() != GameMode.SPECTATOR)
-                .map(p -> Map.entry(mob.getLocation().distanceSquared(p.getLocation()), p))
-                .sorted(Comparator.comparingDouble(Map.Entry::getKey))
-                .map(Map.Entry::getValue).toList();
+    /**
+     * @return the closest player that can be used for player levelling, only reads the snapshots
+     */
+    @Nullable private Player getClosestPlayer(final @NotNull EntitySnapshot snapshot,
+        final @NotNull List<ViewerSnapshot> viewers) {
+        final List<Player> sortedPlayers = viewers.stream()
+                .filter(v -> !v.isSpectator && snapshot.isSameWorld(v.location))
+                .sorted(Comparator.comparingDouble(v -> snapshot.distanceSquared(v.location)))
+                .map(ViewerSnapshot::player).toList();
 
         Player closestPlayer = null;
         for (final Player player : sortedPlayers) {
@@ -1097,65 +1201,92 @@ public class LevelManager implements LevelInterface {
         }
 
         if (closestPlayer == null) {
-            return;
+            return null;
         }
 
         // if player has been logged in for less than 5 seconds then ignore
         final Instant logonTime = main.companion.getRecentlyJoinedPlayerLogonTime(closestPlayer);
         if (logonTime != null) {
             if (Utils.getMillisecondsFromInstant(logonTime) < 5000L) {
-                return;
+                return null;
             }
             main.companion.removeRecentlyJoinedPlayer(closestPlayer);
         }
 
-        if (doesMobNeedRelevelling(lmEntity, closestPlayer)) {
+        return closestPlayer;
+    }
+
+    /**
+     * Runs on the entity's thread
+     */
+    private void checkEntityForPlayerLevelling(final @NotNull EntitySnapshot snapshot,
+        final @NotNull Player closestPlayer) {
+        if (!snapshot.livingEntity().isValid()) {
+            return;
+        }
+
+        final LivingEntityWrapper lmEntity = LivingEntityWrapper.getInstance(
+            snapshot.livingEntity(), main);
+        lmEntity.playerForPermissionsCheck = closestPlayer;
+
+        final boolean skipLevelling =
+            lmEntity.getSpawnReason() == LevelledMobSpawnReason.LM_SPAWNER ||
+            lmEntity.getSpawnReason() == LevelledMobSpawnReason.LM_SUMMON ||
+            !checkIfReadyForRelevelling(lmEntity, snapshot);
+
+        if (!skipLevelling && doesMobNeedRelevelling(lmEntity, snapshot, closestPlayer)) {
             lmEntity.pendingPlayerIdToSet = closestPlayer.getUniqueId().toString();
             lmEntity.setPlayerForLevelling(closestPlayer);
             lmEntity.reEvaluateLevel = true;
             main.mobsQueueManager.addToQueue(new QueueItem(lmEntity, null));
         }
+        lmEntity.free();
     }
 
+    /**
+     * Runs on the entity's thread
+     */
     private void checkLevelledEntity(@NotNull final LivingEntityWrapper lmEntity,
-        @NotNull final Player player) {
-        if (lmEntity.getLivingEntity() == null || !lmEntity.getLivingEntity().isValid()) {
-            return;
-        }
+        @NotNull final EntitySnapshot snapshot, @NotNull final ViewerSnapshot viewer) {
         final double maxDistance = Math.pow(128,
             2); // square the distance we are using Location#distanceSquared. This is because it is faster than Location#distance since it does not need to sqrt which is taxing on the CPU.
-        final Location location = player.getLocation();
 
-        if (lmEntity.getLivingEntity().getCustomName() != null
+        if (snapshot.hasCustomName()
             && main.rulesManager.getRuleMobCustomNameStatus(lmEntity)
             == MobCustomNameStatus.NOT_NAMETAGGED) {
             // mob has a nametag but is levelled so we'll remove it
             main.levelInterface.removeLevel(lmEntity);
-        } else if (lmEntity.isMobTamed()
+        } else if (snapshot.isTamed()
             && main.rulesManager.getRuleMobTamedStatus(lmEntity) == MobTamedStatus.NOT_TAMED) {
             // mob is tamed with a level but the rules don't allow it, remove the level
             main.levelInterface.removeLevel(lmEntity);
-        } else if (lmEntity.getLivingEntity().isValid() &&
-            !main.helperSettings.getBoolean(main.settingsCfg, "use-customname-for-mob-nametags",
+        } else if (!main.helperSettings.getBoolean(main.settingsCfg, "use-customname-for-mob-nametags",
                 false) &&
-            location.getWorld() != null &&
-            location.getWorld().equals(lmEntity.getWorld()) &&
-            lmEntity.getLocation().distanceSquared(location) <= maxDistance) {
+            snapshot.isSameWorld(viewer.location) &&
+            snapshot.distanceSquared(viewer.location) <= maxDistance) {
             //if within distance, update nametag.
+            if (lmEntity.getNametagCooldownTime() > 0L &&
+                main.rulesManager.getRuleCreatureNametagVisbility(lmEntity)
+                    .contains(NametagVisibilityEnum.TARGETED) &&
+                lmEntity.getLivingEntity().hasLineOfSight(viewer.player)) {
+                if (lmEntity.playersNeedingNametagCooldownUpdate == null) {
+                    lmEntity.playersNeedingNametagCooldownUpdate = new HashSet<>();
+                }
+                lmEntity.playersNeedingNametagCooldownUpdate.add(viewer.player);
+            }
+
             final boolean preserveMobName = !main.nametagQueueManager.nmsHandler.isUsingProtocolLib;
             final NametagResult nametag = main.levelManager.getNametag(lmEntity, false, preserveMobName);
-            main.nametagQueueManager.addToQueue(
-                new QueueItem(lmEntity, nametag, Collections.singletonList(player)));
+            main.nametagQueueManager.addToQueue(new QueueItem(lmEntity, nametag,
+                Collections.singletonList(viewer.player)));
         }
     }
 
     private boolean doesMobNeedRelevelling(final @NotNull LivingEntityWrapper lmEntity,
-        final @NotNull Player player) {
-        final LivingEntity mob = lmEntity.getLivingEntity();
-
-        if (main.playerLevellingMinRelevelTime > 0L && main.playerLevellingEntities.containsKey(
-            mob)) {
-            final Instant lastCheck = main.playerLevellingEntities.get(mob);
+        final @NotNull EntitySnapshot snapshot, final @NotNull Player player) {
+        final Instant lastCheck = main.playerLevellingMinRelevelTime > 0L ?
+            main.playerLevellingEntities.get(snapshot.entityId()) : null;
+        if (lastCheck != null) {
             final Duration duration = Duration.between(lastCheck, Instant.now());
 
             if (duration.toMillis() < main.playerLevellingMinRelevelTime) {
@@ -1163,30 +1294,18 @@ public class LevelManager implements LevelInterface {
             }
         }
 
-        final String playerId;
         if (main.playerLevellingMinRelevelTime > 0L) {
-            main.playerLevellingEntities.put(mob, Instant.now());
+            main.playerLevellingEntities.put(snapshot.entityId(), Instant.now());
         }
 
-        synchronized (mob.getPersistentDataContainer()) {
-            if (!mob.getPersistentDataContainer()
-                .has(main.namespacedKeys.playerLevellingId, PersistentDataType.STRING)) {
-                return true;
-            }
-
-            playerId = mob.getPersistentDataContainer()
-                .get(main.namespacedKeys.playerLevellingId, PersistentDataType.STRING);
-        }
-
-        if (playerId == null && main.playerLevellingMinRelevelTime <= 0L) {
-            return true;
-        } else if (playerId == null || !player.getUniqueId().toString().equals(playerId)) {
+        final String playerId = snapshot.playerLevellingId();
+        if (playerId == null || !player.getUniqueId().toString().equals(playerId)) {
             return true;
         }
 
         final PlayerLevellingOptions opts = main.rulesManager.getRulePlayerLevellingOptions(lmEntity);
-        if (player.getUniqueId().toString().equals(playerId) && opts != null && opts.recheckPlayers != null && opts.recheckPlayers){
-            final String previousResult = lmEntity.getPDC().get(main.namespacedKeys.playerLevellingSourceNumber, PersistentDataType.STRING);
+        if (opts != null && opts.recheckPlayers != null && opts.recheckPlayers){
+            final String previousResult = snapshot.playerLevellingSourceNumber();
             if (previousResult == null) {
                 return true;
             }
@@ -1199,7 +1318,7 @@ public class LevelManager implements LevelInterface {
             return !previousResult.equals(sourceNumberStr);
         }
 
-        return !player.getUniqueId().toString().equals(playerId);
+        return false;
     }
 
     public void stopNametagAutoUpdateTask() {
@@ -1322,18 +1441,13 @@ public class LevelManager implements LevelInterface {
             return;
         }
 
-        final BukkitRunnable runnable = new BukkitRunnable() {
-            @Override
-            public void run() {
-                applyLevelledEquipment_NonAsync(lmEntity, customDropsRuleSet);
-                if (lmEntity.inUseCount.getAndDecrement() <= 0) {
-                    lmEntity.free();
-                }
-            }
-        };
-
         lmEntity.inUseCount.getAndIncrement();
-        runnable.runTask(main);
+        main.schedulerWrapper.runEntityTask(lmEntity.getLivingEntity(), () -> {
+            applyLevelledEquipment_NonAsync(lmEntity, customDropsRuleSet);
+            if (lmEntity.inUseCount.getAndDecrement() <= 0) {
+                lmEntity.free();
+            }
+        }, lmEntity::free);
     }
 
     private void applyLevelledEquipment_NonAsync(@NotNull final LivingEntityWrapper lmEntity, final CustomDropsRuleSet customDropsRuleSet) {
@@ -1504,7 +1618,7 @@ public class LevelManager implements LevelInterface {
     public void applyLevelToMob(@NotNull final LivingEntityWrapper lmEntity, int level,
         final boolean isSummoned, final boolean bypassLimits,
         @NotNull final HashSet<AdditionalLevelInformation> additionalLevelInformation) {
-        // this thread runs in async.  if adding any functions make sure they can be run in this fashion
+        // the mobs queue runs this on the thread that owns the entity, not from its async thread
 
         if (level <= 0) {
             level = generateLevel(lmEntity);
@@ -1570,6 +1684,7 @@ public class LevelManager implements LevelInterface {
         synchronized (lmEntity.getLivingEntity().getPersistentDataContainer()) {
             lmEntity.getPDC().set(main.namespacedKeys.levelKey, PersistentDataType.INTEGER, level);
         }
+        main.levelIndex.put(lmEntity.getLivingEntity().getEntityId(), level);
         lmEntity.invalidateCache();
 
         final List<String> nbtDatas = lmEntity.nbtData != null && !lmEntity.nbtData.isEmpty() ?
@@ -1592,7 +1707,7 @@ public class LevelManager implements LevelInterface {
         }
 
         // setting attributes should be only done in the main thread.
-        final BukkitRunnable applyAttribs = new BukkitRunnable() {
+        final Runnable applyAttribs = new Runnable() {
             @Override
             public void run() {
                 synchronized (main.attributeSyncObject) {
@@ -1680,7 +1795,8 @@ public class LevelManager implements LevelInterface {
         };
 
         lmEntity.inUseCount.getAndIncrement();
-        applyAttribs.runTask(main);
+        main.schedulerWrapper.runEntityTask(lmEntity.getLivingEntity(), applyAttribs,
+            lmEntity::free);
 
         if (!skipLM_Nametag) {
             main.levelManager.updateNametagWithDelay(lmEntity);
@@ -1783,6 +1899,10 @@ public class LevelManager implements LevelInterface {
      * @return if the mob is levelled or not
      */
     public boolean isLevelled(@NotNull final LivingEntity livingEntity) {
+        if (main.levelIndex.get(livingEntity.getEntityId()) != LevelIndex.NOT_INDEXED) {
+            return true;
+        }
+
         boolean hadError = false;
         boolean succeeded = false;
         boolean isLevelled = false;
@@ -1815,6 +1935,11 @@ public class LevelManager implements LevelInterface {
             }
         }
 
+        if (succeeded && isLevelled) {
+            // indexes the level
+            getLevelOfMob(livingEntity);
+        }
+
         return isLevelled;
     }
 
@@ -1827,15 +1952,26 @@ public class LevelManager implements LevelInterface {
      * @return the mob's level
      */
     public int getLevelOfMob(@NotNull final LivingEntity livingEntity) {
+        final int indexedLevel = main.levelIndex.get(livingEntity.getEntityId());
+        if (indexedLevel != LevelIndex.NOT_INDEXED) {
+            return indexedLevel;
+        }
+
+        final int level;
         synchronized (livingEntity.getPersistentDataContainer()) {
             if (!livingEntity.getPersistentDataContainer()
                 .has(main.namespacedKeys.levelKey, PersistentDataType.INTEGER)) {
-                return -1;
+                // only levelled mobs are indexed so the index doesn't grow with every mob
+                return LevelIndex.NOT_LEVELLED;
+            } else {
+                level = Objects.requireNonNull(livingEntity.getPersistentDataContainer()
+                        .get(main.namespacedKeys.levelKey, PersistentDataType.INTEGER),
+                    "levelKey was null");
             }
-            return Objects.requireNonNull(livingEntity.getPersistentDataContainer()
-                    .get(main.namespacedKeys.levelKey, PersistentDataType.INTEGER),
-                "levelKey was null");
         }
+
+        main.levelIndex.put(livingEntity.getEntityId(), level);
+        return level;
     }
 
     /**
@@ -1851,6 +1987,7 @@ public class LevelManager implements LevelInterface {
             if (lmEntity.getPDC().has(main.namespacedKeys.levelKey, PersistentDataType.INTEGER)) {
                 lmEntity.getPDC().remove(main.namespacedKeys.levelKey);
             }
+            main.levelIndex.remove(lmEntity.getLivingEntity().getEntityId());
             if (lmEntity.getPDC()
                 .has(main.namespacedKeys.overridenEntityNameKey, PersistentDataType.STRING)) {
                 lmEntity.getPDC().remove(main.namespacedKeys.overridenEntityNameKey);
@@ -1886,4 +2023,12 @@ public class LevelManager implements LevelInterface {
         // update nametag
         main.levelManager.updateNametag(lmEntity);
     }
+
+    /**
+     * A player and the mobs near them as captured on the main thread
+     */
+    private record ViewerSnapshot(@NotNull Player player, @NotNull Location location,
+                                  boolean isSpectator, @NotNull List<EntitySnapshot> entities) {
+
+    }
 }
@@ -4,16 +4,20 @@
 
 package me.lokka30.levelledmobs.managers;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import me.lokka30.levelledmobs.LevelledMobs;
 import me.lokka30.levelledmobs.misc.QueueItem;
+import me.lokka30.levelledmobs.misc.SchedulerWrapper;
 import me.lokka30.levelledmobs.util.Utils;
-import org.bukkit.scheduler.BukkitRunnable;
 import org.jetbrains.annotations.NotNull;
 
 /**
- * Queues up mob info so they can be processed in a background thread
+ * Queues up mob info so they can be processed in batches. The background thread only waits on
+ * the queue, each mob is processed on the thread that owns the entity since the rules and levelling
+ * read and change the live entity
  *
  * @author stumper66
  * @since 3.0.0
@@ -29,6 +33,7 @@ public class MobsQueueManager {
     private boolean isRunning;
     private boolean doThread;
     private final LinkedBlockingQueue<QueueItem> queue;
+    private final static int MAX_BATCH_SIZE = 200;
 
     public void start() {
         if (isRunning) {
@@ -37,19 +42,14 @@ public class MobsQueueManager {
         doThread = true;
         isRunning = true;
 
-        final BukkitRunnable bgThread = new BukkitRunnable() {
-            @Override
-            public void run() {
-                try {
-                    main();
-                } catch (final InterruptedException ignored) {
-                    isRunning = false;
-                }
-                Utils.logger.info("Mob processing queue Manager has exited");
+        main.schedulerWrapper.runAsync(() -> {
+            try {
+                main();
+            } catch (final InterruptedException ignored) {
+                isRunning = false;
             }
-        };
-
-        bgThread.runTaskAsynchronously(main);
+            Utils.logger.info("Mob processing queue Manager has exited");
+        });
     }
 
     public void stop() {
@@ -65,7 +65,13 @@ public class MobsQueueManager {
         this.queue.offer(item);
     }
 
+    public int getQueueSize() {
+        return this.queue.size();
+    }
+
     private void main() throws InterruptedException {
+        final List<QueueItem> batch = new ArrayList<>(MAX_BATCH_SIZE);
+
         while (doThread) {
 
             final QueueItem item = queue.poll(200, TimeUnit.MILLISECONDS);
@@ -73,28 +79,46 @@ public class MobsQueueManager {
                 continue;
             }
 
-            String lastEntityType = null;
-            try {
-                if (item.lmEntity.getLivingEntity() != null) {
-                    if (!item.lmEntity.getIsPopulated()) {
-                        continue;
-                    }
-                    if (!item.lmEntity.getShouldShowLM_Nametag()) {
-                        continue;
-                    }
-                    lastEntityType = item.lmEntity.getNameIfBaby();
-                    main.levelManager.entitySpawnListener.preprocessMob(item.lmEntity, item.event);
+            batch.add(item);
+            queue.drainTo(batch, MAX_BATCH_SIZE - 1);
+
+            final List<SchedulerWrapper.EntityTask> entityTasks = new ArrayList<>(batch.size());
+            for (final QueueItem queueItem : batch) {
+                if (queueItem.lmEntity.getLivingEntity() == null) {
+                    queueItem.lmEntity.free();
+                    continue;
                 }
-            } catch (final Exception e) {
-                Utils.logger.error(
-                    "Got exception while processing " + (lastEntityType != null ? lastEntityType
-                        : "(unknown)"));
-                e.printStackTrace();
-            } finally {
-                item.lmEntity.free();
+
+                entityTasks.add(new SchedulerWrapper.EntityTask(
+                    queueItem.lmEntity.getLivingEntity(), () -> processItem(queueItem),
+                    queueItem.lmEntity::free));
             }
+            batch.clear();
+
+            main.schedulerWrapper.runEntityTasks(entityTasks);
         }
 
         isRunning = false;
     }
+
+    /**
+     * Runs on the entity's thread
+     */
+    private void processItem(final @NotNull QueueItem item) {
+        String lastEntityType = null;
+        try {
+            if (item.lmEntity.getLivingEntity() != null && item.lmEntity.getIsPopulated()
+                && item.lmEntity.getShouldShowLM_Nametag()) {
+                lastEntityType = item.lmEntity.getNameIfBaby();
+                main.levelManager.entitySpawnListener.preprocessMob(item.lmEntity, item.event);
+            }
+        } catch (final Exception e) {
+            Utils.logger.error(
+                "Got exception while processing " + (lastEntityType != null ? lastEntityType
+                    : "(unknown)"));
+            e.printStackTrace();
+        } finally {
+            item.lmEntity.free();
+        }
+    }
 }
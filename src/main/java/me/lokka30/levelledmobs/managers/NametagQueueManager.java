@@ -8,7 +8,10 @@ import java.time.Instant;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.WeakHashMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import me.lokka30.levelledmobs.LevelledMobs;
@@ -21,11 +24,15 @@ import me.lokka30.levelledmobs.result.NametagResult;
 import me.lokka30.levelledmobs.rules.NametagVisibilityEnum;
 import me.lokka30.levelledmobs.util.Utils;
 import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.entity.Entity;
 import org.bukkit.entity.LivingEntity;
 import org.bukkit.entity.Player;
 import org.bukkit.entity.Tameable;
 import org.bukkit.persistence.PersistentDataType;
-import org.bukkit.scheduler.BukkitRunnable;
 import org.jetbrains.annotations.NotNull;
 
 /**
@@ -40,6 +47,8 @@ public class NametagQueueManager {
         this.main = main;
         this.nmsHandler = new NMSHandler(main);
         this.queue = new LinkedBlockingQueue<>();
+        this.sentNametags = new ConcurrentHashMap<>();
+        this.trackingRanges = new ConcurrentHashMap<>();
         getNMSUtil();
     }
 
@@ -49,6 +58,16 @@ public class NametagQueueManager {
     private NMSUtil nmsUtil;
     private final LinkedBlockingQueue<QueueItem> queue;
     public final NMSHandler nmsHandler;
+    // player id -> (entity id -> hash of the nametag and visibility last sent to that player)
+    private final Map<UUID, Map<Integer, Integer>> sentNametags;
+    private long nametagPacketsSent;
+    private long nametagPacketsSkipped;
+    // only enabled when the server tells us when players stop tracking a mob
+    private volatile boolean isDedupeEnabled;
+    // world name -> smallest entity-tracking-range in spigot.yml, squared
+    private final Map<String, Integer> trackingRanges;
+    // mobs further than this are always pruned, lower configured ranges take priority
+    private final static int MAX_TRACKING_RANGE = 32;
 
     private void getNMSUtil() {
 
@@ -66,19 +85,14 @@ public class NametagQueueManager {
         doThread = true;
         isRunning = true;
 
-        final BukkitRunnable bgThread = new BukkitRunnable() {
-            @Override
-            public void run() {
-                try {
-                    main();
-                } catch (final InterruptedException ignored) {
-                    isRunning = false;
-                }
-                Utils.logger.info("Nametag update queue Manager has exited");
+        main.schedulerWrapper.runAsync(() -> {
+            try {
+                main();
+            } catch (final InterruptedException ignored) {
+                isRunning = false;
             }
-        };
-
-        bgThread.runTaskAsynchronously(main);
+            Utils.logger.info("Nametag update queue Manager has exited");
+        });
     }
 
     public void stop() {
@@ -139,37 +153,40 @@ public class NametagQueueManager {
 
         if (nametagTimerResetTime > 0L && !item.nametag.isNullOrEmpty()) {
             synchronized (NametagTimerChecker.nametagTimer_Lock) {
-                final Map<Player, WeakHashMap<LivingEntity, Instant>> nametagCooldownQueue = main.nametagTimerChecker.getNametagCooldownQueue();
+                final Map<Player, Map<Integer, NametagTimerChecker.NametagCooldown>> nametagCooldownQueue = main.nametagTimerChecker.getNametagCooldownQueue();
+                final LivingEntity livingEntity = item.lmEntity.getLivingEntity();
+                final int entityId = livingEntity.getEntityId();
 
                 if (item.lmEntity.playersNeedingNametagCooldownUpdate != null) {
                     // record which players should get the cooldown for this mob
-                    // public Map<Player, WeakHashMap<LivingEntity, Instant>> nametagCooldownQueue;
                     for (final Player player : item.lmEntity.playersNeedingNametagCooldownUpdate) {
-                        if (!nametagCooldownQueue.containsKey(player)) {
+                        final Map<Integer, NametagTimerChecker.NametagCooldown> cooldowns = nametagCooldownQueue.get(
+                            player);
+                        if (cooldowns == null) {
                             continue;
                         }
 
-                        nametagCooldownQueue.get(player)
-                            .put(item.lmEntity.getLivingEntity(), Instant.now());
-                        main.nametagTimerChecker.cooldownTimes.put(item.lmEntity.getLivingEntity(),
+                        cooldowns.put(entityId,
+                            new NametagTimerChecker.NametagCooldown(livingEntity, Instant.now()));
+                        main.nametagTimerChecker.cooldownTimes.put(entityId,
                             item.lmEntity.getNametagCooldownTime());
                     }
 
                     // if any players already have a cooldown on this mob then don't remove the cooldown
-                    for (final Map.Entry<Player, WeakHashMap<LivingEntity, Instant>> coolDown : nametagCooldownQueue.entrySet()) {
+                    for (final Map.Entry<Player, Map<Integer, NametagTimerChecker.NametagCooldown>> coolDown : nametagCooldownQueue.entrySet()) {
                         final Player player = coolDown.getKey();
                         if (item.lmEntity.playersNeedingNametagCooldownUpdate.contains(player)) {
                             continue;
                         }
 
-                        if (coolDown.getValue().containsKey(item.lmEntity.getLivingEntity())) {
+                        if (coolDown.getValue().containsKey(entityId)) {
                             item.lmEntity.playersNeedingNametagCooldownUpdate.add(player);
                         }
                     }
                 } else {
                     // if there's any existing cooldowns we'll use them
-                    for (final Map.Entry<Player, WeakHashMap<LivingEntity, Instant>> coolDown : nametagCooldownQueue.entrySet()) {
-                        if (coolDown.getValue().containsKey(item.lmEntity.getLivingEntity())) {
+                    for (final Map.Entry<Player, Map<Integer, NametagTimerChecker.NametagCooldown>> coolDown : nametagCooldownQueue.entrySet()) {
+                        if (coolDown.getValue().containsKey(entityId)) {
                             if (item.lmEntity.playersNeedingNametagCooldownUpdate == null) {
                                 item.lmEntity.playersNeedingNametagCooldownUpdate = new HashSet<>();
                             }
@@ -184,16 +201,14 @@ public class NametagQueueManager {
             item.lmEntity.playersNeedingNametagCooldownUpdate = null;
         }
 
-        synchronized (NametagTimerChecker.entityTarget_Lock) {
-            if (main.nametagTimerChecker.entityTargetMap.containsKey(
-                item.lmEntity.getLivingEntity())) {
-                if (item.lmEntity.playersNeedingNametagCooldownUpdate == null) {
-                    item.lmEntity.playersNeedingNametagCooldownUpdate = new HashSet<>();
-                }
-
-                item.lmEntity.playersNeedingNametagCooldownUpdate.add(
-                    main.nametagTimerChecker.entityTargetMap.get(item.lmEntity.getLivingEntity()));
+        final Player targetingPlayer = main.nametagTimerChecker.entityTargetMap.get(
+            item.lmEntity.getLivingEntity().getEntityId());
+        if (targetingPlayer != null) {
+            if (item.lmEntity.playersNeedingNametagCooldownUpdate == null) {
+                item.lmEntity.playersNeedingNametagCooldownUpdate = new HashSet<>();
             }
+
+            item.lmEntity.playersNeedingNametagCooldownUpdate.add(targetingPlayer);
         }
 
         if (!item.lmEntity.getIsPopulated()) {
@@ -236,18 +251,165 @@ public class NametagQueueManager {
                         continue;
                     }
 
-                    nmsUtil.sendNametag(lmEntity.getLivingEntity(), nametag, player,
-                        doAlwaysVisible);
+                    sendNametag(lmEntity.getLivingEntity(), nametag, player, doAlwaysVisible);
                 }
             } else {
                 // these players are getting always on nametags
                 for (final Player player : lmEntity.playersNeedingNametagCooldownUpdate) {
-                    nmsUtil.sendNametag(lmEntity.getLivingEntity(), nametag, player, true);
+                    sendNametag(lmEntity.getLivingEntity(), nametag, player, true);
                 }
             }
         }
     }
 
+    private void sendNametag(final @NotNull LivingEntity livingEntity,
+        final @NotNull NametagResult nametag, final @NotNull Player player,
+        final boolean doAlwaysVisible) {
+        if (!isDedupeEnabled) {
+            nametagPacketsSent++;
+            nmsUtil.sendNametag(livingEntity, nametag, player, doAlwaysVisible);
+            return;
+        }
+
+        final int nametagHash = Objects.hash(nametag.getNametag(), nametag.overriddenName,
+            doAlwaysVisible);
+        final Integer previousHash = sentNametags
+            .computeIfAbsent(player.getUniqueId(), k -> new ConcurrentHashMap<>())
+            .put(livingEntity.getEntityId(), nametagHash);
+
+        if (previousHash != null && previousHash == nametagHash) {
+            nametagPacketsSkipped++;
+            return;
+        }
+
+        nametagPacketsSent++;
+        nmsUtil.sendNametag(livingEntity, nametag, player, doAlwaysVisible);
+    }
+
+    /**
+     * Skipping nametags that were already sent is only safe if the server reports when a player
+     * stops tracking a mob, otherwise a mob that comes back into range would never be sent its
+     * nametag again
+     */
+    public void setDedupeEnabled(final boolean isDedupeEnabled) {
+        this.isDedupeEnabled = isDedupeEnabled;
+        if (!isDedupeEnabled) {
+            sentNametags.clear();
+        }
+    }
+
+    /**
+     * Forgets every nametag sent to the player, used when the client has dropped all of its
+     * entities such as on quitting, changing worlds or respawning
+     */
+    public void clearSentNametags(final @NotNull Player player) {
+        sentNametags.remove(player.getUniqueId());
+    }
+
+    /**
+     * Forgets the nametag sent to the player for one mob, used when the player stops tracking it
+     */
+    public void forgetSentNametag(final @NotNull Player player, final int entityId) {
+        final Map<Integer, Integer> sent = sentNametags.get(player.getUniqueId());
+        if (sent != null) {
+            sent.remove(entityId);
+        }
+    }
+
+    /**
+     * Forgets every nametag sent for the mob, used when it is removed from the world, teleports
+     * or is added to a world again
+     */
+    public void removeEntity(final int entityId) {
+        for (final Map<Integer, Integer> sent : sentNametags.values()) {
+            sent.remove(entityId);
+        }
+    }
+
+    /**
+     * Forgets every mob that isn't in the provided ids, used by the periodic cleanup sweep
+     */
+    public void retainEntities(final @NotNull Set<Integer> entityIds) {
+        for (final Map<Integer, Integer> sent : sentNametags.values()) {
+            sent.keySet().retainAll(entityIds);
+        }
+    }
+
+    public int getSentNametagCount() {
+        int count = 0;
+        for (final Map<Integer, Integer> sent : sentNametags.values()) {
+            count += sent.size();
+        }
+
+        return count;
+    }
+
+    /**
+     * Forgets the nametags sent to the player for any mob that isn't close enough to be certain
+     * it is still tracked by the client. Mobs that get tracked again are sent their nametag again.
+     */
+    public void pruneSentNametags(final @NotNull Player player,
+        final @NotNull List<Entity> nearbyEntities) {
+        final Map<Integer, Integer> sent = sentNametags.get(player.getUniqueId());
+        if (sent == null || sent.isEmpty()) {
+            return;
+        }
+
+        final Location playerLocation = player.getLocation();
+        final int trackedDistanceSquared = getTrackingRangeSquared(player.getWorld());
+        final Set<Integer> trackedIds = new HashSet<>();
+        for (final Entity entity : nearbyEntities) {
+            if (entity.getLocation().distanceSquared(playerLocation) <= trackedDistanceSquared) {
+                trackedIds.add(entity.getEntityId());
+            }
+        }
+
+        sent.keySet().retainAll(trackedIds);
+    }
+
+    /**
+     * @return the smallest entity tracking range configured for the world in spigot.yml, so
+     * mobs closer than this are tracked whatever type they are
+     */
+    private int getTrackingRangeSquared(final @NotNull World world) {
+        return trackingRanges.computeIfAbsent(world.getName(), worldName -> {
+            int range = MAX_TRACKING_RANGE;
+            try {
+                final YamlConfiguration spigotCfg = Bukkit.spigot().getConfig();
+                final ConfigurationSection defaults = spigotCfg.getConfigurationSection(
+                    "world-settings.default.entity-tracking-range");
+                final ConfigurationSection worldRanges = spigotCfg.getConfigurationSection(
+                    "world-settings." + worldName + ".entity-tracking-range");
+                // worlds only list the ranges they change from the defaults
+                for (final ConfigurationSection ranges : new ConfigurationSection[]{defaults,
+                    worldRanges}) {
+                    if (ranges == null) {
+                        continue;
+                    }
+                    for (final String key : ranges.getKeys(false)) {
+                        // player ranges don't matter as only mobs get nametags
+                        if (!"players".equals(key) && ranges.isInt(key) && (ranges == worldRanges
+                            || worldRanges == null || !worldRanges.isInt(key))) {
+                            range = Math.min(range, ranges.getInt(key));
+                        }
+                    }
+                }
+            } catch (final UnsupportedOperationException ignored) {
+                // not running on Spigot or a fork of it
+            }
+
+            return range * range;
+        });
+    }
+
+    public long getNametagPacketsSent() {
+        return this.nametagPacketsSent;
+    }
+
+    public long getNametagPacketsSkipped() {
+        return this.nametagPacketsSkipped;
+    }
+
     @SuppressWarnings("deprecation")
     private void updateNametagCustomName(final @NotNull LivingEntityWrapper lmEntity,
                                          final String nametag) {
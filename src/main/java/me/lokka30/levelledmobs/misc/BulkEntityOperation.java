@@ -0,0 +1,212 @@
+/*
+ * Copyright (c) 2020-2022  lokka30. Use of this source code is governed by the GNU AGPL v3.0 license that can be found in the LICENSE.md file.
+ */
+
+package me.lokka30.levelledmobs.misc;
+
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.function.Consumer;
+import me.lokka30.levelledmobs.LevelledMobs;
+import org.bukkit.Chunk;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.scheduler.BukkitRunnable;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Runs an action against every living entity in the loaded chunks of one or more worlds. The
+ * chunks are processed on the main thread a slice at a time, with each tick limited to a time
+ * budget so large worlds don't stall the server.
+ *
+ * @author stumper66
+ * @since 3.8.0
+ */
+public class BulkEntityOperation {
+
+    public BulkEntityOperation(final @NotNull LevelledMobs main,
+        final @NotNull List<World> worlds, final @NotNull EntityAction action) {
+        this.main = main;
+        this.worlds = worlds;
+        this.action = action;
+        this.pendingChunks = new LinkedList<>();
+    }
+
+    private final LevelledMobs main;
+    private final List<World> worlds;
+    private final EntityAction action;
+    private final Queue<ChunkPosition> pendingChunks;
+    private Consumer<BulkEntityOperation> onProgress;
+    private Consumer<BulkEntityOperation> onComplete;
+    private BukkitTask task;
+    private long nanosPerTick = 10_000_000L;
+    private long progressIntervalNanos = 5_000_000_000L;
+    private long startedNanos;
+    private long lastProgressNanos;
+    private int chunksTotal;
+    private int chunksProcessed;
+    private int entitiesProcessed;
+    private int affectedCount;
+    private int skippedCount;
+    private boolean isCancelled;
+
+    public interface EntityAction {
+
+        void apply(@NotNull LivingEntity livingEntity, @NotNull BulkEntityOperation operation);
+    }
+
+    @NotNull public BulkEntityOperation setMillisecondsPerTick(final int milliseconds) {
+        this.nanosPerTick = Math.max(1, milliseconds) * 1_000_000L;
+        return this;
+    }
+
+    @NotNull public BulkEntityOperation setProgressIntervalSeconds(final int seconds) {
+        this.progressIntervalNanos = Math.max(1, seconds) * 1_000_000_000L;
+        return this;
+    }
+
+    @NotNull public BulkEntityOperation setOnProgress(
+        final @Nullable Consumer<BulkEntityOperation> onProgress) {
+        this.onProgress = onProgress;
+        return this;
+    }
+
+    @NotNull public BulkEntityOperation setOnComplete(
+        final @Nullable Consumer<BulkEntityOperation> onComplete) {
+        this.onComplete = onComplete;
+        return this;
+    }
+
+    /**
+     * Snapshots the currently loaded chunks and starts processing them on the next tick. Must be
+     * called from the main thread.
+     */
+    public void start() {
+        if (task != null) {
+            throw new IllegalStateException("Operation has already been started");
+        }
+
+        for (final World world : worlds) {
+            for (final Chunk chunk : world.getLoadedChunks()) {
+                pendingChunks.offer(new ChunkPosition(world, chunk.getX(), chunk.getZ()));
+            }
+        }
+
+        this.chunksTotal = pendingChunks.size();
+        this.startedNanos = System.nanoTime();
+        this.lastProgressNanos = startedNanos;
+
+        task = new BukkitRunnable() {
+            @Override
+            public void run() {
+                processSlice();
+            }
+        }.runTaskTimer(main, 1, 1);
+    }
+
+    public void cancel() {
+        this.isCancelled = true;
+        if (task != null) {
+            task.cancel();
+        }
+    }
+
+    private void processSlice() {
+        final long sliceStarted = System.nanoTime();
+
+        while (!pendingChunks.isEmpty() && !isCancelled) {
+            final ChunkPosition position = pendingChunks.poll();
+            chunksProcessed++;
+
+            // chunks that unloaded since the snapshot are skipped rather than loaded again
+            if (position.world.isChunkLoaded(position.x, position.z)) {
+                processChunk(position.world.getChunkAt(position.x, position.z));
+            }
+
+            if (System.nanoTime() - sliceStarted >= nanosPerTick) {
+                break;
+            }
+        }
+
+        if (pendingChunks.isEmpty() || isCancelled) {
+            task.cancel();
+            if (onComplete != null) {
+                onComplete.accept(this);
+            }
+            return;
+        }
+
+        final long now = System.nanoTime();
+        if (onProgress != null && now - lastProgressNanos >= progressIntervalNanos) {
+            lastProgressNanos = now;
+            onProgress.accept(this);
+        }
+    }
+
+    private void processChunk(final @NotNull Chunk chunk) {
+        for (final Entity entity : chunk.getEntities()) {
+            if (!(entity instanceof final LivingEntity livingEntity) || !entity.isValid()) {
+                continue;
+            }
+
+            entitiesProcessed++;
+            action.apply(livingEntity, this);
+        }
+    }
+
+    public void incrementAffected() {
+        this.affectedCount++;
+    }
+
+    public void incrementSkipped() {
+        this.skippedCount++;
+    }
+
+    public int getAffectedCount() {
+        return this.affectedCount;
+    }
+
+    public int getSkippedCount() {
+        return this.skippedCount;
+    }
+
+    public int getEntitiesProcessed() {
+        return this.entitiesProcessed;
+    }
+
+    public int getChunksProcessed() {
+        return this.chunksProcessed;
+    }
+
+    public int getChunksTotal() {
+        return this.chunksTotal;
+    }
+
+    public int getWorldCount() {
+        return this.worlds.size();
+    }
+
+    public int getPercentComplete() {
+        return chunksTotal == 0 ? 100 : (int) (chunksProcessed * 100L / chunksTotal);
+    }
+
+    public long getElapsedMilliseconds() {
+        return (System.nanoTime() - startedNanos) / 1_000_000L;
+    }
+
+    public boolean isRunning() {
+        return task != null && !task.isCancelled();
+    }
+
+    public boolean isCancelled() {
+        return this.isCancelled;
+    }
+
+    private record ChunkPosition(@NotNull World world, int x, int z) {
+
+    }
+}
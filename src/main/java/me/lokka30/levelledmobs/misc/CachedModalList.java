@@ -4,9 +4,15 @@
 
 package me.lokka30.levelledmobs.misc;
 
+import java.util.BitSet;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.function.Function;
+import org.bukkit.entity.EntityType;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -16,7 +22,7 @@ import org.jetbrains.annotations.Nullable;
  * @author stumper66
  * @since 3.0.0
  */
-@SuppressWarnings("unchecked")
+@SuppressWarnings({"unchecked", "rawtypes"})
 public class CachedModalList<T extends Comparable<T>> implements Cloneable {
 
     public CachedModalList() {
@@ -40,6 +46,73 @@ public class CachedModalList<T extends Comparable<T>> implements Cloneable {
     public boolean doMerge;
     public boolean allowAll;
     public boolean excludeAll;
+    private Function<String, Collection<T>> groupResolver;
+    private volatile CompiledLists<T> compiled;
+    private volatile EntityTypeLists entityTypeLists;
+
+    /**
+     * Builds the lookup form used by isEnabledInList. Enum items are stored in an EnumSet and
+     * groups are stored as bitmasks from GroupBitIndex, so checks don't need any string compares.
+     * Must be called again if the lists are changed after parsing.
+     */
+    public void compile() {
+        compile(this.groupResolver);
+    }
+
+    /**
+     * @param groupResolver if provided, groups are expanded into the items they contain instead of
+     *                      being matched against the mob's applicable groups (used for biomes)
+     */
+    public void compile(final @Nullable Function<String, Collection<T>> groupResolver) {
+        this.groupResolver = groupResolver;
+        final CompiledLists<T> result = new CompiledLists<>();
+        result.isEmpty = isEmpty();
+        result.isBlacklist = isBlacklist();
+
+        if (groupResolver != null) {
+            final Set<T> allowedItems = new HashSet<>(this.allowedList);
+            final Set<T> excludedItems = new HashSet<>(this.excludedList);
+            for (final String group : this.allowedGroups) {
+                allowedItems.addAll(groupResolver.apply(group));
+            }
+            for (final String group : this.excludedGroups) {
+                excludedItems.addAll(groupResolver.apply(group));
+            }
+            result.allowedItems = buildLookupSet(allowedItems);
+            result.excludedItems = buildLookupSet(excludedItems);
+            result.allowedGroupIds = new BitSet();
+            result.excludedGroupIds = new BitSet();
+        } else {
+            result.allowedItems = buildLookupSet(this.allowedList);
+            result.excludedItems = buildLookupSet(this.excludedList);
+            result.allowedGroupIds = GroupBitIndex.toBitSet(this.allowedGroups);
+            result.excludedGroupIds = GroupBitIndex.toBitSet(this.excludedGroups);
+        }
+
+        this.compiled = result;
+        this.entityTypeLists = null;
+    }
+
+    @NotNull private Set<T> buildLookupSet(final @NotNull Set<T> items) {
+        if (items.isEmpty()) {
+            return Collections.emptySet();
+        }
+        if (items.iterator().next() instanceof Enum<?>) {
+            return (Set<T>) EnumSet.copyOf((Collection<Enum>) items);
+        }
+
+        return items;
+    }
+
+    @NotNull private CompiledLists<T> getCompiled() {
+        CompiledLists<T> result = this.compiled;
+        if (result == null) {
+            compile();
+            result = this.compiled;
+        }
+
+        return result;
+    }
 
     public boolean isEnabledInList(final T item, @Nullable final LivingEntityWrapper lmEntity) {
         if (this.allowAll) {
@@ -48,33 +121,122 @@ public class CachedModalList<T extends Comparable<T>> implements Cloneable {
         if (this.excludeAll) {
             return false;
         }
-        if (this.isEmpty()) {
+
+        final CompiledLists<T> lists = getCompiled();
+        if (lists.isEmpty) {
             return true;
         }
 
         if (lmEntity != null) {
-            for (final String group : lmEntity.getApplicableGroups()) {
-                if (this.excludedGroups.contains(group)) {
-                    return false;
-                }
+            final BitSet groupIds = lmEntity.getApplicableGroupIds();
+            if (lists.excludedGroupIds.intersects(groupIds)) {
+                return false;
             }
 
-            if (this.excludedList.contains(item)) {
+            if (lists.excludedItems.contains(item)) {
                 return false;
             }
 
-            for (final String group : lmEntity.getApplicableGroups()) {
-                if (this.allowedGroups.contains(group)) {
-                    return true;
-                }
+            if (lists.allowedGroupIds.intersects(groupIds)) {
+                return true;
             }
         }
 
-        if (this.excludedList.contains(item)) {
+        if (lists.excludedItems.contains(item)) {
+            return false;
+        }
+
+        return lists.isBlacklist || lists.allowedItems.contains(item);
+    }
+
+    /**
+     * Checks an entity type list, such as allowed-entities. Entity names are compiled into
+     * EnumSets the first time this is called, including the baby_ variants
+     *
+     * @param checkBabyMobs if true baby mobs are checked against the baby_ names in the allowed
+     *                      list, otherwise they are checked against the adult names
+     */
+    public boolean isLivingEntityInList(final @NotNull LivingEntityWrapper lmEntity,
+        final boolean checkBabyMobs) {
+        if (this.allowAll) {
+            return true;
+        }
+        if (this.excludeAll) {
             return false;
         }
 
-        return this.isBlacklist() || this.allowedList.contains(item);
+        final CompiledLists<T> lists = getCompiled();
+        if (lists.isEmpty) {
+            return true;
+        }
+
+        return isEntityTypeInList(lists, lmEntity.getEntityType(), lmEntity.isBabyMob(),
+            lmEntity.getApplicableGroupIds(), checkBabyMobs);
+    }
+
+    /**
+     * The same check as {@link #isLivingEntityInList(LivingEntityWrapper, boolean)} for when
+     * there is no mob, such as in the rules simulator
+     *
+     * @param groupIds the mob's groups from {@link MobGroupTable}
+     */
+    public boolean isEntityTypeInList(final @NotNull EntityType entityType, final boolean isBaby,
+        final @NotNull BitSet groupIds, final boolean checkBabyMobs) {
+        if (this.allowAll) {
+            return true;
+        }
+        if (this.excludeAll) {
+            return false;
+        }
+
+        final CompiledLists<T> lists = getCompiled();
+        if (lists.isEmpty) {
+            return true;
+        }
+
+        return isEntityTypeInList(lists, entityType, isBaby, groupIds, checkBabyMobs);
+    }
+
+    private boolean isEntityTypeInList(final @NotNull CompiledLists<T> lists,
+        final @NotNull EntityType entityType, final boolean isBaby,
+        final @NotNull BitSet groupIds, final boolean checkBabyMobs) {
+        EntityTypeLists typeLists = this.entityTypeLists;
+        if (typeLists == null) {
+            typeLists = new EntityTypeLists((Set<String>) this.allowedList,
+                (Set<String>) this.excludedList);
+            this.entityTypeLists = typeLists;
+        }
+
+        if (lists.excludedGroupIds.intersects(groupIds)) {
+            return false;
+        }
+
+        // for denies we'll check for both baby and adult variants regardless of baby-mobs-inherit-adult-setting
+        if (typeLists.excludedTypes.contains(entityType)
+            || isBaby && (typeLists.excludesAllBabies
+            || typeLists.excludedBabyTypes.contains(entityType))) {
+            return false;
+        }
+
+        if (lists.allowedGroupIds.intersects(groupIds)) {
+            return true;
+        }
+
+        if (lists.isBlacklist || isBaby && typeLists.allowsAllBabies) {
+            return true;
+        }
+
+        return checkBabyMobs && isBaby ?
+            typeLists.allowedBabyTypes.contains(entityType) :
+            typeLists.allowedTypes.contains(entityType);
+    }
+
+    public boolean isInExcludedGroups(final @NotNull LivingEntityWrapper lmEntity) {
+        return getCompiled().excludedGroupIds.intersects(lmEntity.getApplicableGroupIds());
+    }
+
+    public boolean isInAllowedGroups(final @NotNull LivingEntityWrapper lmEntity) {
+        return getCompiled().allowedGroupIds.intersects(lmEntity.getApplicableGroupIds());
     }
 
     public boolean isEmpty() {
@@ -152,6 +314,8 @@ public class CachedModalList<T extends Comparable<T>> implements Cloneable {
             copy.allowedGroups = (TreeSet<String>) ((TreeSet<String>) (this.allowedGroups)).clone();
             copy.excludedList = (TreeSet<T>) ((TreeSet<T>) (this.excludedList)).clone();
             copy.excludedGroups = (TreeSet<String>) ((TreeSet<String>) (this.excludedGroups)).clone();
+            copy.compiled = null;
+            copy.entityTypeLists = null;
         } catch (final CloneNotSupportedException e) {
             e.printStackTrace();
         }
@@ -172,5 +336,68 @@ public class CachedModalList<T extends Comparable<T>> implements Cloneable {
         if (cachedModalList.excludeAll) {
             this.excludeAll = true;
         }
+
+        compile();
+    }
+
+    /**
+     * Entity names from a list of strings split into adult and baby EnumSets. Names that aren't
+     * an entity type can never match a mob so they are left out
+     */
+    private static class EntityTypeLists {
+
+        EntityTypeLists(final @NotNull Set<String> allowedNames,
+            final @NotNull Set<String> excludedNames) {
+            this.allowedTypes = EnumSet.noneOf(EntityType.class);
+            this.allowedBabyTypes = EnumSet.noneOf(EntityType.class);
+            this.excludedTypes = EnumSet.noneOf(EntityType.class);
+            this.excludedBabyTypes = EnumSet.noneOf(EntityType.class);
+            this.allowsAllBabies = addNames(allowedNames, allowedTypes, allowedBabyTypes);
+            this.excludesAllBabies = addNames(excludedNames, excludedTypes, excludedBabyTypes);
+        }
+
+        final EnumSet<EntityType> allowedTypes;
+        final EnumSet<EntityType> allowedBabyTypes;
+        final EnumSet<EntityType> excludedTypes;
+        final EnumSet<EntityType> excludedBabyTypes;
+        final boolean allowsAllBabies;
+        final boolean excludesAllBabies;
+
+        /**
+         * @return true if the names contain baby_ by itself, which matches all baby mobs
+         */
+        private static boolean addNames(final @NotNull Set<String> names,
+            final @NotNull EnumSet<EntityType> types,
+            final @NotNull EnumSet<EntityType> babyTypes) {
+            boolean hasAllBabies = false;
+            for (final String name : names) {
+                String typeName = name.trim().toUpperCase();
+                EnumSet<EntityType> addTo = types;
+                if (typeName.startsWith("BABY_")) {
+                    typeName = typeName.substring(5);
+                    addTo = babyTypes;
+                    if (typeName.isEmpty()) {
+                        hasAllBabies = true;
+                        continue;
+                    }
+                }
+
+                try {
+                    addTo.add(EntityType.valueOf(typeName));
+                } catch (final IllegalArgumentException ignored) {
+                }
+            }
+
+            return hasAllBabies;
+        }
+    }
+
+    private static class CompiledLists<T> {
+        Set<T> allowedItems;
+        Set<T> excludedItems;
+        BitSet allowedGroupIds;
+        BitSet excludedGroupIds;
+        boolean isEmpty;
+        boolean isBlacklist;
     }
 }
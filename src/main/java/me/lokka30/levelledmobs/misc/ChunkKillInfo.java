@@ -1,9 +1,9 @@
 package me.lokka30.levelledmobs.misc;
 
 import java.time.Instant;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import org.jetbrains.annotations.NotNull;
 
 /**
@@ -15,7 +15,7 @@ import org.jetbrains.annotations.NotNull;
 public class ChunkKillInfo {
 
     public ChunkKillInfo() {
-        this.entityCounts = new HashMap<>();
+        this.entityCounts = new ConcurrentHashMap<>();
     }
 
     // timestamp of death, max cooldown time
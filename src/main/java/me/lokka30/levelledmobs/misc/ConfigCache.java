@@ -0,0 +1,358 @@
+/*
+ * Copyright (c) 2020-2022  lokka30. Use of this source code is governed by the GNU AGPL v3.0 license that can be found in the LICENSE.md file.
+ */
+
+package me.lokka30.levelledmobs.misc;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import me.lokka30.levelledmobs.util.Utils;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Keeps the parsed contents of the yml files in a binary file so they don't have to be parsed as
+ * YAML again on the next start-up. Each file is keyed by a SHA-256 hash of its contents, so any
+ * change to a file causes it to be parsed normally and cached again. The whole cache is discarded
+ * when the plugin version changes. Changes are only written to disk when {@link #save()} is called,
+ * which is done once after the files have been loaded.
+ *
+ * @author stumper66
+ * @since 3.8.0
+ */
+public class ConfigCache {
+
+    public ConfigCache(final @NotNull File cacheFile, final @NotNull String pluginVersion) {
+        this.cacheFile = cacheFile;
+        this.pluginVersion = pluginVersion;
+        this.entries = new HashMap<>();
+    }
+
+    private final static int MAGIC = 0x4C4D4343;
+    private final static int FORMAT_VERSION = 1;
+    private final static byte TAG_NULL = 0;
+    private final static byte TAG_STRING = 1;
+    private final static byte TAG_INT = 2;
+    private final static byte TAG_LONG = 3;
+    private final static byte TAG_DOUBLE = 4;
+    private final static byte TAG_BOOLEAN = 5;
+    private final static byte TAG_BIG_INTEGER = 6;
+    private final static byte TAG_LIST = 7;
+    private final static byte TAG_MAP = 8;
+    private final static byte TAG_SECTION = 9;
+
+    private final File cacheFile;
+    private final String pluginVersion;
+    private final Map<String, CacheEntry> entries;
+    private boolean hasReadFile;
+    private boolean hasChanges;
+    private long timeSaved;
+
+    /**
+     * @param contentHash the hash of the current contents of the file from {@link #hash(byte[])}
+     * @return the cached config or null if the file isn't cached or has changed
+     */
+    public synchronized @Nullable YamlConfiguration get(final @NotNull String name,
+        final byte @NotNull [] contentHash) {
+        readCacheFile();
+        final CacheEntry entry = entries.get(name);
+        if (entry == null || !Arrays.equals(entry.contentHash(), contentHash)) {
+            return null;
+        }
+
+        final long started = System.nanoTime();
+        final YamlConfiguration cfg = new YamlConfiguration();
+        try (final DataInputStream input = new DataInputStream(
+            new ByteArrayInputStream(entry.tree()))) {
+            if (input.readByte() != TAG_SECTION) {
+                throw new IOException("Invalid root");
+            }
+            readSection(input, cfg);
+        } catch (final IOException e) {
+            Utils.logger.warning("Unable to read cached " + name + ", " + e.getMessage());
+            entries.remove(name);
+            hasChanges = true;
+            return null;
+        }
+
+        final long elapsed = (System.nanoTime() - started) / 1_000_000L;
+        final long saved = Math.max(0L, entry.parseTime() - elapsed);
+        timeSaved += saved;
+        Utils.logger.info("&fFile Loader: &7Loaded '&b" + name + "&7' from the config cache (saved "
+            + saved + "ms)");
+
+        return cfg;
+    }
+
+    /**
+     * Adds the parsed config to the cache. Configs containing values that can't be cached are
+     * skipped
+     *
+     * @param contentHash the hash that was passed to {@link #get(String, byte[])}
+     * @param parseTime   how many milliseconds it took to parse the config
+     */
+    public synchronized void put(final @NotNull String name, final byte @NotNull [] contentHash,
+        final @NotNull YamlConfiguration cfg, final long parseTime) {
+        readCacheFile();
+        hasChanges = true;
+
+        final ByteArrayOutputStream tree = new ByteArrayOutputStream();
+        try (final DataOutputStream output = new DataOutputStream(tree)) {
+            writeValue(output, cfg);
+        } catch (final IOException e) {
+            entries.remove(name);
+            return;
+        }
+
+        entries.put(name, new CacheEntry(contentHash, parseTime, tree.toByteArray()));
+    }
+
+    /**
+     * Writes the cache file if anything has been added or removed since it was last written
+     */
+    public synchronized void save() {
+        if (!hasChanges) {
+            return;
+        }
+
+        hasChanges = false;
+        writeCacheFile();
+    }
+
+    /**
+     * @return milliseconds saved by loading configs from the cache instead of parsing them
+     */
+    public synchronized long getTimeSaved() {
+        return this.timeSaved;
+    }
+
+    private void readCacheFile() {
+        if (hasReadFile) {
+            return;
+        }
+        hasReadFile = true;
+
+        if (!cacheFile.exists()) {
+            return;
+        }
+
+        try (final DataInputStream input = new DataInputStream(
+            new BufferedInputStream(new FileInputStream(cacheFile)))) {
+            if (input.readInt() != MAGIC || input.readInt() != FORMAT_VERSION
+                || !pluginVersion.equals(readString(input))) {
+                return;
+            }
+
+            final int count = input.readInt();
+            for (int i = 0; i < count; i++) {
+                final String name = readString(input);
+                final byte[] contentHash = readBytes(input);
+                final long parseTime = input.readLong();
+                entries.put(name, new CacheEntry(contentHash, parseTime, readBytes(input)));
+            }
+        } catch (final IOException e) {
+            Utils.logger.warning("Unable to read " + cacheFile.getName() + ", " + e.getMessage());
+            entries.clear();
+        }
+    }
+
+    private void writeCacheFile() {
+        final File tempFile = new File(cacheFile.getParentFile(), cacheFile.getName() + ".tmp");
+        try (final DataOutputStream output = new DataOutputStream(
+            new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+            output.writeInt(MAGIC);
+            output.writeInt(FORMAT_VERSION);
+            writeString(output, pluginVersion);
+            output.writeInt(entries.size());
+            for (final Map.Entry<String, CacheEntry> entry : entries.entrySet()) {
+                writeString(output, entry.getKey());
+                writeBytes(output, entry.getValue().contentHash());
+                output.writeLong(entry.getValue().parseTime());
+                writeBytes(output, entry.getValue().tree());
+            }
+        } catch (final IOException e) {
+            Utils.logger.warning("Unable to write " + cacheFile.getName() + ", " + e.getMessage());
+            return;
+        }
+
+        try {
+            Files.move(tempFile.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (final IOException e) {
+            Utils.logger.warning("Unable to write " + cacheFile.getName() + ", " + e.getMessage());
+        }
+    }
+
+    private static void writeValue(final @NotNull DataOutputStream output,
+        final @Nullable Object value) throws IOException {
+        if (value == null) {
+            output.writeByte(TAG_NULL);
+        } else if (value instanceof final ConfigurationSection cs) {
+            output.writeByte(TAG_SECTION);
+            final List<String> keys = new ArrayList<>(cs.getKeys(false));
+            output.writeInt(keys.size());
+            for (final String key : keys) {
+                writeString(output, key);
+                writeValue(output, cs.get(key));
+            }
+        } else if (value instanceof final String str) {
+            output.writeByte(TAG_STRING);
+            writeString(output, str);
+        } else if (value instanceof final Integer num) {
+            output.writeByte(TAG_INT);
+            output.writeInt(num);
+        } else if (value instanceof final Long num) {
+            output.writeByte(TAG_LONG);
+            output.writeLong(num);
+        } else if (value instanceof final Double num) {
+            output.writeByte(TAG_DOUBLE);
+            output.writeDouble(num);
+        } else if (value instanceof final Boolean bool) {
+            output.writeByte(TAG_BOOLEAN);
+            output.writeBoolean(bool);
+        } else if (value instanceof final BigInteger num) {
+            output.writeByte(TAG_BIG_INTEGER);
+            writeBytes(output, num.toByteArray());
+        } else if (value instanceof final List<?> list) {
+            output.writeByte(TAG_LIST);
+            output.writeInt(list.size());
+            for (final Object item : list) {
+                writeValue(output, item);
+            }
+        } else if (value instanceof final Map<?, ?> map) {
+            // maps that are inside of lists aren't converted to sections
+            output.writeByte(TAG_MAP);
+            output.writeInt(map.size());
+            for (final Map.Entry<?, ?> entry : map.entrySet()) {
+                writeValue(output, entry.getKey());
+                writeValue(output, entry.getValue());
+            }
+        } else {
+            throw new IOException("Unsupported type: " + value.getClass().getName());
+        }
+    }
+
+    private static @Nullable Object readValue(final @NotNull DataInputStream input)
+        throws IOException {
+        final byte tag = input.readByte();
+        switch (tag) {
+            case TAG_NULL -> {
+                return null;
+            }
+            case TAG_STRING -> {
+                return readString(input);
+            }
+            case TAG_INT -> {
+                return input.readInt();
+            }
+            case TAG_LONG -> {
+                return input.readLong();
+            }
+            case TAG_DOUBLE -> {
+                return input.readDouble();
+            }
+            case TAG_BOOLEAN -> {
+                return input.readBoolean();
+            }
+            case TAG_BIG_INTEGER -> {
+                return new BigInteger(readBytes(input));
+            }
+            case TAG_LIST -> {
+                final int size = input.readInt();
+                final List<Object> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(readValue(input));
+                }
+                return list;
+            }
+            case TAG_MAP -> {
+                final int size = input.readInt();
+                final Map<Object, Object> map = new LinkedHashMap<>(size);
+                for (int i = 0; i < size; i++) {
+                    map.put(readValue(input), readValue(input));
+                }
+                return map;
+            }
+            default -> throw new IOException("Invalid tag: " + tag);
+        }
+    }
+
+    private static void readSection(final @NotNull DataInputStream input,
+        final @NotNull ConfigurationSection cs) throws IOException {
+        final int size = input.readInt();
+        for (int i = 0; i < size; i++) {
+            final String key = readString(input);
+            input.mark(1);
+            if (input.readByte() == TAG_SECTION) {
+                readSection(input, cs.createSection(key));
+            } else {
+                input.reset();
+                cs.set(key, readValue(input));
+            }
+        }
+    }
+
+    private static void writeString(final @NotNull DataOutputStream output,
+        final @NotNull String str) throws IOException {
+        writeBytes(output, str.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static @NotNull String readString(final @NotNull DataInputStream input)
+        throws IOException {
+        return new String(readBytes(input), StandardCharsets.UTF_8);
+    }
+
+    private static void writeBytes(final @NotNull DataOutputStream output,
+        final byte @NotNull [] bytes) throws IOException {
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private static byte @NotNull [] readBytes(final @NotNull DataInputStream input)
+        throws IOException {
+        final int length = input.readInt();
+        if (length < 0) {
+            throw new IOException("Invalid length: " + length);
+        }
+        final byte[] bytes = new byte[length];
+        input.readFully(bytes);
+        return bytes;
+    }
+
+    /**
+     * @return the SHA-256 hash of the file contents that cache entries are keyed by
+     */
+    public static byte @NotNull [] hash(final byte @NotNull [] contents) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(contents);
+        } catch (final NoSuchAlgorithmException e) {
+            // every JVM is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record CacheEntry(byte @NotNull [] contentHash, long parseTime, byte @NotNull [] tree) {
+
+    }
+}
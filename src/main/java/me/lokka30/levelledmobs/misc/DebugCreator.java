@@ -135,6 +135,84 @@ public class DebugCreator {
         sb.append("/");
         sb.append(main.maxPlayersRecorded);
         sb.append(System.lineSeparator());
+        if (main.chunkLoadListener != null) {
+            sb.append("chunk loads processed: ");
+            sb.append(main.chunkLoadListener.getChunksProcessed());
+            sb.append(", levelled mobs skipped: ");
+            sb.append(main.chunkLoadListener.getMobsSkipped());
+            sb.append(System.lineSeparator());
+        }
+        if (main.playerJoinListener != null) {
+            final long streams = main.playerJoinListener.getNametagStreamCount();
+            sb.append("nametag updates queued per join or world change: ");
+            sb.append(streams == 0 ?
+                0 : main.playerJoinListener.getNametagUpdatesQueued() / streams);
+            sb.append(" (");
+            sb.append(streams);
+            sb.append(" joins or world changes)");
+            sb.append(System.lineSeparator());
+        }
+        if (main.levelManager != null) {
+            sb.append("suppressed nametag updates: ");
+            sb.append(main.levelManager.getSuppressedNametagUpdates());
+            sb.append(System.lineSeparator());
+        }
+        if (main.nametagQueueManager != null) {
+            sb.append("nametag packets sent: ");
+            sb.append(main.nametagQueueManager.getNametagPacketsSent());
+            sb.append(", skipped as duplicates: ");
+            sb.append(main.nametagQueueManager.getNametagPacketsSkipped());
+            sb.append(System.lineSeparator());
+        }
+        if (main.entityCleanupListener != null) {
+            sb.append("tracked mob entries: player levelling ");
+            sb.append(main.playerLevellingEntities.size());
+            sb.append(", summoned ");
+            sb.append(main.levelManager.summonedOrSpawnEggs.size());
+            sb.append(", last nametags ");
+            sb.append(main.levelManager.getLastSentNametagCount());
+            sb.append(", cooldowns ");
+            sb.append(main.nametagTimerChecker.getCooldownEntryCount());
+            sb.append(", targets ");
+            sb.append(main.nametagTimerChecker.entityTargetMap.size());
+            sb.append(", sent nametags ");
+            sb.append(main.nametagQueueManager.getSentNametagCount());
+            sb.append(", level index ");
+            sb.append(main.levelIndex.size());
+            sb.append(" (");
+            sb.append(main.entityCleanupListener.getEntitiesRemoved());
+            sb.append(" removed, ");
+            sb.append(main.entityCleanupListener.getSweepCount());
+            sb.append(" sweeps)");
+            sb.append(System.lineSeparator());
+        }
+        if (main.customDropsHandler != null) {
+            final long items = main.customDropsHandler.getItemsMaterialized();
+            sb.append("custom drop items built: ");
+            sb.append(items);
+            sb.append(", avg time: ");
+            sb.append(items == 0 ? 0 : main.customDropsHandler.getItemMaterializeNanos() / items);
+            sb.append(" ns");
+            sb.append(System.lineSeparator());
+            sb.append("custom commands dispatched: ");
+            sb.append(main.customDropsHandler.commandDispatcher.getDispatchedCount());
+            sb.append(", deferred: ");
+            sb.append(main.customDropsHandler.commandDispatcher.getDeferredCount());
+            sb.append(", dropped: ");
+            sb.append(main.customDropsHandler.commandDispatcher.getDroppedCount());
+            sb.append(", queued: ");
+            sb.append(main.customDropsHandler.commandDispatcher.getQueuedCount());
+            sb.append(System.lineSeparator());
+        }
+        if (main.eventTraceRecorder != null && main.eventTraceRecorder.getEventsRecorded() > 0) {
+            sb.append("event trace: recording ");
+            sb.append(main.eventTraceRecorder.isRecording());
+            sb.append(", events recorded: ");
+            sb.append(main.eventTraceRecorder.getEventsRecorded());
+            sb.append(", dropped: ");
+            sb.append(main.eventTraceRecorder.getEventsDropped());
+            sb.append(System.lineSeparator());
+        }
         sb.append(System.lineSeparator());
         sb.append("plugins:\n");
 
@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2020-2022  lokka30. Use of this source code is governed by the GNU AGPL v3.0 license that can be found in the LICENSE.md file.
+ */
+
+package me.lokka30.levelledmobs.misc;
+
+import me.lokka30.levelledmobs.LevelledMobs;
+import org.bukkit.Location;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.entity.Player;
+import org.bukkit.entity.Tameable;
+import org.bukkit.persistence.PersistentDataContainer;
+import org.bukkit.persistence.PersistentDataType;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The state of a mob captured on the main thread so the async nametag task can pick which mobs
+ * to check and the closest player to each without touching the live entity. The level is -1 if
+ * the mob isn't levelled.
+ * <p>
+ * The rules are not evaluated against snapshots. Those checks are handed to the thread that owns
+ * the entity, which is what the entity reference is kept for.
+ *
+ * @author stumper66
+ * @since 3.8.0
+ */
+public record EntitySnapshot(@NotNull LivingEntity livingEntity, int entityId,
+                             @NotNull Location location, int ticksLived, int level,
+                             boolean isBabyMob, boolean wasBabyMob, boolean isTamed,
+                             boolean hasCustomName, @Nullable Long lastDamageTime,
+                             @Nullable String playerLevellingId,
+                             @Nullable String playerLevellingSourceNumber) {
+
+    /**
+     * Captures the mob's state, must be called from the main thread
+     *
+     * @return the snapshot or null if the entity isn't a valid mob
+     */
+    @SuppressWarnings("deprecation")
+    @Nullable public static EntitySnapshot capture(final @NotNull Entity entity,
+        final @NotNull LevelledMobs main) {
+        if (!(entity instanceof final LivingEntity livingEntity) || entity instanceof Player
+            || !entity.isValid()) {
+            return null;
+        }
+
+        final PersistentDataContainer pdc = livingEntity.getPersistentDataContainer();
+        return new EntitySnapshot(
+            livingEntity,
+            livingEntity.getEntityId(),
+            livingEntity.getLocation(),
+            livingEntity.getTicksLived(),
+            main.levelInterface.getLevelOfMob(livingEntity),
+            LivingEntityWrapper.isBabyMob(livingEntity),
+            pdc.has(main.namespacedKeys.wasBabyMobKey, PersistentDataType.INTEGER),
+            livingEntity instanceof Tameable && ((Tameable) livingEntity).isTamed(),
+            livingEntity.getCustomName() != null,
+            pdc.get(main.namespacedKeys.lastDamageTime, PersistentDataType.LONG),
+            pdc.get(main.namespacedKeys.playerLevellingId, PersistentDataType.STRING),
+            pdc.get(main.namespacedKeys.playerLevellingSourceNumber, PersistentDataType.STRING)
+        );
+    }
+
+    public boolean isLevelled() {
+        return level >= 0;
+    }
+
+    public boolean isSameWorld(final @NotNull Location otherLocation) {
+        return otherLocation.getWorld() != null
+            && otherLocation.getWorld().equals(location.getWorld());
+    }
+
+    public double distanceSquared(final @NotNull Location otherLocation) {
+        return location.distanceSquared(otherLocation);
+    }
+}
@@ -0,0 +1,477 @@
+/*
+ * Copyright (c) 2020-2022  lokka30. Use of this source code is governed by the GNU AGPL v3.0 license that can be found in the LICENSE.md file.
+ */
+
+package me.lokka30.levelledmobs.misc;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import me.lokka30.levelledmobs.LevelledMobs;
+import me.lokka30.levelledmobs.util.Utils;
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.entity.Entity;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Records the spawn, damage, death, chunk load and target events that LevelledMobs listens to so
+ * they can be replayed later with {@link EventTraceReplayer}. Events are put in a bounded queue by
+ * the listeners and written to disk by a background task, so the listeners only pay for creating
+ * the event. If the writer falls behind, new events are dropped and counted instead of blocking.
+ * <p>
+ * Traces are written to the traces folder as a compact binary stream. A new file is started once
+ * the current one reaches {@link #MAX_FILE_BYTES} and only the newest {@link #MAX_FILES} files are
+ * kept.
+ *
+ * @author stumper66
+ * @since 3.8.0
+ */
+public class EventTraceRecorder {
+
+    public EventTraceRecorder(final @NotNull LevelledMobs main) {
+        this.main = main;
+        this.traceFolder = new File(main.getDataFolder(), "traces");
+        this.queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        this.eventsRecorded = new AtomicLong();
+        this.eventsDropped = new AtomicLong();
+    }
+
+    final static int MAGIC = 0x4C4D4554;
+    final static int FORMAT_VERSION = 1;
+    final static String FILE_EXTENSION = ".lmtrace";
+    final static byte RECORD_NAME = 0;
+    final static byte TABLE_WORLD = 0;
+    final static byte TABLE_ENTITY_TYPE = 1;
+    final static byte TABLE_DETAIL = 2;
+    private final static int QUEUE_CAPACITY = 65_536;
+    private final static int MAX_FILE_BYTES = 16 * 1024 * 1024;
+    private final static int MAX_FILES = 5;
+
+    private final LevelledMobs main;
+    private final File traceFolder;
+    private final ArrayBlockingQueue<TraceEvent> queue;
+    private final AtomicLong eventsRecorded;
+    private final AtomicLong eventsDropped;
+    private volatile boolean isRecording;
+    private SchedulerWrapper.TaskHandle writerTask;
+    private TraceWriter writer;
+    private long bytesWritten;
+
+    /**
+     * The kinds of events that are recorded. The ordinal is written to the trace, so new types
+     * must be added at the end
+     */
+    public enum EventType {
+        NONE, SPAWN, DAMAGE, DEATH, CHUNK_LOAD, TARGET
+    }
+
+    /**
+     * A single recorded event. For chunk loads x and z are the chunk coordinates and entityId is
+     * unused
+     *
+     * @param nanoTime nanoseconds since the trace started when read from a file
+     * @param detail   the spawn reason, damage cause or target type depending on the event
+     * @param amount   the damage before armor and effects are applied
+     */
+    record TraceEvent(@NotNull EventType type, long nanoTime, @NotNull String worldName,
+                      int entityId, @Nullable String entityType, int x, int y, int z,
+                      @Nullable String detail, float amount) {
+
+    }
+
+    public boolean isRecording() {
+        return this.isRecording;
+    }
+
+    public void recordEntityEvent(final @NotNull EventType type, final @NotNull Entity entity,
+        final @Nullable String detail, final double amount) {
+        if (!isRecording) {
+            return;
+        }
+
+        final Location location = entity.getLocation();
+        if (location.getWorld() == null) {
+            return;
+        }
+
+        offer(new TraceEvent(type, System.nanoTime(), location.getWorld().getName(),
+            entity.getEntityId(), entity.getType().name(), location.getBlockX(),
+            location.getBlockY(), location.getBlockZ(), detail, (float) amount));
+    }
+
+    public void recordChunkLoad(final @NotNull Chunk chunk) {
+        if (!isRecording) {
+            return;
+        }
+
+        offer(new TraceEvent(EventType.CHUNK_LOAD, System.nanoTime(), chunk.getWorld().getName(),
+            0, null, chunk.getX(), 0, chunk.getZ(), null, 0.0f));
+    }
+
+    private void offer(final @NotNull TraceEvent event) {
+        if (queue.offer(event)) {
+            eventsRecorded.incrementAndGet();
+        } else {
+            eventsDropped.incrementAndGet();
+        }
+    }
+
+    /**
+     * @return the first trace file or null if recording was already started or the file couldn't
+     * be created
+     */
+    public synchronized @Nullable File start() {
+        if (isRecording) {
+            return null;
+        }
+
+        if (!traceFolder.exists() && !traceFolder.mkdirs()) {
+            Utils.logger.warning("Unable to create " + traceFolder.getAbsolutePath());
+            return null;
+        }
+
+        queue.clear();
+        eventsRecorded.set(0L);
+        eventsDropped.set(0L);
+        bytesWritten = 0L;
+        if (!openNewFile()) {
+            return null;
+        }
+
+        isRecording = true;
+        writerTask = main.schedulerWrapper.runAsyncTimer(this::drainQueue, 5L, 5L);
+        return writer.file;
+    }
+
+    /**
+     * Stops recording and writes out any events that are still queued
+     */
+    public void stop() {
+        final SchedulerWrapper.TaskHandle task;
+        synchronized (this) {
+            if (!isRecording) {
+                return;
+            }
+            isRecording = false;
+            task = writerTask;
+            writerTask = null;
+        }
+
+        task.cancel();
+        drainQueue();
+        synchronized (this) {
+            closeWriter();
+        }
+    }
+
+    private synchronized void drainQueue() {
+        if (writer == null) {
+            queue.clear();
+            return;
+        }
+
+        TraceEvent event;
+        try {
+            while ((event = queue.poll()) != null) {
+                writer.write(event);
+                if (writer.output.size() >= MAX_FILE_BYTES) {
+                    closeWriter();
+                    if (!openNewFile()) {
+                        isRecording = false;
+                        queue.clear();
+                        return;
+                    }
+                }
+            }
+            writer.output.flush();
+        } catch (final IOException e) {
+            Utils.logger.warning("Unable to write event trace, recording stopped: "
+                + e.getMessage());
+            isRecording = false;
+            closeWriter();
+            queue.clear();
+        }
+    }
+
+    private boolean openNewFile() {
+        final File file = new File(traceFolder,
+            "trace-" + System.currentTimeMillis() + FILE_EXTENSION);
+        try {
+            writer = new TraceWriter(file, main.getDescription().getVersion());
+        } catch (final IOException e) {
+            Utils.logger.warning("Unable to create " + file.getName() + ", " + e.getMessage());
+            writer = null;
+            return false;
+        }
+
+        removeOldFiles();
+        return true;
+    }
+
+    private void closeWriter() {
+        if (writer == null) {
+            return;
+        }
+
+        bytesWritten += writer.output.size();
+        try {
+            writer.output.close();
+        } catch (final IOException e) {
+            Utils.logger.warning("Unable to close " + writer.file.getName() + ", "
+                + e.getMessage());
+        }
+        writer = null;
+    }
+
+    private void removeOldFiles() {
+        final List<File> files = getTraceFiles();
+        for (int i = 0; i < files.size() - MAX_FILES; i++) {
+            if (!files.get(i).delete()) {
+                Utils.logger.warning("Unable to delete " + files.get(i).getName());
+            }
+        }
+    }
+
+    /**
+     * @return the trace files from oldest to newest
+     */
+    public @NotNull List<File> getTraceFiles() {
+        final File[] files = traceFolder.listFiles(
+            (dir, name) -> name.endsWith(FILE_EXTENSION));
+        if (files == null) {
+            return new ArrayList<>();
+        }
+
+        final List<File> results = new ArrayList<>(Arrays.asList(files));
+        results.sort(Comparator.comparingLong(File::lastModified)
+            .thenComparing(File::getName));
+        return results;
+    }
+
+    public @NotNull File getTraceFolder() {
+        return this.traceFolder;
+    }
+
+    public long getEventsRecorded() {
+        return eventsRecorded.get();
+    }
+
+    public long getEventsDropped() {
+        return eventsDropped.get();
+    }
+
+    public synchronized long getBytesWritten() {
+        return bytesWritten + (writer != null ? writer.output.size() : 0);
+    }
+
+    /**
+     * Reads every event from a trace file. Event times are converted to nanoseconds since the
+     * first event
+     */
+    static @NotNull List<TraceEvent> readTrace(final @NotNull File file) throws IOException {
+        final List<TraceEvent> events = new ArrayList<>();
+        final Map<Integer, String> worlds = new HashMap<>();
+        final Map<Integer, String> entityTypes = new HashMap<>();
+        final Map<Integer, String> details = new HashMap<>();
+
+        try (final DataInputStream input = new DataInputStream(
+            new BufferedInputStream(new FileInputStream(file)))) {
+            if (input.readInt() != MAGIC) {
+                throw new IOException("Not an event trace file");
+            }
+            final int version = input.readInt();
+            if (version != FORMAT_VERSION) {
+                throw new IOException("Unsupported trace version: " + version);
+            }
+            input.readLong(); // started
+            input.readUTF(); // plugin version
+
+            long nanoTime = 0L;
+            while (true) {
+                final int recordType;
+                try {
+                    recordType = input.readUnsignedByte();
+                } catch (final EOFException ignored) {
+                    break;
+                }
+
+                if (recordType == RECORD_NAME) {
+                    final byte table = input.readByte();
+                    final int index = readVarInt(input);
+                    final String name = input.readUTF();
+                    switch (table) {
+                        case TABLE_WORLD -> worlds.put(index, name);
+                        case TABLE_ENTITY_TYPE -> entityTypes.put(index, name);
+                        case TABLE_DETAIL -> details.put(index, name);
+                        default -> throw new IOException("Invalid name table: " + table);
+                    }
+                    continue;
+                }
+                if (recordType >= EventType.values().length) {
+                    throw new IOException("Invalid record type: " + recordType);
+                }
+
+                final EventType type = EventType.values()[recordType];
+                nanoTime += readVarLong(input);
+                final String worldName = worlds.get(readVarInt(input));
+                if (worldName == null) {
+                    throw new IOException("Undefined world");
+                }
+
+                if (type == EventType.CHUNK_LOAD) {
+                    final int chunkX = readSignedVarInt(input);
+                    final int chunkZ = readSignedVarInt(input);
+                    events.add(new TraceEvent(type, nanoTime, worldName, 0, null,
+                        chunkX, 0, chunkZ, null, 0.0f));
+                    continue;
+                }
+
+                final int entityId = readVarInt(input);
+                final String entityType = entityTypes.get(readVarInt(input));
+                final int x = readSignedVarInt(input);
+                final int y = readSignedVarInt(input);
+                final int z = readSignedVarInt(input);
+                final int detailIndex = readVarInt(input);
+                final float amount = type == EventType.DAMAGE ? input.readFloat() : 0.0f;
+                events.add(new TraceEvent(type, nanoTime, worldName, entityId, entityType,
+                    x, y, z, detailIndex == 0 ? null : details.get(detailIndex - 1), amount));
+            }
+        }
+
+        return events;
+    }
+
+    /**
+     * Writes events to a single trace file. Names are written once per file and referred to by
+     * index afterwards
+     */
+    private static class TraceWriter {
+
+        TraceWriter(final @NotNull File file, final @NotNull String pluginVersion)
+            throws IOException {
+            this.file = file;
+            this.output = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(file), 65_536));
+            this.worlds = new HashMap<>();
+            this.entityTypes = new HashMap<>();
+            this.details = new HashMap<>();
+
+            output.writeInt(MAGIC);
+            output.writeInt(FORMAT_VERSION);
+            output.writeLong(System.currentTimeMillis());
+            output.writeUTF(pluginVersion);
+        }
+
+        final File file;
+        final DataOutputStream output;
+        private final Map<String, Integer> worlds;
+        private final Map<String, Integer> entityTypes;
+        private final Map<String, Integer> details;
+        private long lastNanoTime = Long.MIN_VALUE;
+
+        void write(final @NotNull TraceEvent event) throws IOException {
+            final int worldIndex = getIndex(worlds, TABLE_WORLD, event.worldName());
+            final int entityTypeIndex = event.entityType() == null ?
+                0 : getIndex(entityTypes, TABLE_ENTITY_TYPE, event.entityType());
+            final int detailIndex = event.detail() == null ?
+                0 : getIndex(details, TABLE_DETAIL, event.detail()) + 1;
+
+            // the first event in each file starts at 0
+            final long delta = lastNanoTime == Long.MIN_VALUE ?
+                0L : Math.max(0L, event.nanoTime() - lastNanoTime);
+            lastNanoTime = event.nanoTime();
+
+            output.writeByte(event.type().ordinal());
+            writeVarLong(output, delta);
+            writeVarInt(output, worldIndex);
+            if (event.type() == EventType.CHUNK_LOAD) {
+                writeSignedVarInt(output, event.x());
+                writeSignedVarInt(output, event.z());
+                return;
+            }
+
+            writeVarInt(output, event.entityId());
+            writeVarInt(output, entityTypeIndex);
+            writeSignedVarInt(output, event.x());
+            writeSignedVarInt(output, event.y());
+            writeSignedVarInt(output, event.z());
+            writeVarInt(output, detailIndex);
+            if (event.type() == EventType.DAMAGE) {
+                output.writeFloat(event.amount());
+            }
+        }
+
+        private int getIndex(final @NotNull Map<String, Integer> table, final byte tableId,
+            final @NotNull String name) throws IOException {
+            final Integer existing = table.get(name);
+            if (existing != null) {
+                return existing;
+            }
+
+            final int index = table.size();
+            table.put(name, index);
+            output.writeByte(RECORD_NAME);
+            output.writeByte(tableId);
+            writeVarInt(output, index);
+            output.writeUTF(name);
+            return index;
+        }
+    }
+
+    private static void writeVarInt(final @NotNull DataOutputStream output, final int value)
+        throws IOException {
+        writeVarLong(output, value & 0xFFFFFFFFL);
+    }
+
+    private static void writeSignedVarInt(final @NotNull DataOutputStream output,
+        final int value) throws IOException {
+        writeVarInt(output, (value << 1) ^ (value >> 31));
+    }
+
+    private static void writeVarLong(final @NotNull DataOutputStream output, long value)
+        throws IOException {
+        while ((value & ~0x7FL) != 0L) {
+            output.writeByte((int) (value & 0x7FL) | 0x80);
+            value >>>= 7;
+        }
+        output.writeByte((int) value);
+    }
+
+    private static int readVarInt(final @NotNull DataInputStream input) throws IOException {
+        return (int) readVarLong(input);
+    }
+
+    private static int readSignedVarInt(final @NotNull DataInputStream input)
+        throws IOException {
+        final int value = readVarInt(input);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static long readVarLong(final @NotNull DataInputStream input) throws IOException {
+        long value = 0L;
+        for (int shift = 0; shift < 64; shift += 7) {
+            final int b = input.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Invalid variable length number");
+    }
+}
@@ -0,0 +1,351 @@
+/*
+ * Copyright (c) 2020-2022  lokka30. Use of this source code is governed by the GNU AGPL v3.0 license that can be found in the LICENSE.md file.
+ */
+
+package me.lokka30.levelledmobs.misc;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import me.lokka30.levelledmobs.LevelledMobs;
+import me.lokka30.levelledmobs.misc.EventTraceRecorder.EventType;
+import me.lokka30.levelledmobs.misc.EventTraceRecorder.TraceEvent;
+import me.lokka30.microlib.other.VersionUtils;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.EntityType;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.entity.Mob;
+import org.bukkit.entity.Player;
+import org.bukkit.event.entity.CreatureSpawnEvent;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Replays a trace written by {@link EventTraceRecorder} on the server so the events go through
+ * the real listeners and queue managers. Recorded spawns create stand-in mobs of the same type and
+ * the later events for that mob are applied to the stand-in, such as damaging it or killing it.
+ * Stand-ins are removed when the replay finishes.
+ * <p>
+ * This spawns and kills mobs so it is only meant for test servers. Timings for each type of event
+ * and how long the mob queue took to empty are reported so builds can be compared.
+ *
+ * @author stumper66
+ * @since 3.8.0
+ */
+public class EventTraceReplayer {
+
+    public EventTraceReplayer(final @NotNull LevelledMobs main) {
+        this.main = main;
+        this.standIns = new HashMap<>();
+    }
+
+    public final static String STAND_IN_TAG = "lm_trace_replay";
+    private final static int MAX_EVENTS_PER_TICK = 2_000;
+    private final static long QUEUE_DRAIN_TIMEOUT_NANOS = 30_000_000_000L;
+
+    private final LevelledMobs main;
+    private final Map<Integer, LivingEntity> standIns;
+    private CommandSender sender;
+    private List<TraceEvent> events;
+    private SchedulerWrapper.TaskHandle task;
+    private boolean isLoading;
+    private double speed;
+    private int eventIndex;
+    private long startedNanos;
+    private long finishedEventsNanos;
+    private int eventsSkipped;
+    private int ticksBehind;
+    private long maxTickNanos;
+    private int peakQueueSize;
+    private long[] eventCounts;
+    private long[] eventNanos;
+    private long[] eventMaxNanos;
+
+    public boolean isRunning() {
+        return isLoading || task != null;
+    }
+
+    /**
+     * Loads the trace off the main thread and then starts replaying it
+     *
+     * @param speed how much faster than recorded to replay the events
+     */
+    public void start(final @NotNull CommandSender sender, final @NotNull File file,
+        final double speed) {
+        if (isRunning()) {
+            sender.sendMessage("A replay is already running");
+            return;
+        }
+
+        this.sender = sender;
+        this.speed = speed;
+        this.isLoading = true;
+        sender.sendMessage("Loading " + file.getName());
+
+        main.schedulerWrapper.runAsync(() -> {
+            List<TraceEvent> loaded = null;
+            String error = null;
+            try {
+                loaded = EventTraceRecorder.readTrace(file);
+            } catch (final IOException e) {
+                error = e.getMessage();
+            }
+
+            final List<TraceEvent> loadedEvents = loaded;
+            final String loadError = error;
+            main.schedulerWrapper.runGlobalTask(() -> {
+                isLoading = false;
+                if (loadedEvents == null) {
+                    sender.sendMessage("Unable to read " + file.getName() + ", " + loadError);
+                    return;
+                }
+                beginReplay(loadedEvents);
+            });
+        });
+    }
+
+    private void beginReplay(final @NotNull List<TraceEvent> events) {
+        this.events = events;
+        this.eventIndex = 0;
+        this.eventsSkipped = 0;
+        this.ticksBehind = 0;
+        this.maxTickNanos = 0L;
+        this.peakQueueSize = 0;
+        this.finishedEventsNanos = 0L;
+        this.eventCounts = new long[EventType.values().length];
+        this.eventNanos = new long[EventType.values().length];
+        this.eventMaxNanos = new long[EventType.values().length];
+        this.standIns.clear();
+
+        sender.sendMessage(String.format("Replaying %,d events at %sx speed", events.size(),
+            speed));
+        this.startedNanos = System.nanoTime();
+        this.task = main.schedulerWrapper.runGlobalTaskTimer(this::tick, 1L, 1L);
+    }
+
+    /**
+     * Stops the replay early and reports what was replayed so far
+     */
+    public void stop() {
+        if (task == null) {
+            return;
+        }
+
+        if (finishedEventsNanos == 0L) {
+            finishedEventsNanos = System.nanoTime();
+        }
+        finish();
+    }
+
+    private void tick() {
+        final long tickStarted = System.nanoTime();
+        peakQueueSize = Math.max(peakQueueSize, main.mobsQueueManager.getQueueSize());
+
+        if (eventIndex >= events.size()) {
+            // wait for the queued mobs to be processed so it's included in the results
+            if (main.mobsQueueManager.getQueueSize() == 0
+                || tickStarted - finishedEventsNanos > QUEUE_DRAIN_TIMEOUT_NANOS) {
+                finish();
+            }
+            return;
+        }
+
+        final long replayTime = (long) ((tickStarted - startedNanos) * speed);
+        int processed = 0;
+        while (eventIndex < events.size() && events.get(eventIndex).nanoTime() <= replayTime) {
+            if (processed++ >= MAX_EVENTS_PER_TICK) {
+                ticksBehind++;
+                break;
+            }
+
+            final TraceEvent event = events.get(eventIndex++);
+            final long started = System.nanoTime();
+            if (!dispatch(event)) {
+                eventsSkipped++;
+                continue;
+            }
+
+            final long elapsed = System.nanoTime() - started;
+            final int type = event.type().ordinal();
+            eventCounts[type]++;
+            eventNanos[type] += elapsed;
+            eventMaxNanos[type] = Math.max(eventMaxNanos[type], elapsed);
+        }
+
+        maxTickNanos = Math.max(maxTickNanos, System.nanoTime() - tickStarted);
+        if (eventIndex >= events.size()) {
+            finishedEventsNanos = System.nanoTime();
+        }
+    }
+
+    /**
+     * @return false if the event couldn't be replayed
+     */
+    private boolean dispatch(final @NotNull TraceEvent event) {
+        final World world = Bukkit.getWorld(event.worldName());
+        if (world == null) {
+            return false;
+        }
+
+        switch (event.type()) {
+            case SPAWN -> {
+                return spawnStandIn(world, event);
+            }
+            case DAMAGE -> {
+                final LivingEntity standIn = getStandIn(event.entityId());
+                if (standIn == null) {
+                    return false;
+                }
+                // the damage cause isn't kept, the listener only uses the damage amount.
+                // the recorded amount is before armor so damage() works out the same final damage
+                standIn.damage(event.amount());
+                return true;
+            }
+            case DEATH -> {
+                final LivingEntity standIn = getStandIn(event.entityId());
+                if (standIn == null) {
+                    return false;
+                }
+                standIns.remove(event.entityId());
+                standIn.setHealth(0.0);
+                return true;
+            }
+            case TARGET -> {
+                final LivingEntity standIn = getStandIn(event.entityId());
+                if (!(standIn instanceof final Mob mob)) {
+                    return false;
+                }
+                if (event.detail() == null) {
+                    mob.setTarget(null);
+                    return true;
+                }
+                if (!"PLAYER".equals(event.detail())) {
+                    return false;
+                }
+                final Player player = getClosestPlayer(standIn.getLocation());
+                if (player == null) {
+                    return false;
+                }
+                mob.setTarget(player);
+                return true;
+            }
+            case CHUNK_LOAD -> {
+                if (world.isChunkLoaded(event.x(), event.z())) {
+                    return false;
+                }
+                world.getChunkAt(event.x(), event.z());
+                return true;
+            }
+            default -> {
+                return false;
+            }
+        }
+    }
+
+    private boolean spawnStandIn(final @NotNull World world, final @NotNull TraceEvent event) {
+        if (event.entityType() == null || !world.isChunkLoaded(event.x() >> 4, event.z() >> 4)) {
+            return false;
+        }
+
+        final EntityType entityType;
+        CreatureSpawnEvent.SpawnReason spawnReason = CreatureSpawnEvent.SpawnReason.NATURAL;
+        try {
+            entityType = EntityType.valueOf(event.entityType());
+            if (event.detail() != null) {
+                spawnReason = CreatureSpawnEvent.SpawnReason.valueOf(event.detail());
+            }
+        } catch (final IllegalArgumentException ignored) {
+            return false;
+        }
+        if (!entityType.isSpawnable() || !entityType.isAlive()
+            || entityType == EntityType.PLAYER) {
+            return false;
+        }
+
+        final Location location = new Location(world, event.x() + 0.5, event.y(),
+            event.z() + 0.5);
+        // the spawn reason can only be passed on Paper
+        final Entity entity = VersionUtils.isRunningPaper() ?
+            world.spawnEntity(location, entityType, spawnReason) :
+            world.spawnEntity(location, entityType);
+        if (!(entity instanceof final LivingEntity livingEntity)) {
+            entity.remove();
+            return false;
+        }
+
+        livingEntity.addScoreboardTag(STAND_IN_TAG);
+        livingEntity.setPersistent(false);
+        standIns.put(event.entityId(), livingEntity);
+        return true;
+    }
+
+    private @Nullable LivingEntity getStandIn(final int entityId) {
+        final LivingEntity standIn = standIns.get(entityId);
+        if (standIn == null || !standIn.isValid()) {
+            return null;
+        }
+
+        return standIn;
+    }
+
+    private @Nullable Player getClosestPlayer(final @NotNull Location location) {
+        Player closest = null;
+        double closestDistance = 64.0 * 64.0;
+        for (final Player player : location.getWorld().getPlayers()) {
+            final double distance = player.getLocation().distanceSquared(location);
+            if (distance < closestDistance) {
+                closest = player;
+                closestDistance = distance;
+            }
+        }
+
+        return closest;
+    }
+
+    private void finish() {
+        task.cancel();
+        task = null;
+
+        final long now = System.nanoTime();
+        final double eventSeconds = Math.max(1L, finishedEventsNanos - startedNanos) / 1e9;
+        final long replayed = eventIndex - eventsSkipped;
+        sender.sendMessage(String.format(
+            "Replay finished: %,d of %,d events replayed, %,d skipped, %.1f events/sec",
+            replayed, events.size(), eventsSkipped, replayed / eventSeconds));
+
+        for (final EventType type : EventType.values()) {
+            final long count = eventCounts[type.ordinal()];
+            if (count == 0) {
+                continue;
+            }
+            sender.sendMessage(String.format("  %s: %,d events, avg %,d ns, max %,d ns",
+                type.name().toLowerCase(), count, eventNanos[type.ordinal()] / count,
+                eventMaxNanos[type.ordinal()]));
+        }
+
+        final int queueSize = main.mobsQueueManager.getQueueSize();
+        sender.sendMessage(String.format(
+            "  max tick time: %.2f ms, ticks over the event limit: %s, peak mob queue: %s",
+            maxTickNanos / 1e6, ticksBehind, peakQueueSize));
+        sender.sendMessage(String.format("  mob queue %s %.2f ms after the last event",
+            queueSize == 0 ? "emptied" : "still had " + queueSize + " mobs",
+            (now - finishedEventsNanos) / 1e6));
+
+        int removed = 0;
+        for (final LivingEntity standIn : standIns.values()) {
+            if (standIn.isValid()) {
+                standIn.remove();
+                removed++;
+            }
+        }
+        standIns.clear();
+        events = null;
+        sender.sendMessage("Removed " + removed + " stand-in mobs");
+    }
+}
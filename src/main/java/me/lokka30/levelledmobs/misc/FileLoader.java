@@ -6,7 +6,11 @@ package me.lokka30.levelledmobs.misc;
 
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import me.lokka30.levelledmobs.LevelledMobs;
 import me.lokka30.levelledmobs.util.Utils;
+import me.lokka30.microlib.maths.QuickTimer;
 import me.lokka30.microlib.messaging.MessageUtils;
 import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.plugin.Plugin;
@@ -23,8 +27,8 @@ import org.yaml.snakeyaml.Yaml;
  */
 public final class FileLoader {
 
-    public static final int SETTINGS_FILE_VERSION = 33;    // Last changed: v3.4.0 b621
-    public static final int MESSAGES_FILE_VERSION = 8;     // Last changed: v3.4.0 b621
+    public static final int SETTINGS_FILE_VERSION = 34;    // Last changed: v3.8.0 b716
+    public static final int MESSAGES_FILE_VERSION = 10;    // Last changed: v3.8.0 b716
     public static final int CUSTOMDROPS_FILE_VERSION = 10; // Last changed: v3.1.0 b474
     public static final int RULES_FILE_VERSION = 3;        // Last changed: v3.4.0 b621
 
@@ -41,6 +45,24 @@ public final class FileLoader {
         final File file = new File(plugin.getDataFolder(), cfgName);
 
         saveResourceIfNotExists(plugin, file);
+
+        final ConfigCache configCache = plugin instanceof final LevelledMobs main ?
+            main.configCache : null;
+        byte[] contentHash = null;
+        if (configCache != null) {
+            try {
+                contentHash = ConfigCache.hash(Files.readAllBytes(file.toPath()));
+                final YamlConfiguration cachedCfg = configCache.get(cfgName, contentHash);
+                if (cachedCfg != null) {
+                    return cachedCfg;
+                }
+            } catch (final IOException ignored) {
+                // parsed normally below, which will report the problem
+            }
+        }
+
+        final QuickTimer parseTimer = new QuickTimer();
+        parseTimer.start();
         try (final FileInputStream fs = new FileInputStream(file)) {
             new Yaml().load(fs);
         } catch (final Exception e) {
@@ -69,7 +91,9 @@ public final class FileLoader {
         final boolean isRules = cfgName.equals("rules.yml");
 
         // not migrating rules version 2 or newer
-        if ((!isRules || fileVersion < 2) && fileVersion < compatibleVersion) {
+        final boolean needsMigration =
+            (!isRules || fileVersion < 2) && fileVersion < compatibleVersion;
+        if (needsMigration) {
             final File backedupFile = new File(plugin.getDataFolder(),
                 cfgName + ".v" + fileVersion + ".old");
 
@@ -101,6 +125,12 @@ public final class FileLoader {
             checkFileVersion(file, compatibleVersion, ymlHelper.getInt(cfg, "file-version"));
         }
 
+        // files with version problems aren't cached so the warnings keep being shown
+        if (configCache != null && contentHash != null && !needsMigration
+            && (isRules || fileVersion == compatibleVersion)) {
+            configCache.put(cfgName, contentHash, cfg, parseTimer.getTimer());
+        }
+
         return cfg;
     }
 
@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2020-2022  lokka30. Use of this source code is governed by the GNU AGPL v3.0 license that can be found in the LICENSE.md file.
+ */
+
+package me.lokka30.levelledmobs.misc;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Interns mob group names into stable bit indexes so group lists can be compared with bitmasks
+ * instead of case-insensitive string lookups. Indexes are never reused for the lifetime of the
+ * plugin so compiled lists stay valid across reloads.
+ *
+ * @author stumper66
+ * @since 3.8.0
+ */
+public final class GroupBitIndex {
+
+    private GroupBitIndex() {
+        throw new UnsupportedOperationException();
+    }
+
+    private final static Map<String, Integer> groupIds = new ConcurrentHashMap<>();
+    private final static Object idLock = new Object();
+
+    public static int getOrCreateId(final @NotNull String groupName) {
+        final String key = groupName.toLowerCase(Locale.ROOT);
+        final Integer id = groupIds.get(key);
+        if (id != null) {
+            return id;
+        }
+
+        synchronized (idLock) {
+            return groupIds.computeIfAbsent(key, k -> groupIds.size());
+        }
+    }
+
+    @NotNull public static BitSet toBitSet(final @NotNull Collection<String> groupNames) {
+        final BitSet result = new BitSet();
+        for (final String groupName : groupNames) {
+            result.set(getOrCreateId(groupName));
+        }
+
+        return result;
+    }
+
+    public static int getCount() {
+        return groupIds.size();
+    }
+}
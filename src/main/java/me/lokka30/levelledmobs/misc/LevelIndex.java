@@ -0,0 +1,203 @@
+/*
+ * Copyright (c) 2020-2022  lokka30. Use of this source code is governed by the GNU AGPL v3.0 license that can be found in the LICENSE.md file.
+ */
+
+package me.lokka30.levelledmobs.misc;
+
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * An in-memory index of entity id to mob level so level lookups don't have to read the PDC every
+ * time. The PDC stays the source of truth, entries are only filled in as levels are applied or
+ * read from the PDC and only levelled mobs are indexed, so mobs that are only looked at don't add
+ * entries. Mobs that are no longer loaded are dropped by the periodic cleanup sweep. Lookups are
+ * lock-free and don't allocate, writes are synchronized.
+ * <p>
+ * Each slot packs the entity id and level into a single long, using open addressing with linear
+ * probing.
+ *
+ * @author stumper66
+ * @since 3.8.0
+ */
+public class LevelIndex {
+
+    public LevelIndex() {
+        this.table = newTable(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Returned by {@link #get(int)} when the entity hasn't been indexed yet
+     */
+    public final static int NOT_INDEXED = Integer.MIN_VALUE;
+    /**
+     * Returned by level lookups for entities that aren't levelled, it is never stored
+     */
+    public final static int NOT_LEVELLED = -1;
+    private final static long EMPTY = -1L;
+    private final static long REMOVED = -2L;
+    private final static int INITIAL_CAPACITY = 1024;
+
+    private volatile AtomicLongArray table;
+    private int size;
+    private int usedSlots;
+
+    /**
+     * @return the indexed level or {@link #NOT_INDEXED}
+     */
+    public int get(final int entityId) {
+        final AtomicLongArray table = this.table;
+        final int mask = table.length() - 1;
+        int slot = hash(entityId) & mask;
+
+        for (int i = 0; i <= mask; i++) {
+            final long entry = table.get(slot);
+            if (entry == EMPTY) {
+                return NOT_INDEXED;
+            }
+            if (entry != REMOVED && (int) (entry >>> 32) == entityId) {
+                return (int) entry;
+            }
+
+            slot = (slot + 1) & mask;
+        }
+
+        return NOT_INDEXED;
+    }
+
+    public synchronized void put(final int entityId, final int level) {
+        final long newEntry = pack(entityId, level);
+        final AtomicLongArray table = this.table;
+        final int mask = table.length() - 1;
+        int slot = hash(entityId) & mask;
+        int freeSlot = -1;
+
+        for (int i = 0; i <= mask; i++) {
+            final long entry = table.get(slot);
+            if (entry == EMPTY) {
+                if (freeSlot == -1) {
+                    freeSlot = slot;
+                }
+                break;
+            }
+            if (entry == REMOVED) {
+                if (freeSlot == -1) {
+                    freeSlot = slot;
+                }
+            } else if ((int) (entry >>> 32) == entityId) {
+                table.set(slot, newEntry);
+                return;
+            }
+
+            slot = (slot + 1) & mask;
+        }
+
+        if (table.get(freeSlot) == EMPTY) {
+            usedSlots++;
+        }
+        table.set(freeSlot, newEntry);
+        size++;
+
+        // keep at least half of the slots empty so probes stay short
+        if (usedSlots * 2 > table.length()) {
+            resize();
+        }
+    }
+
+    public synchronized void remove(final int entityId) {
+        final AtomicLongArray table = this.table;
+        final int mask = table.length() - 1;
+        int slot = hash(entityId) & mask;
+
+        for (int i = 0; i <= mask; i++) {
+            final long entry = table.get(slot);
+            if (entry == EMPTY) {
+                return;
+            }
+            if (entry != REMOVED && (int) (entry >>> 32) == entityId) {
+                table.set(slot, REMOVED);
+                size--;
+                return;
+            }
+
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * Removes every entity that isn't in the provided ids, used by the periodic cleanup sweep
+     */
+    public synchronized void retainEntities(final @NotNull Set<Integer> entityIds) {
+        final AtomicLongArray table = this.table;
+        for (int i = 0; i < table.length(); i++) {
+            final long entry = table.get(i);
+            if (entry != EMPTY && entry != REMOVED
+                && !entityIds.contains((int) (entry >>> 32))) {
+                table.set(i, REMOVED);
+                size--;
+            }
+        }
+
+        // rebuild so removed slots don't make probes longer
+        resize();
+    }
+
+    public synchronized void clear() {
+        this.table = newTable(INITIAL_CAPACITY);
+        this.size = 0;
+        this.usedSlots = 0;
+    }
+
+    public synchronized int size() {
+        return this.size;
+    }
+
+    private void resize() {
+        // removed slots are dropped when copying so the table only grows when it is actually full
+        int capacity = INITIAL_CAPACITY;
+        while (capacity < size * 4) {
+            capacity <<= 1;
+        }
+
+        final AtomicLongArray oldTable = this.table;
+        final AtomicLongArray newTable = newTable(capacity);
+        final int mask = capacity - 1;
+
+        for (int i = 0; i < oldTable.length(); i++) {
+            final long entry = oldTable.get(i);
+            if (entry == EMPTY || entry == REMOVED) {
+                continue;
+            }
+
+            int slot = hash((int) (entry >>> 32)) & mask;
+            while (newTable.get(slot) != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            newTable.set(slot, entry);
+        }
+
+        this.usedSlots = size;
+        // readers still on the old table get correct, if slightly stale, results
+        this.table = newTable;
+    }
+
+    private static AtomicLongArray newTable(final int capacity) {
+        final AtomicLongArray table = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            table.set(i, EMPTY);
+        }
+
+        return table;
+    }
+
+    private static long pack(final int entityId, final int level) {
+        return ((long) entityId << 32) | (level & 0xFFFFFFFFL);
+    }
+
+    private static int hash(final int entityId) {
+        // entity ids are sequential so spread them out before masking
+        final int h = entityId * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
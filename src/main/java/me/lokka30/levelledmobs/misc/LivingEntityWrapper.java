@@ -4,6 +4,8 @@
 
 package me.lokka30.levelledmobs.misc;
 
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.ConcurrentModificationException;
 import java.util.LinkedList;
 import java.util.List;
@@ -21,6 +23,7 @@ import me.lokka30.levelledmobs.rules.ApplicableRulesResult;
 import me.lokka30.levelledmobs.rules.FineTuningAttributes;
 import me.lokka30.levelledmobs.rules.LevelledMobSpawnReason;
 import me.lokka30.levelledmobs.rules.RuleInfo;
+import me.lokka30.levelledmobs.rules.RulesParsingManager;
 import me.lokka30.levelledmobs.util.Utils;
 import org.bukkit.World;
 import org.bukkit.command.CommandSender;
@@ -53,7 +56,8 @@ public class LivingEntityWrapper extends LivingEntityWrapperBase implements Livi
 
     private LivingEntityWrapper(final @NotNull LevelledMobs main) {
         super(main);
-        this.applicableGroups = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        this.applicableGroups = Collections.emptySet();
+        this.applicableGroupIds = emptyGroupIds;
         this.applicableRules = new LinkedList<>();
         this.mobExternalTypes = new LinkedList<>();
         this.deathCause = EntityDamageEvent.DamageCause.CUSTOM;
@@ -64,10 +68,12 @@ public class LivingEntityWrapper extends LivingEntityWrapperBase implements Livi
     // privates:
     private LivingEntity livingEntity;
     @NotNull private Set<String> applicableGroups;
+    @NotNull private BitSet applicableGroupIds;
     private boolean hasCache;
     private boolean isBuildingCache;
     private boolean groupsAreBuilt;
     private boolean wasSummoned;
+    private boolean externalTypesClassified;
     public int chunkKillcount;
     private Integer mobLevel;
     private Integer skylightLevelAtSpawn;
@@ -81,12 +87,14 @@ public class LivingEntityWrapper extends LivingEntityWrapperBase implements Livi
     private LevelledMobSpawnReason spawnReason;
     private Player playerForLevelling;
     private Map<String, Boolean> prevChanceRuleResults;
+    private RulesParsingManager.ParsedRules rules;
     private final ReentrantLock cacheLock;
     private final ReentrantLock pdcLock;
     private final static Object playerLock = new Object();
     private final static Object cachedLM_Wrappers_Lock = new Object();
     private final static Stack<LivingEntityWrapper> cache = new Stack<>();
     private final static int lockMaxRetryTimes = 3;
+    private final static BitSet emptyGroupIds = new BitSet();
     // publics:
     public boolean reEvaluateLevel;
     public boolean wasPreviouslyLevelled;
@@ -148,7 +156,8 @@ public class LivingEntityWrapper extends LivingEntityWrapperBase implements Livi
     public void clearEntityData() {
         this.livingEntity = null;
         this.chunkKillcount = 0;
-        this.applicableGroups.clear();
+        this.applicableGroups = Collections.emptySet();
+        this.applicableGroupIds = emptyGroupIds;
         this.applicableRules.clear();
         this.mobExternalTypes.clear();
         this.spawnReason = null;
@@ -164,6 +173,7 @@ public class LivingEntityWrapper extends LivingEntityWrapperBase implements Livi
         this.groupsAreBuilt = false;
         this.playerForLevelling = null;
         this.prevChanceRuleResults = null;
+        this.rules = null;
         this.sourceSpawnerName = null;
         this.sourceSpawnEggName = null;
         this.playerForPermissionsCheck = null;
@@ -175,6 +185,7 @@ public class LivingEntityWrapper extends LivingEntityWrapperBase implements Livi
         this.pendingPlayerIdToSet = null;
         this.skylightLevelAtSpawn = null;
         this.wasSummoned = false;
+        this.externalTypesClassified = false;
         this.lockedNametag = null;
         this.lockedOverrideName = null;
         this.isNewlySpawned = false;
@@ -268,8 +279,10 @@ public class LivingEntityWrapper extends LivingEntityWrapperBase implements Livi
 
     public void invalidateCache() {
         this.hasCache = false;
+        this.rules = null;
         this.groupsAreBuilt = false;
-        this.applicableGroups.clear();
+        this.applicableGroups = Collections.emptySet();
+        this.applicableGroupIds = emptyGroupIds;
         this.applicableRules.clear();
     }
 
@@ -327,7 +340,7 @@ public class LivingEntityWrapper extends LivingEntityWrapperBase implements Livi
     }
 
     private void cachePrevChanceResults() {
-        if (!main.rulesManager.anyRuleHasChance) {
+        if (!getRules().anyRuleHasChance()) {
             return;
         }
 
@@ -369,6 +382,18 @@ public class LivingEntityWrapper extends LivingEntityWrapperBase implements Livi
         }
     }
 
+    /**
+     * @return the live rules as they were when this mob was first evaluated, so every rule and
+     * group lookup for the mob uses the same rules even if rules.yml is reloaded meanwhile
+     */
+    @NotNull public RulesParsingManager.ParsedRules getRules() {
+        if (this.rules == null) {
+            this.rules = main.rulesManager.getRules();
+        }
+
+        return this.rules;
+    }
+
     @Nullable public Map<String, Boolean> getPrevChanceRuleResults() {
         return this.prevChanceRuleResults;
     }
@@ -383,13 +408,29 @@ public class LivingEntityWrapper extends LivingEntityWrapperBase implements Livi
 
     @NotNull public Set<String> getApplicableGroups() {
         if (!groupsAreBuilt) {
-            this.applicableGroups = buildApplicableGroupsForMob();
+            final MobGroupTable.MobGroups mobGroups = getRules().mobGroupTable().getGroups(
+                livingEntity.getType(), this.mobLevel != null, getWorld().getEnvironment());
+            if (mobGroups != null) {
+                this.applicableGroups = mobGroups.groupNames;
+                this.applicableGroupIds = mobGroups.groupIds;
+            } else {
+                this.applicableGroups = buildApplicableGroupsForMob();
+                this.applicableGroupIds = GroupBitIndex.toBitSet(this.applicableGroups);
+            }
             groupsAreBuilt = true;
         }
 
         return this.applicableGroups;
     }
 
+    @NotNull public BitSet getApplicableGroupIds() {
+        if (!groupsAreBuilt) {
+            getApplicableGroups();
+        }
+
+        return this.applicableGroupIds;
+    }
+
     public long getNametagCooldownTime() {
         if (!hasCache) {
             buildCache();
@@ -450,6 +491,10 @@ public class LivingEntityWrapper extends LivingEntityWrapperBase implements Livi
     }
 
     public boolean isBabyMob() {
+        return isBabyMob(this.livingEntity);
+    }
+
+    public static boolean isBabyMob(final @NotNull LivingEntity livingEntity) {
         if (livingEntity instanceof final Zombie zombie) {
             // for backwards compatibility
             try {
@@ -701,6 +746,14 @@ public class LivingEntityWrapper extends LivingEntityWrapperBase implements Livi
         return this.mobExternalTypes;
     }
 
+    public boolean isExternalTypesClassified() {
+        return this.externalTypesClassified;
+    }
+
+    public void setExternalTypesClassified() {
+        this.externalTypesClassified = true;
+    }
+
     public boolean isMobOfExternalType() {
         return !this.mobExternalTypes.isEmpty();
     }
@@ -843,10 +896,12 @@ public class LivingEntityWrapper extends LivingEntityWrapperBase implements Livi
         return this.wasSummoned;
     }
 
+    // only used for entity types that aren't in the MobGroupTable
     @NotNull private Set<String> buildApplicableGroupsForMob() {
         final Set<String> groups = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
 
-        for (final Map.Entry<String, Set<String>> mobGroup : main.customMobGroups.entrySet()) {
+        for (final Map.Entry<String, Set<String>> mobGroup :
+            getRules().customMobGroups().entrySet()) {
             final Set<String> mobNames = mobGroup.getValue();
             if (mobNames.contains(this.getTypeName())) {
                 groups.add(mobGroup.getKey());
@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2020-2022  lokka30. Use of this source code is governed by the GNU AGPL v3.0 license that can be found in the LICENSE.md file.
+ */
+
+package me.lokka30.levelledmobs.misc;
+
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import org.bukkit.World;
+import org.bukkit.entity.Animals;
+import org.bukkit.entity.Boss;
+import org.bukkit.entity.EntityType;
+import org.bukkit.entity.Flying;
+import org.bukkit.entity.Hoglin;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.entity.Monster;
+import org.bukkit.entity.WaterMob;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Holds the mob groups that apply to each entity type. Group membership only depends on the
+ * entity type, whether the mob is levelled and the world environment, so every combination is
+ * computed once when rules.yml is parsed and shared by all LivingEntityWrappers. The table is
+ * immutable and is part of the parsed rules it was built from.
+ *
+ * @author stumper66
+ * @since 3.8.0
+ */
+public class MobGroupTable {
+
+    /**
+     * @param hostileMobs the mobs of the Companion's universal hostile group
+     * @param aquaticMobs the mobs of the Companion's universal aquatic group
+     * @param passiveMobs the mobs of the Companion's universal passive group
+     */
+    public MobGroupTable(final @NotNull Map<String, Set<String>> customMobGroups,
+        final @NotNull Set<EntityType> hostileMobs, final @NotNull Set<EntityType> aquaticMobs,
+        final @NotNull Set<EntityType> passiveMobs) {
+        this.table = new EnumMap<>(EntityType.class);
+
+        for (final EntityType entityType : EntityType.values()) {
+            final Class<?> entityClass = entityType.getEntityClass();
+            if (entityClass == null || !LivingEntity.class.isAssignableFrom(entityClass)) {
+                continue;
+            }
+
+            final MobGroups[] entries = new MobGroups[ENVIRONMENT_COUNT * 2];
+            for (int envIndex = 0; envIndex < ENVIRONMENT_COUNT; envIndex++) {
+                entries[envIndex] = new MobGroups(buildGroups(entityType, entityClass, false,
+                    envIndex, customMobGroups, hostileMobs, aquaticMobs, passiveMobs));
+                entries[ENVIRONMENT_COUNT + envIndex] = new MobGroups(buildGroups(entityType,
+                    entityClass, true, envIndex, customMobGroups, hostileMobs, aquaticMobs,
+                    passiveMobs));
+            }
+            this.table.put(entityType, entries);
+        }
+    }
+
+    private final Map<EntityType, MobGroups[]> table;
+    private final static int ENVIRONMENT_COUNT = 3;
+
+    @Nullable public MobGroups getGroups(final @NotNull EntityType entityType,
+        final boolean isLevelled, final @NotNull World.Environment environment) {
+        final MobGroups[] entries = this.table.get(entityType);
+        if (entries == null) {
+            return null;
+        }
+
+        final int index = getEnvironmentIndex(environment);
+        return entries[isLevelled ? ENVIRONMENT_COUNT + index : index];
+    }
+
+    private static int getEnvironmentIndex(final @NotNull World.Environment environment) {
+        return switch (environment) {
+            case NORMAL -> 0;
+            case NETHER -> 1;
+            default -> 2;
+        };
+    }
+
+    @NotNull private static Set<String> buildGroups(final @NotNull EntityType eType,
+        final @NotNull Class<?> entityClass, final boolean isLevelled, final int envIndex,
+        final @NotNull Map<String, Set<String>> customMobGroups,
+        final @NotNull Set<EntityType> hostileMobs, final @NotNull Set<EntityType> aquaticMobs,
+        final @NotNull Set<EntityType> passiveMobs) {
+        final Set<String> groups = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        final String typeName = eType.toString();
+
+        for (final Map.Entry<String, Set<String>> mobGroup : customMobGroups.entrySet()) {
+            if (mobGroup.getValue().contains(typeName)) {
+                groups.add(mobGroup.getKey());
+            }
+        }
+
+        groups.add(CustomUniversalGroups.ALL_MOBS.toString());
+
+        if (isLevelled) {
+            groups.add(CustomUniversalGroups.ALL_LEVELLABLE_MOBS.toString());
+        }
+
+        final boolean isFlying = Flying.class.isAssignableFrom(entityClass);
+        final boolean isWaterMob = WaterMob.class.isAssignableFrom(entityClass);
+        final boolean isBoss = Boss.class.isAssignableFrom(entityClass);
+
+        if (Monster.class.isAssignableFrom(entityClass) || isBoss
+            || hostileMobs.contains(eType)) {
+            groups.add(CustomUniversalGroups.ALL_HOSTILE_MOBS.toString());
+        }
+
+        if (isWaterMob || aquaticMobs.contains(eType)) {
+            groups.add(CustomUniversalGroups.ALL_AQUATIC_MOBS.toString());
+        }
+
+        if (envIndex == 0) {
+            groups.add(CustomUniversalGroups.ALL_OVERWORLD_MOBS.toString());
+        } else if (envIndex == 1) {
+            groups.add(CustomUniversalGroups.ALL_NETHER_MOBS.toString());
+        }
+
+        if (isFlying || eType == EntityType.PARROT || eType == EntityType.BAT) {
+            groups.add(CustomUniversalGroups.ALL_FLYING_MOBS.toString());
+        }
+
+        // why bats aren't part of Flying interface is beyond me
+        if (!isFlying && !isWaterMob && !isBoss && eType != EntityType.BAT) {
+            groups.add(CustomUniversalGroups.ALL_GROUND_MOBS.toString());
+        }
+
+        if (Animals.class.isAssignableFrom(entityClass)
+            && !Hoglin.class.isAssignableFrom(entityClass) || isWaterMob
+            || passiveMobs.contains(eType)) {
+            groups.add(CustomUniversalGroups.ALL_PASSIVE_MOBS.toString());
+        }
+
+        return groups;
+    }
+
+    /**
+     * An immutable set of group names along with their GroupBitIndex ids
+     */
+    public static class MobGroups {
+
+        MobGroups(final @NotNull Set<String> groupNames) {
+            this.groupNames = Collections.unmodifiableSet(groupNames);
+            this.groupIds = GroupBitIndex.toBitSet(groupNames);
+        }
+
+        @NotNull public final Set<String> groupNames;
+        // must not be modified, it is shared by every mob of this type
+        @NotNull public final BitSet groupIds;
+    }
+}
@@ -35,6 +35,8 @@ public class NamespacedKeys {
         lockedDropRulesOverride = new NamespacedKey(main, "lockedDropRulesOverride");
         playerLevellingSourceNumber = new NamespacedKey(main, "playerLevellingSourceNumber");
         lastDamageTime = new NamespacedKey(main, "lastDamageTime");
+        externalCompatTypes = new NamespacedKey(main, "externalCompatTypes");
+        equippedItemIds = new NamespacedKey(main, "equippedItemIds");
 
         spawnerEgg = new NamespacedKey(main, "spawnerEgg");
         spawnerEggName = new NamespacedKey(main, "spawnerEggName");
@@ -74,6 +76,8 @@ public class NamespacedKeys {
     public final NamespacedKey skyLightLevel;
     public final NamespacedKey playerLevellingSourceNumber;
     public final NamespacedKey lastDamageTime;
+    public final NamespacedKey externalCompatTypes; // bitmask of which external plugins the mob belongs to
+    public final NamespacedKey equippedItemIds; // drop item id of the custom drop equipped in each slot
 
     public final NamespacedKey lockSettings;
     public final NamespacedKey lockedNametag;
@@ -3,12 +3,12 @@ package me.lokka30.levelledmobs.misc;
 
 import java.time.Duration;
 import java.time.Instant;
-import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Queue;
-import java.util.WeakHashMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import me.lokka30.levelledmobs.LevelledMobs;
 import me.lokka30.levelledmobs.rules.NametagVisibilityEnum;
 import org.bukkit.entity.LivingEntity;
@@ -27,18 +27,18 @@ public class NametagTimerChecker {
     public NametagTimerChecker(final LevelledMobs main) {
         this.main = main;
         this.playersQueue = new LinkedList<>();
-        this.nametagCooldownQueue = new HashMap<>();
-        this.entityTargetMap = new WeakHashMap<>();
-        this.cooldownTimes = new WeakHashMap<>();
+        this.nametagCooldownQueue = new ConcurrentHashMap<>();
+        this.entityTargetMap = new ConcurrentHashMap<>();
+        this.cooldownTimes = new ConcurrentHashMap<>();
     }
 
     private final LevelledMobs main;
-    private final Map<Player, WeakHashMap<LivingEntity, Instant>> nametagCooldownQueue;
-    public final WeakHashMap<LivingEntity, Long> cooldownTimes;
-    public final WeakHashMap<LivingEntity, Player> entityTargetMap;
+    // all of these are keyed by entity id and are cleaned up when the entity is removed
+    private final Map<Player, Map<Integer, NametagCooldown>> nametagCooldownQueue;
+    public final Map<Integer, Long> cooldownTimes;
+    public final Map<Integer, Player> entityTargetMap;
     private final Queue<PlayerQueueItem> playersQueue;
     public final static Object nametagTimer_Lock = new Object();
-    public final static Object entityTarget_Lock = new Object();
     private final static Object playerQueue_Lock = new Object();
 
     public void addPlayerToQueue(final @NotNull PlayerQueueItem item) {
@@ -47,12 +47,44 @@ public class NametagTimerChecker {
         }
     }
 
-    public Map<Player, WeakHashMap<LivingEntity, Instant>> getNametagCooldownQueue() {
+    public Map<Player, Map<Integer, NametagCooldown>> getNametagCooldownQueue() {
         return this.nametagCooldownQueue;
     }
 
+    public void removeEntity(final int entityId) {
+        cooldownTimes.remove(entityId);
+        entityTargetMap.remove(entityId);
+        for (final Map<Integer, NametagCooldown> cooldowns : nametagCooldownQueue.values()) {
+            cooldowns.remove(entityId);
+        }
+    }
+
+    /**
+     * Forgets every mob that isn't in the provided ids, used by the periodic cleanup sweep
+     */
+    public void retainEntities(final @NotNull Set<Integer> entityIds) {
+        cooldownTimes.keySet().retainAll(entityIds);
+        entityTargetMap.keySet().retainAll(entityIds);
+        for (final Map<Integer, NametagCooldown> cooldowns : nametagCooldownQueue.values()) {
+            cooldowns.keySet().retainAll(entityIds);
+        }
+    }
+
+    public int getCooldownEntryCount() {
+        int count = 0;
+        for (final Map<Integer, NametagCooldown> cooldowns : nametagCooldownQueue.values()) {
+            count += cooldowns.size();
+        }
+
+        return count;
+    }
+
+    /**
+     * Finds the nametag cooldowns that have run out. Runs async so anything that needs the live
+     * entity is handed back to the entity's own thread.
+     */
     public void checkNametags() {
-        final List<LivingEntity> entitiesToRemove = new LinkedList<>();
+        final List<SchedulerWrapper.EntityTask> expiredCooldowns = new LinkedList<>();
 
         synchronized (nametagTimer_Lock) {
             synchronized (playerQueue_Lock) {
@@ -63,57 +95,87 @@ public class NametagTimerChecker {
                     }
 
                     if (item.isPlayerJoin) {
-                        this.nametagCooldownQueue.put(item.player, new WeakHashMap<>());
+                        this.nametagCooldownQueue.put(item.player, new ConcurrentHashMap<>());
                     } else {
                         this.nametagCooldownQueue.remove(item.player);
+                        this.entityTargetMap.values().removeIf(p -> p == item.player);
                     }
                 }
             }
 
-            for (final Map.Entry<Player, WeakHashMap<LivingEntity, Instant>> coolDown : nametagCooldownQueue.entrySet()) {
+            for (final Map.Entry<Player, Map<Integer, NametagCooldown>> coolDown : nametagCooldownQueue.entrySet()) {
                 final Player player = coolDown.getKey();
-                for (final LivingEntity livingEntity : coolDown.getValue().keySet()) {
-                    if (!livingEntity.isValid()) {
+                for (final Map.Entry<Integer, NametagCooldown> entry : coolDown.getValue().entrySet()) {
+                    final NametagCooldown cooldown = entry.getValue();
+                    final Duration timeDuration = Duration.between(
+                        cooldown.startTime, Instant.now());
+                    final Long cooldownTime = cooldownTimes.get(entry.getKey());
+                    if (cooldownTime != null && timeDuration.toMillis() < cooldownTime) {
                         continue;
                     }
 
-                    final Instant startInclusive = coolDown.getValue().get(livingEntity);
-                    if (startInclusive == null){
-                        entitiesToRemove.add(livingEntity);
-                        continue;
-                    }
+                    // if using LoS targeting it will be checked if it's still within LoS
+                    final LivingEntityWrapper lmEntity = LivingEntityWrapper.getInstance(
+                        cooldown.livingEntity, main);
+                    final boolean usesLoS = main.rulesManager.getRuleCreatureNametagVisbility(
+                        lmEntity).contains(NametagVisibilityEnum.TARGETED);
+                    lmEntity.free();
 
-                    final Duration timeDuration = Duration.between(
-                        startInclusive, Instant.now());
-                    final long cooldownTime = cooldownTimes.get(livingEntity);
-                    if (timeDuration.toMillis() >= cooldownTime) {
-                        // if using LoS targeting check if it's still within LoS and don't remove if so.
-                        final LivingEntityWrapper lmEntity = LivingEntityWrapper.getInstance(
-                            livingEntity, main);
-                        final boolean usesLoS = main.rulesManager.getRuleCreatureNametagVisbility(
-                            lmEntity).contains(NametagVisibilityEnum.TARGETED);
-                        if (usesLoS && livingEntity.hasLineOfSight(player)) {
-                            coolDown.getValue().put(livingEntity, Instant.now());
-                        } else {
-                            entitiesToRemove.add(livingEntity);
-                        }
-
-                        lmEntity.free();
-                    }
+                    final ExpiredCooldown expired = new ExpiredCooldown(player, entry.getKey(),
+                        cooldown, usesLoS);
+                    expiredCooldowns.add(new SchedulerWrapper.EntityTask(cooldown.livingEntity,
+                        () -> applyExpiredCooldown(expired), () -> removeCooldown(expired)));
                 }
+            }
+        }
 
-                for (final LivingEntity livingEntity : entitiesToRemove) {
-                    coolDown.getValue().remove(livingEntity);
+        main.schedulerWrapper.runEntityTasks(expiredCooldowns);
+    }
 
-                    final LivingEntityWrapper lmEntity = LivingEntityWrapper.getInstance(
-                        livingEntity, main);
-                    main.levelManager.updateNametag(lmEntity,
-                        main.levelManager.getNametag(lmEntity, false), List.of(player));
-                    lmEntity.free();
-                }
+    private void applyExpiredCooldown(final @NotNull ExpiredCooldown expired) {
+        final LivingEntity livingEntity = expired.cooldown.livingEntity;
+        final boolean isValid = livingEntity.isValid();
+        if (isValid && expired.usesLoS && livingEntity.hasLineOfSight(expired.player)) {
+            expired.cooldown.startTime = Instant.now();
+            return;
+        }
 
-                entitiesToRemove.clear();
-            }
+        if (!removeCooldown(expired) || !isValid) {
+            return;
         }
+
+        final LivingEntityWrapper lmEntity = LivingEntityWrapper.getInstance(livingEntity, main);
+        main.levelManager.updateNametag(lmEntity,
+            main.levelManager.getNametag(lmEntity, false), List.of(expired.player));
+        lmEntity.free();
+    }
+
+    private boolean removeCooldown(final @NotNull ExpiredCooldown expired) {
+        synchronized (nametagTimer_Lock) {
+            final Map<Integer, NametagCooldown> cooldowns = nametagCooldownQueue.get(
+                expired.player);
+            // the cooldown might have been restarted since it was found to be expired
+            return cooldowns != null && cooldowns.remove(expired.entityId, expired.cooldown);
+        }
+    }
+
+    /**
+     * A mob whose nametag is being kept visible for a player along with when it started
+     */
+    public static class NametagCooldown {
+
+        public NametagCooldown(final @NotNull LivingEntity livingEntity,
+            final @NotNull Instant startTime) {
+            this.livingEntity = livingEntity;
+            this.startTime = startTime;
+        }
+
+        public final LivingEntity livingEntity;
+        public volatile Instant startTime;
+    }
+
+    private record ExpiredCooldown(@NotNull Player player, int entityId,
+                                   @NotNull NametagCooldown cooldown, boolean usesLoS) {
+
     }
 }
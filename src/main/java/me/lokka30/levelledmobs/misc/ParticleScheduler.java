@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2020-2022  lokka30. Use of this source code is governed by the GNU AGPL v3.0 license that can be found in the LICENSE.md file.
+ */
+
+package me.lokka30.levelledmobs.misc;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import me.lokka30.levelledmobs.LevelledMobs;
+import org.bukkit.Location;
+import org.bukkit.Particle;
+import org.bukkit.World;
+import org.bukkit.scheduler.BukkitRunnable;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Plays repeating particle effects from a single main thread task. Each effect emits one burst
+ * per tick until it has played all of its bursts. The task only runs while there are effects to
+ * play.
+ *
+ * @author stumper66
+ * @since 3.8.0
+ */
+public class ParticleScheduler {
+
+    public ParticleScheduler(final @NotNull LevelledMobs main) {
+        this.main = main;
+        this.pendingEffects = new ConcurrentLinkedQueue<>();
+        this.activeEffects = new ArrayDeque<>();
+    }
+
+    private final LevelledMobs main;
+    // effects can be added from the mob queue thread so they are handed off to the main thread
+    private final Queue<ParticleEffect> pendingEffects;
+    private final Deque<ParticleEffect> activeEffects;
+    private BukkitTask task;
+    private final static Object taskLock = new Object();
+    private final static int MAX_ACTIVE_EFFECTS = 64;
+    private final static int MAX_PARTICLES_PER_TICK = 1000;
+    private final static int PARTICLES_PER_BURST = 20;
+
+    /**
+     * Queues an effect that plays a burst of particles every tick for the given number of ticks.
+     * Effects beyond the concurrent effect limit are dropped. Safe to call from any thread.
+     */
+    public void addEffect(final @NotNull Location location, final @NotNull Particle particle,
+        final int bursts) {
+        if (location.getWorld() == null || bursts <= 0) {
+            return;
+        }
+
+        pendingEffects.offer(new ParticleEffect(location, particle, bursts));
+
+        synchronized (taskLock) {
+            if (task == null) {
+                task = new BukkitRunnable() {
+                    @Override
+                    public void run() {
+                        tick();
+                    }
+                }.runTaskTimer(main, 0, 1);
+            }
+        }
+    }
+
+    private void tick() {
+        ParticleEffect effect;
+        while ((effect = pendingEffects.poll()) != null) {
+            if (activeEffects.size() < MAX_ACTIVE_EFFECTS) {
+                activeEffects.offer(effect);
+            }
+        }
+
+        // effects that didn't fit this tick stay at the front of the queue for the next one
+        int particlesRemaining = MAX_PARTICLES_PER_TICK;
+        int effectsToCheck = activeEffects.size();
+        while (effectsToCheck-- > 0 && particlesRemaining >= PARTICLES_PER_BURST) {
+            effect = activeEffects.poll();
+            final World world = effect.location.getWorld();
+            if (world == null) {
+                continue;
+            }
+
+            world.spawnParticle(effect.particle, effect.location, PARTICLES_PER_BURST,
+                0, 0, 0, 0.1);
+            particlesRemaining -= PARTICLES_PER_BURST;
+
+            if (--effect.burstsRemaining > 0) {
+                activeEffects.offer(effect);
+            }
+        }
+
+        if (activeEffects.isEmpty()) {
+            synchronized (taskLock) {
+                if (pendingEffects.isEmpty()) {
+                    task.cancel();
+                    task = null;
+                }
+            }
+        }
+    }
+
+    private static class ParticleEffect {
+
+        ParticleEffect(final @NotNull Location location, final @NotNull Particle particle,
+            final int bursts) {
+            this.location = location;
+            this.particle = particle;
+            this.burstsRemaining = bursts;
+        }
+
+        final Location location;
+        final Particle particle;
+        int burstsRemaining;
+    }
+}
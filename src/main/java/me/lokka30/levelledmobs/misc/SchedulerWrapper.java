@@ -0,0 +1,275 @@
+/*
+ * Copyright (c) 2020-2022  lokka30. Use of this source code is governed by the GNU AGPL v3.0 license that can be found in the LICENSE.md file.
+ */
+
+package me.lokka30.levelledmobs.misc;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import me.lokka30.levelledmobs.LevelledMobs;
+import me.lokka30.levelledmobs.util.Utils;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Entity;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Schedules tasks on the Bukkit scheduler, or on Folia's region schedulers when running on
+ * Folia. Entity work runs on the region that owns the entity and everything else runs on the
+ * global region. The Folia schedulers are called through reflection as they aren't part of the
+ * API LM is built against.
+ *
+ * @author stumper66
+ * @since 3.8.0
+ */
+public class SchedulerWrapper {
+
+    public SchedulerWrapper(final @NotNull LevelledMobs main) {
+        this.main = main;
+        this.isFolia = detectFolia();
+
+        if (isFolia) {
+            try {
+                final Class<?> globalSchedulerClass = Class.forName(
+                    "io.papermc.paper.threadedregions.scheduler.GlobalRegionScheduler");
+                final Class<?> asyncSchedulerClass = Class.forName(
+                    "io.papermc.paper.threadedregions.scheduler.AsyncScheduler");
+                final Class<?> entitySchedulerClass = Class.forName(
+                    "io.papermc.paper.threadedregions.scheduler.EntityScheduler");
+                final Class<?> scheduledTaskClass = Class.forName(
+                    "io.papermc.paper.threadedregions.scheduler.ScheduledTask");
+
+                this.globalScheduler = Bukkit.class.getMethod("getGlobalRegionScheduler")
+                    .invoke(null);
+                this.asyncScheduler = Bukkit.class.getMethod("getAsyncScheduler").invoke(null);
+                this.globalRunDelayed = globalSchedulerClass.getMethod("runDelayed",
+                    Plugin.class, Consumer.class, long.class);
+                this.globalRunAtFixedRate = globalSchedulerClass.getMethod("runAtFixedRate",
+                    Plugin.class, Consumer.class, long.class, long.class);
+                this.asyncRunNow = asyncSchedulerClass.getMethod("runNow",
+                    Plugin.class, Consumer.class);
+                this.asyncRunAtFixedRate = asyncSchedulerClass.getMethod("runAtFixedRate",
+                    Plugin.class, Consumer.class, long.class, long.class, TimeUnit.class);
+                this.entityGetScheduler = Entity.class.getMethod("getScheduler");
+                this.entityRunDelayed = entitySchedulerClass.getMethod("runDelayed",
+                    Plugin.class, Consumer.class, Runnable.class, long.class);
+                this.globalCancelTasks = globalSchedulerClass.getMethod("cancelTasks",
+                    Plugin.class);
+                this.asyncCancelTasks = asyncSchedulerClass.getMethod("cancelTasks",
+                    Plugin.class);
+                this.taskCancel = scheduledTaskClass.getMethod("cancel");
+                this.taskIsCancelled = scheduledTaskClass.getMethod("isCancelled");
+            } catch (final Exception e) {
+                throw new IllegalStateException("Unable to hook into the Folia schedulers", e);
+            }
+        }
+    }
+
+    private final LevelledMobs main;
+    private final boolean isFolia;
+    private Object globalScheduler;
+    private Object asyncScheduler;
+    private Method globalRunDelayed;
+    private Method globalRunAtFixedRate;
+    private Method asyncRunNow;
+    private Method asyncRunAtFixedRate;
+    private Method entityGetScheduler;
+    private Method entityRunDelayed;
+    private Method globalCancelTasks;
+    private Method asyncCancelTasks;
+    private Method taskCancel;
+    private Method taskIsCancelled;
+
+    private static boolean detectFolia() {
+        try {
+            Class.forName("io.papermc.paper.threadedregions.RegionizedServer");
+            return true;
+        } catch (final ClassNotFoundException ignored) {
+            return false;
+        }
+    }
+
+    public boolean isFolia() {
+        return this.isFolia;
+    }
+
+    /**
+     * Runs the task on the thread that owns the entity on the next tick
+     *
+     * @param retired ran instead of the task on Folia if the entity was removed before the task
+     *                could run, such as for freeing a wrapper
+     */
+    public void runEntityTask(final @NotNull Entity entity, final @NotNull Runnable task,
+        final @Nullable Runnable retired) {
+        runEntityTaskLater(entity, task, retired, 1L);
+    }
+
+    public void runEntityTaskLater(final @NotNull Entity entity, final @NotNull Runnable task,
+        final @Nullable Runnable retired, final long delayTicks) {
+        if (!isFolia) {
+            Bukkit.getScheduler().runTaskLater(main, task, delayTicks);
+            return;
+        }
+
+        try {
+            final Object entityScheduler = entityGetScheduler.invoke(entity);
+            final Object scheduledTask = entityRunDelayed.invoke(entityScheduler, main,
+                (Consumer<Object>) t -> task.run(), retired, Math.max(1L, delayTicks));
+            if (scheduledTask == null && retired != null) {
+                // the entity had already been removed
+                retired.run();
+            }
+        } catch (final Exception e) {
+            Utils.logger.error("Unable to schedule entity task: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Runs each task on the thread that owns its entity. Outside of Folia they all run together
+     * in a single task on the main thread.
+     */
+    public void runEntityTasks(final @NotNull List<EntityTask> tasks) {
+        if (tasks.isEmpty()) {
+            return;
+        }
+
+        if (!isFolia) {
+            Bukkit.getScheduler().runTask(main, () -> {
+                for (final EntityTask entityTask : tasks) {
+                    entityTask.task.run();
+                }
+            });
+            return;
+        }
+
+        for (final EntityTask entityTask : tasks) {
+            runEntityTask(entityTask.entity, entityTask.task, entityTask.retired);
+        }
+    }
+
+    public void runGlobalTask(final @NotNull Runnable task) {
+        runGlobalTaskLater(task, 1L);
+    }
+
+    public void runGlobalTaskLater(final @NotNull Runnable task, final long delayTicks) {
+        if (!isFolia) {
+            Bukkit.getScheduler().runTaskLater(main, task, delayTicks);
+            return;
+        }
+
+        try {
+            globalRunDelayed.invoke(globalScheduler, main, (Consumer<Object>) t -> task.run(),
+                Math.max(1L, delayTicks));
+        } catch (final Exception e) {
+            Utils.logger.error("Unable to schedule global task: " + e.getMessage());
+        }
+    }
+
+    @NotNull public TaskHandle runGlobalTaskTimer(final @NotNull Runnable task,
+        final long delayTicks, final long periodTicks) {
+        if (!isFolia) {
+            return new TaskHandle(
+                Bukkit.getScheduler().runTaskTimer(main, task, delayTicks, periodTicks));
+        }
+
+        try {
+            return new TaskHandle(globalRunAtFixedRate.invoke(globalScheduler, main,
+                (Consumer<Object>) t -> task.run(), Math.max(1L, delayTicks), periodTicks));
+        } catch (final Exception e) {
+            throw new IllegalStateException("Unable to schedule global timer task", e);
+        }
+    }
+
+    public void runAsync(final @NotNull Runnable task) {
+        if (!isFolia) {
+            Bukkit.getScheduler().runTaskAsynchronously(main, task);
+            return;
+        }
+
+        try {
+            asyncRunNow.invoke(asyncScheduler, main, (Consumer<Object>) t -> task.run());
+        } catch (final Exception e) {
+            Utils.logger.error("Unable to schedule async task: " + e.getMessage());
+        }
+    }
+
+    @NotNull public TaskHandle runAsyncTimer(final @NotNull Runnable task, final long delayTicks,
+        final long periodTicks) {
+        if (!isFolia) {
+            return new TaskHandle(Bukkit.getScheduler()
+                .runTaskTimerAsynchronously(main, task, delayTicks, periodTicks));
+        }
+
+        try {
+            return new TaskHandle(asyncRunAtFixedRate.invoke(asyncScheduler, main,
+                (Consumer<Object>) t -> task.run(), Math.max(1L, delayTicks) * 50L,
+                periodTicks * 50L, TimeUnit.MILLISECONDS));
+        } catch (final Exception e) {
+            throw new IllegalStateException("Unable to schedule async timer task", e);
+        }
+    }
+
+    public void cancelAllTasks() {
+        if (!isFolia) {
+            Bukkit.getScheduler().cancelTasks(main);
+            return;
+        }
+
+        // entity tasks are cancelled by Folia when the plugin is disabled
+        try {
+            globalCancelTasks.invoke(globalScheduler, main);
+            asyncCancelTasks.invoke(asyncScheduler, main);
+        } catch (final Exception e) {
+            Utils.logger.error("Unable to cancel tasks: " + e.getMessage());
+        }
+    }
+
+    /**
+     * A task to run on the thread that owns the entity
+     */
+    public record EntityTask(@NotNull Entity entity, @NotNull Runnable task,
+                             @Nullable Runnable retired) {
+
+    }
+
+    /**
+     * A repeating task from either the Bukkit or Folia scheduler
+     */
+    public class TaskHandle {
+
+        TaskHandle(final @NotNull Object task) {
+            this.task = task;
+        }
+
+        private final Object task;
+
+        public void cancel() {
+            if (task instanceof final BukkitTask bukkitTask) {
+                bukkitTask.cancel();
+                return;
+            }
+
+            try {
+                taskCancel.invoke(task);
+            } catch (final Exception e) {
+                Utils.logger.error("Unable to cancel task: " + e.getMessage());
+            }
+        }
+
+        public boolean isCancelled() {
+            if (task instanceof final BukkitTask bukkitTask) {
+                return bukkitTask.isCancelled();
+            }
+
+            try {
+                return (boolean) taskIsCancelled.invoke(task);
+            } catch (final Exception e) {
+                return true;
+            }
+        }
+    }
+}
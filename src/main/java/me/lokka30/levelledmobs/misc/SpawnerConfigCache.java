@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2020-2022  lokka30. Use of this source code is governed by the GNU AGPL v3.0 license that can be found in the LICENSE.md file.
+ */
+
+package me.lokka30.levelledmobs.misc;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import me.lokka30.levelledmobs.LevelledMobs;
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.block.CreatureSpawner;
+import org.bukkit.persistence.PersistentDataContainer;
+import org.bukkit.persistence.PersistentDataType;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Caches the LM settings stored in a spawner's PDC so they are only decoded once instead of on
+ * every mob the spawner spawns. Entries are grouped by world and chunk so a chunk unload only has
+ * to drop one bucket. Entries are dropped when the spawner is placed, broken or converted and
+ * when its chunk unloads.
+ *
+ * @author stumper66
+ * @since 3.8.0
+ */
+public class SpawnerConfigCache {
+
+    public SpawnerConfigCache(final @NotNull LevelledMobs main) {
+        this.main = main;
+        this.worlds = new ConcurrentHashMap<>();
+    }
+
+    private final LevelledMobs main;
+    private final Map<UUID, Map<Long, Map<Integer, SpawnerConfig>>> worlds;
+    private final static SpawnerConfig notLmSpawner = new SpawnerConfig(
+        false, -1, -1, null, null, 0, 0, 0);
+
+    @NotNull public SpawnerConfig getConfig(final @NotNull CreatureSpawner cs) {
+        final int x = cs.getX();
+        final int y = cs.getY();
+        final int z = cs.getZ();
+        return worlds.computeIfAbsent(cs.getWorld().getUID(), k -> new ConcurrentHashMap<>())
+            .computeIfAbsent(getChunkKey(x >> 4, z >> 4), k -> new ConcurrentHashMap<>())
+            .computeIfAbsent(getBlockKey(x, y, z),
+                k -> decodeConfig(cs.getPersistentDataContainer(), x, y, z));
+    }
+
+    public void invalidate(final @NotNull Location location) {
+        if (location.getWorld() == null) {
+            return;
+        }
+
+        final Map<Long, Map<Integer, SpawnerConfig>> chunks = worlds.get(
+            location.getWorld().getUID());
+        if (chunks == null) {
+            return;
+        }
+
+        final Map<Integer, SpawnerConfig> spawners = chunks.get(
+            getChunkKey(location.getBlockX() >> 4, location.getBlockZ() >> 4));
+        if (spawners != null) {
+            spawners.remove(getBlockKey(location.getBlockX(), location.getBlockY(),
+                location.getBlockZ()));
+        }
+    }
+
+    public void invalidateChunk(final @NotNull Chunk chunk) {
+        final Map<Long, Map<Integer, SpawnerConfig>> chunks = worlds.get(
+            chunk.getWorld().getUID());
+        if (chunks != null) {
+            chunks.remove(getChunkKey(chunk.getX(), chunk.getZ()));
+        }
+    }
+
+    public void clear() {
+        worlds.clear();
+    }
+
+    private static long getChunkKey(final int chunkX, final int chunkZ) {
+        return (long) chunkX << 32 | chunkZ & 0xFFFFFFFFL;
+    }
+
+    private static int getBlockKey(final int x, final int y, final int z) {
+        return (y & 0xFFFF) << 8 | (x & 15) << 4 | z & 15;
+    }
+
+    @NotNull private SpawnerConfig decodeConfig(final @NotNull PersistentDataContainer pdc,
+        final int x, final int y, final int z) {
+        synchronized (pdc) {
+            if (!pdc.has(main.namespacedKeys.keySpawner, PersistentDataType.INTEGER)) {
+                return notLmSpawner;
+            }
+
+            final Integer minLevel = pdc.get(main.namespacedKeys.keySpawnerMinLevel,
+                PersistentDataType.INTEGER);
+            final Integer maxLevel = pdc.get(main.namespacedKeys.keySpawnerMaxLevel,
+                PersistentDataType.INTEGER);
+
+            return new SpawnerConfig(
+                true,
+                minLevel == null ? -1 : minLevel,
+                maxLevel == null ? -1 : maxLevel,
+                pdc.get(main.namespacedKeys.keySpawnerCustomName, PersistentDataType.STRING),
+                pdc.get(main.namespacedKeys.keySpawnerCustomDropId, PersistentDataType.STRING),
+                x, y, z
+            );
+        }
+    }
+
+    /**
+     * The decoded LM settings of a spawner and the spawner's block coordinates. Levels are -1 when
+     * not specified
+     */
+    public record SpawnerConfig(boolean isLmSpawner, int minLevel, int maxLevel,
+                                @Nullable String customName, @Nullable String customDropId,
+                                int x, int y, int z) {
+
+    }
+}
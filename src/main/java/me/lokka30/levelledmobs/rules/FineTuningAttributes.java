@@ -4,8 +4,6 @@
 
 package me.lokka30.levelledmobs.rules;
 
-import java.lang.reflect.Field;
-import java.lang.reflect.Modifier;
 import java.util.LinkedList;
 import java.util.List;
 import org.jetbrains.annotations.Nullable;
@@ -40,21 +38,53 @@ public class FineTuningAttributes implements Cloneable {
             return;
         }
 
-        try {
-            for (final Field f : attributes.getClass().getDeclaredFields()) {
-                if (!Modifier.isPublic(f.getModifiers())) {
-                    continue;
-                }
-                if (f.get(attributes) == null) {
-                    continue;
-                }
-                final Object presetValue = f.get(attributes);
-
-                this.getClass().getDeclaredField(f.getName()).set(this, presetValue);
-            }
-        } catch (final IllegalAccessException | NoSuchFieldException e) {
-            e.printStackTrace();
+        // any value the merging attributes set replaces this one
+        if (attributes.attackDamage != null) {
+            this.attackDamage = attributes.attackDamage;
+        }
+        if (attributes.creeperExplosionRadius != null) {
+            this.creeperExplosionRadius = attributes.creeperExplosionRadius;
+        }
+        if (attributes.maxHealth != null) {
+            this.maxHealth = attributes.maxHealth;
+        }
+        if (attributes.movementSpeed != null) {
+            this.movementSpeed = attributes.movementSpeed;
+        }
+        if (attributes.rangedAttackDamage != null) {
+            this.rangedAttackDamage = attributes.rangedAttackDamage;
+        }
+        if (attributes.itemDrop != null) {
+            this.itemDrop = attributes.itemDrop;
+        }
+        if (attributes.armorBonus != null) {
+            this.armorBonus = attributes.armorBonus;
+        }
+        if (attributes.armorToughness != null) {
+            this.armorToughness = attributes.armorToughness;
+        }
+        if (attributes.attackKnockback != null) {
+            this.attackKnockback = attributes.attackKnockback;
+        }
+        if (attributes.flyingSpeed != null) {
+            this.flyingSpeed = attributes.flyingSpeed;
+        }
+        if (attributes.knockbackResistance != null) {
+            this.knockbackResistance = attributes.knockbackResistance;
+        }
+        if (attributes.horseJumpStrength != null) {
+            this.horseJumpStrength = attributes.horseJumpStrength;
+        }
+        if (attributes.zombieReinforcements != null) {
+            this.zombieReinforcements = attributes.zombieReinforcements;
+        }
+        if (attributes.followRange != null) {
+            this.followRange = attributes.followRange;
+        }
+        if (attributes.xpDrop != null) {
+            this.xpDrop = attributes.xpDrop;
         }
+        this.doNotMerge = attributes.doNotMerge;
     }
 
     public String toString() {
@@ -34,7 +34,7 @@ public class MetricsInfo {
     }
 
     private boolean isCustomDropsEnabed() {
-        for (final List<RuleInfo> rules : main.rulesManager.rulesInEffect.values()) {
+        for (final List<RuleInfo> rules : main.rulesManager.getRules().rulesInEffect().values()) {
             for (final RuleInfo ruleInfo : rules) {
                 if (ruleInfo.customDrops_UseForMobs != null && ruleInfo.customDrops_UseForMobs) {
                     return true;
@@ -50,19 +50,20 @@ public class MetricsInfo {
     }
 
     @NotNull public String getUsesHealthIndicator() {
+        final RuleInfo defaultRule = main.rulesManager.getRules().defaultRule();
         final boolean usesHealthIndicator =
-            main.rulesParsingManager.defaultRule.healthIndicator != null &&
-                main.rulesParsingManager.defaultRule.nametag != null &&
-                main.rulesParsingManager.defaultRule.nametag.toLowerCase()
-                    .contains("%health-indicator%");
+            defaultRule.healthIndicator != null &&
+                defaultRule.nametag != null &&
+                defaultRule.nametag.toLowerCase().contains("%health-indicator%");
 
         return convertBooleanToString(usesHealthIndicator);
     }
 
     @NotNull public String getMaxLevelRange() {
         // 1-10, 11-24, 25-50, 51-100, 101-499, 500+
-        final int maxLevel = main.rulesParsingManager.defaultRule.restrictions_MaxLevel == null ?
-            1 : main.rulesParsingManager.defaultRule.restrictions_MaxLevel;
+        final RuleInfo defaultRule = main.rulesManager.getRules().defaultRule();
+        final int maxLevel = defaultRule.restrictions_MaxLevel == null ?
+            1 : defaultRule.restrictions_MaxLevel;
 
         if (maxLevel >= 500) {
             return "500+";
@@ -82,7 +83,7 @@ public class MetricsInfo {
     @NotNull public String getCustomRulesUsed() {
         // 0, 1-2, 3-4, 5+
         int rulesEnabledCount = 0;
-        for (final RuleInfo ruleInfo : main.rulesParsingManager.customRules) {
+        for (final RuleInfo ruleInfo : main.rulesManager.getRules().customRules()) {
             if (ruleInfo.ruleIsEnabled) {
                 rulesEnabledCount++;
             }
@@ -101,7 +102,7 @@ public class MetricsInfo {
 
     @NotNull public String getLevellingStrategy() {
         // Random, Weighted Random, Spawn Distance, Blended, Y-Levelling
-        final RuleInfo defaultRule = main.rulesParsingManager.defaultRule;
+        final RuleInfo defaultRule = main.rulesManager.getRules().defaultRule();
 
         if (defaultRule.levellingStrategy != null) {
             if (defaultRule.levellingStrategy instanceof final SpawnDistanceStrategy sds) {
@@ -144,11 +145,12 @@ public class MetricsInfo {
     @NotNull public String customEntityNamesCount() {
         // 0, 1-3, 4-8, 9-12, 13+
         int count = 0;
-        if (main.rulesParsingManager.defaultRule.entityNameOverrides != null) {
-            count += main.rulesParsingManager.defaultRule.entityNameOverrides.size();
+        final RuleInfo defaultRule = main.rulesManager.getRules().defaultRule();
+        if (defaultRule.entityNameOverrides != null) {
+            count += defaultRule.entityNameOverrides.size();
         }
-        if (main.rulesParsingManager.defaultRule.entityNameOverrides_Level != null) {
-            count += main.rulesParsingManager.defaultRule.entityNameOverrides_Level.size();
+        if (defaultRule.entityNameOverrides_Level != null) {
+            count += defaultRule.entityNameOverrides_Level.size();
         }
 
         if (count > 12) {
@@ -222,12 +224,13 @@ public class MetricsInfo {
     }
 
     @NotNull public String nametagVisibility() {
-        if (main.rulesParsingManager.defaultRule.nametagVisibilityEnum == null
-            || main.rulesParsingManager.defaultRule.nametagVisibilityEnum.isEmpty()) {
+        final RuleInfo defaultRule = main.rulesManager.getRules().defaultRule();
+        if (defaultRule.nametagVisibilityEnum == null
+            || defaultRule.nametagVisibilityEnum.isEmpty()) {
             return "Undefined";
         }
 
-        return main.rulesParsingManager.defaultRule.nametagVisibilityEnum.stream().sorted(
+        return defaultRule.nametagVisibilityEnum.stream().sorted(
                         Comparator.comparing(NametagVisibilityEnum::toString)).toList()
             .toString()
             .replace("[", "").replace("]", "");
@@ -123,136 +123,248 @@ public class RuleInfo {
     }
 
     // this is only used for presets
-    @SuppressWarnings("unchecked")
     void mergePresetRules(final RuleInfo preset) {
         if (preset == null) {
             return;
         }
 
-        try {
-            for (final Field f : preset.getClass().getDeclaredFields()) {
-                if (Modifier.isPrivate(f.getModifiers())) {
-                    continue;
-                }
-                if (f.isAnnotationPresent(DoNotMerge.class)) {
-                    continue;
-                }
-                if (f.get(preset) == null) {
-                    continue;
-                }
-
-                boolean skipSettingValue = false;
-                final Object presetValue = f.get(preset);
-
-                if (f.getName().equals("entityNameOverrides") && this.entityNameOverrides != null
-                    && presetValue instanceof Map) {
-                    this.entityNameOverrides.putAll((Map<String, LevelTierMatching>) presetValue);
-                    skipSettingValue = true;
-                } else if (f.getName().equals("entityNameOverrides_Level")
-                    && this.entityNameOverrides_Level != null) {
-                    this.entityNameOverrides_Level.putAll(
-                        (Map<String, List<LevelTierMatching>>) presetValue);
-                    skipSettingValue = true;
-                } else if (f.getName().equals("healthIndicator")) {
-                    final HealthIndicator mergingPreset = (HealthIndicator) presetValue;
-                    if (this.healthIndicator == null || mergingPreset.doMerge == null
-                        || !mergingPreset.doMerge) {
-                        this.healthIndicator = mergingPreset;
-                    } else {
-                        this.healthIndicator.mergeIndicator(mergingPreset.cloneItem());
-                    }
-
-                    skipSettingValue = true;
-                } else if (f.getName().equals("allMobMultipliers")) {
-                    final FineTuningAttributes mergingPreset = (FineTuningAttributes) presetValue;
-                    if (this.allMobMultipliers == null) {
-                        this.allMobMultipliers = mergingPreset.cloneItem();
-                    } else {
-                        this.allMobMultipliers.mergeAttributes(mergingPreset);
-                    }
-                    skipSettingValue = true;
-                } else if (f.getName().equals("specificMobMultipliers")) {
-                    final Map<String, FineTuningAttributes> mergingPreset = (Map<String, FineTuningAttributes>) presetValue;
-                    if (this.specificMobMultipliers == null) {
-                        this.specificMobMultipliers = new TreeMap<>();
-                    }
+        // each setting is merged explicitly, settings marked @DoNotMerge and the rule name are
+        // left as they are
+        final String presetName = preset.ruleName;
+        disableVanillaDropsOnChunkMax = mergeSetting("disableVanillaDropsOnChunkMax",
+            disableVanillaDropsOnChunkMax, preset.disableVanillaDropsOnChunkMax, presetName);
+        if (preset.useNoSpawnerParticles) {
+            useNoSpawnerParticles = true;
+            ruleSourceNames.put("useNoSpawnerParticles", presetName);
+        }
+        babyMobsInheritAdultSetting = mergeSetting("babyMobsInheritAdultSetting",
+            babyMobsInheritAdultSetting, preset.babyMobsInheritAdultSetting, presetName);
+        mobLevelInheritance = mergeSetting("mobLevelInheritance", mobLevelInheritance,
+            preset.mobLevelInheritance, presetName);
+        customDrops_UseForMobs = mergeSetting("customDrops_UseForMobs", customDrops_UseForMobs,
+            preset.customDrops_UseForMobs, presetName);
+        customDrops_UseOverride = mergeSetting("customDrops_UseOverride",
+            customDrops_UseOverride, preset.customDrops_UseOverride, presetName);
+        stopProcessingRules = mergeSetting("stopProcessingRules", stopProcessingRules,
+            preset.stopProcessingRules, presetName);
+        useRandomLevelling = mergeSetting("useRandomLevelling", useRandomLevelling,
+            preset.useRandomLevelling, presetName);
+        mergeEntityNameOverrides = mergeSetting("mergeEntityNameOverrides",
+            mergeEntityNameOverrides, preset.mergeEntityNameOverrides, presetName);
+        passengerMatchLevel = mergeSetting("passengerMatchLevel", passengerMatchLevel,
+            preset.passengerMatchLevel, presetName);
+        lockEntity = mergeSetting("lockEntity", lockEntity, preset.lockEntity, presetName);
+        spawnerParticlesCount = mergeSetting("spawnerParticlesCount", spawnerParticlesCount,
+            preset.spawnerParticlesCount, presetName);
+        maxRandomVariance = mergeSetting("maxRandomVariance", maxRandomVariance,
+            preset.maxRandomVariance, presetName);
+        creeperMaxDamageRadius = mergeSetting("creeperMaxDamageRadius", creeperMaxDamageRadius,
+            preset.creeperMaxDamageRadius, presetName);
+        conditions_MinLevel = mergeSetting("conditions_MinLevel", conditions_MinLevel,
+            preset.conditions_MinLevel, presetName);
+        conditions_MaxLevel = mergeSetting("conditions_MaxLevel", conditions_MaxLevel,
+            preset.conditions_MaxLevel, presetName);
+        restrictions_MinLevel = mergeSetting("restrictions_MinLevel", restrictions_MinLevel,
+            preset.restrictions_MinLevel, presetName);
+        restrictions_MaxLevel = mergeSetting("restrictions_MaxLevel", restrictions_MaxLevel,
+            preset.restrictions_MaxLevel, presetName);
+        conditions_ApplyAboveY = mergeSetting("conditions_ApplyAboveY", conditions_ApplyAboveY,
+            preset.conditions_ApplyAboveY, presetName);
+        conditions_ApplyBelowY = mergeSetting("conditions_ApplyBelowY", conditions_ApplyBelowY,
+            preset.conditions_ApplyBelowY, presetName);
+        conditions_MinDistanceFromSpawn = mergeSetting("conditions_MinDistanceFromSpawn",
+            conditions_MinDistanceFromSpawn, preset.conditions_MinDistanceFromSpawn, presetName);
+        conditions_MaxDistanceFromSpawn = mergeSetting("conditions_MaxDistanceFromSpawn",
+            conditions_MaxDistanceFromSpawn, preset.conditions_MaxDistanceFromSpawn, presetName);
+        nametagVisibleTime = mergeSetting("nametagVisibleTime", nametagVisibleTime,
+            preset.nametagVisibleTime, presetName);
+        maximumDeathInChunkThreshold = mergeSetting("maximumDeathInChunkThreshold",
+            maximumDeathInChunkThreshold, preset.maximumDeathInChunkThreshold, presetName);
+        chunkMaxCoolDownTime = mergeSetting("chunkMaxCoolDownTime", chunkMaxCoolDownTime,
+            preset.chunkMaxCoolDownTime, presetName);
+        maxAdjacentChunks = mergeSetting("maxAdjacentChunks", maxAdjacentChunks,
+            preset.maxAdjacentChunks, presetName);
+        conditions_CooldownTime = mergeSetting("conditions_CooldownTime",
+            conditions_CooldownTime, preset.conditions_CooldownTime, presetName);
+        conditions_TimesToCooldownActivation = mergeSetting(
+            "conditions_TimesToCooldownActivation", conditions_TimesToCooldownActivation,
+            preset.conditions_TimesToCooldownActivation, presetName);
+        conditions_Chance = mergeSetting("conditions_Chance", conditions_Chance,
+            preset.conditions_Chance, presetName);
+        sunlightBurnAmount = mergeSetting("sunlightBurnAmount", sunlightBurnAmount,
+            preset.sunlightBurnAmount, presetName);
+        nametag = mergeSetting("nametag", nametag, preset.nametag, presetName);
+        nametag_CreatureDeath = mergeSetting("nametag_CreatureDeath", nametag_CreatureDeath,
+            preset.nametag_CreatureDeath, presetName);
+        nametag_Placeholder_Levelled = mergeSetting("nametag_Placeholder_Levelled",
+            nametag_Placeholder_Levelled, preset.nametag_Placeholder_Levelled, presetName);
+        nametag_Placeholder_Unlevelled = mergeSetting("nametag_Placeholder_Unlevelled",
+            nametag_Placeholder_Unlevelled, preset.nametag_Placeholder_Unlevelled, presetName);
+
+        customDrop_DropTableIds.addAll(preset.customDrop_DropTableIds);
+        ruleSourceNames.put("customDrop_DropTableIds", presetName);
+
+        if (preset.healthIndicator != null) {
+            if (this.healthIndicator == null || preset.healthIndicator.doMerge == null
+                || !preset.healthIndicator.doMerge) {
+                this.healthIndicator = preset.healthIndicator;
+            } else {
+                this.healthIndicator.mergeIndicator(preset.healthIndicator.cloneItem());
+            }
+            ruleSourceNames.put("healthIndicator", presetName);
+        }
 
-                    for (final Map.Entry<String, FineTuningAttributes> entityType : mergingPreset.entrySet()) {
-                        this.specificMobMultipliers.put(entityType.getKey(),
-                            entityType.getValue().cloneItem());
-                    }
+        conditions_MobCustomnameStatus = mergeSetting("conditions_MobCustomnameStatus",
+            conditions_MobCustomnameStatus, preset.conditions_MobCustomnameStatus, presetName);
+        conditions_MobTamedStatus = mergeSetting("conditions_MobTamedStatus",
+            conditions_MobTamedStatus, preset.conditions_MobTamedStatus, presetName);
+
+        if (preset.levellingStrategy != null) {
+            if (this.levellingStrategy != null && this.levellingStrategy.getClass()
+                .equals(preset.levellingStrategy.getClass())) {
+                this.levellingStrategy.mergeRule(preset.levellingStrategy);
+            } else {
+                this.levellingStrategy = preset.levellingStrategy.cloneItem();
+            }
+            ruleSourceNames.put("levellingStrategy", presetName);
+        }
 
-                    skipSettingValue = true;
-                } else if (f.getName().equals("customDrop_DropTableIds")) {
-                    final List<String> mergingPreset = (List<String>) presetValue;
-                    this.customDrop_DropTableIds.addAll(mergingPreset);
-
-                    skipSettingValue = true;
-                } else if (presetValue instanceof final MergeableStringList mergingPreset
-                    && this.getClass().getDeclaredField(f.getName()).get(this) != null) {
-                    if (mergingPreset.doMerge && !mergingPreset.isEmpty()) {
-                        final MergeableStringList current = (MergeableStringList) this.getClass()
-                            .getDeclaredField(f.getName()).get(this);
-                        current.items.addAll(mergingPreset.items);
-                        skipSettingValue = true;
-                    }
-                }
+        playerLevellingOptions = mergeSetting("playerLevellingOptions", playerLevellingOptions,
+            preset.playerLevellingOptions, presetName);
 
-                if (presetValue instanceof final CachedModalList<?> cachedModalList_preset) {
-                    final CachedModalList<?> thisCachedModalList = (CachedModalList<?>) this.getClass()
-                        .getDeclaredField(f.getName()).get(this);
+        if (preset.entityNameOverrides_Level != null) {
+            if (this.entityNameOverrides_Level != null) {
+                this.entityNameOverrides_Level.putAll(preset.entityNameOverrides_Level);
+            } else {
+                this.entityNameOverrides_Level = preset.entityNameOverrides_Level;
+            }
+            ruleSourceNames.put("entityNameOverrides_Level", presetName);
+        }
+        if (preset.entityNameOverrides != null) {
+            if (this.entityNameOverrides != null) {
+                this.entityNameOverrides.putAll(preset.entityNameOverrides);
+            } else {
+                this.entityNameOverrides = preset.entityNameOverrides;
+            }
+            ruleSourceNames.put("entityNameOverrides", presetName);
+        }
 
-                    if (thisCachedModalList != null && cachedModalList_preset.doMerge) {
-                        thisCachedModalList.mergeCachedModal(cachedModalList_preset);
-                    } else {
-                        this.getClass().getDeclaredField(f.getName())
-                            .set(this, cachedModalList_preset.clone());
-                    }
+        deathMessages = mergeSetting("deathMessages", deathMessages, preset.deathMessages,
+            presetName);
+        nametagVisibilityEnum = mergeSetting("nametagVisibilityEnum", nametagVisibilityEnum,
+            preset.nametagVisibilityEnum, presetName);
+        spawnerParticle = mergeSetting("spawnerParticle", spawnerParticle,
+            preset.spawnerParticle, presetName);
+        tieredColoringInfos = mergeSetting("tieredColoringInfos", tieredColoringInfos,
+            preset.tieredColoringInfos, presetName);
+        enabledExtCompats = mergeSetting("enabledExtCompats", enabledExtCompats,
+            preset.enabledExtCompats, presetName);
+
+        if (preset.mobNBT_Data != null) {
+            if (this.mobNBT_Data != null && preset.mobNBT_Data.doMerge
+                && !preset.mobNBT_Data.isEmpty()) {
+                this.mobNBT_Data.items.addAll(preset.mobNBT_Data.items);
+            } else {
+                this.mobNBT_Data = preset.mobNBT_Data;
+            }
+            ruleSourceNames.put("mobNBT_Data", presetName);
+        }
 
-                    skipSettingValue = true;
-                }
-                if (presetValue instanceof LevellingStrategy) {
-                    if (this.levellingStrategy != null && this.levellingStrategy.getClass()
-                        .equals(presetValue.getClass())) {
-                        this.levellingStrategy.mergeRule((LevellingStrategy) presetValue);
-                    } else {
-                        this.levellingStrategy = (LevellingStrategy) presetValue;
-                    }
-                    skipSettingValue = true;
-                }
+        allowedEntities = mergeModalList("allowedEntities", allowedEntities,
+            preset.allowedEntities, presetName);
+        conditions_SkyLightLevel = mergeSetting("conditions_SkyLightLevel",
+            conditions_SkyLightLevel, preset.conditions_SkyLightLevel, presetName);
+        conditions_Worlds = mergeModalList("conditions_Worlds", conditions_Worlds,
+            preset.conditions_Worlds, presetName);
+        conditions_Entities = mergeModalList("conditions_Entities", conditions_Entities,
+            preset.conditions_Entities, presetName);
+        conditions_Biomes = mergeModalList("conditions_Biomes", conditions_Biomes,
+            preset.conditions_Biomes, presetName);
+        conditions_ApplyPlugins = mergeModalList("conditions_ApplyPlugins",
+            conditions_ApplyPlugins, preset.conditions_ApplyPlugins, presetName);
+        conditions_CustomNames = mergeModalList("conditions_CustomNames", conditions_CustomNames,
+            preset.conditions_CustomNames, presetName);
+        conditions_NoDropEntities = mergeModalList("conditions_NoDropEntities",
+            conditions_NoDropEntities, preset.conditions_NoDropEntities, presetName);
+        conditions_WGRegions = mergeModalList("conditions_WGRegions", conditions_WGRegions,
+            preset.conditions_WGRegions, presetName);
+        conditions_WGRegionOwners = mergeModalList("conditions_WGRegionOwners",
+            conditions_WGRegionOwners, preset.conditions_WGRegionOwners, presetName);
+        conditions_MM_Names = mergeModalList("conditions_MM_Names", conditions_MM_Names,
+            preset.conditions_MM_Names, presetName);
+        conditions_SpawnerNames = mergeModalList("conditions_SpawnerNames",
+            conditions_SpawnerNames, preset.conditions_SpawnerNames, presetName);
+        conditions_SpawnegEggNames = mergeModalList("conditions_SpawnegEggNames",
+            conditions_SpawnegEggNames, preset.conditions_SpawnegEggNames, presetName);
+        conditions_ScoreboardTags = mergeModalList("conditions_ScoreboardTags",
+            conditions_ScoreboardTags, preset.conditions_ScoreboardTags, presetName);
+        conditions_WorldTickTime = mergeModalList("conditions_WorldTickTime",
+            conditions_WorldTickTime, preset.conditions_WorldTickTime, presetName);
+        vanillaBonuses = mergeModalList("vanillaBonuses", vanillaBonuses, preset.vanillaBonuses,
+            presetName);
+        conditions_SpawnReasons = mergeModalList("conditions_SpawnReasons",
+            conditions_SpawnReasons, preset.conditions_SpawnReasons, presetName);
+        conditions_Permission = mergeModalList("conditions_Permission", conditions_Permission,
+            preset.conditions_Permission, presetName);
+        conditions_WithinCoords = mergeSetting("conditions_WithinCoords",
+            conditions_WithinCoords, preset.conditions_WithinCoords, presetName);
+
+        if (preset.allMobMultipliers != null) {
+            if (this.allMobMultipliers == null) {
+                this.allMobMultipliers = preset.allMobMultipliers.cloneItem();
+            } else {
+                this.allMobMultipliers.mergeAttributes(preset.allMobMultipliers);
+            }
+            ruleSourceNames.put("allMobMultipliers", presetName);
+        }
+        if (preset.specificMobMultipliers != null) {
+            if (this.specificMobMultipliers == null) {
+                this.specificMobMultipliers = new TreeMap<>();
+            }
+            for (final Map.Entry<String, FineTuningAttributes> entityType :
+                preset.specificMobMultipliers.entrySet()) {
+                this.specificMobMultipliers.put(entityType.getKey(),
+                    entityType.getValue().cloneItem());
+            }
+            ruleSourceNames.put("specificMobMultipliers", presetName);
+        }
+    }
 
-                if (presetValue instanceof TieredColoringInfo) {
-                    this.getClass().getDeclaredField(f.getName())
-                        .set(this, ((TieredColoringInfo) presetValue).cloneItem());
-                    skipSettingValue = true;
-                }
+    /**
+     * @return the preset's value, or the current value if the preset doesn't set it. Default
+     * values such as false, 0, 0.0 and NOT_SPECIFIED don't replace the current value
+     */
+    private <T> @Nullable T mergeSetting(final @NotNull String settingName,
+        final @Nullable T currentValue, final @Nullable T presetValue,
+        final @NotNull String presetName) {
+        if (presetValue == null
+            || presetValue instanceof final Boolean bool && !bool
+            || presetValue instanceof final Integer integer && integer == 0
+            || presetValue instanceof final Double dbl && dbl == 0.0
+            || presetValue == MobCustomNameStatus.NOT_SPECIFIED
+            || presetValue == MobTamedStatus.NOT_SPECIFIED) {
+            return currentValue;
+        }
 
-                if (presetValue == MobCustomNameStatus.NOT_SPECIFIED) {
-                    continue;
-                }
-                if (presetValue == MobTamedStatus.NOT_SPECIFIED) {
-                    continue;
-                }
+        this.ruleSourceNames.put(settingName, presetName);
+        return presetValue;
+    }
 
-                // skip default values such as false, 0, 0.0
-                if (presetValue instanceof Boolean && !((Boolean) presetValue)) {
-                    continue;
-                }
-                if (presetValue instanceof Integer && ((Integer) presetValue == 0)) {
-                    continue;
-                }
-                if (presetValue instanceof Double && ((Double) presetValue == 0.0)) {
-                    continue;
-                }
+    @SuppressWarnings("unchecked")
+    private <T extends Comparable<T>> @Nullable CachedModalList<T> mergeModalList(
+        final @NotNull String settingName, final @Nullable CachedModalList<T> currentList,
+        final @Nullable CachedModalList<T> presetList, final @NotNull String presetName) {
+        if (presetList == null) {
+            return currentList;
+        }
 
-                if (!skipSettingValue) {
-                    this.getClass().getDeclaredField(f.getName()).set(this, presetValue);
-                }
-                this.ruleSourceNames.put(f.getName(), preset.ruleName);
-            }
-        } catch (final IllegalAccessException | NoSuchFieldException e) {
-            e.printStackTrace();
+        this.ruleSourceNames.put(settingName, presetName);
+        if (currentList != null && presetList.doMerge) {
+            currentList.mergeCachedModal(presetList);
+            return currentList;
         }
+
+        return (CachedModalList<T>) presetList.clone();
     }
 
     @NotNull public String formatRulesVisually() {
@@ -15,9 +15,10 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.SortedMap;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
 import me.lokka30.levelledmobs.LevelledMobs;
 import me.lokka30.levelledmobs.LivingEntityInterface;
 import me.lokka30.levelledmobs.managers.ExternalCompatibilityManager;
@@ -25,12 +26,15 @@ import me.lokka30.levelledmobs.managers.WorldGuardIntegration;
 import me.lokka30.levelledmobs.misc.CachedModalList;
 import me.lokka30.levelledmobs.misc.DebugType;
 import me.lokka30.levelledmobs.misc.LivingEntityWrapper;
+import me.lokka30.levelledmobs.misc.MobGroupTable;
 import me.lokka30.levelledmobs.result.RuleCheckResult;
 import me.lokka30.levelledmobs.rules.strategies.LevellingStrategy;
 import me.lokka30.levelledmobs.rules.strategies.RandomLevellingStrategy;
 import me.lokka30.levelledmobs.util.Utils;
+import org.bukkit.Location;
 import org.bukkit.Particle;
 import org.bukkit.World;
+import org.bukkit.block.Biome;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
@@ -46,21 +50,44 @@ public class RulesManager {
 
     public RulesManager(final LevelledMobs main) {
         this.main = main;
-        this.rulesInEffect = new TreeMap<>();
-        this.biomeGroupMappings = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
-        this.ruleNameMappings = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        this.rules = new RulesParsingManager.ParsedRules(Collections.emptyMap(),
+            Collections.emptyMap(), Collections.emptyMap(), new RuleInfo("defaults"),
+            Collections.emptyList(), Collections.emptySortedMap(), Collections.emptyMap(), false,
+            new MobGroupTable(Collections.emptyMap(), Collections.emptySet(),
+                Collections.emptySet(), Collections.emptySet()));
         this.rulesCooldown = new TreeMap<>();
     }
 
     private final LevelledMobs main;
-    @NotNull public final SortedMap<Integer, List<RuleInfo>> rulesInEffect;
-    final Map<String, RuleInfo> ruleNameMappings;
-    @NotNull public final Map<String, List<String>> biomeGroupMappings;
+    // replaced as a whole when rules.yml is reloaded
+    @NotNull private volatile RulesParsingManager.ParsedRules rules;
     final Map<String, List<Instant>> rulesCooldown;
-    public boolean anyRuleHasChance;
     private Instant lastRulesCheck;
+    // keyed by the applicable rules that have a levelling strategy, compared by identity
+    private final Map<List<RuleInfo>, LevellingStrategy> mergedStrategies =
+        new ConcurrentHashMap<>();
+    private final static int MAX_MERGED_STRATEGIES = 1024;
     final static Object ruleLocker = new Object();
 
+    /**
+     * Gets the live rules. Take them once and use that for the whole evaluation so the rules
+     * can't change part way through when rules.yml is reloaded
+     */
+    @NotNull public RulesParsingManager.ParsedRules getRules() {
+        return this.rules;
+    }
+
+    /**
+     * Replaces the live rules with newly parsed ones in a single write
+     */
+    void setRules(final @NotNull RulesParsingManager.ParsedRules rules) {
+        this.rules = rules;
+        clearMergedStrategies();
+        synchronized (ruleLocker) {
+            this.rulesCooldown.clear();
+        }
+    }
+
     public boolean getRuleIsWorldAllowedInAnyRule(final @Nullable World world) {
         if (world == null) {
             return false;
@@ -262,7 +289,7 @@ public class RulesManager {
     }
 
     public boolean isPlayerLevellingEnabled() {
-        for (final List<RuleInfo> rules : this.rulesInEffect.values()) {
+        for (final List<RuleInfo> rules : this.rules.rulesInEffect().values()) {
             if (rules == null) {
                 continue;
             }
@@ -288,11 +315,45 @@ public class RulesManager {
         return maxBlast;
     }
 
+    /**
+     * Gets the levelling strategy from the mob's applicable rules. The strategies are merged once
+     * for each combination of rules and then reused, so the result must not be modified
+     */
     @Nullable public LevellingStrategy getRuleLevellingStrategy(
         @NotNull final LivingEntityWrapper lmEntity) {
+        final List<RuleInfo> strategyRules = new ArrayList<>();
+        for (final RuleInfo ruleInfo : lmEntity.getApplicableRules()) {
+            if (ruleInfo.useRandomLevelling != null && ruleInfo.useRandomLevelling
+                || ruleInfo.levellingStrategy != null) {
+                strategyRules.add(ruleInfo);
+            }
+        }
+
+        if (strategyRules.isEmpty()) {
+            return null;
+        }
+
+        final LevellingStrategy levellingStrategy = this.mergedStrategies.get(strategyRules);
+        if (levellingStrategy != null) {
+            return levellingStrategy;
+        }
+
+        final LevellingStrategy mergedStrategy = mergeLevellingStrategies(strategyRules);
+        if (mergedStrategy != null) {
+            if (this.mergedStrategies.size() >= MAX_MERGED_STRATEGIES) {
+                this.mergedStrategies.clear();
+            }
+            this.mergedStrategies.put(strategyRules, mergedStrategy);
+        }
+
+        return mergedStrategy;
+    }
+
+    @Nullable static LevellingStrategy mergeLevellingStrategies(
+        @NotNull final List<RuleInfo> strategyRules) {
         LevellingStrategy levellingStrategy = null;
 
-        for (final RuleInfo ruleInfo : lmEntity.getApplicableRules()) {
+        for (final RuleInfo ruleInfo : strategyRules) {
             if (ruleInfo.useRandomLevelling != null && ruleInfo.useRandomLevelling) {
                 levellingStrategy = new RandomLevellingStrategy();
             } else if (ruleInfo.levellingStrategy != null) {
@@ -308,6 +369,10 @@ public class RulesManager {
         return levellingStrategy;
     }
 
+    void clearMergedStrategies() {
+        this.mergedStrategies.clear();
+    }
+
     public boolean getRuleMobLevelInheritance(@NotNull final LivingEntityWrapper lmEntity) {
         boolean result = true;
         for (final RuleInfo ruleInfo : lmEntity.getApplicableRules()) {
@@ -349,9 +414,16 @@ public class RulesManager {
             return lmInterface.getSummonedLevel();
         }
 
+        return getMinLevel(lmInterface.getApplicableRules());
+    }
+
+    /**
+     * @return the min level restriction of the rules, also used by the rules simulator
+     */
+    static int getMinLevel(final @NotNull List<RuleInfo> applicableRules) {
         int minLevel = 1;
 
-        for (final RuleInfo ruleInfo : lmInterface.getApplicableRules()) {
+        for (final RuleInfo ruleInfo : applicableRules) {
             if (ruleInfo.restrictions_MinLevel != null) {
                 minLevel = ruleInfo.restrictions_MinLevel;
             }
@@ -361,21 +433,18 @@ public class RulesManager {
     }
 
     public int getRuleMobMaxLevel(@NotNull final LivingEntityInterface lmInterface) {
-        int maxLevel = 0;
-        int firstMaxLevel = -1;
-
-        for (final RuleInfo ruleInfo : lmInterface.getApplicableRules()) {
-            if (ruleInfo.restrictions_MaxLevel != null) {
-                maxLevel = ruleInfo.restrictions_MaxLevel;
-                if (firstMaxLevel < 0 && maxLevel > 0) {
-                    firstMaxLevel = maxLevel;
-                }
-            }
-        }
+        int maxLevel = getMaxLevel(lmInterface.getApplicableRules());
 
         if (maxLevel <= 0 && lmInterface.getSummonedLevel() != null) {
-            if (maxLevel == 0 && firstMaxLevel > 0) {
-                maxLevel = firstMaxLevel;
+            if (maxLevel == 0) {
+                // use the first max level above 0 if a later rule set it back to 0
+                for (final RuleInfo ruleInfo : lmInterface.getApplicableRules()) {
+                    if (ruleInfo.restrictions_MaxLevel != null
+                        && ruleInfo.restrictions_MaxLevel > 0) {
+                        maxLevel = ruleInfo.restrictions_MaxLevel;
+                        break;
+                    }
+                }
             }
 
             int summonedLevel = lmInterface.getSummonedLevel();
@@ -387,6 +456,22 @@ public class RulesManager {
         return maxLevel;
     }
 
+    /**
+     * @return the max level restriction of the rules, 0 or less means the mob isn't levelled.
+     * Also used by the rules simulator
+     */
+    static int getMaxLevel(final @NotNull List<RuleInfo> applicableRules) {
+        int maxLevel = 0;
+
+        for (final RuleInfo ruleInfo : applicableRules) {
+            if (ruleInfo.restrictions_MaxLevel != null) {
+                maxLevel = ruleInfo.restrictions_MaxLevel;
+            }
+        }
+
+        return maxLevel;
+    }
+
     @Nullable public PlayerLevellingOptions getRulePlayerLevellingOptions(
         @NotNull final LivingEntityWrapper lmEntity) {
         PlayerLevellingOptions levellingOptions = null;
@@ -745,6 +830,10 @@ public class RulesManager {
 
     @NotNull public ApplicableRulesResult getApplicableRules(final LivingEntityInterface lmInterface) {
         final ApplicableRulesResult applicableRules = new ApplicableRulesResult();
+        // a wrapper keeps the rules it took first so its groups and rules come from the same parse
+        final RulesParsingManager.ParsedRules rules =
+            lmInterface instanceof final LivingEntityWrapper lmEntity ?
+                lmEntity.getRules() : this.rules;
 
         if (this.lastRulesCheck == null
             || Duration.between(this.lastRulesCheck, Instant.now()).toMillis() > 100) {
@@ -753,8 +842,8 @@ public class RulesManager {
             this.lastRulesCheck = Instant.now();
         }
 
-        for (final List<RuleInfo> rules : rulesInEffect.values()) {
-            for (final RuleInfo ruleInfo : rules) {
+        for (final List<RuleInfo> ruleList : rules.rulesInEffect().values()) {
+            for (final RuleInfo ruleInfo : ruleList) {
                 if (!ruleInfo.ruleIsEnabled || ruleInfo.isTempDisabled) {
                     continue;
                 }
@@ -788,17 +877,105 @@ public class RulesManager {
             }
         }
 
-        boolean hasWorldListSpecified = false;
-        for (final RuleInfo ri : applicableRules.allApplicableRules) {
+        return hasWorldListSpecified(applicableRules.allApplicableRules) ?
+            applicableRules : new ApplicableRulesResult();
+    }
+
+    // the condition checks below only need values that are known when a mob spawns, so the
+    // rules simulator uses the same checks without a server
+
+    /**
+     * @return true if any of the rules has a world list, otherwise no rules apply
+     */
+    static boolean hasWorldListSpecified(final @NotNull List<RuleInfo> applicableRules) {
+        for (final RuleInfo ri : applicableRules) {
             if (ri.conditions_Worlds != null && (!ri.conditions_Worlds.isEmpty()
                 || ri.conditions_Worlds.allowAll)) {
-                hasWorldListSpecified = true;
-                break;
+                return true;
             }
         }
 
-        return hasWorldListSpecified ?
-            applicableRules : new ApplicableRulesResult();
+        return false;
+    }
+
+    /**
+     * @param mobLevel the level of the mob or null if it isn't levelled
+     */
+    static boolean meetsMinLevel(final @NotNull RuleInfo ri, final @Nullable Integer mobLevel) {
+        return ri.conditions_MinLevel == null
+            || mobLevel != null && mobLevel >= ri.conditions_MinLevel;
+    }
+
+    /**
+     * @param mobLevel the level of the mob or null if it isn't levelled
+     */
+    static boolean meetsMaxLevel(final @NotNull RuleInfo ri, final @Nullable Integer mobLevel) {
+        return ri.conditions_MaxLevel == null
+            || mobLevel != null && mobLevel <= ri.conditions_MaxLevel;
+    }
+
+    static boolean meetsWithinCoordinates(final @NotNull RuleInfo ri,
+        final @NotNull Location location) {
+        final WithinCoordinates coords = ri.conditions_WithinCoords;
+        if (coords == null || coords.isEmpty()) {
+            return true;
+        }
+
+        return (!coords.getHasX()
+            || coords.isLocationWithinRange(location.getBlockX(), WithinCoordinates.Axis.X))
+            && (!coords.getHasY()
+            || coords.isLocationWithinRange(location.getBlockY(), WithinCoordinates.Axis.Y))
+            && (!coords.getHasZ()
+            || coords.isLocationWithinRange(location.getBlockZ(), WithinCoordinates.Axis.Z));
+    }
+
+    static boolean meetsWorld(final @NotNull RuleInfo ri, final @NotNull String worldName) {
+        return ri.conditions_Worlds == null
+            || ri.conditions_Worlds.isEnabledInList(worldName, null);
+    }
+
+    static boolean meetsBiome(final @NotNull RuleInfo ri, final @NotNull Biome biome) {
+        return ri.conditions_Biomes == null
+            || Utils.isBiomeInModalList(ri.conditions_Biomes, biome);
+    }
+
+    static boolean meetsSpawnReason(final @NotNull RuleInfo ri,
+        final @NotNull LevelledMobSpawnReason spawnReason,
+        final @Nullable LivingEntityWrapper lmEntity) {
+        return ri.conditions_SpawnReasons == null
+            || ri.conditions_SpawnReasons.isEnabledInList(spawnReason, lmEntity);
+    }
+
+    static boolean meetsApplyAboveY(final @NotNull RuleInfo ri, final int y) {
+        return ri.conditions_ApplyAboveY == null || y >= ri.conditions_ApplyAboveY;
+    }
+
+    static boolean meetsApplyBelowY(final @NotNull RuleInfo ri, final int y) {
+        return ri.conditions_ApplyBelowY == null || y <= ri.conditions_ApplyBelowY;
+    }
+
+    static boolean meetsMinDistanceFromSpawn(final @NotNull RuleInfo ri,
+        final double distanceFromSpawn) {
+        return ri.conditions_MinDistanceFromSpawn == null
+            || distanceFromSpawn >= ri.conditions_MinDistanceFromSpawn;
+    }
+
+    static boolean meetsMaxDistanceFromSpawn(final @NotNull RuleInfo ri,
+        final double distanceFromSpawn) {
+        return ri.conditions_MaxDistanceFromSpawn == null
+            || distanceFromSpawn <= ri.conditions_MaxDistanceFromSpawn;
+    }
+
+    /**
+     * @return a chance roll between 0 and 1 in steps of 0.00001
+     */
+    static float rollChance(final @NotNull RandomGenerator random) {
+        return (float) random.nextInt(0, 100001) * 0.00001F;
+    }
+
+    static boolean meetsChance(final @NotNull RuleInfo ri, final float chanceRoll) {
+        return ri.conditions_Chance == null || ri.conditions_Chance >= 1.0
+            || chanceRoll >= 1.0F - ri.conditions_Chance;
     }
 
     private void checkIfRuleShouldBeTempDisabled(final @NotNull RuleInfo ruleInfo,
@@ -835,8 +1012,11 @@ public class RulesManager {
     @SuppressWarnings("deprecation")
     private boolean isRuleApplicableEntity(final LivingEntityWrapper lmEntity,
                                            @NotNull final RuleInfo ri) {
-        if (ri.conditions_MinLevel != null && (!lmEntity.isLevelled()
-            || lmEntity.getMobLevel() < ri.conditions_MinLevel)) {
+        final Integer mobLevel = ri.conditions_MinLevel == null
+            && ri.conditions_MaxLevel == null || !lmEntity.isLevelled() ?
+            null : lmEntity.getMobLevel();
+
+        if (!meetsMinLevel(ri, mobLevel)) {
             Utils.debugLog(main, DebugType.DENIED_RULE_MAXLEVEL,
                 String.format("&b%s&7, mob: &b%s&7, mob lvl: &b%s&7, rule minlvl: &b%s&7",
                     ri.getRuleName(), lmEntity.getTypeName(), lmEntity.getMobLevel(),
@@ -844,8 +1024,7 @@ public class RulesManager {
             return false;
         }
 
-        if (ri.conditions_MaxLevel != null && (!lmEntity.isLevelled()
-            || lmEntity.getMobLevel() > ri.conditions_MaxLevel)) {
+        if (!meetsMaxLevel(ri, mobLevel)) {
             Utils.debugLog(main, DebugType.DENIED_RULE_MAXLEVEL,
                 String.format("&b%s&7, mob: &b%s&7, mob lvl: &b%s&7, rule maxlvl: &b%s&7",
                     ri.getRuleName(), lmEntity.getTypeName(), lmEntity.getMobLevel(),
@@ -853,8 +1032,11 @@ public class RulesManager {
             return false;
         }
 
-        if (ri.conditions_WithinCoords != null && !ri.conditions_WithinCoords.isEmpty() &&
-            !meetsMaxDistanceCriteria(lmEntity, ri)){
+        if (!meetsWithinCoordinates(ri, lmEntity.getLocation())) {
+            Utils.debugLog(main, DebugType.DENIED_RULE_WITH_COORDINATES, String.format(
+                "entity: %s, coords: %s, %s, %s, criteria: %s", lmEntity.getNameIfBaby(),
+                lmEntity.getLocation().getBlockX(), lmEntity.getLocation().getBlockY(),
+                lmEntity.getLocation().getBlockZ(), ri.conditions_WithinCoords));
             return false;
         }
 
@@ -870,8 +1052,8 @@ public class RulesManager {
             }
         }
 
-        if (ri.conditions_SpawnReasons != null && !ri.conditions_SpawnReasons.isEnabledInList(
-            lmEntity.getSpawnReason(), lmEntity)) {
+        if (ri.conditions_SpawnReasons != null
+            && !meetsSpawnReason(ri, lmEntity.getSpawnReason(), lmEntity)) {
             Utils.debugLog(main, DebugType.DENIED_RULE_SPAWN_REASON,
                 String.format("&b%s&7, mob: &b%s&7, spawn reason: &b%s&7",
                     ri.getRuleName(), lmEntity.getTypeName(), lmEntity.getSpawnReason()));
@@ -1019,33 +1201,6 @@ public class RulesManager {
         return true;
     }
 
-    private boolean meetsMaxDistanceCriteria(final @NotNull LivingEntityWrapper lmEntity, final @NotNull RuleInfo rule){
-        final WithinCoordinates mdr = rule.conditions_WithinCoords;
-
-        if (mdr.getHasX() && !mdr.isLocationWithinRange(lmEntity.getLocation().getBlockX(), WithinCoordinates.Axis.X)){
-            Utils.debugLog(main, DebugType.DENIED_RULE_WITH_COORDINATES, String.format(
-                    "entity: %s, xCoord: %s, startX: %s, endX: %s",
-                    lmEntity.getNameIfBaby(), lmEntity.getLocation().getBlockX(), mdr.startX, mdr.endX));
-            return false;
-        }
-
-        if (mdr.getHasY() && !mdr.isLocationWithinRange(lmEntity.getLocation().getBlockY(), WithinCoordinates.Axis.Y)){
-            Utils.debugLog(main, DebugType.DENIED_RULE_WITH_COORDINATES, String.format(
-                    "entity: %s, yCoord: %s, startY: %s, endY: %s",
-                    lmEntity.getNameIfBaby(), lmEntity.getLocation().getBlockY(), mdr.startY, mdr.endY));
-            return false;
-        }
-
-        if (mdr.getHasZ() && !mdr.isLocationWithinRange(lmEntity.getLocation().getBlockZ(), WithinCoordinates.Axis.Z)){
-            Utils.debugLog(main, DebugType.DENIED_RULE_WITH_COORDINATES, String.format(
-                    "entity: %s, zCoord: %s, startZ: %s, endZ: %s",
-                    lmEntity.getNameIfBaby(), lmEntity.getLocation().getBlockZ(), mdr.startZ, mdr.endZ));
-            return false;
-        }
-
-        return true;
-    }
-
     @Contract("_, _ -> new")
     private @NotNull RuleCheckResult isRuleApplicableInterface(
         final LivingEntityInterface lmInterface, final RuleInfo ri) {
@@ -1069,16 +1224,16 @@ public class RulesManager {
             }
         }
 
-        if (!(lmInterface.isWasSummoned()) && ri.conditions_Worlds != null
-            && !ri.conditions_Worlds.isEnabledInList(lmInterface.getWorld().getName(), null)) {
+        if (!(lmInterface.isWasSummoned())
+            && !meetsWorld(ri, lmInterface.getWorld().getName())) {
             Utils.debugLog(main, DebugType.DENIED_RULE_WORLD_LIST,
                 String.format("&b%s&7, mob: &b%s&7, mob world: &b%s&7",
                     ri.getRuleName(), lmInterface.getTypeName(), lmInterface.getWorld().getName()));
             return new RuleCheckResult(false);
         }
 
-        if (ri.conditions_Biomes != null && !Utils.isBiomeInModalList(ri.conditions_Biomes,
-            lmInterface.getLocation().getBlock().getBiome(), main.rulesManager)) {
+        if (ri.conditions_Biomes != null
+            && !meetsBiome(ri, lmInterface.getLocation().getBlock().getBiome())) {
             Utils.debugLog(main, DebugType.DENIED_RULE_BIOME_LIST,
                 String.format("&b%s&7, mob: &b%s&7, mob biome: &b%s&7",
                     ri.getRuleName(), lmInterface.getTypeName(),
@@ -1134,8 +1289,7 @@ public class RulesManager {
             }
         }
 
-        if (ri.conditions_ApplyAboveY != null
-            && lmInterface.getLocation().getBlockY() < ri.conditions_ApplyAboveY) {
+        if (!meetsApplyAboveY(ri, lmInterface.getLocation().getBlockY())) {
             Utils.debugLog(main, DebugType.DENIED_RULE_Y_LEVEL,
                 String.format("&b%s&7, mob: &b%s&7, y-level: &b%s&7, max-y: &b%s&7",
                     ri.getRuleName(), lmInterface.getTypeName(),
@@ -1143,8 +1297,7 @@ public class RulesManager {
             return new RuleCheckResult(false);
         }
 
-        if (ri.conditions_ApplyBelowY != null
-            && lmInterface.getLocation().getBlockY() > ri.conditions_ApplyBelowY) {
+        if (!meetsApplyBelowY(ri, lmInterface.getLocation().getBlockY())) {
             Utils.debugLog(main, DebugType.DENIED_RULE_Y_LEVEL,
                 String.format("&b%s&7, mob: &b%s&7, y-level: &b%s&7, min-y: &b%s&7",
                     ri.getRuleName(), lmInterface.getTypeName(),
@@ -1153,7 +1306,7 @@ public class RulesManager {
         }
 
         if (ri.conditions_MinDistanceFromSpawn != null) {
-            if (lmInterface.getDistanceFromSpawn() < ri.conditions_MinDistanceFromSpawn) {
+            if (!meetsMinDistanceFromSpawn(ri, lmInterface.getDistanceFromSpawn())) {
                 Utils.debugLog(main, DebugType.DENIED_RULE_MIN_SPAWN_DISTANCE,
                     String.format("&b%s&7, mob: &b%s&7, spawn-distance: &b%s&7, min-sd: &b%s&7",
                         ri.getRuleName(), lmInterface.getTypeName(),
@@ -1164,7 +1317,7 @@ public class RulesManager {
         }
 
         if (ri.conditions_MaxDistanceFromSpawn != null) {
-            if (lmInterface.getDistanceFromSpawn() > ri.conditions_MaxDistanceFromSpawn) {
+            if (!meetsMaxDistanceFromSpawn(ri, lmInterface.getDistanceFromSpawn())) {
                 Utils.debugLog(main, DebugType.DENIED_RULE_MAX_SPAWN_DISTANCE,
                     String.format("&b%s&7, mob: &b%s&7, spawn-distance: &b%s&7, min-sd: &b%s&7",
                         ri.getRuleName(), lmInterface.getTypeName(),
@@ -1197,9 +1350,8 @@ public class RulesManager {
                 }
             }
 
-            final float chanceRole =
-                (float) ThreadLocalRandom.current().nextInt(0, 100001) * 0.00001F;
-            if (chanceRole < (1.0F - ri.conditions_Chance)) {
+            final float chanceRole = rollChance(ThreadLocalRandom.current());
+            if (!meetsChance(ri, chanceRole)) {
                 Utils.debugLog(main, DebugType.DENIED_RULE_CHANCE,
                     String.format("&b%s&7, mob: &b%s&7, chance: &b%s&7, chance role: &b%s&7",
                         ri.getRuleName(), lmInterface.getTypeName(), ri.conditions_Chance,
@@ -1242,20 +1394,22 @@ public class RulesManager {
         return perms.isBlacklist();
     }
 
-    public void buildBiomeGroupMappings(final Map<String, Set<String>> customBiomeGroups) {
-        this.biomeGroupMappings.clear();
+    static @NotNull Map<String, List<String>> buildBiomeGroupMappings(
+        final Map<String, Set<String>> customBiomeGroups) {
+        final Map<String, List<String>> biomeGroupMappings = new TreeMap<>(
+            String.CASE_INSENSITIVE_ORDER);
 
-        this.biomeGroupMappings.put("SNOWY_BIOMES",
+        biomeGroupMappings.put("SNOWY_BIOMES",
             List.of("SNOWY_TUNDRA", "ICE_SPIKES", "SNOWY_TAIGA", "SNOWY_TAIGA_MOUNTAINS",
                 "SNOWY_TAIGA_HILLS", "FROZEN_RIVER", "SNOWY_BEACH", "SNOWY_MOUNTAINS"));
 
-        this.biomeGroupMappings.put("COLD_BIOMES",
+        biomeGroupMappings.put("COLD_BIOMES",
             List.of("MOUNTAINS", "GRAVELLY_MOUNTAINS", "MODIFIED_GRAVELLY_MOUNTAINS",
                 "WOODED_MOUNTAINS", "TAIGA", "TAIGA_MOUNTAINS", "TAIGA_HILLS", "GIANT_TREE_TAIGA",
                 "GIANT_TREE_TAIGA_HILLS",
                 "GIANT_SPRUCE_TAIGA", "GIANT_SPRUCE_TAIGA_HILLS", "STONE_SHORE"));
 
-        this.biomeGroupMappings.put("TEMPERATE_BIOMES",
+        biomeGroupMappings.put("TEMPERATE_BIOMES",
             List.of("PLAINS", "SUNFLOWER_PLAINS", "FOREST", "FLOWER_FOREST",
                 "BIRCH_FOREST", "BIRCH_FOREST_HILLS", "TALL_BIRCH_FOREST", "TALL_BIRCH_HILLS",
                 "DARK_FOREST", "DARK_FOREST_HILLS",
@@ -1264,37 +1418,39 @@ public class RulesManager {
                 "BAMBOO_JUNGLE_HILLS", "RIVER", "BEACH", "MUSHROOM_FIELDS", "MUSHROOM_FIELD_SHORE",
                 "WOODED_HILLS"));
 
-        this.biomeGroupMappings.put("DRY_BIOMES",
+        biomeGroupMappings.put("DRY_BIOMES",
             List.of("DESERT", "DESERT_LAKES", "DESERT_HILLS", "SAVANNA",
                 "SHATTERED_SAVANNA", "SHATTERED_SAVANNA_PLATEAU", "BADLANDS", "ERODED_BADLANDS",
                 "WOODED_BADLANDS_PLATEAU",
                 "BADLANDS_PLATEAU", "SAVANNA_PLATEAU", "MODIFIED_BADLANDS_PLATEAU",
                 "MODIFIED_WOODED_BADLANDS_PLATEAU", "MODIFIED_SAVANNA_PLATEAU"));
 
-        this.biomeGroupMappings.put("OCEAN_BIOMES",
+        biomeGroupMappings.put("OCEAN_BIOMES",
             List.of("WARM_OCEAN", "DEEP_WARM_OCEAN", "LUKEWARM_OCEAN", "DEEP_LUKEWARM_OCEAN",
                 "OCEAN",
                 "DEEP_OCEAN", "COLD_OCEAN", "DEEP_COLD_OCEAN", "FROZEN_OCEAN",
                 "DEEP_FROZEN_OCEAN"));
 
-        this.biomeGroupMappings.put("NETHER_BIOMES",
+        biomeGroupMappings.put("NETHER_BIOMES",
             List.of("NETHER_WASTES", "CRIMSON_FOREST", "WARPED_FOREST", "SOUL_SAND_VALLEY",
                 "BASALT_DELTAS"));
 
-        this.biomeGroupMappings.put("END_BIOMES",
+        biomeGroupMappings.put("END_BIOMES",
             List.of("THE_END", "SMALL_END_ISLANDS", "END_MIDLANDS", "END_HIGHLANDS",
                 "END_BARRENS"));
 
         if (customBiomeGroups == null) {
-            return;
+            return biomeGroupMappings;
         }
 
         for (final Map.Entry<String, Set<String>> groupName : customBiomeGroups.entrySet()) {
             final Set<String> groupMembers = groupName.getValue();
             final List<String> newList = new ArrayList<>(groupMembers.size());
             newList.addAll(groupMembers);
-            this.biomeGroupMappings.put(groupName.getKey(), newList);
+            biomeGroupMappings.put(groupName.getKey(), newList);
         }
+
+        return biomeGroupMappings;
     }
 
     public void clearTempDisabledRulesCounts() {
@@ -1304,6 +1460,7 @@ public class RulesManager {
     }
 
     void checkTempDisabledRules() {
+        final Map<String, RuleInfo> ruleNameMappings = this.rules.ruleNameMappings();
         synchronized (ruleLocker) {
             if (this.rulesCooldown.isEmpty()) {
                 return;
@@ -1312,7 +1469,7 @@ public class RulesManager {
             final Iterator<String> iterator = this.rulesCooldown.keySet().iterator();
             while (iterator.hasNext()) {
                 final String ruleName = iterator.next();
-                final RuleInfo rule = this.ruleNameMappings.get(ruleName);
+                final RuleInfo rule = ruleNameMappings.get(ruleName);
                 if (rule == null || rule.conditions_CooldownTime == null
                     || rule.conditions_CooldownTime <= 0) {
                     if (rule != null) {
@@ -1339,6 +1496,7 @@ public class RulesManager {
     }
 
     @NotNull public String showTempDisabledRules(final boolean isFromConsole) {
+        final Map<String, RuleInfo> ruleNameMappings = this.rules.ruleNameMappings();
         synchronized (ruleLocker) {
             if (this.rulesCooldown.isEmpty()) {
                 final String message = "No rules are currently temporarily disabled";
@@ -1359,7 +1517,7 @@ public class RulesManager {
             }
 
             for (final String ruleName : this.rulesCooldown.keySet()) {
-                final RuleInfo rule = this.ruleNameMappings.get(ruleName);
+                final RuleInfo rule = ruleNameMappings.get(ruleName);
                 if (rule == null || rule.conditions_CooldownTime == null) {
                     continue;
                 }
@@ -7,6 +7,7 @@ package me.lokka30.levelledmobs.rules;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
@@ -15,13 +16,16 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.SortedMap;
 import java.util.TreeMap;
 import java.util.TreeSet;
 import java.util.regex.Pattern;
+import me.lokka30.levelledmobs.Companion;
 import me.lokka30.levelledmobs.LevelledMobs;
 import me.lokka30.levelledmobs.managers.ExternalCompatibilityManager;
 import me.lokka30.levelledmobs.misc.CachedModalList;
 import me.lokka30.levelledmobs.misc.CustomUniversalGroups;
+import me.lokka30.levelledmobs.misc.MobGroupTable;
 import me.lokka30.levelledmobs.misc.YmlParsingHelper;
 import me.lokka30.levelledmobs.rules.strategies.RandomLevellingStrategy;
 import me.lokka30.levelledmobs.rules.strategies.SpawnDistanceStrategy;
@@ -48,8 +52,9 @@ public class RulesParsingManager {
 
     public RulesParsingManager(final LevelledMobs main) {
         this.main = main;
-        this.rulePresets = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
-        this.customRules = new LinkedList<>();
+        this.parsingMobGroups = new TreeMap<>();
+        this.parsingBiomeGroupMappings = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        this.parsingPresets = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
         this.ymlHelper = new YmlParsingHelper();
         this.emptyArrayPattern = Pattern.compile("\\[\\s+?]|\\[]");
     }
@@ -57,10 +62,11 @@ public class RulesParsingManager {
     final private LevelledMobs main;
     final private YmlParsingHelper ymlHelper;
     private RuleInfo parsingInfo;
-    @NotNull public final Map<String, RuleInfo> rulePresets;
-    @NotNull public List<RuleInfo> customRules;
-    public RuleInfo defaultRule;
     private Map<String, Set<String>> customBiomeGroups;
+    // used while parsing so the live rules aren't changed until the parsed rules are applied
+    private Map<String, Set<String>> parsingMobGroups;
+    private Map<String, List<String>> parsingBiomeGroupMappings;
+    private Map<String, RuleInfo> parsingPresets;
     private final Pattern emptyArrayPattern;
     private final static String ml_AllowedItems = "allowed-list";
     private final static String ml_AllowedGroups = "allowed-groups";
@@ -68,59 +74,83 @@ public class RulesParsingManager {
     private final static String ml_ExcludedGroups = "excluded-groups";
 
     public void parseRulesMain(final @Nullable YamlConfiguration config) {
-        if (config == null) {
-            return;
+        final ParsedRules parsedRules = parseRules(config);
+        if (parsedRules != null) {
+            applyParsedRules(parsedRules);
         }
+    }
 
-        this.rulePresets.clear();
-        this.main.rulesManager.rulesInEffect.clear();
-        this.main.customMobGroups.clear();
+    /**
+     * Parses rules.yml into new collections without touching the rules currently in use, so it
+     * can be called from any thread. Use {@link #applyParsedRules(ParsedRules)} to make them
+     * the live rules.
+     */
+    public synchronized @Nullable ParsedRules parseRules(final @Nullable YamlConfiguration config) {
+        if (config == null) {
+            return null;
+        }
 
+        this.parsingMobGroups = new TreeMap<>();
         parseCustomMobGroups(objTo_CS(config, "mob-groups"));
         parseCustomBiomeGroups(objTo_CS(config, "biome-groups"));
+        // biome groups are resolved when the modal lists are compiled so they must be built first
+        this.parsingBiomeGroupMappings = RulesManager.buildBiomeGroupMappings(customBiomeGroups);
 
+        this.parsingPresets = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
         final List<RuleInfo> presets = parsePresets(objTo_CS(config, "presets"));
         for (final RuleInfo ri : presets) {
-            this.rulePresets.put(ri.presetName, ri);
+            this.parsingPresets.put(ri.presetName, ri);
         }
 
-        this.defaultRule = parseDefaults(objTo_CS(config, "default-rule"));
-        this.main.rulesManager.rulesInEffect.put(Integer.MIN_VALUE, new LinkedList<>());
-        this.main.rulesManager.rulesInEffect.get(Integer.MIN_VALUE).add(defaultRule);
-        this.main.rulesManager.anyRuleHasChance = this.defaultRule.conditions_Chance != null;
+        final SortedMap<Integer, List<RuleInfo>> rulesInEffect = new TreeMap<>();
+        final RuleInfo defaultRule = parseDefaults(objTo_CS(config, "default-rule"));
+        rulesInEffect.put(Integer.MIN_VALUE, new LinkedList<>());
+        rulesInEffect.get(Integer.MIN_VALUE).add(defaultRule);
+        boolean anyRuleHasChance = defaultRule.conditions_Chance != null;
 
-        this.main.rulesManager.buildBiomeGroupMappings(customBiomeGroups);
         final Map<String, RuleInfo> ruleMappings = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
-        this.customRules = parseCustomRules(
+        final List<RuleInfo> customRules = parseCustomRules(
             config.get(ymlHelper.getKeyNameFromConfig(config, "custom-rules")));
         for (final RuleInfo ruleInfo : customRules) {
-            if (!this.main.rulesManager.rulesInEffect.containsKey(ruleInfo.rulePriority)) {
-                this.main.rulesManager.rulesInEffect.put(ruleInfo.rulePriority, new LinkedList<>());
-            }
-
-            this.main.rulesManager.rulesInEffect.get(ruleInfo.rulePriority).add(ruleInfo);
+            rulesInEffect.computeIfAbsent(ruleInfo.rulePriority, k -> new LinkedList<>())
+                .add(ruleInfo);
             ruleMappings.put(ruleInfo.getRuleName(), ruleInfo);
             if (ruleInfo.conditions_Chance != null) {
-                this.main.rulesManager.anyRuleHasChance = true;
+                anyRuleHasChance = true;
             }
         }
 
-        synchronized (RulesManager.ruleLocker) {
-            this.main.rulesManager.ruleNameMappings.clear();
-            this.main.rulesManager.ruleNameMappings.putAll(ruleMappings);
-            this.main.rulesManager.rulesCooldown.clear();
-        }
+        autoGenerateWeightedRandom(rulesInEffect);
 
-        autoGenerateWeightedRandom();
+        // without a plugin, such as in the rules simulator, the groups are built the same as on a
+        // server where the major version is always 1
+        final MobGroupTable mobGroupTable = main != null ?
+            new MobGroupTable(this.parsingMobGroups, main.companion.hostileMobsGroup,
+                main.companion.aquaticMobsGroup, main.companion.passiveMobsGroup) :
+            new MobGroupTable(this.parsingMobGroups, Companion.getHostileMobs(1, false),
+                Companion.getAquaticMobs(1), Companion.getPassiveMobs(1, false));
+
+        return new ParsedRules(Collections.unmodifiableMap(this.parsingMobGroups),
+            Collections.unmodifiableMap(this.parsingBiomeGroupMappings),
+            Collections.unmodifiableMap(this.parsingPresets), defaultRule,
+            Collections.unmodifiableList(customRules),
+            Collections.unmodifiableSortedMap(rulesInEffect),
+            Collections.unmodifiableMap(ruleMappings), anyRuleHasChance, mobGroupTable);
+    }
+
+    /**
+     * Makes the parsed rules the live rules. Must be called from the main thread
+     */
+    public void applyParsedRules(final @NotNull ParsedRules parsedRules) {
+        this.main.rulesManager.setRules(parsedRules);
     }
 
     public @NotNull List<RuleInfo> getAllRules() {
+        final ParsedRules rules = main.rulesManager.getRules();
         final List<RuleInfo> results = new LinkedList<>();
-        if (this.defaultRule != null) {
-            results.add(this.defaultRule);
-        }
-        results.addAll(this.rulePresets.values());
-        results.addAll(this.customRules);
+        results.add(rules.defaultRule());
+        results.addAll(rules.rulePresets().values());
+        results.addAll(rules.customRules());
 
         return results;
     }
@@ -134,7 +164,7 @@ public class RulesParsingManager {
             final List<String> names = cs.getStringList(groupName);
             final Set<String> groupMembers = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
             groupMembers.addAll(names);
-            main.customMobGroups.put(groupName, groupMembers);
+            this.parsingMobGroups.put(groupName, groupMembers);
         }
     }
 
@@ -210,7 +240,7 @@ public class RulesParsingManager {
                 mlpi.configurationKey = "biomes";
                 mlpi.itemName = "Biome";
                 mlpi.supportsGroups = true;
-                mlpi.groupMapping = main.rulesManager.biomeGroupMappings;
+                mlpi.groupMapping = this.parsingBiomeGroupMappings;
                 mlpi.cachedModalList = new CachedModalList<Biome>();
             }
             case SPAWN_REASON -> {
@@ -267,7 +297,7 @@ public class RulesParsingManager {
                 if (group.trim().isEmpty()) {
                     continue;
                 }
-                if (mlpi.groupMapping == null || mlpi.groupMapping.containsKey(group)) {
+                if (mlpi.groupMapping == null || !mlpi.groupMapping.containsKey(group)) {
                     Utils.logger.info(String.format("invalid %s group: %s", mlpi.itemName, group));
                 } else {
                     cachedModalList.allowedGroups.add(group);
@@ -279,7 +309,7 @@ public class RulesParsingManager {
                 if (group.trim().isEmpty()) {
                     continue;
                 }
-                if (!main.rulesManager.biomeGroupMappings.containsKey(group)) {
+                if (mlpi.groupMapping == null || !mlpi.groupMapping.containsKey(group)) {
                     Utils.logger.info(String.format("invalid %s group: %s", mlpi.itemName, group));
                 } else {
                     cachedModalList.excludedGroups.add(group);
@@ -342,9 +372,33 @@ public class RulesParsingManager {
             }
         }
 
+        if (mlpi.type == ModalListParsingTypes.BIOME) {
+            ((CachedModalList<Biome>) cachedModalList).compile(this::getBiomesInGroup);
+        } else {
+            cachedModalList.compile();
+        }
+
         return cachedModalList;
     }
 
+    private @NotNull Collection<Biome> getBiomesInGroup(final @NotNull String groupName) {
+        final List<String> biomeNames = this.parsingBiomeGroupMappings.get(groupName);
+        if (biomeNames == null) {
+            return List.of();
+        }
+
+        final List<Biome> results = new ArrayList<>(biomeNames.size());
+        for (final String biomeName : biomeNames) {
+            try {
+                results.add(Biome.valueOf(biomeName.trim().toUpperCase()));
+            } catch (final IllegalArgumentException ignored) {
+                // the built-in groups contain biome names from older versions
+            }
+        }
+
+        return results;
+    }
+
     private @Nullable CachedModalList<String> buildCachedModalListOfString(final @Nullable ConfigurationSection cs,
         final @NotNull String name, final CachedModalList<String> defaultValue) {
         if (cs == null) {
@@ -393,6 +447,7 @@ public class RulesParsingManager {
             cachedModalList.allowedList.add(item);
         }
         if (cs2 == null) {
+            cachedModalList.compile();
             return cachedModalList;
         }
 
@@ -417,6 +472,7 @@ public class RulesParsingManager {
             return defaultValue;
         }
 
+        cachedModalList.compile();
         return cachedModalList;
     }
 
@@ -454,7 +510,7 @@ public class RulesParsingManager {
                     invalidGroup = true;
                 }
             }
-            if (main.customMobGroups.containsKey(group)) {
+            if (this.parsingMobGroups.containsKey(group)) {
                 results.add(group);
             } else {
                 invalidGroup = true;
@@ -526,14 +582,14 @@ public class RulesParsingManager {
 
         for (String checkName : presets) {
             checkName = checkName.trim();
-            if (!rulePresets.containsKey(checkName)) {
+            if (!parsingPresets.containsKey(checkName)) {
                 Utils.logger.info(
                     parsingInfo.getRuleName() + ", specified preset name '" + checkName
                         + "' but none was found");
                 continue;
             }
 
-            this.parsingInfo.mergePresetRules(rulePresets.get(checkName));
+            this.parsingInfo.mergePresetRules(parsingPresets.get(checkName));
         }
     }
 
@@ -1405,12 +1461,13 @@ public class RulesParsingManager {
         return attribs;
     }
 
-    private void autoGenerateWeightedRandom(){
+    private void autoGenerateWeightedRandom(
+        final @NotNull SortedMap<Integer, List<RuleInfo>> rulesInEffect){
         RandomLevellingStrategy rls = null;
         int minLevel = 1;
         int maxLevel = 1;
 
-        for (final List<RuleInfo> rules : this.main.rulesManager.rulesInEffect.values()) {
+        for (final List<RuleInfo> rules : rulesInEffect.values()) {
             for (final RuleInfo ruleInfo : rules) {
                 if (!"defaults".equals(ruleInfo.getRuleName())) continue;
 
@@ -1488,4 +1545,21 @@ public class RulesParsingManager {
             return null;
         }
     }
+
+    /**
+     * Everything parsed from rules.yml. The live rules are one of these and are replaced as a
+     * whole when rules.yml is reloaded, so a reader that takes them once sees a single parse. The
+     * collections are never modified once parsed
+     */
+    public record ParsedRules(@NotNull Map<String, Set<String>> customMobGroups,
+                              @NotNull Map<String, List<String>> biomeGroupMappings,
+                              @NotNull Map<String, RuleInfo> rulePresets,
+                              @NotNull RuleInfo defaultRule,
+                              @NotNull List<RuleInfo> customRules,
+                              @NotNull SortedMap<Integer, List<RuleInfo>> rulesInEffect,
+                              @NotNull Map<String, RuleInfo> ruleNameMappings,
+                              boolean anyRuleHasChance,
+                              @NotNull MobGroupTable mobGroupTable) {
+
+    }
 }
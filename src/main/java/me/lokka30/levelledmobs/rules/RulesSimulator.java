@@ -0,0 +1,382 @@
+/*
+ * Copyright (c) 2020-2022  lokka30. Use of this source code is governed by the GNU AGPL v3.0 license that can be found in the LICENSE.md file.
+ */
+
+package me.lokka30.levelledmobs.rules;
+
+import java.io.File;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.UUID;
+import me.lokka30.levelledmobs.managers.LevelManager;
+import me.lokka30.levelledmobs.misc.MobGroupTable;
+import me.lokka30.levelledmobs.rules.strategies.LevellingStrategy;
+import me.lokka30.levelledmobs.rules.strategies.RandomLevellingStrategy;
+import me.lokka30.levelledmobs.rules.strategies.SpawnDistanceStrategy;
+import me.lokka30.levelledmobs.rules.strategies.YDistanceStrategy;
+import me.lokka30.levelledmobs.util.Utils;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.block.Biome;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.entity.EntityType;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Runs synthetic spawns against a rules.yml without a server to preview the levels it will
+ * produce and how long the rules take to evaluate. The rules are parsed with
+ * {@link RulesParsingManager} and levels come from the real levelling strategies.
+ * <p>
+ * Only conditions that don't need a live mob are checked: entity types and groups, worlds, biomes,
+ * spawn reasons, y levels, coordinates, distance from spawn, mob level and chance. Group membership
+ * comes from {@link MobGroupTable} the same as on a server. Rules that also have conditions that
+ * need a live mob, such as custom names, plugins, WorldGuard, spawners, permissions or world time,
+ * are assumed to apply and are reported as unknown.
+ * <p>
+ * Conditions and levels use the same methods from {@link RulesManager} and
+ * {@link LevelManager} that levelled mobs use on a server.
+ * <p>
+ * Usage, with the paper-api jar and the SnakeYAML and Guava jars it depends on, on the classpath:
+ * {@code java -cp LevelledMobs.jar:paper-api.jar:snakeyaml.jar:guava.jar
+ * me.lokka30.levelledmobs.rules.RulesSimulator rules.yml [spawns] [radius] [worlds] [seed]}
+ * where worlds is a comma separated list
+ *
+ * @author stumper66
+ * @since 3.8.0
+ */
+public class RulesSimulator {
+
+    private RulesSimulator(final @NotNull RulesParsingManager.ParsedRules parsedRules,
+        final @NotNull List<String> worldNames, final int radius, final long seed) {
+        this.parsedRules = parsedRules;
+        this.radius = radius;
+        this.random = new Random(seed);
+        this.worlds = new ArrayList<>(worldNames.size());
+        for (final String worldName : worldNames) {
+            this.worlds.add(createWorld(worldName));
+        }
+
+        this.entityTypes = new ArrayList<>();
+        for (final EntityType entityType : EntityType.values()) {
+            if (entityType.isAlive() && entityType.isSpawnable()) {
+                this.entityTypes.add(entityType);
+            }
+        }
+        this.biomes = new ArrayList<>();
+        for (final Biome biome : Biome.values()) {
+            if (biome != Biome.CUSTOM) {
+                this.biomes.add(biome);
+            }
+        }
+        this.spawnReasons = LevelledMobSpawnReason.values();
+    }
+
+    private final RulesParsingManager.ParsedRules parsedRules;
+    private final int radius;
+    private final Random random;
+    private final List<World> worlds;
+    private final List<EntityType> entityTypes;
+    private final List<Biome> biomes;
+    private final LevelledMobSpawnReason[] spawnReasons;
+    private final Map<RuleInfo, List<String>> unknownConditions = new IdentityHashMap<>();
+    private final Map<String, Integer> unknownRuleCounts =
+        new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    private final Map<Integer, Integer> levelCounts = new TreeMap<>();
+    private final Map<String, Integer> ruleCounts = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    private final Map<String, long[]> worldLevels = new TreeMap<>();
+    private final Map<List<RuleInfo>, LevellingStrategy> mergedStrategies = new HashMap<>();
+    private final Map<String, RandomLevellingStrategy> randomLevellingCache = new HashMap<>();
+    private int unlevelledCount;
+    private int customDropsCount;
+
+    public static void main(final String @NotNull [] args) {
+        if (args.length < 1) {
+            System.out.println("Usage: RulesSimulator <rules.yml> [spawns] [radius] "
+                + "[world1,world2,...] [seed]");
+            return;
+        }
+
+        final File rulesFile = new File(args[0]);
+        if (!rulesFile.exists()) {
+            System.out.println("File not found: " + rulesFile.getAbsolutePath());
+            return;
+        }
+
+        final int spawns = args.length >= 2 && Utils.isInteger(args[1]) ?
+            Integer.parseInt(args[1]) : 100_000;
+        final int radius = args.length >= 3 && Utils.isInteger(args[2]) ?
+            Integer.parseInt(args[2]) : 5000;
+        final List<String> worldNames = args.length >= 4 ?
+            List.of(args[3].split(",")) : List.of("world", "world_nether", "world_the_end");
+        final long seed = args.length >= 5 && Utils.isInteger(args[4]) ?
+            Long.parseLong(args[4]) : System.currentTimeMillis();
+
+        long started = System.nanoTime();
+        final YamlConfiguration rulesCfg = YamlConfiguration.loadConfiguration(rulesFile);
+        // only parsing is used, nothing is applied to a running plugin
+        final RulesParsingManager.ParsedRules parsedRules =
+            new RulesParsingManager(null).parseRules(rulesCfg);
+        if (parsedRules == null) {
+            System.out.println("Unable to parse " + rulesFile.getName());
+            return;
+        }
+        System.out.printf("Parsed %s in %sms: %s custom rules, %s presets%n", rulesFile.getName(),
+            (System.nanoTime() - started) / 1_000_000L, parsedRules.customRules().size(),
+            parsedRules.rulePresets().size());
+
+        final RulesSimulator simulator = new RulesSimulator(parsedRules, worldNames, radius, seed);
+        started = System.nanoTime();
+        for (int i = 0; i < spawns; i++) {
+            simulator.simulateSpawn();
+        }
+        final long elapsed = System.nanoTime() - started;
+
+        simulator.printResults(spawns, elapsed);
+    }
+
+    private void simulateSpawn() {
+        final World world = worlds.get(random.nextInt(worlds.size()));
+        final SimulatedSpawn spawn = new SimulatedSpawn(
+            entityTypes.get(random.nextInt(entityTypes.size())),
+            new Location(world,
+                random.nextInt(radius * 2 + 1) - radius,
+                random.nextInt(384) - 64,
+                random.nextInt(radius * 2 + 1) - radius),
+            biomes.get(random.nextInt(biomes.size())),
+            spawnReasons[random.nextInt(spawnReasons.length)]);
+
+        final List<RuleInfo> applicableRules = getApplicableRules(spawn);
+        int variance = 0;
+        boolean useCustomDrops = false;
+        final List<RuleInfo> strategyRules = new ArrayList<>();
+        for (final RuleInfo ruleInfo : applicableRules) {
+            if (getUnknownConditions(ruleInfo).isEmpty()) {
+                ruleCounts.merge(ruleInfo.getRuleName(), 1, Integer::sum);
+            } else {
+                unknownRuleCounts.merge(ruleInfo.getRuleName(), 1, Integer::sum);
+            }
+            if (ruleInfo.maxRandomVariance != null) {
+                variance = ruleInfo.maxRandomVariance;
+            }
+            if (ruleInfo.customDrops_UseForMobs != null) {
+                useCustomDrops = ruleInfo.customDrops_UseForMobs;
+            }
+            if (ruleInfo.useRandomLevelling != null && ruleInfo.useRandomLevelling
+                || ruleInfo.levellingStrategy != null) {
+                strategyRules.add(ruleInfo);
+            }
+        }
+
+        // a max level below 1 means the mob isn't levelled, the same as on a server
+        if (applicableRules.isEmpty() || RulesManager.getMaxLevel(applicableRules) < 1) {
+            unlevelledCount++;
+            return;
+        }
+        if (useCustomDrops) {
+            customDropsCount++;
+        }
+
+        // merged once per combination of rules the same as RulesManager does
+        final LevellingStrategy levellingStrategy = strategyRules.isEmpty() ? null :
+            mergedStrategies.computeIfAbsent(strategyRules, RulesManager::mergeLevellingStrategies);
+        final int[] levels = LevelManager.clampLevels(RulesManager.getMinLevel(applicableRules),
+            RulesManager.getMaxLevel(applicableRules));
+        // the variance only applies to the distance strategies
+        final int maxRandomVariance = levellingStrategy instanceof YDistanceStrategy
+            || levellingStrategy instanceof SpawnDistanceStrategy ? variance : 0;
+        final int level = LevelManager.generateLevel(levellingStrategy, spawn.location(),
+            levels[0], levels[1], maxRandomVariance, random, randomLevellingCache);
+        levelCounts.merge(level, 1, Integer::sum);
+        final long[] worldStats = worldLevels.computeIfAbsent(world.getName(), k -> new long[2]);
+        worldStats[0]++;
+        worldStats[1] += level;
+    }
+
+    /**
+     * Matches RulesManager.getApplicableRules for the conditions that can be checked offline
+     */
+    private @NotNull List<RuleInfo> getApplicableRules(final @NotNull SimulatedSpawn spawn) {
+        final List<RuleInfo> results = new ArrayList<>();
+        final double distanceFromSpawn = spawn.location().distance(
+            spawn.location().getWorld().getSpawnLocation());
+        final MobGroupTable.MobGroups mobGroups = parsedRules.mobGroupTable().getGroups(
+            spawn.entityType(), false, spawn.location().getWorld().getEnvironment());
+        final BitSet spawnGroupIds = mobGroups == null ? new BitSet() : mobGroups.groupIds;
+
+        for (final List<RuleInfo> rules : parsedRules.rulesInEffect().values()) {
+            for (final RuleInfo ri : rules) {
+                if (!ri.ruleIsEnabled) {
+                    continue;
+                }
+                // new spawns aren't babies and aren't levelled yet
+                if (ri.conditions_Entities != null && !ri.conditions_Entities.isEntityTypeInList(
+                    spawn.entityType(), false, spawnGroupIds, true)) {
+                    continue;
+                }
+                // new spawns aren't levelled yet
+                if (!RulesManager.meetsMinLevel(ri, null)
+                    || !RulesManager.meetsMaxLevel(ri, null)) {
+                    continue;
+                }
+                if (!RulesManager.meetsWithinCoordinates(ri, spawn.location())
+                    || !RulesManager.meetsWorld(ri, spawn.location().getWorld().getName())
+                    || !RulesManager.meetsBiome(ri, spawn.biome())
+                    || !RulesManager.meetsSpawnReason(ri, spawn.spawnReason(), null)
+                    || !RulesManager.meetsApplyAboveY(ri, spawn.location().getBlockY())
+                    || !RulesManager.meetsApplyBelowY(ri, spawn.location().getBlockY())
+                    || !RulesManager.meetsMinDistanceFromSpawn(ri, distanceFromSpawn)
+                    || !RulesManager.meetsMaxDistanceFromSpawn(ri, distanceFromSpawn)) {
+                    continue;
+                }
+                if (ri.conditions_Chance != null
+                    && !RulesManager.meetsChance(ri, RulesManager.rollChance(random))) {
+                    continue;
+                }
+
+                results.add(ri);
+                if (ri.stopProcessingRules != null && ri.stopProcessingRules) {
+                    break;
+                }
+            }
+        }
+
+        return RulesManager.hasWorldListSpecified(results) ? results : List.of();
+    }
+
+    /**
+     * @return the names of the rule's conditions that need a live mob or server to check
+     */
+    private @NotNull List<String> getUnknownConditions(final @NotNull RuleInfo ri) {
+        return unknownConditions.computeIfAbsent(ri, k -> {
+            final List<String> results = new ArrayList<>();
+            if (ri.conditions_CustomNames != null) {
+                results.add("custom-names");
+            }
+            if (ri.conditions_ApplyPlugins != null) {
+                results.add("apply-plugins");
+            }
+            if (ri.conditions_MM_Names != null) {
+                results.add("mythicmobs-internal-names");
+            }
+            if (ri.conditions_SpawnerNames != null) {
+                results.add("spawner-names");
+            }
+            if (ri.conditions_SpawnegEggNames != null) {
+                results.add("spawn-egg-names");
+            }
+            if (ri.conditions_ScoreboardTags != null) {
+                results.add("scoreboard-tags");
+            }
+            if (ri.conditions_WorldTickTime != null) {
+                results.add("world-time-tick");
+            }
+            if (ri.conditions_Permission != null) {
+                results.add("permission");
+            }
+            if (ri.conditions_WGRegions != null || ri.conditions_WGRegionOwners != null) {
+                results.add("worldguard-regions");
+            }
+            if (ri.conditions_SkyLightLevel != null) {
+                results.add("skylight-level");
+            }
+            if (ri.conditions_MobCustomnameStatus != MobCustomNameStatus.NOT_SPECIFIED) {
+                results.add("mob-customname-status");
+            }
+            if (ri.conditions_MobTamedStatus != MobTamedStatus.NOT_SPECIFIED) {
+                results.add("mob-tamed-status");
+            }
+            if (ri.conditions_CooldownTime != null) {
+                results.add("cooldown-duration");
+            }
+            return results;
+        });
+    }
+
+    private void printResults(final int spawns, final long elapsedNanos) {
+        final int levelled = spawns - unlevelledCount;
+        System.out.printf("Evaluated %,d spawns in %sms (%,d per second)%n", spawns,
+            elapsedNanos / 1_000_000L,
+            elapsedNanos == 0 ? 0 : (long) (spawns / (elapsedNanos / 1_000_000_000.0)));
+        System.out.printf("Levelled: %,d, not levelled: %,d, custom drops enabled: %,d%n",
+            levelled, unlevelledCount, customDropsCount);
+
+        System.out.println();
+        System.out.println("Level distribution:");
+        final int maxCount = levelCounts.values().stream().max(Integer::compare).orElse(1);
+        for (final Map.Entry<Integer, Integer> entry : levelCounts.entrySet()) {
+            System.out.printf("%5s %8s %6.2f%% %s%n", entry.getKey(), entry.getValue(),
+                entry.getValue() * 100.0 / levelled,
+                "#".repeat((int) Math.ceil(entry.getValue() * 50.0 / maxCount)));
+        }
+
+        System.out.println();
+        System.out.println("Average level per world:");
+        for (final Map.Entry<String, long[]> entry : worldLevels.entrySet()) {
+            System.out.printf("  %s: %.2f (%,d spawns)%n", entry.getKey(),
+                (double) entry.getValue()[1] / entry.getValue()[0], entry.getValue()[0]);
+        }
+
+        System.out.println();
+        System.out.println("Rule applied count:");
+        for (final Map.Entry<String, Integer> entry : ruleCounts.entrySet()) {
+            System.out.printf("  %s: %,d (%.2f%%)%n", entry.getKey(), entry.getValue(),
+                entry.getValue() * 100.0 / spawns);
+        }
+
+        if (unknownRuleCounts.isEmpty()) {
+            return;
+        }
+
+        System.out.println();
+        System.out.println(
+            "Unknown, assumed to apply as these conditions can't be checked offline:");
+        for (final Map.Entry<RuleInfo, List<String>> entry : unknownConditions.entrySet()) {
+            final Integer count = unknownRuleCounts.get(entry.getKey().getRuleName());
+            if (count == null || entry.getValue().isEmpty()) {
+                continue;
+            }
+            System.out.printf("  %s: %,d (%.2f%%), %s%n", entry.getKey().getRuleName(), count,
+                count * 100.0 / spawns, String.join(", ", entry.getValue()));
+        }
+    }
+
+    /**
+     * Creates a world that only supports what the levelling strategies need, with spawn at 0, 64,
+     * 0. The environment comes from the name the same as the default worlds are named
+     */
+    private static @NotNull World createWorld(final @NotNull String name) {
+        final UUID worldId = UUID.nameUUIDFromBytes(name.getBytes());
+        final World.Environment environment = name.endsWith("_nether") ?
+            World.Environment.NETHER : name.endsWith("_the_end") ?
+            World.Environment.THE_END : World.Environment.NORMAL;
+        final World[] world = new World[1];
+        world[0] = (World) Proxy.newProxyInstance(World.class.getClassLoader(),
+            new Class<?>[]{World.class}, (proxy, method, methodArgs) ->
+                switch (method.getName()) {
+                    case "getName" -> name;
+                    case "getUID" -> worldId;
+                    case "getEnvironment" -> environment;
+                    case "getSpawnLocation" -> new Location(world[0], 0, 64, 0);
+                    case "hashCode" -> worldId.hashCode();
+                    case "equals" -> proxy == methodArgs[0];
+                    case "toString" -> "SimulatedWorld{" + name + "}";
+                    default -> throw new UnsupportedOperationException(
+                        "Not available when simulating: " + method.getName());
+                });
+
+        return world[0];
+    }
+
+    private record SimulatedSpawn(@NotNull EntityType entityType, @NotNull Location location,
+                                  @NotNull Biome biome,
+                                  @NotNull LevelledMobSpawnReason spawnReason) {
+
+    }
+}
@@ -4,9 +4,6 @@ import me.lokka30.levelledmobs.util.Utils;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.lang.reflect.Field;
-import java.lang.reflect.Modifier;
-
 public class WithinCoordinates {
     public Integer startX;
     public Integer startY;
@@ -53,19 +50,9 @@ public class WithinCoordinates {
     }
 
     public boolean isEmpty(){
-        for (final Field f : this.getClass().getDeclaredFields()){
-            if (!Modifier.isPublic(f.getModifiers())) continue;
-
-            try {
-                if (f.get(this) != null){
-                    return false;
-                }
-            } catch (IllegalAccessException e) {
-                e.printStackTrace();
-            }
-        }
-
-        return true;
+        // an infinity direction only applies to an axis that has a number
+        return startX == null && startY == null && startZ == null
+                && endX == null && endY == null && endZ == null;
     }
 
     public boolean getHasX(){
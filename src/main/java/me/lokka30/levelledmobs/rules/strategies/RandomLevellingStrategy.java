@@ -9,6 +9,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
 import me.lokka30.levelledmobs.misc.LivingEntityWrapper;
 import me.lokka30.levelledmobs.util.Utils;
 import org.jetbrains.annotations.NotNull;
@@ -16,7 +17,8 @@ import org.jetbrains.annotations.Nullable;
 
 /**
  * Holds the configuration and logic for applying a levelling system that is based upon random
- * levelling
+ * levelling. Instances can be shared between threads so the generated weighted array is replaced
+ * as a whole instead of being changed in place
  *
  * @author stumper66
  * @since 3.1.0
@@ -28,29 +30,37 @@ public class RandomLevellingStrategy implements LevellingStrategy, Cloneable {
 
     public final @NotNull Map<String, Integer> weightedRandom;
     public boolean doMerge;
-    private int[] randomArray;
-    private int minLevel;
-    private int maxLevel;
+    private volatile WeightedLevels weightedLevels;
     public boolean autoGenerate;
 
     public int generateLevel(final int minLevel, final int maxLevel) {
-        return generateLevel(null, minLevel, maxLevel);
+        return generateLevel(minLevel, maxLevel, ThreadLocalRandom.current());
     }
 
     @Override
     public int generateLevel(final @Nullable LivingEntityWrapper lmEntity, final int minLevel,
                              final int maxLevel) {
         // this function only has lmEmtity to satify the interface requirement
+        return generateLevel(minLevel, maxLevel, ThreadLocalRandom.current());
+    }
+
+    /**
+     * Generates a level from the given random, such as a seeded one for the rules simulator
+     */
+    public int generateLevel(final int minLevel, final int maxLevel,
+        final @NotNull RandomGenerator random) {
         if (this.weightedRandom.isEmpty()) {
-            return getRandomLevel(minLevel, maxLevel);
+            return random.nextInt(minLevel, maxLevel + 1);
         }
 
-        if (this.randomArray == null || minLevel != this.minLevel || maxLevel != this.maxLevel) {
-            populateWeightedRandom(minLevel, maxLevel);
+        WeightedLevels levels = this.weightedLevels;
+        if (levels == null || levels.minLevel() != minLevel || levels.maxLevel() != maxLevel) {
+            levels = buildWeightedLevels(minLevel, maxLevel);
+            this.weightedLevels = levels;
         }
 
-        final int useArrayNum = ThreadLocalRandom.current().nextInt(0, this.randomArray.length);
-        return this.randomArray[useArrayNum];
+        final int[] randomArray = levels.levels();
+        return randomArray[random.nextInt(0, randomArray.length)];
     }
 
     public void populateWeightedRandom(final int minLevel, final int maxLevel) {
@@ -58,8 +68,10 @@ public class RandomLevellingStrategy implements LevellingStrategy, Cloneable {
             return;
         }
 
-        this.minLevel = minLevel;
-        this.maxLevel = maxLevel;
+        this.weightedLevels = buildWeightedLevels(minLevel, maxLevel);
+    }
+
+    private @NotNull WeightedLevels buildWeightedLevels(final int minLevel, final int maxLevel) {
         int count = 0;
         final List<int[]> numbers = new LinkedList<>();
         final List<Integer> values = new LinkedList<>();
@@ -107,7 +119,7 @@ public class RandomLevellingStrategy implements LevellingStrategy, Cloneable {
         count -= numbersUsed.size();
         count += overallNumberRange.size();
 
-        this.randomArray = new int[count];
+        final int[] randomArray = new int[count];
         int newCount = 0;
         int valuesCount = 0;
 
@@ -119,7 +131,7 @@ public class RandomLevellingStrategy implements LevellingStrategy, Cloneable {
                 }
                 overallNumberRange.remove(Integer.valueOf(i));
                 for (int t = 0; t < values.get(valuesCount); t++) {
-                    this.randomArray[newCount] = i;
+                    randomArray[newCount] = i;
                     newCount++;
                 }
             }
@@ -127,9 +139,11 @@ public class RandomLevellingStrategy implements LevellingStrategy, Cloneable {
         }
 
         for (final int number : overallNumberRange) {
-            this.randomArray[newCount] = number;
+            randomArray[newCount] = number;
             newCount++;
         }
+
+        return new WeightedLevels(minLevel, maxLevel, randomArray);
     }
 
     private int[] parseNumberRange(final String range) {
@@ -164,10 +178,6 @@ public class RandomLevellingStrategy implements LevellingStrategy, Cloneable {
         return results;
     }
 
-    private int getRandomLevel(final int minLevel, final int maxLevel) {
-        return ThreadLocalRandom.current().nextInt(minLevel, maxLevel + 1);
-    }
-
     @Override
     public void mergeRule(final LevellingStrategy levellingStrategy) {
         if (!(levellingStrategy instanceof final RandomLevellingStrategy randomLevelling)) {
@@ -181,12 +191,11 @@ public class RandomLevellingStrategy implements LevellingStrategy, Cloneable {
 
     @Override
     public RandomLevellingStrategy cloneItem() {
-        RandomLevellingStrategy copy = null;
-        try {
-            copy = (RandomLevellingStrategy) super.clone();
-        } catch (final Exception e) {
-            e.printStackTrace();
-        }
+        // weightedRandom is copied so merging into the clone doesn't change this one
+        final RandomLevellingStrategy copy = new RandomLevellingStrategy();
+        copy.weightedRandom.putAll(this.weightedRandom);
+        copy.doMerge = this.doMerge;
+        copy.autoGenerate = this.autoGenerate;
 
         return copy;
     }
@@ -199,10 +208,16 @@ public class RandomLevellingStrategy implements LevellingStrategy, Cloneable {
                 return "RandomLevellingStrategy";
         }
 
-        if (minLevel == 0) {
+        final WeightedLevels levels = this.weightedLevels;
+        if (levels == null || levels.minLevel() == 0) {
             return this.weightedRandom.toString();
         }
 
-        return String.format("%s-%s: %s", this.minLevel, this.maxLevel, this.weightedRandom);
+        return String.format("%s-%s: %s", levels.minLevel(), levels.maxLevel(),
+            this.weightedRandom);
+    }
+
+    private record WeightedLevels(int minLevel, int maxLevel, int @NotNull [] levels) {
+
     }
 }
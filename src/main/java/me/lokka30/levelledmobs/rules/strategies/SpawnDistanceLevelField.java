@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2020-2022  lokka30. Use of this source code is governed by the GNU AGPL v3.0 license that can be found in the LICENSE.md file.
+ */
+
+package me.lokka30.levelledmobs.rules.strategies;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Caches how many level steps away from spawn the blocks are for a {@link SpawnDistanceStrategy}.
+ * Each chunk is split into 16 block high bands. When every block in a band is the same number of
+ * steps from spawn, which is most of them, only that number is cached. Otherwise the band is marked
+ * so its blocks are worked out directly, which is only a few multiplications.
+ * <p>
+ * Bands are kept in a fixed size table per world where a new band replaces whatever was in its
+ * slot. Entries are immutable so the table is read and written without a lock, and a lost race
+ * only means a band is worked out again. The world spawn is cached for all strategies and is
+ * reset by {@link #invalidateWorldSpawn(World)} when it changes.
+ *
+ * @author stumper66
+ * @since 3.8.0
+ */
+class SpawnDistanceLevelField {
+
+    SpawnDistanceLevelField(final @NotNull SpawnDistanceStrategy strategy) {
+        this.strategy = strategy;
+        this.worlds = new ConcurrentHashMap<>();
+    }
+
+    private final static int BANDS_PER_WORLD = 4096;
+    private final static int NOT_UNIFORM = Integer.MIN_VALUE;
+    private final static Map<UUID, SpawnPoint> worldSpawns = new ConcurrentHashMap<>();
+    private final SpawnDistanceStrategy strategy;
+    private final Map<UUID, WorldField> worlds;
+
+    /**
+     * Forgets the cached spawn of the world so it is read again on its next use
+     */
+    static void invalidateWorldSpawn(final @NotNull World world) {
+        worldSpawns.remove(world.getUID());
+    }
+
+    /**
+     * @return the distance from spawn divided by the increase level distance, before any min
+     * level, max level or variance is applied
+     */
+    int getLevelSteps(final @NotNull World world, final int x, final int y, final int z) {
+        final SpawnPoint spawn = worldSpawns.computeIfAbsent(world.getUID(), k -> {
+            final Location spawnLocation = world.getSpawnLocation();
+            return new SpawnPoint(spawnLocation.getBlockX(), spawnLocation.getBlockY(),
+                spawnLocation.getBlockZ());
+        });
+        final int spawnX = strategy.spawnLocation_X == null ? spawn.x() : strategy.spawnLocation_X;
+        final int spawnZ = strategy.spawnLocation_Z == null ? spawn.z() : strategy.spawnLocation_Z;
+
+        WorldField worldField = worlds.get(world.getUID());
+        if (worldField == null || worldField.spawnX != spawnX || worldField.spawnY != spawn.y()
+            || worldField.spawnZ != spawnZ) {
+            worldField = new WorldField(spawnX, spawn.y(), spawnZ);
+            worlds.put(world.getUID(), worldField);
+        }
+
+        final long bandKey = ((long) (x >> 4) & 0x3FFFFFL) << 42
+            | ((long) (z >> 4) & 0x3FFFFFL) << 20
+            | (long) (y >> 4) & 0xFFFFFL;
+        final int slot = (int) ((bandKey ^ bandKey >>> 21 ^ bandKey >>> 42)
+            & (BANDS_PER_WORLD - 1));
+        Band band = worldField.bands[slot];
+        if (band == null || band.key() != bandKey) {
+            band = new Band(bandKey, computeBandSteps(worldField, x & ~15, y & ~15, z & ~15));
+            worldField.bands[slot] = band;
+        }
+
+        return band.steps() != NOT_UNIFORM ?
+            band.steps() : computeLevelSteps(worldField, x, y, z);
+    }
+
+    /**
+     * @return the level steps shared by every block in the band or NOT_UNIFORM if they differ
+     */
+    private int computeBandSteps(final @NotNull WorldField worldField, final int minX,
+        final int minY, final int minZ) {
+        // the nearest and furthest points of the band from spawn, checked one axis at a time
+        final long nearX = axisDistance(worldField.spawnX, minX, false);
+        final long nearY = axisDistance(worldField.spawnY, minY, false);
+        final long nearZ = axisDistance(worldField.spawnZ, minZ, false);
+        final long farX = axisDistance(worldField.spawnX, minX, true);
+        final long farY = axisDistance(worldField.spawnY, minY, true);
+        final long farZ = axisDistance(worldField.spawnZ, minZ, true);
+
+        final int nearSteps = toLevelSteps(nearX * nearX + nearY * nearY + nearZ * nearZ);
+        final int farSteps = toLevelSteps(farX * farX + farY * farY + farZ * farZ);
+        return nearSteps == farSteps ? nearSteps : NOT_UNIFORM;
+    }
+
+    private static long axisDistance(final int spawn, final int min, final boolean furthest) {
+        final int max = min + 15;
+        if (furthest) {
+            return Math.max(Math.abs((long) spawn - min), Math.abs((long) spawn - max));
+        }
+
+        if (spawn < min) {
+            return (long) min - spawn;
+        }
+        return spawn > max ? (long) spawn - max : 0L;
+    }
+
+    private int computeLevelSteps(final @NotNull WorldField worldField, final int x, final int y,
+        final int z) {
+        final long diffX = (long) worldField.spawnX - x;
+        final long diffY = (long) worldField.spawnY - y;
+        final long diffZ = (long) worldField.spawnZ - z;
+        return toLevelSteps(diffX * diffX + diffY * diffY + diffZ * diffZ);
+    }
+
+    private int toLevelSteps(final long distanceSquared) {
+        final int distanceFromSpawn = (int) Math.sqrt(distanceSquared);
+
+        final int startDistance = strategy.startDistance == null ? 0 : strategy.startDistance;
+        final int levelDistance = Math.max(distanceFromSpawn - startDistance, 0);
+        int increaseLevelDistance =
+            strategy.increaseLevelDistance == null ? 1 : strategy.increaseLevelDistance;
+        if (increaseLevelDistance == 0) {
+            increaseLevelDistance = 1;
+        }
+
+        return levelDistance / increaseLevelDistance;
+    }
+
+    private record SpawnPoint(int x, int y, int z) {
+
+    }
+
+    private record Band(long key, int steps) {
+
+    }
+
+    private static class WorldField {
+
+        WorldField(final int spawnX, final int spawnY, final int spawnZ) {
+            this.spawnX = spawnX;
+            this.spawnY = spawnY;
+            this.spawnZ = spawnZ;
+            this.bands = new Band[BANDS_PER_WORLD];
+        }
+
+        final int spawnX;
+        final int spawnY;
+        final int spawnZ;
+        final Band[] bands;
+    }
+}
@@ -4,11 +4,11 @@
 
 package me.lokka30.levelledmobs.rules.strategies;
 
-import java.lang.reflect.Field;
-import java.lang.reflect.Modifier;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
 import me.lokka30.levelledmobs.misc.LivingEntityWrapper;
 import org.bukkit.Location;
+import org.bukkit.World;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -30,6 +30,8 @@ public class SpawnDistanceStrategy implements LevellingStrategy, Cloneable {
     public Integer multiplierPeriod;
     public Double lvlMultiplier;
     public Boolean scaleDownward;
+    // built from the fields above so it is reset whenever they change
+    private volatile SpawnDistanceLevelField levelField;
 
     public void mergeRule(final LevellingStrategy levellingStrategy) {
         if (levellingStrategy instanceof SpawnDistanceStrategy) {
@@ -42,20 +44,35 @@ public class SpawnDistanceStrategy implements LevellingStrategy, Cloneable {
             return;
         }
 
-        try {
-            for (final Field f : sds.getClass().getDeclaredFields()) {
-                if (!Modifier.isPublic(f.getModifiers())) {
-                    continue;
-                }
-                if (f.get(sds) == null) {
-                    continue;
-                }
-
-                this.getClass().getDeclaredField(f.getName()).set(this, f.get(sds));
-            }
-        } catch (final IllegalAccessException | NoSuchFieldException e) {
-            e.printStackTrace();
+        if (sds.startDistance != null) {
+            this.startDistance = sds.startDistance;
+        }
+        if (sds.increaseLevelDistance != null) {
+            this.increaseLevelDistance = sds.increaseLevelDistance;
+        }
+        if (sds.spawnLocation_X != null) {
+            this.spawnLocation_X = sds.spawnLocation_X;
+        }
+        if (sds.spawnLocation_Z != null) {
+            this.spawnLocation_Z = sds.spawnLocation_Z;
+        }
+        if (sds.blendedLevellingEnabled != null) {
+            this.blendedLevellingEnabled = sds.blendedLevellingEnabled;
+        }
+        if (sds.transition_Y_Height != null) {
+            this.transition_Y_Height = sds.transition_Y_Height;
+        }
+        if (sds.multiplierPeriod != null) {
+            this.multiplierPeriod = sds.multiplierPeriod;
         }
+        if (sds.lvlMultiplier != null) {
+            this.lvlMultiplier = sds.lvlMultiplier;
+        }
+        if (sds.scaleDownward != null) {
+            this.scaleDownward = sds.scaleDownward;
+        }
+
+        this.levelField = null;
     }
 
     public String toString() {
@@ -93,50 +110,65 @@ public class SpawnDistanceStrategy implements LevellingStrategy, Cloneable {
 
         if (lmEntity == null) return minLevel;
 
-        Location spawnLocation = lmEntity.getWorld().getSpawnLocation();
-
-        if (this.spawnLocation_Z != null || this.spawnLocation_X != null) {
-            final double useX =
-                this.spawnLocation_X == null ? spawnLocation.getX() : this.spawnLocation_X;
-            final double useZ =
-                this.spawnLocation_Z == null ? spawnLocation.getX() : this.spawnLocation_Z;
-
-            spawnLocation = new Location(
-                lmEntity.getLivingEntity().getWorld(),
-                useX,
-                spawnLocation.getY(),
-                useZ);
-        }
-
-        final int startDistance = this.startDistance == null ? 0 : this.startDistance;
-        final int distanceFromSpawn = (int) spawnLocation.distance(lmEntity.getLocation());
-        final int levelDistance = Math.max(distanceFromSpawn - startDistance, 0);
-
-        int variance = lmEntity.getMainInstance().rulesManager.getRuleMaxRandomVariance(lmEntity);
-        if (variance > 0) {
-            variance = ThreadLocalRandom.current().nextInt(0, variance + 1);
-        }
+        return generateLevel(lmEntity.getLocation(), minLevel, maxLevel,
+            lmEntity.getMainInstance().rulesManager.getRuleMaxRandomVariance(lmEntity),
+            ThreadLocalRandom.current());
+    }
 
-        int increaseLevelDistance =
-            this.increaseLevelDistance == null ? 1 : this.increaseLevelDistance;
-        if (increaseLevelDistance == 0) {
-            increaseLevelDistance = 1;
-        }
+    /**
+     * Generates the level at a location without needing a mob, so the rules simulator levels
+     * the same as a server does
+     *
+     * @param maxRandomVariance the max random variance from the rules, 0 for none
+     */
+    public int generateLevel(final @NotNull Location location, final int minLevel,
+        final int maxLevel, final int maxRandomVariance, final @NotNull RandomGenerator random) {
+        final int variance = maxRandomVariance > 0 ?
+            random.nextInt(0, maxRandomVariance + 1) : 0;
 
         //Get the level thats meant to be at a given distance
         final int spawnDistanceAssignment = Math.min(
-            (levelDistance / increaseLevelDistance) + minLevel + variance, maxLevel);
+            getLevelSteps(location) + minLevel + variance, maxLevel);
         if (this.blendedLevellingEnabled == null || !this.blendedLevellingEnabled) {
             return spawnDistanceAssignment;
         }
 
-        return generateBlendedLevel(lmEntity, spawnDistanceAssignment, minLevel, maxLevel);
+        double result = getBlendedLevel(location.getBlockY(), spawnDistanceAssignment);
+        if (maxRandomVariance > 0) {
+            result += random.nextInt(0, maxRandomVariance + 1);
+        }
+
+        return (int) Math.max(minLevel, Math.min(maxLevel, result));
+    }
+
+    /**
+     * @return the level at the location before any variance is added
+     */
+    public int getBaseLevel(final @NotNull Location location, final int minLevel,
+        final int maxLevel) {
+        return generateLevel(location, minLevel, maxLevel, 0, ThreadLocalRandom.current());
+    }
+
+    /**
+     * Needs to be called when a world's spawn location is changed
+     */
+    public static void invalidateWorldSpawn(final @NotNull World world) {
+        SpawnDistanceLevelField.invalidateWorldSpawn(world);
     }
 
-    private int generateBlendedLevel(@NotNull final LivingEntityWrapper lmEntity,
-        final int spawnDistanceLevelAssignment, final int minLevel, final int maxLevel) {
-        final int currentYPos = lmEntity.getLocation().getBlockY();
+    private int getLevelSteps(final @NotNull Location location) {
+        SpawnDistanceLevelField levelField = this.levelField;
+        if (levelField == null) {
+            levelField = new SpawnDistanceLevelField(this);
+            this.levelField = levelField;
+        }
+
+        return levelField.getLevelSteps(location.getWorld(), location.getBlockX(),
+            location.getBlockY(), location.getBlockZ());
+    }
 
+    private double getBlendedLevel(final int currentYPos,
+        final int spawnDistanceLevelAssignment) {
         double result;
 
         final double transition_Y_Height =
@@ -156,28 +188,16 @@ public class SpawnDistanceStrategy implements LevellingStrategy, Cloneable {
                 * (double) spawnDistanceLevelAssignment);
         }
 
-        result = result < 0.0 ?
+        return result < 0.0 ?
             Math.ceil(result) + spawnDistanceLevelAssignment :
             Math.floor(result) + spawnDistanceLevelAssignment;
-        final int variance = lmEntity.getMainInstance().rulesManager.getRuleMaxRandomVariance(
-            lmEntity);
-        if (variance > 0) {
-            result += ThreadLocalRandom.current().nextInt(0, variance + 1);
-        }
-
-        if (result < minLevel) {
-            result = minLevel;
-        } else if (result > maxLevel) {
-            result = maxLevel;
-        }
-
-        return (int) result;
     }
 
     public SpawnDistanceStrategy cloneItem() {
         SpawnDistanceStrategy copy = null;
         try {
             copy = (SpawnDistanceStrategy) super.clone();
+            copy.levelField = null;
         } catch (final Exception e) {
             e.printStackTrace();
         }
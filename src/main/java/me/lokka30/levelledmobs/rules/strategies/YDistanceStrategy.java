@@ -5,6 +5,7 @@
 package me.lokka30.levelledmobs.rules.strategies;
 
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
 import me.lokka30.levelledmobs.misc.LivingEntityWrapper;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -57,46 +58,59 @@ public class YDistanceStrategy implements LevellingStrategy, Cloneable {
 
         if (lmEntity == null) return minLevel;
 
-        final int mobYLocation = lmEntity.getLivingEntity().getLocation().getBlockY();
+        return generateLevel(lmEntity.getLivingEntity().getLocation().getBlockY(), minLevel,
+            maxLevel, lmEntity.getMainInstance().rulesManager.getRuleMaxRandomVariance(lmEntity),
+            ThreadLocalRandom.current());
+    }
+
+    /**
+     * Generates the level at a y level without needing a mob, so the rules simulator levels
+     * the same as a server does
+     *
+     * @param maxRandomVariance the max random variance from the rules, 0 for none
+     */
+    public int generateLevel(final int mobYLocation, final int minLevel, final int maxLevel,
+        final int maxRandomVariance, final @NotNull RandomGenerator random) {
+        int useLevel = getUnclampedLevel(mobYLocation, minLevel, maxLevel);
+        useLevel += getVariance(maxRandomVariance, useLevel >= maxLevel, random);
+
+        return Math.max(minLevel, Math.min(maxLevel, useLevel));
+    }
+
+    /**
+     * @return the level at the y level before any variance is added
+     */
+    public int getBaseLevel(final int mobYLocation, final int minLevel, final int maxLevel) {
+        return generateLevel(mobYLocation, minLevel, maxLevel, 0, ThreadLocalRandom.current());
+    }
+
+    private int getUnclampedLevel(final int mobYLocation, final int minLevel, final int maxLevel) {
         final int yStart = this.startingYLevel == null ? 0 : this.startingYLevel;
         final int yEnd = this.endingYLevel == null ? 0 : this.endingYLevel;
         final double yPeriod = this.yPeriod == null ? 0.0 : this.yPeriod;
-        int useLevel;
         final double diff = yEnd - yStart;
 
         if (yPeriod > 0) {
             final double lvlPerPeriod = (maxLevel - minLevel) / (diff / yPeriod);
-            useLevel = (int) Math.floor(
+            return (int) Math.floor(
                 minLevel + (lvlPerPeriod * (mobYLocation - yStart) / yPeriod));
         } else {
             final double useMobYLocation = mobYLocation - yStart;
             final double percent = useMobYLocation / diff;
-            useLevel = minLevel + (int) Math.ceil((maxLevel - minLevel) * percent);
+            return minLevel + (int) Math.ceil((maxLevel - minLevel) * percent);
         }
-
-        useLevel += getVariance(lmEntity, useLevel >= maxLevel);
-
-        if (useLevel < minLevel) {
-            useLevel = minLevel;
-        } else if (useLevel > maxLevel) {
-            useLevel = maxLevel;
-        }
-
-        return useLevel;
     }
 
-    private int getVariance(@NotNull final LivingEntityWrapper lmEntity,
-        final boolean isAtMaxLevel) {
-        final int variance = lmEntity.getMainInstance().rulesManager.getRuleMaxRandomVariance(
-            lmEntity);
+    private int getVariance(final int variance, final boolean isAtMaxLevel,
+        final @NotNull RandomGenerator random) {
         if (variance == 0) {
             return 0;
         }
 
-        final int change = ThreadLocalRandom.current().nextInt(0, variance + 1);
+        final int change = random.nextInt(0, variance + 1);
 
         // Start variation. First check if variation is positive or negative towards the original level amount.
-        if (!isAtMaxLevel || ThreadLocalRandom.current().nextBoolean()) {
+        if (!isAtMaxLevel || random.nextBoolean()) {
             // Positive. Add the variation to the final level
             return change;
         } else {
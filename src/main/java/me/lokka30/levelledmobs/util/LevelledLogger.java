@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2020-2022  lokka30. Use of this source code is governed by the GNU AGPL v3.0 license that can be found in the LICENSE.md file.
+ */
+
+package me.lokka30.levelledmobs.util;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import me.lokka30.microlib.messaging.MessageUtils;
+import org.bukkit.Bukkit;
+import org.bukkit.ChatColor;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Logs colorized messages to the server console the same as MicroLogger. When there is no server,
+ * such as when running the rules simulator, the messages are logged without colors instead
+ *
+ * @author stumper66
+ * @since 3.8.0
+ */
+public class LevelledLogger {
+
+    public LevelledLogger(final @NotNull String prefix) {
+        this.prefix = prefix;
+    }
+
+    private final String prefix;
+    private Logger standaloneLogger;
+
+    public void info(final @NotNull String message) {
+        log(Level.INFO, message);
+    }
+
+    public void warning(final @NotNull String message) {
+        log(Level.WARNING, message);
+    }
+
+    public void error(final @NotNull String message) {
+        log(Level.SEVERE, message);
+    }
+
+    private void log(final @NotNull Level level, final @NotNull String message) {
+        if (Bukkit.getServer() != null) {
+            Bukkit.getLogger().log(level, MessageUtils.colorizeAll(prefix + message));
+            return;
+        }
+
+        if (standaloneLogger == null) {
+            standaloneLogger = Logger.getLogger("LevelledMobs");
+        }
+        standaloneLogger.log(level, ChatColor.stripColor(
+            ChatColor.translateAlternateColorCodes('&', prefix + message)));
+    }
+}
@@ -18,9 +18,7 @@ import me.lokka30.levelledmobs.misc.LivingEntityWrapper;
 import me.lokka30.levelledmobs.result.PlayerNetherOrWorldSpawnResult;
 import me.lokka30.levelledmobs.rules.LevelledMobSpawnReason;
 import me.lokka30.levelledmobs.rules.MinAndMax;
-import me.lokka30.levelledmobs.rules.RulesManager;
 import me.lokka30.microlib.messaging.MessageUtils;
-import me.lokka30.microlib.messaging.MicroLogger;
 import me.lokka30.microlib.other.VersionUtils;
 import org.bukkit.Chunk;
 import org.bukkit.Location;
@@ -47,7 +45,7 @@ public final class Utils {
         throw new UnsupportedOperationException();
     }
 
-    @NotNull public static final MicroLogger logger = new MicroLogger("&bLevelledMobs:&7 ");
+    @NotNull public static final LevelledLogger logger = new LevelledLogger("&bLevelledMobs:&7 ");
 
     /**
      * Rounds value to 2 decimal points.
@@ -213,41 +211,7 @@ public final class Utils {
 
     public static boolean isLivingEntityInModalList(@NotNull final CachedModalList<String> list,
         final LivingEntityWrapper lmEntity, final boolean checkBabyMobs) {
-        if (list.allowAll) {
-            return true;
-        }
-        if (list.excludeAll) {
-            return false;
-        }
-        if (list.isEmpty()) {
-            return true;
-        }
-
-        final String checkName = checkBabyMobs ?
-            lmEntity.getNameIfBaby() :
-            lmEntity.getTypeName();
-
-        for (final String group : lmEntity.getApplicableGroups()) {
-            if (list.excludedGroups.contains(group)) {
-                return false;
-            }
-        }
-
-        // for denies we'll check for both baby and adult variants regardless of baby-mobs-inherit-adult-setting
-        if (list.excludedList.contains(lmEntity.getTypeName()) || list.excludedList.contains(
-            lmEntity.getNameIfBaby()) ||
-            lmEntity.isBabyMob() && list.excludedList.contains("baby_")) {
-            return false;
-        }
-
-        for (final String group : lmEntity.getApplicableGroups()) {
-            if (list.allowedGroups.contains(group)) {
-                return true;
-            }
-        }
-
-        return list.isBlacklist() || list.allowedList.contains(checkName) ||
-            lmEntity.isBabyMob() && list.allowedList.contains("baby_");
+        return list.isLivingEntityInList(lmEntity, checkBabyMobs);
     }
 
     public static boolean isIntegerInModalList(@NotNull final CachedModalList<MinAndMax> list,
@@ -283,57 +247,15 @@ public final class Utils {
 
 
     public static boolean isBiomeInModalList(@NotNull final CachedModalList<Biome> list,
-        final Biome biome, final RulesManager rulesManager) {
-        if (list.allowAll) {
-            return true;
-        }
-        if (list.excludeAll) {
-            return false;
-        }
-        if (list.isEmpty()) {
-            return true;
-        }
-
-        for (final String group : list.excludedGroups) {
-            if (rulesManager.biomeGroupMappings.containsKey(group) &&
-                rulesManager.biomeGroupMappings.get(group).contains(biome.toString())) {
-                return false;
-            }
-        }
-
-        if (list.excludedList.contains(biome)) {
-            return false;
-        }
-
-        for (final String group : list.allowedGroups) {
-            if (rulesManager.biomeGroupMappings.containsKey(group) &&
-                rulesManager.biomeGroupMappings.get(group).contains(biome.toString())) {
-                return true;
-            }
-        }
-
-        return list.isBlacklist() || list.allowedList.contains(biome);
+        final Biome biome) {
+        // biome groups are expanded into the compiled list when the rules are parsed
+        return list.isEnabledInList(biome, null);
     }
 
     public static boolean isDamageCauseInModalList(
         @NotNull final CachedModalList<DeathCause> list, final DeathCause cause) {
-        if (list.allowAll) {
-            return true;
-        }
-        if (list.excludeAll) {
-            return false;
-        }
-        if (list.isEmpty()) {
-            return true;
-        }
-
         // note: no group support
-
-        if (list.excludedList.contains(cause)) {
-            return false;
-        }
-
-        return list.isBlacklist() || list.allowedList.contains(cause);
+        return list.isEnabledInList(cause, null);
     }
 
     public static long getMillisecondsFromInstant(final Instant instant) {